@@ -0,0 +1,234 @@
+package au.org.ala.names;
+
+import au.org.ala.bayesian.AnalyserConfig;
+import au.org.ala.bayesian.BayesianException;
+import au.org.ala.bayesian.ClassifierSuggester;
+import au.org.ala.bayesian.Match;
+import au.org.ala.bayesian.MatchMeasurement;
+import au.org.ala.bayesian.MatchOptions;
+import au.org.ala.location.ALALocationClassificationMatcher;
+import au.org.ala.location.AlaLocationClassification;
+import au.org.ala.location.AlaLocationFactory;
+import au.org.ala.names.lucene.LuceneClassifier;
+import au.org.ala.names.lucene.LuceneClassifierSearcher;
+import lombok.Getter;
+import org.cache2k.Cache;
+import org.cache2k.Cache2kBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * The set of indexes and matchers used by a name searcher.
+ * <p>
+ * A name searcher can replace its indexes while it is serving requests.
+ * To allow this, indexes are reference counted in the same way as lucene index readers.
+ * The indexes start with a reference count of one, held by the name searcher.
+ * Each request acquires a reference with {@link #tryIncRef()} and releases it
+ * with {@link #decRef()} when finished.
+ * When the last reference is released, the indexes are closed.
+ * </p>
+ */
+public class ALANameIndexes {
+    private static final Logger logger = LoggerFactory.getLogger(ALANameIndexes.class);
+
+    /** The configuration used to open the indexes */
+    @Getter
+    private final ALANameSearcherConfiguration config;
+    /** The linnaean name searcher */
+    @Getter
+    private final LuceneClassifierSearcher searcher;
+    /** The linnaean name matcher */
+    @Getter
+    private final ALAClassificationMatcher matcher;
+    /** The vernacular name searcher */
+    @Getter
+    private final LuceneClassifierSearcher vernacularSearcher;
+    /** The vernacular name matcher */
+    @Getter
+    private final ALAVernacularClassificationMatcher vernacularMatcher;
+    /** The location searcher */
+    @Getter
+    private final LuceneClassifierSearcher locationSearcher;
+    /** The location matcher */
+    @Getter
+    private final ALALocationClassificationMatcher locationMatcher;
+    /** The cache of vernacular names by taxon identifier, or null for no cache */
+    @Getter
+    private final Cache<String, List<String>> vernacularCache;
+    /** The suggester, built on first use */
+    private final AtomicReference<ClassifierSuggester<LuceneClassifier>> suggester;
+    /** The number of references to these indexes */
+    private final AtomicInteger refCount;
+
+    /**
+     * Open a set of indexes.
+     *
+     * @param config The searcher configuration
+     *
+     * @throws BayesianException if unable to build the matchers
+     * @throws IOException if unable to open the indexes
+     */
+    public ALANameIndexes(ALANameSearcherConfiguration config) throws BayesianException, IOException {
+        this.config = config;
+        if (!this.config.getLinnaean().exists())
+            throw new IllegalArgumentException("Can't find linnaean index " + this.config.getLinnaean());
+        if (!this.config.getVernacular().exists())
+            throw new IllegalArgumentException("Can't find vernacular index " + this.config.getVernacular());
+        if (!this.config.getLocation().exists())
+            throw new IllegalArgumentException("Can't find location index " + this.config.getLocation());
+        LuceneClassifierSearcher locationSearcher = null;
+        ALALocationClassificationMatcher locationMatcher = null;
+        LuceneClassifierSearcher searcher = null;
+        ALAClassificationMatcher matcher = null;
+        LuceneClassifierSearcher vernacularSearcher = null;
+        ALAVernacularClassificationMatcher vernacularMatcher = null;
+        try {
+            locationSearcher = new LuceneClassifierSearcher(this.config.getLocation(), this.config.getSearcherConfiguration(), AlaLocationFactory.locationId, AlaLocationFactory.instance().getObservables());
+            locationMatcher = new ALALocationClassificationMatcher(AlaLocationFactory.instance(), locationSearcher, this.config.getMatcherConfiguration(), AnalyserConfig.load(this.config.getLocation()));
+            Set<String> localities = this.buildLocalities(locationSearcher, locationMatcher, this.config.getLocalities());
+            searcher = new LuceneClassifierSearcher(this.config.getLinnaean(), this.config.getSearcherConfiguration(), AlaLinnaeanFactory.taxonId, AlaLinnaeanFactory.instance().getObservables());
+            matcher = new ALAClassificationMatcher(AlaLinnaeanFactory.instance(), searcher, this.config.getMatcherConfiguration(), AnalyserConfig.load(this.config.getLinnaean()), localities);
+            vernacularSearcher = new LuceneClassifierSearcher(this.config.getVernacular(), this.config.getSearcherConfiguration(), AlaVernacularFactory.taxonId, AlaVernacularFactory.instance().getObservables());
+            vernacularMatcher = new ALAVernacularClassificationMatcher(AlaVernacularFactory.instance(), vernacularSearcher, this.config.getMatcherConfiguration(), AnalyserConfig.load(this.config.getVernacular()));
+        } catch (BayesianException | IOException | RuntimeException ex) {
+            this.closeAll(matcher, vernacularMatcher, locationMatcher, searcher, vernacularSearcher, locationSearcher);
+            throw ex;
+        }
+        this.locationSearcher = locationSearcher;
+        this.locationMatcher = locationMatcher;
+        this.searcher = searcher;
+        this.matcher = matcher;
+        this.vernacularSearcher = vernacularSearcher;
+        this.vernacularMatcher = vernacularMatcher;
+        this.vernacularCache = this.config.getVernacularCacheSize() > 0 ?
+                new Cache2kBuilder<String, List<String>>() {}
+                        .entryCapacity(this.config.getVernacularCacheSize())
+                        .build() :
+                null;
+        this.suggester = new AtomicReference<>();
+        this.refCount = new AtomicInteger(1);
+    }
+
+    /**
+     * Build the locality identifiers for which we can accurately identify a distribution
+     *
+     * @param locationSearcher The location searcher
+     * @param locationMatcher The location matcher
+     * @param names The locality names
+     *
+     * @return The matching locality identifiers
+     *
+     * @throws BayesianException if unable to match a locality
+     */
+    protected Set<String> buildLocalities(LuceneClassifierSearcher locationSearcher, ALALocationClassificationMatcher locationMatcher, Collection<String> names) throws BayesianException {
+        Set<String> localities = new HashSet<>();
+        for (String locality: names) {
+            AlaLocationClassification classification = new AlaLocationClassification();
+            classification.locality = locality;
+            Match<AlaLocationClassification, MatchMeasurement> match = locationMatcher.findMatch(classification, MatchOptions.NONE);
+            if (match.isValid()) {
+                localities.add(match.getAccepted().getIdentifier());
+            } else {
+                LuceneClassifier classifier = locationSearcher.get(AlaLocationFactory.CONCEPT, AlaLocationFactory.locationId, locality);
+                if (classifier != null)
+                    localities.add(locality);
+                else {
+                    throw new IllegalArgumentException("Unable to find locality " + locality);
+                }
+            }
+        }
+        return localities;
+    }
+
+    /**
+     * Get the suggester for these indexes.
+     * <p>
+     * This is lazily built on first use.
+     * </p>
+     *
+     * @param builder The suggester builder
+     *
+     * @return The suggester
+     */
+    public ClassifierSuggester<LuceneClassifier> getSuggester(Function<ALANameIndexes, ClassifierSuggester<LuceneClassifier>> builder) {
+        ClassifierSuggester<LuceneClassifier> current = this.suggester.get();
+        if (current == null) {
+            ClassifierSuggester<LuceneClassifier> built = builder.apply(this);
+            if (this.suggester.compareAndSet(null, built)) {
+                current = built;
+            } else {
+                this.closeAll(built);
+                current = this.suggester.get();
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Try to acquire a reference to these indexes.
+     * <p>
+     * This fails if the indexes have already been closed.
+     * </p>
+     *
+     * @return True if a reference has been acquired
+     */
+    public boolean tryIncRef() {
+        int count;
+        while ((count = this.refCount.get()) > 0) {
+            if (this.refCount.compareAndSet(count, count + 1))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Release a reference to these indexes.
+     * <p>
+     * If this is the last reference, the indexes are closed.
+     * </p>
+     */
+    public void decRef() {
+        int count = this.refCount.decrementAndGet();
+        if (count == 0) {
+            logger.info("Closing indexes for " + this.config.getLinnaean());
+            this.closeAll(this.suggester.getAndSet(null), this.vernacularCache, this.matcher, this.vernacularMatcher, this.locationMatcher, this.searcher, this.vernacularSearcher, this.locationSearcher);
+        } else if (count < 0) {
+            throw new IllegalStateException("Indexes for " + this.config.getLinnaean() + " released too many times");
+        }
+    }
+
+    /**
+     * Get the current reference count.
+     *
+     * @return The number of references, zero if closed
+     */
+    public int getRefCount() {
+        return this.refCount.get();
+    }
+
+    /**
+     * Close a list of resources, logging any errors.
+     *
+     * @param resources The resources to close. Null resources are ignored
+     */
+    private void closeAll(AutoCloseable... resources) {
+        for (AutoCloseable resource: resources) {
+            if (resource == null)
+                continue;
+            try {
+                resource.close();
+            } catch (Exception ex) {
+                logger.error("Unable to close " + resource, ex);
+            }
+        }
+    }
+}
@@ -7,8 +7,10 @@ import au.org.ala.location.AlaLocationClassification;
 import au.org.ala.location.AlaLocationFactory;
 import au.org.ala.names.lucene.LuceneClassifier;
 import au.org.ala.names.lucene.LuceneClassifierSearcher;
+import au.org.ala.names.lucene.LuceneClassifierPrefixSuggester;
 import au.org.ala.names.lucene.LuceneClassifierSearcherConfiguration;
 import au.org.ala.names.lucene.LuceneClassifierSuggester;
+import au.org.ala.names.lucene.LuceneDocValuesClassifier;
 import au.org.ala.vocab.ALATerm;
 import au.org.ala.vocab.BayesianTerm;
 import lombok.Getter;
@@ -16,7 +18,7 @@ import lombok.NonNull;
 import lombok.SneakyThrows;
 import org.apache.commons.text.similarity.CosineDistance;
 import org.apache.commons.text.similarity.EditDistance;
-import org.apache.lucene.store.FSDirectory;
+import org.cache2k.Cache;
 import org.gbif.dwc.terms.DwcTerm;
 import org.gbif.dwc.terms.GbifTerm;
 import org.gbif.dwc.terms.Term;
@@ -24,11 +26,18 @@ import org.gbif.nameparser.api.Rank;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.File;
-import java.io.IOException;
+import javax.management.MBeanServer;
+import javax.management.ObjectInstance;
+import javax.management.ObjectName;
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Name searching interface.
@@ -37,100 +46,353 @@ import java.util.stream.Collectors;
  * name index.
  * </p>
  */
-public class ALANameSearcher implements AutoCloseable {
+public class ALANameSearcher implements AutoCloseable, ALANameSearcherMXBean {
     private static final Logger logger = LoggerFactory.getLogger(ALANameSearcher.class);
 
+    /** The bundled list of names to use for warm-up */
+    public static final String WARMUP_NAMES = "warmup-names.txt";
+
+    /** The configuration of the current indexes */
     @Getter
-    private ALANameSearcherConfiguration config;
-    @Getter
-    private final LuceneClassifierSearcher searcher;
-    @Getter
-    private final ALAClassificationMatcher matcher;
-    @Getter
-    private final LuceneClassifierSearcher vernacularSearcher;
-    @Getter
-    private final ALAVernacularClassificationMatcher vernacularMatcher;
-    @Getter
-    private final LuceneClassifierSearcher locationSearcher;
-    @Getter
-    private final ALALocationClassificationMatcher locationMatcher;
-    private final File suggesterDir;
-    private final AtomicReference<LuceneClassifierSuggester> suggester;
+    private volatile ALANameSearcherConfiguration config;
+    /** The current indexes */
+    private final AtomicReference<ALANameIndexes> indexes;
+    /** Serialises index swaps */
+    private final Object swapLock;
     private final RankAnalysis rankAnalysis;
+    /** The time taken to warm up the searcher, in milliseconds */
+    private volatile long warmupTime;
+    /** The number of queries run during warm-up */
+    private volatile int warmupQueries;
+    /** The number of times the indexes have been swapped */
+    private final AtomicInteger swaps;
+    /** The JMX bean, if registered */
+    private ObjectInstance mbean;
 
     public ALANameSearcher(ALANameSearcherConfiguration config) throws BayesianException, IOException {
         this.config = config;
-        if (!this.config.getLinnaean().exists())
-            throw new IllegalArgumentException("Can't find linnaean index " + this.config.getLinnaean());
-        if (!this.config.getVernacular().exists())
-            throw new IllegalArgumentException("Can't find vernacular index " + this.config.getVernacular());
-        if (!this.config.getLocation().exists())
-            throw new IllegalArgumentException("Can't find location index " + this.config.getLocation());
-        this.locationSearcher = new LuceneClassifierSearcher(this.config.getLocation(), this.config.getSearcherConfiguration(), AlaLocationFactory.locationId);
-        this.locationMatcher = new ALALocationClassificationMatcher(AlaLocationFactory.instance(), this.locationSearcher, this.config.getMatcherConfiguration(), AnalyserConfig.load(this.config.getLocation()));
-        Set<String> localities = this.buildLocalities(this.config.getLocalities());
-        this.searcher = new LuceneClassifierSearcher(this.config.getLinnaean(), this.config.getSearcherConfiguration(), AlaLinnaeanFactory.taxonId);
-        this.matcher = new ALAClassificationMatcher(AlaLinnaeanFactory.instance(), this.searcher, this.config.getMatcherConfiguration(), AnalyserConfig.load(this.config.getLinnaean()), localities);
-        this.vernacularSearcher = new LuceneClassifierSearcher(this.config.getVernacular(), this.config.getSearcherConfiguration(), AlaVernacularFactory.taxonId);
-        this.vernacularMatcher = new ALAVernacularClassificationMatcher(AlaVernacularFactory.instance(), this.vernacularSearcher, this.config.getMatcherConfiguration(), AnalyserConfig.load(this.config.getVernacular()));
-        this.suggesterDir = this.config.getSuggester();
-        this.suggester = new AtomicReference<>();
+        this.swapLock = new Object();
+        this.swaps = new AtomicInteger();
         this.rankAnalysis = new RankAnalysis();
+        ALANameIndexes initial = new ALANameIndexes(this.config);
+        this.indexes = new AtomicReference<>(initial);
+        if (this.config.isWarmup())
+            this.warmup(initial);
+        if (this.config.getMatcherConfiguration().isEnableJmx()) {
+            try {
+                MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+                ObjectName on = new ObjectName(this.getClass().getPackage().getName() + ":type=" + this.getClass().getSimpleName() + ",name=" + this.config.getLinnaean().getName());
+                this.mbean = mbs.registerMBean(this, on);
+            } catch (Exception ex) {
+                logger.error("Unable to register name searcher", ex);
+            }
+        }
      }
 
     /**
-     * Get the suggester.
+     * Acquire a reference to the current indexes.
      * <p>
-     * This is lazily built on first use
+     * The indexes will not be closed until the reference is released with {@link #release(ALANameIndexes)},
+     * even if the searcher has swapped to new indexes in the meantime.
+     * This follows the pattern used by lucene's {@link org.apache.lucene.search.ReferenceManager}
+     * and never blocks.
      * </p>
      *
-     * @return The suggester
+     * @return The current indexes
+     *
+     * @throws IllegalStateException if the searcher has been closed
      */
-     public LuceneClassifierSuggester getSuggester() {
-        if (this.suggester.get() == null) {
-            this.suggester.compareAndSet(null, this.buildSuggester());
+    public ALANameIndexes acquire() {
+        ALANameIndexes current;
+        do {
+            current = this.indexes.get();
+            if (current == null)
+                throw new IllegalStateException("Name searcher is closed");
+            if (current.tryIncRef())
+                return current;
+        } while (current != this.indexes.get() || current.getRefCount() > 0);
+        throw new IllegalStateException("Name searcher indexes closed without being replaced");
+    }
+
+    /**
+     * Release a reference to a set of indexes.
+     *
+     * @param indexes The indexes, previously returned by {@link #acquire()}
+     */
+    public void release(ALANameIndexes indexes) {
+        indexes.decRef();
+    }
+
+    /**
+     * Replace the indexes with a new set of indexes.
+     * <p>
+     * The new indexes are opened, and warmed up if the configuration asks for it, before being swapped in.
+     * Requests already in progress complete using the old indexes, which are closed
+     * once the last request has finished with them.
+     * Requests are not blocked while the swap takes place.
+     * </p>
+     *
+     * @param config The configuration for the new indexes
+     *
+     * @throws BayesianException if unable to build the new matchers
+     * @throws IOException if unable to open the new indexes
+     */
+    public void swap(ALANameSearcherConfiguration config) throws BayesianException, IOException {
+        synchronized (this.swapLock) {
+            if (this.indexes.get() == null)
+                throw new IllegalStateException("Name searcher is closed");
+            logger.info("Opening replacement indexes at " + config.getLinnaean());
+            ALANameIndexes replacement = new ALANameIndexes(config);
+            if (config.isWarmup())
+                this.warmup(replacement);
+            this.config = config;
+            ALANameIndexes old = this.indexes.getAndSet(replacement);
+            this.swaps.incrementAndGet();
+            logger.info("Swapped to indexes at " + config.getLinnaean());
+            if (old != null)
+                old.decRef();
         }
-        return this.suggester.get();
-     }
+    }
 
     /**
-     * Build the locality identifiers for which we can accurately identify a distribution
-     *
-     * @return
-     */
-    protected Set<String> buildLocalities(Collection<String> names) throws BayesianException {
-        Set<String> localities = new HashSet<>();
-        for (String locality: names) {
-            AlaLocationClassification classification = new AlaLocationClassification();
-            classification.locality = locality;
-            Match<AlaLocationClassification, MatchMeasurement> match = this.search(classification, MatchOptions.NONE);
-            if (match.isValid()) {
-                localities.add(match.getAccepted().getIdentifier());
-            } else {
-                LuceneClassifier classifier = this.locationSearcher.get(AlaLocationFactory.CONCEPT, AlaLocationFactory.locationId, locality);
-                if (classifier != null)
-                    localities.add(locality);
-                else {
-                    throw new IllegalArgumentException("Unable to find locality " + locality);
+     * Replace the indexes with a new set of indexes in the background.
+     *
+     * @param config The configuration for the new indexes
+     *
+     * @return A future that completes when the new indexes are in use
+     *
+     * @see #swap(ALANameSearcherConfiguration)
+     */
+    public CompletableFuture<Void> swapAsync(ALANameSearcherConfiguration config) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        Thread worker = new Thread(() -> {
+            try {
+                this.swap(config);
+                future.complete(null);
+            } catch (Throwable ex) {
+                logger.error("Unable to swap to indexes at " + config.getLinnaean(), ex);
+                future.completeExceptionally(ex);
+            }
+        }, "ALANameSearcher-swap");
+        worker.setDaemon(true);
+        worker.start();
+        return future;
+    }
+
+    /**
+     * Get the linnaean searcher for the current indexes.
+     * <p>
+     * If the indexes are swapped, the searcher will be closed once any requests using it have finished.
+     * Use {@link #acquire()} to hold onto a consistent set of indexes.
+     * </p>
+     *
+     * @return The linnaean searcher
+     */
+    public LuceneClassifierSearcher getSearcher() {
+        return this.current().getSearcher();
+    }
+
+    /**
+     * Get the linnaean matcher for the current indexes.
+     *
+     * @return The linnaean matcher
+     *
+     * @see #getSearcher()
+     */
+    public ALAClassificationMatcher getMatcher() {
+        return this.current().getMatcher();
+    }
+
+    /**
+     * Get the vernacular searcher for the current indexes.
+     *
+     * @return The vernacular searcher
+     *
+     * @see #getSearcher()
+     */
+    public LuceneClassifierSearcher getVernacularSearcher() {
+        return this.current().getVernacularSearcher();
+    }
+
+    /**
+     * Get the vernacular matcher for the current indexes.
+     *
+     * @return The vernacular matcher
+     *
+     * @see #getSearcher()
+     */
+    public ALAVernacularClassificationMatcher getVernacularMatcher() {
+        return this.current().getVernacularMatcher();
+    }
+
+    /**
+     * Get the location searcher for the current indexes.
+     *
+     * @return The location searcher
+     *
+     * @see #getSearcher()
+     */
+    public LuceneClassifierSearcher getLocationSearcher() {
+        return this.current().getLocationSearcher();
+    }
+
+    /**
+     * Get the location matcher for the current indexes.
+     *
+     * @return The location matcher
+     *
+     * @see #getSearcher()
+     */
+    public ALALocationClassificationMatcher getLocationMatcher() {
+        return this.current().getLocationMatcher();
+    }
+
+    /**
+     * Get the current indexes, without acquiring a reference.
+     *
+     * @return The current indexes
+     *
+     * @throws IllegalStateException if the searcher has been closed
+     */
+    private ALANameIndexes current() {
+        ALANameIndexes current = this.indexes.get();
+        if (current == null)
+            throw new IllegalStateException("Name searcher is closed");
+        return current;
+    }
+
+    /**
+     * Warm up the searcher.
+     * <p>
+     * A set of representative names is searched for, so that the indexes, caches and
+     * code paths used by typical queries are loaded before the searcher is used.
+     * Failures are logged and ignored.
+     * </p>
+     *
+     * @param indexes The indexes to warm up
+     *
+     * @throws IOException if unable to read the list of names
+     */
+    protected void warmup(ALANameIndexes indexes) throws IOException {
+        long start = System.currentTimeMillis();
+        int queries = 0;
+        File names = indexes.getConfig().getWarmupNames();
+        try (BufferedReader reader = names != null ?
+                new BufferedReader(new InputStreamReader(new FileInputStream(names), StandardCharsets.UTF_8)) :
+                new BufferedReader(new InputStreamReader(ALANameSearcher.class.getResourceAsStream(WARMUP_NAMES), StandardCharsets.UTF_8))) {
+            String name;
+            while ((name = reader.readLine()) != null) {
+                name = name.trim();
+                if (name.isEmpty() || name.startsWith("#"))
+                    continue;
+                AlaLinnaeanClassification template = new AlaLinnaeanClassification();
+                template.scientificName = name;
+                try {
+                    indexes.getMatcher().findMatch(template, MatchOptions.ALL);
+                } catch (Exception ex) {
+                    logger.warn("Unable to search for " + name + " during warm-up", ex);
                 }
+                queries++;
             }
         }
-        return localities;
+        this.warmupQueries = queries;
+        this.warmupTime = System.currentTimeMillis() - start;
+        logger.info("Warmed up " + indexes.getConfig().getLinnaean() + " with " + this.warmupQueries + " queries in " + this.warmupTime + "ms");
     }
 
+    /**
+     * Get the time taken to warm up the searcher
+     *
+     * @return The warm-up time in milliseconds, zero for no warm-up
+     */
+    @Override
+    public long getWarmupTime() {
+        return this.warmupTime;
+    }
+
+    /**
+     * Get the number of queries run during warm-up
+     *
+     * @return The warm-up query count
+     */
+    @Override
+    public int getWarmupQueries() {
+        return this.warmupQueries;
+    }
+
+    /**
+     * Get the number of times the indexes have been swapped
+     *
+     * @return The swap count
+     */
+    @Override
+    public int getSwaps() {
+        return this.swaps.get();
+    }
+
+    /**
+     * Get the number of references held to the current indexes
+     *
+     * @return The reference count, including the searcher's own reference
+     */
+    @Override
+    public int getIndexReferences() {
+        ALANameIndexes current = this.indexes.get();
+        return current == null ? 0 : current.getRefCount();
+    }
+
+    /**
+     * Get the infix suggester for the current indexes.
+     * <p>
+     * This is lazily built on first use
+     * </p>
+     *
+     * @return The suggester
+     *
+     * @throws IllegalStateException if the searcher is configured with a prefix suggester
+     *
+     * @see #getAutocompleteSuggester()
+     */
+     public LuceneClassifierSuggester getSuggester() {
+        ClassifierSuggester<LuceneClassifier> suggester = this.getAutocompleteSuggester();
+        if (!(suggester instanceof LuceneClassifierSuggester))
+            throw new IllegalStateException("Configured suggester is not a LuceneClassifierSuggester: " + suggester.getClass().getName());
+        return (LuceneClassifierSuggester) suggester;
+     }
+
+    /**
+     * Get the configured autocomplete suggester for the current indexes.
+     * <p>
+     * This is lazily built on first use and is either
+     * a {@link LuceneClassifierSuggester} or a {@link LuceneClassifierPrefixSuggester},
+     * depending on the configuration.
+     * </p>
+     *
+     * @return The suggester
+     */
+     public ClassifierSuggester<LuceneClassifier> getAutocompleteSuggester() {
+        return this.current().getSuggester(this::buildSuggester);
+     }
+
     /**
      * Close the searcher
      */
     @Override
     public void close() throws Exception {
-        if (this.suggester.get() != null)
-            this.suggester.get().close();
-        this.matcher.close();
-        this.vernacularMatcher.close();
-        this.locationMatcher.close();
-        this.searcher.close();
-        this.vernacularSearcher.close();
-        this.locationSearcher.close();
+        synchronized (this.swapLock) {
+            ALANameIndexes current = this.indexes.getAndSet(null);
+            if (current != null)
+                current.decRef();
+        }
+        if (this.mbean != null) {
+            try {
+                MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+                mbs.unregisterMBean(this.mbean.getObjectName());
+            } catch (Exception ex) {
+                logger.error("Unable to deregister name searcher " + this.mbean.getObjectName(), ex);
+            }
+            this.mbean = null;
+        }
     }
 
 
@@ -145,7 +407,12 @@ public class ALANameSearcher implements AutoCloseable {
      * @throws BayesianException if unable to compuete match charactersics
      */
     public Match<AlaLinnaeanClassification, MatchMeasurement> search(AlaLinnaeanClassification template, MatchOptions options) throws BayesianException {
-        return this.matcher.findMatch(template, options);
+        ALANameIndexes indexes = this.acquire();
+        try {
+            return this.detach(indexes.getMatcher().findMatch(template, options));
+        } finally {
+            this.release(indexes);
+        }
     }
 
     /**
@@ -164,6 +431,51 @@ public class ALANameSearcher implements AutoCloseable {
         return this.search(template, MatchOptions.ALL);
     }
 
+    /**
+     * Search for a list of classifications in parallel.
+     *
+     * @param templates The template classifications
+     * @param options The match options to use.
+     *
+     * @return The closest possible matches, in the same order as the templates
+     *
+     * @throws BayesianException if unable to compuete match charactersics
+     *
+     * @see ClassificationMatcher#findMatches(List, MatchOptions)
+     */
+    public List<Match<AlaLinnaeanClassification, MatchMeasurement>> searchAll(List<AlaLinnaeanClassification> templates, MatchOptions options) throws BayesianException {
+        ALANameIndexes indexes = this.acquire();
+        try {
+            return indexes.getMatcher().findMatches(templates, options).stream().map(this::detach).collect(Collectors.toList());
+        } finally {
+            this.release(indexes);
+        }
+    }
+
+    /**
+     * Search for a stream of classifications in parallel.
+     * <p>
+     * Templates are read from the source stream as the results are consumed.
+     * The current indexes are held until the returned stream is closed.
+     * </p>
+     *
+     * @param templates The template classifications
+     * @param options The match options to use.
+     *
+     * @return A stream of the closest possible matches, in the same order as the templates
+     *
+     * @see ClassificationMatcher#findMatches(java.util.stream.Stream, MatchOptions)
+     */
+    public Stream<Match<AlaLinnaeanClassification, MatchMeasurement>> searchAll(Stream<AlaLinnaeanClassification> templates, MatchOptions options) {
+        ALANameIndexes indexes = this.acquire();
+        try {
+            return indexes.getMatcher().findMatches(templates, options).map(this::detach).onClose(() -> this.release(indexes));
+        } catch (RuntimeException ex) {
+            this.release(indexes);
+            throw ex;
+        }
+    }
+
     /**
      * Get classification by taxon identifier.
      *
@@ -174,12 +486,17 @@ public class ALANameSearcher implements AutoCloseable {
      * @throws BayesianException if there is an error retrieving the informstion
      */
     public AlaLinnaeanClassification get(String taxonId) throws BayesianException {
-        LuceneClassifier classifier = this.searcher.get(DwcTerm.Taxon, AlaLinnaeanFactory.taxonId, taxonId);
-        if (classifier == null)
-            return null;
-        AlaLinnaeanClassification classification = AlaLinnaeanFactory.instance().createClassification();
-        classification.read(classifier, true);
-        return classification;
+        ALANameIndexes indexes = this.acquire();
+        try {
+            LuceneClassifier classifier = indexes.getSearcher().get(DwcTerm.Taxon, AlaLinnaeanFactory.taxonId, taxonId);
+            if (classifier == null)
+                return null;
+            AlaLinnaeanClassification classification = AlaLinnaeanFactory.instance().createClassification();
+            classification.read(classifier, true);
+            return classification;
+        } finally {
+            this.release(indexes);
+        }
     }
 
     /**
@@ -195,22 +512,27 @@ public class ALANameSearcher implements AutoCloseable {
     public Match<AlaLinnaeanClassification, MatchMeasurement> search(String taxonId) throws BayesianException {
         AlaLinnaeanClassification actual = new AlaLinnaeanClassification();
         actual.taxonId = taxonId;
-        LuceneClassifier classifier = this.searcher.get(DwcTerm.Taxon, AlaLinnaeanFactory.taxonId, taxonId);
-        if (classifier == null)
-            return Match.invalidMatch();
-        AlaLinnaeanClassification classification = AlaLinnaeanFactory.instance().createClassification();
-        classification.read(classifier, true);
-        Match<AlaLinnaeanClassification, MatchMeasurement> match = new Match<>(actual, classifier, classification, Inference.one())
-                .with(new SimpleFidelity<>(actual, actual, 1.0));
-        if (classification.acceptedNameUsageId != null) {
-            LuceneClassifier accepted = this.searcher.get(DwcTerm.Taxon, AlaLinnaeanFactory.taxonId, classification.acceptedNameUsageId);
-            if (accepted != null) {
-                AlaLinnaeanClassification acceptedClassification = AlaLinnaeanFactory.instance().createClassification();
-                acceptedClassification.read(accepted, true);
-                match = match.withAccepted(accepted, acceptedClassification);
+        ALANameIndexes indexes = this.acquire();
+        try {
+            LuceneClassifier classifier = indexes.getSearcher().get(DwcTerm.Taxon, AlaLinnaeanFactory.taxonId, taxonId);
+            if (classifier == null)
+                return Match.invalidMatch();
+            AlaLinnaeanClassification classification = AlaLinnaeanFactory.instance().createClassification();
+            classification.read(classifier, true);
+            Match<AlaLinnaeanClassification, MatchMeasurement> match = new Match<>(actual, classifier, classification, Inference.one())
+                    .with(new SimpleFidelity<>(actual, actual, 1.0));
+            if (classification.acceptedNameUsageId != null) {
+                LuceneClassifier accepted = indexes.getSearcher().get(DwcTerm.Taxon, AlaLinnaeanFactory.taxonId, classification.acceptedNameUsageId);
+                if (accepted != null) {
+                    AlaLinnaeanClassification acceptedClassification = AlaLinnaeanFactory.instance().createClassification();
+                    acceptedClassification.read(accepted, true);
+                    match = match.withAccepted(accepted, acceptedClassification);
+                }
             }
+            return this.detach(match);
+        } finally {
+            this.release(indexes);
         }
-        return match;
     }
 
     /**
@@ -224,7 +546,12 @@ public class ALANameSearcher implements AutoCloseable {
      * @throws BayesianException if unable to compuete match charactersics
      */
     public Match<AlaVernacularClassification, MatchMeasurement> search(AlaVernacularClassification template, MatchOptions options) throws BayesianException {
-        return this.vernacularMatcher.findMatch(template, options);
+        ALANameIndexes indexes = this.acquire();
+        try {
+            return this.detach(indexes.getVernacularMatcher().findMatch(template, options));
+        } finally {
+            this.release(indexes);
+        }
     }
 
     /**
@@ -248,15 +575,59 @@ public class ALANameSearcher implements AutoCloseable {
      *
      * @param taxonId The taxon identifier
      *
-     * @return A list of vernacular names
+     * @return A new, modifiable list of vernacular names
      *
      * @throws BayesianException if unable to retrevie the names
      */
     @NonNull
     public List<String> getVernacularNames(String taxonId) throws BayesianException {
-        List<LuceneClassifier> results = this.vernacularSearcher.getAll(GbifTerm.VernacularName, AlaVernacularFactory.taxonId, taxonId);
-        results.sort((c1, c2) -> - c1.getOrDefault(AlaVernacularFactory.weight, 0.0).compareTo(c2.getOrDefault(AlaVernacularFactory.weight, 0.0)));
-        return results.stream().map(c -> c.get(AlaVernacularFactory.vernacularName)).filter(Objects::nonNull).distinct().collect(Collectors.toList());
+        return new ArrayList<>(this.getVernacularNames(Collections.singleton(taxonId)).getOrDefault(taxonId, Collections.emptyList()));
+    }
+
+    /**
+     * Get all the vernacular names associated with a batch of taxa.
+     * <p>
+     * The vernacular names for all taxa not in the vernacular cache are retrieved in a single pass
+     * over the vernacular index.
+     * Each list of names is sorted by priority, highest first.
+     * The lists are shared with the vernacular cache and are unmodifiable.
+     * </p>
+     *
+     * @param taxonIds The taxon identifiers
+     *
+     * @return A map of taxon identifier to vernacular names. Taxa with no vernacular names have an empty list
+     *
+     * @throws BayesianException if unable to retrevie the names
+     */
+    @NonNull
+    public Map<String, List<String>> getVernacularNames(Collection<String> taxonIds) throws BayesianException {
+        Map<String, List<String>> names = new HashMap<>(taxonIds.size());
+        ALANameIndexes indexes = this.acquire();
+        try {
+            Cache<String, List<String>> cache = indexes.getVernacularCache();
+            Set<String> missing = new LinkedHashSet<>(taxonIds.size());
+            for (String taxonId: taxonIds) {
+                List<String> cached = cache == null ? null : cache.peek(taxonId);
+                if (cached != null)
+                    names.put(taxonId, cached);
+                else
+                    missing.add(taxonId);
+            }
+            if (missing.isEmpty())
+                return names;
+            Map<String, List<LuceneClassifier>> results = indexes.getVernacularSearcher().getAllGrouped(GbifTerm.VernacularName, AlaVernacularFactory.taxonId, missing);
+            for (String taxonId: missing) {
+                List<LuceneClassifier> classifiers = results.getOrDefault(taxonId, Collections.emptyList());
+                classifiers.sort((c1, c2) -> - c1.getOrDefault(AlaVernacularFactory.weight, 0.0).compareTo(c2.getOrDefault(AlaVernacularFactory.weight, 0.0)));
+                List<String> vernacularNames = Collections.unmodifiableList(classifiers.stream().map(c -> c.get(AlaVernacularFactory.vernacularName)).filter(Objects::nonNull).distinct().collect(Collectors.toList()));
+                names.put(taxonId, vernacularNames);
+                if (cache != null)
+                    cache.put(taxonId, vernacularNames);
+            }
+        } finally {
+            this.release(indexes);
+        }
+        return names;
     }
 
 
@@ -271,7 +642,12 @@ public class ALANameSearcher implements AutoCloseable {
      * @throws BayesianException if unable to compuete match charactersics
      */
     public Match<AlaLocationClassification, MatchMeasurement> search(AlaLocationClassification template, MatchOptions options) throws BayesianException {
-        return this.locationMatcher.findMatch(template, options);
+        ALANameIndexes indexes = this.acquire();
+        try {
+            return this.detach(indexes.getLocationMatcher().findMatch(template, options));
+        } finally {
+            this.release(indexes);
+        }
     }
 
     /**
@@ -304,34 +680,92 @@ public class ALANameSearcher implements AutoCloseable {
     public Match<AlaLocationClassification, MatchMeasurement> searchLocation(String locationId) throws BayesianException {
         AlaLocationClassification actual = new AlaLocationClassification();
         actual.locationId = locationId;
-        LuceneClassifier classifier = this.locationSearcher.get(AlaLocationFactory.CONCEPT, AlaLocationFactory.locationId, locationId);
-        if (classifier == null)
-            return Match.invalidMatch();
-        AlaLocationClassification classification = AlaLocationFactory.instance().createClassification();
-        classification.read(classifier, true);
-        Match<AlaLocationClassification, MatchMeasurement> match = new Match<>(actual, classifier, classification, Inference.one())
-                .with(new SimpleFidelity<>(actual, actual, 1.0));
-        if (classification.acceptedLocalityId != null) {
-            LuceneClassifier accepted = this.searcher.get(AlaLocationFactory.CONCEPT, AlaLocationFactory.locationId, classification.acceptedLocalityId);
-            if (accepted != null) {
-                AlaLocationClassification acceptedClassification = AlaLocationFactory.instance().createClassification();
-                acceptedClassification.read(accepted, true);
-                match = match.withAccepted(accepted, acceptedClassification);
+        ALANameIndexes indexes = this.acquire();
+        try {
+            LuceneClassifier classifier = indexes.getLocationSearcher().get(AlaLocationFactory.CONCEPT, AlaLocationFactory.locationId, locationId);
+            if (classifier == null)
+                return Match.invalidMatch();
+            AlaLocationClassification classification = AlaLocationFactory.instance().createClassification();
+            classification.read(classifier, true);
+            Match<AlaLocationClassification, MatchMeasurement> match = new Match<>(actual, classifier, classification, Inference.one())
+                    .with(new SimpleFidelity<>(actual, actual, 1.0));
+            if (classification.acceptedLocalityId != null) {
+                LuceneClassifier accepted = indexes.getSearcher().get(AlaLocationFactory.CONCEPT, AlaLocationFactory.locationId, classification.acceptedLocalityId);
+                if (accepted != null) {
+                    AlaLocationClassification acceptedClassification = AlaLocationFactory.instance().createClassification();
+                    acceptedClassification.read(accepted, true);
+                    match = match.withAccepted(accepted, acceptedClassification);
+                }
             }
+            return this.detach(match);
+        } finally {
+            this.release(indexes);
         }
-        return match;
     }
 
 
 
+    /**
+     * Detach a match from the indexes that it was found in.
+     * <p>
+     * Candidates may read their values lazily from an open index segment,
+     * see {@link LuceneDocValuesClassifier}.
+     * Once the indexes have been released, and possibly closed after a swap, the segment can no longer be read.
+     * The candidates in the match are fully loaded so that the match can be used after release.
+     * </p>
+     *
+     * @param match The match
+     * @param <C> The type of classification
+     *
+     * @return The match, with any lazy candidates loaded
+     */
+    protected <C extends Classification<C>> Match<C, MatchMeasurement> detach(Match<C, MatchMeasurement> match) {
+        if (match == null)
+            return null;
+        this.detach(match.getCandidate());
+        this.detach(match.getAcceptedCandidate());
+        return match;
+    }
+
+    /**
+     * Fully load a candidate that reads its values lazily from an index segment.
+     *
+     * @param candidate The candidate, may be null
+     */
+    private void detach(Classifier candidate) {
+        if (candidate instanceof LuceneDocValuesClassifier)
+            ((LuceneDocValuesClassifier) candidate).getDocument();
+    }
+
+    /**
+     * Build a suggester for a set of indexes.
+     * <p>
+     * If configured, a prefix suggester is used in place of the default infix suggester.
+     * </p>
+     *
+     * @param indexes The indexes
+     *
+     * @return The loaded suggester
+     */
     @SneakyThrows
-    protected LuceneClassifierSuggester buildSuggester() {
+    protected ClassifierSuggester<LuceneClassifier> buildSuggester(ALANameIndexes indexes) {
+        if (indexes.getConfig().isPrefixSuggester()) {
+            LuceneClassifierPrefixSuggester suggester = new LuceneClassifierPrefixSuggester(
+                    indexes.getConfig().getSuggester(),
+                    this::suggestWeight,
+                    indexes.getSearcher(),
+                    AlaLinnaeanFactory.instance(),
+                    indexes.getVernacularSearcher()
+            );
+            suggester.load();
+            return suggester;
+        }
         LuceneClassifierSuggester suggester = new LuceneClassifierSuggester(
-                FSDirectory.open(this.suggesterDir.toPath()),
+                indexes.getConfig().getSuggester(),
                 this::suggestWeight,
-                this.searcher,
+                indexes.getSearcher(),
                 AlaLinnaeanFactory.instance(),
-                this.vernacularSearcher
+                indexes.getVernacularSearcher()
         );
         suggester.load();
         return suggester;
@@ -378,9 +812,30 @@ public class ALANameSearcher implements AutoCloseable {
      * @return The result
      */
     public List<Autocomplete> autocomplete(String query, int size, boolean includeSynonyms) throws BayesianException {
-         return this.getSuggester().suggest(query, size, includeSynonyms).stream()
-                .map(c -> this.buildAutocomplete(c))
-                .collect(Collectors.toList());
+        ALANameIndexes indexes = this.acquire();
+        try {
+            List<ClassifierSuggester.Suggestion<LuceneClassifier>> suggestions = indexes.getSuggester(this::buildSuggester).suggest(query, size, includeSynonyms);
+            Set<String> taxonIds = new LinkedHashSet<>(suggestions.size() * 2);
+            for (ClassifierSuggester.Suggestion<LuceneClassifier> suggestion: suggestions) {
+                taxonIds.add(suggestion.getMatch().get(AlaLinnaeanFactory.taxonId));
+                if (suggestion.getSynonym() != null)
+                    taxonIds.add(suggestion.getSynonym().get(AlaLinnaeanFactory.taxonId));
+            }
+            taxonIds.remove(null);
+            Map<String, List<String>> vernacular;
+            try {
+                vernacular = this.getVernacularNames(taxonIds);
+            } catch (BayesianException ex) {
+                logger.error("Unable to get vernacular names for " + query, ex);
+                vernacular = Collections.emptyMap();
+            }
+            Map<String, List<String>> vn = vernacular;
+            return suggestions.stream()
+                    .map(c -> this.buildAutocomplete(c, vn))
+                    .collect(Collectors.toList());
+        } finally {
+            this.release(indexes);
+        }
     }
 
     /**
@@ -391,13 +846,25 @@ public class ALANameSearcher implements AutoCloseable {
      * @return An autocomplete that matches the classifier
      */
     protected Autocomplete buildAutocomplete(ClassifierSuggester.Suggestion<LuceneClassifier> suggestion) {
+        return this.buildAutocomplete(suggestion, null);
+    }
+
+    /**
+     * Build an autocomplete entry for a linnaean classifier, using pre-fetched vernacular names.
+     *
+     * @param suggestion The suggestion
+     * @param vernacular The vernacular names, by taxon identifier. If null or the taxon is not present, the names are looked up
+     *
+     * @return An autocomplete that matches the classifier
+     */
+    protected Autocomplete buildAutocomplete(ClassifierSuggester.Suggestion<LuceneClassifier> suggestion, Map<String, List<String>> vernacular) {
         List<Autocomplete> synonyms = null;
         LuceneClassifier accepted = suggestion.getMatch();
         Integer left = null;
         Integer right = null;
         if (suggestion.getSynonym() != null) {
             ClassifierSuggester.Suggestion<LuceneClassifier> synonym = new ClassifierSuggester.Suggestion<>(suggestion.getScore(), suggestion.getName(), suggestion.getType(), suggestion.getSynonym(), null);
-            synonyms = Collections.singletonList(this.buildAutocomplete(synonym));
+            synonyms = Collections.singletonList(this.buildAutocomplete(synonym, vernacular));
         }
         int[] index = accepted.getIndex();
         if (index != null) {
@@ -405,9 +872,10 @@ public class ALANameSearcher implements AutoCloseable {
             right = index[1];
         }
         String taxonId = accepted.get(AlaLinnaeanFactory.taxonId);
-        List<String> vernacularNames = null;
+        List<String> vernacularNames = vernacular == null ? null : vernacular.get(taxonId);
         try {
-            vernacularNames = this.getVernacularNames(taxonId);
+            if (vernacularNames == null)
+                vernacularNames = this.getVernacularNames(taxonId);
         } catch (BayesianException ex) {
             logger.error("Unable to get vernacular names for doc=" + accepted.getIdentifier(), ex);
         }
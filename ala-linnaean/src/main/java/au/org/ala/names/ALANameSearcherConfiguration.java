@@ -60,6 +60,22 @@ public class ALANameSearcherConfiguration {
     @JsonProperty
     @Builder.Default
     private List<String> localities = Collections.emptyList();
+    /** Use the faster prefix suggester for autocomplete, rather than the infix suggester */
+    @JsonProperty
+    @Builder.Default
+    private boolean prefixSuggester = false;
+    /** The number of per-taxon vernacular name lists to cache. Zero for no cache */
+    @JsonProperty
+    @Builder.Default
+    private int vernacularCacheSize = 0;
+    /** Warm up the searcher by running a set of representative queries when it is opened */
+    @JsonProperty
+    @Builder.Default
+    private boolean warmup = false;
+    /** A file of representative scientific names to use for warm-up, one per line. If null, a bundled list of names is used */
+    @JsonProperty
+    @Builder.Default
+    private File warmupNames = null;
 
     /**
      * Build a directory from a supplied base, type and version number.
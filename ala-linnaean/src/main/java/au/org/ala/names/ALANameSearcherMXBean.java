@@ -0,0 +1,31 @@
+package au.org.ala.names;
+
+/**
+ * Management interface for the name searcher
+ */
+public interface ALANameSearcherMXBean {
+    /**
+     * Get the time taken to warm up the searcher
+     *
+     * @return The warm-up time in milliseconds, zero for no warm-up
+     */
+    long getWarmupTime();
+    /**
+     * Get the number of queries run during warm-up
+     *
+     * @return The warm-up query count
+     */
+    int getWarmupQueries();
+    /**
+     * Get the number of times the indexes have been swapped
+     *
+     * @return The swap count
+     */
+    int getSwaps();
+    /**
+     * Get the number of references held to the current indexes
+     *
+     * @return The reference count, including the searcher's own reference
+     */
+    int getIndexReferences();
+}
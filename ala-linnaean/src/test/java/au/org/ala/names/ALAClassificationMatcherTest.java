@@ -4,6 +4,7 @@ import au.org.ala.bayesian.*;
 import au.org.ala.names.lucene.LuceneClassifierSearcher;
 import au.org.ala.util.JsonUtils;
 import au.org.ala.util.TestUtils;
+import au.org.ala.vocab.BayesianTerm;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.gbif.nameparser.api.Rank;
 import org.junit.After;
@@ -13,6 +14,7 @@ import org.junit.Test;
 
 import java.io.File;
 import java.util.Collections;
+import java.util.Optional;
 import java.util.Set;
 
 import static org.junit.Assert.*;
@@ -136,4 +138,95 @@ public class ALAClassificationMatcherTest {
         TestUtils.compareNoSpaces(TestUtils.getResource(this.getClass(), "trace-4.json"), mapper.writeValueAsString(trace));
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testMatchCache1() throws Exception {
+        ClassificationMatcherConfiguration config = ClassificationMatcherConfiguration.builder().matchCacheSize(100).build();
+        try (ALAClassificationMatcher cached = new ALAClassificationMatcher(AlaLinnaeanFactory.instance(), this.searcher, config, null, null)) {
+            AlaLinnaeanClassification classification1 = new AlaLinnaeanClassification();
+            classification1.scientificName = "Acacia dealbata";
+            Match<AlaLinnaeanClassification, MatchMeasurement> match1 = cached.findMatch(classification1, MatchOptions.ALL);
+            assertTrue(match1.isValid());
+            assertEquals(0, cached.getMatchCacheHits());
+            assertEquals(1, cached.getMatchCacheMisses());
+            AlaLinnaeanClassification classification2 = new AlaLinnaeanClassification();
+            classification2.scientificName = "Acacia dealbata";
+            Match<AlaLinnaeanClassification, MatchMeasurement> match2 = cached.findMatch(classification2, MatchOptions.ALL);
+            assertTrue(match2.isValid());
+            assertEquals(match1.getAccepted().taxonId, match2.getAccepted().taxonId);
+            assertNotSame(match1.getAccepted(), match2.getAccepted());
+            assertEquals(1, cached.getMatchCacheHits());
+            assertEquals(1, cached.getMatchCacheMisses());
+            String taxonId = match2.getAccepted().taxonId;
+            match2.getAccepted().taxonId = "Rubbish";
+            Match<AlaLinnaeanClassification, MatchMeasurement> match4 = cached.findMatch(classification2, MatchOptions.ALL);
+            assertEquals(taxonId, match4.getAccepted().taxonId);
+            assertEquals(2, cached.getMatchCacheHits());
+            Match<AlaLinnaeanClassification, MatchMeasurement> match3 = cached.findMatch(classification1, MatchOptions.ALL.withMeasure(true));
+            assertTrue(match3.isValid());
+            assertNotNull(match3.getMeasurement());
+            assertEquals(2, cached.getMatchCacheHits());
+            assertEquals(1, cached.getMatchCacheMisses());
+        }
+    }
+
+    @Test
+    public void testSearchLimit1() throws Exception {
+        ClassificationMatcherConfiguration config = ClassificationMatcherConfiguration.builder().maxInferences(1).build();
+        try (ALAClassificationMatcher limited = new ALAClassificationMatcher(AlaLinnaeanFactory.instance(), this.searcher, config, null, null)) {
+            AlaLinnaeanClassification classification = new AlaLinnaeanClassification();
+            classification.scientificName = "Acacia dealbata";
+            classification.family = "Rando";
+            Match<AlaLinnaeanClassification, MatchMeasurement> match = limited.findMatch(classification, MatchOptions.ALL);
+            assertNotNull(match);
+            assertTrue(match.getIssues().contains(BayesianTerm.searchLimit));
+            assertEquals(1, limited.getSearchLimits());
+        }
+    }
+
+    @Test
+    public void testSearchLimit2() throws Exception {
+        AlaLinnaeanClassification classification = new AlaLinnaeanClassification();
+        classification.scientificName = "Acacia dealbata";
+        Match<AlaLinnaeanClassification, MatchMeasurement> match = this.matcher.findMatch(classification, MatchOptions.ALL);
+        assertTrue(match.isValid());
+        assertFalse(match.getIssues().contains(BayesianTerm.searchLimit));
+        assertEquals(0, this.matcher.getSearchLimits());
+    }
+
+    @Test
+    public void testMemo1() throws Exception {
+        try (MemoMatcher memoMatcher = new MemoMatcher(this.searcher)) {
+            AlaLinnaeanClassification classification = new AlaLinnaeanClassification();
+            classification.scientificName = "Acacia dealbata";
+            classification.inferForSearch(memoMatcher.getAnalyser(), MatchOptions.ALL);
+            SearchMemo memo = new SearchMemo(0, 0);
+            Match<AlaLinnaeanClassification, MatchMeasurement> match1 = memoMatcher.match(classification.clone(), memo);
+            assertTrue(match1.isValid());
+            int searches = memo.getSearchCount();
+            int inferences = memo.getInferenceCount();
+            assertTrue(searches > 0);
+            assertTrue(inferences > 0);
+            assertEquals(0, memo.getSearchHits());
+            Match<AlaLinnaeanClassification, MatchMeasurement> match2 = memoMatcher.match(classification.clone(), memo);
+            assertTrue(match2.isValid());
+            assertEquals(match1.getAccepted().taxonId, match2.getAccepted().taxonId);
+            assertEquals(searches, memo.getSearchCount());
+            assertEquals(inferences, memo.getInferenceCount());
+            assertTrue(memo.getSearchHits() > 0);
+            assertTrue(memo.getInferenceHits() > 0);
+        }
+    }
+
+    /**
+     * Expose matching with an explicit memo.
+     */
+    private static class MemoMatcher extends ALAClassificationMatcher {
+        public MemoMatcher(LuceneClassifierSearcher searcher) {
+            super(AlaLinnaeanFactory.instance(), searcher, null, null, null);
+        }
+
+        public Match<AlaLinnaeanClassification, MatchMeasurement> match(AlaLinnaeanClassification classification, SearchMemo memo) throws BayesianException {
+            return this.findAnalysedMatch(classification, MatchOptions.ALL, null, Optional.empty(), memo);
+        }
+    }
+}
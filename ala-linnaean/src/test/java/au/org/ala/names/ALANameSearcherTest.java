@@ -3,17 +3,22 @@ package au.org.ala.names;
 import au.org.ala.bayesian.Issues;
 import au.org.ala.bayesian.Match;
 import au.org.ala.bayesian.MatchMeasurement;
+import au.org.ala.bayesian.MatchOptions;
 import au.org.ala.location.AlaLocationClassification;
+import au.org.ala.names.lucene.LuceneClassifier;
 import au.org.ala.util.FileUtils;
 import au.org.ala.util.JsonUtils;
 import au.org.ala.vocab.BayesianTerm;
 import au.org.ala.vocab.TaxonomicStatus;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.gbif.api.vocabulary.NomenclaturalCode;
 import org.gbif.nameparser.api.Rank;
 import org.junit.*;
 
 import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
@@ -71,6 +76,38 @@ public class ALANameSearcherTest {
         assertEquals(Issues.of(), result.getIssues());
     }
 
+    @Test
+    public void testSearchAll1() throws Exception {
+        AlaLinnaeanClassification template1 = new AlaLinnaeanClassification();
+        template1.scientificName = "Poodytes gramineus";
+        AlaLinnaeanClassification template2 = new AlaLinnaeanClassification();
+        template2.scientificName = "Synemon plana";
+        AlaLinnaeanClassification template3 = new AlaLinnaeanClassification();
+        template3.scientificName = "Poodytes gramineus";
+        List<Match<AlaLinnaeanClassification, MatchMeasurement>> results = this.searcher.searchAll(Arrays.asList(template1, template2, template3), MatchOptions.ALL);
+        assertEquals(3, results.size());
+        assertTrue(results.stream().allMatch(Match::isValid));
+        assertEquals("https://biodiversity.org.au/afd/taxa/b4c2ec8d-918d-4fb4-8ef9-f6d5d3bbceda", results.get(0).getAccepted().taxonId);
+        assertEquals("https://biodiversity.org.au/afd/taxa/a51dca29-50e7-49b4-ae35-5c35a9c4f854", results.get(1).getAccepted().taxonId);
+        assertEquals("https://biodiversity.org.au/afd/taxa/b4c2ec8d-918d-4fb4-8ef9-f6d5d3bbceda", results.get(2).getAccepted().taxonId);
+    }
+
+    @Test
+    public void testSearchAll2() throws Exception {
+        List<String> names = Arrays.asList("Poodytes gramineus", "Synemon plana", "Poodytes gramineus", "Synemon plana");
+        List<String> ids = this.searcher.searchAll(names.stream().map(n -> {
+            AlaLinnaeanClassification template = new AlaLinnaeanClassification();
+            template.scientificName = n;
+            return template;
+        }), MatchOptions.ALL).map(m -> m.getAccepted().taxonId).collect(Collectors.toList());
+        assertEquals(Arrays.asList(
+                "https://biodiversity.org.au/afd/taxa/b4c2ec8d-918d-4fb4-8ef9-f6d5d3bbceda",
+                "https://biodiversity.org.au/afd/taxa/a51dca29-50e7-49b4-ae35-5c35a9c4f854",
+                "https://biodiversity.org.au/afd/taxa/b4c2ec8d-918d-4fb4-8ef9-f6d5d3bbceda",
+                "https://biodiversity.org.au/afd/taxa/a51dca29-50e7-49b4-ae35-5c35a9c4f854"
+        ), ids);
+    }
+
     // 20230725-3 matches Sargassum
     @Test
     public void testSimpleSearch3() throws Exception {
@@ -3018,6 +3055,8 @@ public class ALANameSearcherTest {
         List<String> result = this.searcher.getVernacularNames("https://id.biodiversity.org.au/taxon/apni/51458346");
         assertNotNull(result);
         assertEquals(Arrays.asList("Mayfly Orchid", "Mayfly Orchids", "Mosquito Orchids"), result);
+        result.remove(0);
+        assertEquals(Arrays.asList("Mayfly Orchid", "Mayfly Orchids", "Mosquito Orchids"), this.searcher.getVernacularNames("https://id.biodiversity.org.au/taxon/apni/51458346"));
     }
 
     @Test // Orange Roughy should be first as standard name
@@ -3240,6 +3279,72 @@ public class ALANameSearcherTest {
         assertEquals(Issues.of(AlaLinnaeanFactory.UNPARSABLE_NAME), result.getIssues());
     }
 
+    @Test
+    public void testSwap1() throws Exception {
+        AlaLinnaeanClassification template = new AlaLinnaeanClassification();
+        template.scientificName = "Poodytes gramineus";
+        ALANameIndexes original = this.searcher.acquire();
+        assertEquals(2, original.getRefCount());
+        this.searcher.swap(this.searcher.getConfig());
+        assertEquals(1, this.searcher.getSwaps());
+        assertEquals(1, this.searcher.getIndexReferences());
+        assertEquals(1, original.getRefCount());
+        Match<AlaLinnaeanClassification, MatchMeasurement> result = original.getMatcher().findMatch(template, MatchOptions.ALL);
+        assertTrue(result.isValid());
+        this.searcher.release(original);
+        assertEquals(0, original.getRefCount());
+        assertFalse(original.tryIncRef());
+        result = this.searcher.search(template);
+        assertTrue(result.isValid());
+        assertEquals("https://biodiversity.org.au/afd/taxa/b4c2ec8d-918d-4fb4-8ef9-f6d5d3bbceda", result.getAccepted().taxonId);
+    }
+
+    @Test
+    public void testWarmup1() throws Exception {
+        File names = File.createTempFile("warmup", ".txt");
+        try {
+            Files.write(names.toPath(), Arrays.asList("# Test names", "Poodytes gramineus", "", "Synemon plana"), StandardCharsets.UTF_8);
+            ObjectMapper mapper = JsonUtils.createMapper();
+            ObjectNode node = (ObjectNode) mapper.readTree(ALANameSearcherTest.class.getResource("searcher-config-test.json"));
+            node.put("warmup", true);
+            node.put("warmupNames", names.getAbsolutePath());
+            ALANameSearcherConfiguration config = mapper.treeToValue(node, ALANameSearcherConfiguration.class);
+            try (ALANameSearcher warmed = new ALANameSearcher(config)) {
+                assertEquals(2, warmed.getWarmupQueries());
+                assertTrue(warmed.getWarmupTime() >= 0);
+                AlaLinnaeanClassification template = new AlaLinnaeanClassification();
+                template.scientificName = "Poodytes gramineus";
+                assertTrue(warmed.search(template).isValid());
+            }
+        } finally {
+            names.delete();
+        }
+    }
+
+    @Test
+    public void testWarmup2() throws Exception {
+        assertEquals(0, this.searcher.getWarmupQueries());
+        assertEquals(0, this.searcher.getWarmupTime());
+    }
+
+    // Matches can still be read once the indexes they came from have been swapped out and closed
+    @Test
+    public void testSwap2() throws Exception {
+        AlaLinnaeanClassification template = new AlaLinnaeanClassification();
+        template.scientificName = "Poodytes gramineus";
+        ALANameIndexes original = this.searcher.acquire();
+        this.searcher.release(original);
+        Match<AlaLinnaeanClassification, MatchMeasurement> result = this.searcher.search(template);
+        assertTrue(result.isValid());
+        this.searcher.swap(this.searcher.getConfig());
+        assertEquals(0, original.getRefCount());
+        LuceneClassifier candidate = (LuceneClassifier) result.getCandidate();
+        assertEquals("https://biodiversity.org.au/afd/taxa/b4c2ec8d-918d-4fb4-8ef9-f6d5d3bbceda", candidate.get(AlaLinnaeanFactory.taxonId));
+        assertEquals("Poodytes gramineus", candidate.get(AlaLinnaeanFactory.scientificName));
+        LuceneClassifier accepted = (LuceneClassifier) result.getAcceptedCandidate();
+        assertEquals(result.getAccepted().taxonId, accepted.get(AlaLinnaeanFactory.taxonId));
+    }
+
     // Pterostylis longifolia and friends
     public void testProblemX() {
         fail("Fix this");
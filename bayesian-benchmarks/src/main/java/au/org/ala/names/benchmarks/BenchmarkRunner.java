@@ -0,0 +1,40 @@
+package au.org.ala.names.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Run the benchmarks with allocation profiling and JSON output.
+ * <p>
+ * Accepts the same arguments as the standard JMH runner.
+ * Unless otherwise specified, the GC profiler is added, so that allocation rates
+ * are reported alongside timings, and the results are written to
+ * <code>benchmark-results.json</code> in JSON format, so that runs from different
+ * releases can be compared.
+ * </p>
+ */
+public class BenchmarkRunner {
+    /** The default results file */
+    public static final String DEFAULT_RESULTS = "benchmark-results.json";
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions cmd = new CommandLineOptions(args);
+        if (cmd.shouldHelp() || cmd.shouldList() || cmd.shouldListWithParams() || cmd.shouldListProfilers() || cmd.shouldListResultFormats()) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(cmd);
+        boolean gc = cmd.getProfilers().stream().anyMatch(p -> p.getKlass().equals("gc") || p.getKlass().equals(GCProfiler.class.getName()));
+        if (!gc)
+            options.addProfiler(GCProfiler.class);
+        if (!cmd.getResultFormat().hasValue())
+            options.resultFormat(ResultFormatType.JSON);
+        if (!cmd.getResult().hasValue())
+            options.result(DEFAULT_RESULTS);
+        new Runner(options.build()).run();
+    }
+}
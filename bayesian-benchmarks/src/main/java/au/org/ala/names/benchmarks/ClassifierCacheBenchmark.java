@@ -0,0 +1,204 @@
+package au.org.ala.names.benchmarks;
+
+import au.org.ala.bayesian.AnalyserConfig;
+import au.org.ala.bayesian.BayesianException;
+import au.org.ala.bayesian.Inference;
+import au.org.ala.bayesian.MatchOptions;
+import au.org.ala.names.AlaLinnaeanClassification;
+import au.org.ala.names.AlaLinnaeanFactory;
+import au.org.ala.names.AlaLinnaeanInferencer;
+import au.org.ala.names.lucene.CompactClassifierCache;
+import au.org.ala.names.lucene.LuceneClassifier;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.cache2k.Cache;
+import org.cache2k.Cache2kBuilder;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark classifier caches under a skewed access pattern.
+ * <p>
+ * Searches for popular names retrieve the same documents over and over again,
+ * with a long tail of rarely retrieved documents.
+ * This is modelled by retrieving documents according to a Zipfian distribution.
+ * The general-purpose cache2k cache of classifiers is compared with the {@link CompactClassifierCache}.
+ * Each retrieved classifier is used to compute a match probability, so that the cost of
+ * reading fields and inference parameters from a cached classifier is included.
+ * </p>
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ClassifierCacheBenchmark {
+    /** The number of pre-computed document accesses */
+    private static final int ACCESSES = 1 << 16;
+
+    /** The type of cache */
+    @Param({ "cache2k", "compact" })
+    public String cacheType;
+    /** The cache size */
+    @Param({ "100", "1000" })
+    public int cacheSize;
+    /** The Zipfian exponent */
+    @Param({ "1.0" })
+    public double exponent;
+    /** The name to match against each retrieved classifier */
+    @Param({ "Canarium acutifolium" })
+    public String scientificName;
+
+    private SampleIndex index;
+    private Directory directory;
+    private DirectoryReader reader;
+    private Cache<Integer, LuceneClassifier> cache2k;
+    private CompactClassifierCache compact;
+    private AlaLinnaeanInferencer inferencer;
+    /** The analysed template to match */
+    private AlaLinnaeanClassification template;
+    /** The sequence of documents to retrieve */
+    private int[] accesses;
+    /** The position in the access sequence */
+    private int position;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        this.index = new SampleIndex();
+        this.directory = FSDirectory.open(this.index.getConfiguration().getLinnaean().toPath());
+        this.reader = DirectoryReader.open(this.directory);
+        AlaLinnaeanFactory factory = AlaLinnaeanFactory.instance();
+        if ("compact".equals(this.cacheType)) {
+            this.compact = new CompactClassifierCache(this.cacheSize, this::load, CompactClassifierCache.fieldsFor(factory.getObservables()));
+        } else {
+            this.cache2k = Cache2kBuilder.of(Integer.class, LuceneClassifier.class)
+                    .entryCapacity(this.cacheSize)
+                    .loader(this::load)
+                    .build();
+        }
+        this.inferencer = factory.createInferencer();
+        this.template = new AlaLinnaeanClassification();
+        this.template.scientificName = this.scientificName;
+        this.template.inferForSearch(factory.createAnalyser(AnalyserConfig.load(this.index.getConfiguration().getLinnaean())), MatchOptions.ALL);
+        this.accesses = zipfian(this.reader.maxDoc(), this.exponent, ACCESSES, new Random(1234));
+        this.position = 0;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        if (this.cache2k != null)
+            this.cache2k.close();
+        if (this.compact != null)
+            this.compact.close();
+        if (this.reader != null)
+            this.reader.close();
+        if (this.directory != null)
+            this.directory.close();
+        if (this.index != null)
+            this.index.close();
+    }
+
+    /**
+     * Load a classifier from the index.
+     *
+     * @param doc The document number
+     *
+     * @return The classifier
+     *
+     * @throws IOException if unable to read the document
+     */
+    private LuceneClassifier load(int doc) throws IOException {
+        return new LuceneClassifier(this.reader.document(doc));
+    }
+
+    /**
+     * Build a sequence of document accesses with a Zipfian distribution.
+     * <p>
+     * Ranks are assigned to documents at random, so that popular documents are
+     * scattered through the index.
+     * </p>
+     *
+     * @param size The number of documents
+     * @param exponent The Zipfian exponent
+     * @param length The length of the sequence
+     * @param random The random number source
+     *
+     * @return The sequence of document numbers
+     */
+    private static int[] zipfian(int size, double exponent, int length, Random random) {
+        int[] documents = new int[size];
+        for (int i = 0; i < size; i++)
+            documents[i] = i;
+        for (int i = size - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int t = documents[i];
+            documents[i] = documents[j];
+            documents[j] = t;
+        }
+        double[] cumulative = new double[size];
+        double total = 0.0;
+        for (int i = 0; i < size; i++) {
+            total += 1.0 / Math.pow(i + 1, exponent);
+            cumulative[i] = total;
+        }
+        int[] sequence = new int[length];
+        for (int i = 0; i < length; i++) {
+            int rank = Arrays.binarySearch(cumulative, random.nextDouble() * total);
+            if (rank < 0)
+                rank = -rank - 1;
+            sequence[i] = documents[Math.min(rank, size - 1)];
+        }
+        return sequence;
+    }
+
+    /**
+     * Retrieve the next classifier in the access sequence.
+     *
+     * @return The classifier
+     *
+     * @throws Exception if unable to retrieve the classifier
+     */
+    private LuceneClassifier next() throws Exception {
+        int doc = this.accesses[this.position];
+        this.position = (this.position + 1) & (ACCESSES - 1);
+        return this.compact != null ? this.compact.get(doc) : this.cache2k.get(doc);
+    }
+
+    /**
+     * Retrieve the next document in the access sequence and read its identifier and
+     * names, as a candidate search does.
+     *
+     * @return The classifier identifier
+     *
+     * @throws Exception if unable to retrieve the classifier
+     */
+    @Benchmark
+    public String get() throws Exception {
+        LuceneClassifier classifier = this.next();
+        classifier.getNames();
+        return classifier.getIdentifier();
+    }
+
+    /**
+     * Retrieve the next document in the access sequence and compute the probability
+     * of the template matching it, as the matcher does for each candidate.
+     * <p>
+     * This reads the inference parameters and the fields the network uses from the classifier.
+     * </p>
+     *
+     * @return The inference result
+     *
+     * @throws Exception if unable to retrieve the classifier or compute the probability
+     */
+    @Benchmark
+    public Inference match() throws Exception {
+        return this.inferencer.probability(this.template, this.next(), null);
+    }
+}
@@ -0,0 +1,184 @@
+package au.org.ala.names.benchmarks;
+
+import au.org.ala.names.AlaLinnaeanBuilder;
+import au.org.ala.names.AlaLinnaeanClassification;
+import au.org.ala.names.AlaLinnaeanFactory;
+import au.org.ala.names.AlaLinnaeanInferencer;
+import au.org.ala.names.AlaWeightAnalyser;
+import au.org.ala.names.builder.CSVSource;
+import au.org.ala.names.builder.IndexBuilder;
+import au.org.ala.names.builder.IndexBuilderConfiguration;
+import au.org.ala.names.builder.LoadStore;
+import au.org.ala.names.lucene.LuceneClassifier;
+import au.org.ala.names.lucene.LuceneLoadStore;
+import au.org.ala.util.FileUtils;
+import org.gbif.dwc.terms.DwcTerm;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Benchmark how index builder throughput scales with the number of threads.
+ * <p>
+ * A synthetic taxonomy of families, genera and species is loaded into the builder when the benchmark is set up.
+ * Each invocation then runs a complete processing stage over the taxonomy into a new load store,
+ * so that the time per operation is the time taken for the stage.
+ * Comparing the results for different thread counts shows how well the stage scales.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IndexBuilderBenchmark {
+    /** The number of genera in each family */
+    private static final int GENERA = 10;
+    /** The number of species in each genus */
+    private static final int SPECIES = 9;
+
+    /** The number of processing threads or concurrent tasks */
+    @Param({ "1", "2", "4", "8" })
+    public int threads;
+    /** Use a task per classifier, rather than worker threads */
+    @Param({ "false", "true" })
+    public boolean virtualThreads;
+    /** The approximate number of taxa in the synthetic taxonomy */
+    @Param({ "10000" })
+    public int size;
+
+    private File work;
+    private IndexBuilder<AlaLinnaeanClassification, AlaLinnaeanInferencer, AlaLinnaeanFactory, LuceneClassifier> builder;
+    private LoadStore<LuceneClassifier> interpreted;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        this.work = FileUtils.makeTmpDir("builder-benchmark");
+        IndexBuilderConfiguration config = new IndexBuilderConfiguration();
+        config.setWork(this.work);
+        config.setBuilderClass(AlaLinnaeanBuilder.class);
+        config.setNetwork(AlaLinnaeanBuilder.class.getResource("/ala-linnaean.json"));
+        config.setFactoryClass(AlaLinnaeanFactory.class);
+        config.setWeightAnalyserClass(AlaWeightAnalyser.class);
+        config.setEnableJmx(false);
+        config.setLogInterval(Integer.MAX_VALUE);
+        config.setThreads(this.threads);
+        config.setVirtualThreads(this.virtualThreads);
+        config.setTaskConcurrency(this.threads);
+        this.builder = new IndexBuilder<>(config);
+        AlaLinnaeanFactory factory = AlaLinnaeanFactory.instance();
+        CSVSource source = new CSVSource(DwcTerm.Taxon, new StringReader(taxonomy(this.size)), factory, factory.getObservables());
+        this.builder.load(source);
+        source.close();
+        this.interpreted = this.builder.interpret(this.builder.getLoader());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        if (this.builder != null)
+            this.builder.close();
+        if (this.work != null)
+            FileUtils.deleteAll(this.work);
+    }
+
+    /**
+     * Build a synthetic taxonomy in CSV form.
+     * <p>
+     * The taxonomy has a single kingdom containing families, each with a fixed number of genera and species.
+     * Names are made from letters, so that they parse as scientific names.
+     * </p>
+     *
+     * @param size The approximate number of taxa
+     *
+     * @return The taxonomy as CSV
+     */
+    private static String taxonomy(int size) {
+        StringBuilder csv = new StringBuilder(size * 64);
+        csv.append("taxonID,parentNameUsageID,acceptedNameUsageID,scientificName,scientificNameAuthorship,taxonRank,taxonomicStatus\n");
+        csv.append("K,,,Animalia,,kingdom,accepted\n");
+        int families = Math.max(1, size / (1 + GENERA * (1 + SPECIES)));
+        for (int f = 0; f < families; f++) {
+            String family = "F" + f;
+            csv.append(family).append(",K,,").append(word(f, true)).append("idae,,family,accepted\n");
+            for (int g = 0; g < GENERA; g++) {
+                String genus = family + "-G" + g;
+                String genusName = word(f * GENERA + g, true) + "ia";
+                csv.append(genus).append(",").append(family).append(",,").append(genusName).append(",,genus,accepted\n");
+                for (int s = 0; s < SPECIES; s++) {
+                    csv.append(genus).append("-S").append(s).append(",").append(genus).append(",,");
+                    csv.append(genusName).append(" ").append(word(s, false)).append("us,,species,accepted\n");
+                }
+            }
+        }
+        return csv.toString();
+    }
+
+    /**
+     * Make a word from a number.
+     *
+     * @param n The number
+     * @param capitalise Capitalise the first letter
+     *
+     * @return A word made of letters
+     */
+    private static String word(int n, boolean capitalise) {
+        StringBuilder word = new StringBuilder();
+        do {
+            word.append((char) ('a' + n % 26));
+            n /= 26;
+        } while (n > 0);
+        word.append("ar");
+        if (capitalise)
+            word.setCharAt(0, Character.toUpperCase(word.charAt(0)));
+        return word.toString();
+    }
+
+    /**
+     * Run a processing stage into a new store.
+     *
+     * @param name The stage name
+     * @param source The source store
+     * @param transform The transform for each classifier
+     *
+     * @return The number of classifiers in the result
+     *
+     * @throws Exception if unable to process the stage
+     */
+    private int run(String name, LoadStore<LuceneClassifier> source, Function<LuceneClassifier, LuceneClassifier> transform) throws Exception {
+        LuceneLoadStore target = new LuceneLoadStore(name, this.work);
+        try {
+            this.builder.process(name, name + " {0} concepts", source, target, transform);
+            return target.count(DwcTerm.Taxon);
+        } finally {
+            target.close();
+        }
+    }
+
+    /**
+     * Copy the taxonomy into a new store, measuring store contention.
+     *
+     * @return The number of classifiers copied
+     *
+     * @throws Exception if unable to copy the taxonomy
+     */
+    @Benchmark
+    public int copy() throws Exception {
+        return this.run("copy", this.interpreted, Function.identity());
+    }
+
+    /**
+     * Interpret the taxonomy, as the first stage of an index build does.
+     *
+     * @return The number of classifiers interpreted
+     *
+     * @throws Exception if unable to interpret the taxonomy
+     */
+    @Benchmark
+    public int interpret() throws Exception {
+        return this.run("interpret", this.builder.getLoader(), this.builder::interpret);
+    }
+}
@@ -0,0 +1,70 @@
+package au.org.ala.names.benchmarks;
+
+import au.org.ala.names.lucene.LuceneClassifier;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark the construction of lucene classifiers.
+ * <p>
+ * Classifiers are created for every document retrieved from an index,
+ * both when building an index and when retrieving candidates,
+ * so any per-instance set-up cost is multiplied many times over.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LuceneClassifierBenchmark {
+    /** A typical retrieved document */
+    private Document document;
+
+    @Setup
+    public void setUp() {
+        this.document = new Document();
+        this.document.add(new StringField(LuceneClassifier.ID_FIELD, "https://id.biodiversity.org.au/node/apni/2911757", Field.Store.YES));
+        this.document.add(new StringField(LuceneClassifier.TYPE_FIELD, "http://rs.tdwg.org/dwc/terms/Taxon", Field.Store.YES));
+        this.document.add(new TextField(LuceneClassifier.NAMES_FIELD, "Acacia dealbata", Field.Store.YES));
+        this.document.add(new StoredField(LuceneClassifier.SIGNATURE_FIELD, "TTTFTTF"));
+    }
+
+    /**
+     * Construct a classifier for a retrieved document.
+     *
+     * @return The classifier
+     */
+    @Benchmark
+    public LuceneClassifier construct() {
+        return new LuceneClassifier(this.document);
+    }
+
+    /**
+     * Construct a classifier for a retrieved document and get its identifier,
+     * as happens when a candidate is retrieved from the searcher.
+     *
+     * @return The classifier identifier
+     */
+    @Benchmark
+    public String constructAndIdentify() {
+        return new LuceneClassifier(this.document).getIdentifier();
+    }
+
+    /**
+     * Construct an empty classifier, as happens when building an index.
+     *
+     * @return The classifier
+     */
+    @Benchmark
+    public LuceneClassifier constructEmpty() {
+        return new LuceneClassifier();
+    }
+}
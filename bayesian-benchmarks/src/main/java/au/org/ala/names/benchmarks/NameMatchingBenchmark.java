@@ -0,0 +1,149 @@
+package au.org.ala.names.benchmarks;
+
+import au.org.ala.bayesian.AnalyserConfig;
+import au.org.ala.bayesian.BayesianException;
+import au.org.ala.bayesian.ClassifierSuggester.Suggestion;
+import au.org.ala.bayesian.Inference;
+import au.org.ala.bayesian.Match;
+import au.org.ala.bayesian.MatchMeasurement;
+import au.org.ala.bayesian.MatchOptions;
+import au.org.ala.names.ALANameSearcher;
+import au.org.ala.names.AlaLinnaeanClassification;
+import au.org.ala.names.AlaLinnaeanInferencer;
+import au.org.ala.names.AlaNameAnalyser;
+import au.org.ala.names.lucene.LuceneClassifier;
+import au.org.ala.names.lucene.LuceneClassifierSearcher;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark the stages of the name matching hot path.
+ * <p>
+ * The benchmarks run against a {@link SampleIndex} built when the benchmark is set up,
+ * so the names used are ones that appear in the sample taxonomy.
+ * Each benchmark covers one stage of a search so that a regression can be
+ * traced to the analyser, the candidate search, the inference or the overall match.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NameMatchingBenchmark {
+    /** The name to search for. An exact match, a name without the rank marker and a name with an unknown species */
+    @Param({ "Canarium acutifolium", "Canarium acutifolium acutifolium", "Canarium notanameum" })
+    public String scientificName;
+    /** The fragment to use for autocomplete suggestions */
+    @Param({ "Canar" })
+    public String fragment;
+
+    private SampleIndex index;
+    private ALANameSearcher searcher;
+    private LuceneClassifierSearcher classifierSearcher;
+    private AlaNameAnalyser analyser;
+    private AlaLinnaeanInferencer inferencer;
+    /** The unanalysed template */
+    private AlaLinnaeanClassification template;
+    /** The template after analysis */
+    private AlaLinnaeanClassification analysed;
+    /** The first candidate for the analysed template */
+    private LuceneClassifier candidate;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        this.index = new SampleIndex();
+        this.searcher = new ALANameSearcher(this.index.getConfiguration());
+        this.classifierSearcher = this.searcher.getSearcher();
+        this.analyser = new AlaNameAnalyser(AnalyserConfig.load(this.index.getConfiguration().getLinnaean()));
+        this.inferencer = this.searcher.getMatcher().getInferencer();
+        this.template = new AlaLinnaeanClassification();
+        this.template.scientificName = this.scientificName;
+        this.analysed = this.template.clone();
+        this.analysed.inferForSearch(this.analyser, MatchOptions.ALL);
+        List<LuceneClassifier> candidates = this.classifierSearcher.search(this.analysed);
+        if (candidates.isEmpty()) {
+            AlaLinnaeanClassification genus = new AlaLinnaeanClassification();
+            genus.scientificName = "Canarium";
+            genus.inferForSearch(this.analyser, MatchOptions.ALL);
+            candidates = this.classifierSearcher.search(genus);
+        }
+        if (candidates.isEmpty())
+            throw new IllegalStateException("No candidates in sample index for " + this.scientificName);
+        this.candidate = candidates.get(0);
+        this.searcher.getAutocompleteSuggester(); // Build the suggester before measuring
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        if (this.searcher != null)
+            this.searcher.close();
+        if (this.index != null)
+            this.index.close();
+    }
+
+    /**
+     * A complete search, from template to match.
+     *
+     * @return The match
+     *
+     * @throws BayesianException if unable to search
+     */
+    @Benchmark
+    public Match<AlaLinnaeanClassification, MatchMeasurement> search() throws BayesianException {
+        return this.searcher.search(this.template.clone());
+    }
+
+    /**
+     * Analyse a template prior to search.
+     *
+     * @return The analysed classification
+     *
+     * @throws BayesianException if unable to analyse the template
+     */
+    @Benchmark
+    public AlaLinnaeanClassification analyseForSearch() throws BayesianException {
+        AlaLinnaeanClassification classification = this.template.clone();
+        this.analyser.analyseForSearch(classification, MatchOptions.ALL);
+        return classification;
+    }
+
+    /**
+     * Retrieve the candidates for an analysed classification.
+     *
+     * @return The candidate list
+     *
+     * @throws BayesianException if unable to search the index
+     */
+    @Benchmark
+    public List<LuceneClassifier> searchCandidates() throws BayesianException {
+        return this.classifierSearcher.search(this.analysed);
+    }
+
+    /**
+     * Compute the probability of an analysed classification against a candidate.
+     *
+     * @return The inference result
+     *
+     * @throws BayesianException if unable to compute the probability
+     */
+    @Benchmark
+    public Inference probability() throws BayesianException {
+        return this.inferencer.probability(this.analysed, this.candidate, null);
+    }
+
+    /**
+     * Suggest autocomplete names for a fragment.
+     *
+     * @return The suggestions
+     *
+     * @throws BayesianException if unable to search the suggester
+     */
+    @Benchmark
+    public List<Suggestion<LuceneClassifier>> suggest() throws BayesianException {
+        return this.searcher.getAutocompleteSuggester().suggest(this.fragment, 10, true);
+    }
+}
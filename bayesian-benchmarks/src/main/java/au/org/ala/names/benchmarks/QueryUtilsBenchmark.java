@@ -0,0 +1,75 @@
+package au.org.ala.names.benchmarks;
+
+import au.org.ala.bayesian.BayesianException;
+import au.org.ala.bayesian.Observation;
+import au.org.ala.names.AlaLinnaeanClassification;
+import au.org.ala.names.lucene.QueryUtils;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.Query;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark the construction of candidate search queries.
+ * <p>
+ * A query is built for every candidate search, using the same set of clauses as
+ * {@link au.org.ala.names.lucene.LuceneClassifierSearcher#search(au.org.ala.bayesian.Classification)}.
+ * The benchmark is run with and without the query cache, so that the effect of
+ * the cache on allocation (see <code>gc.alloc.rate.norm</code>) can be compared.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QueryUtilsBenchmark {
+    /** The size of the query cache, zero for no cache */
+    @Param({ "0", "10000" })
+    public int cacheSize;
+
+    private QueryUtils queryUtils;
+    /** The name to search for */
+    private String name;
+    /** The observations to search for */
+    private List<Observation> observations;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        AlaLinnaeanClassification classification = new AlaLinnaeanClassification();
+        classification.scientificName = "Canarium acutifolium";
+        classification.genus = "Canarium";
+        classification.family = "Burseraceae";
+        classification.kingdom = "Plantae";
+        this.queryUtils = new QueryUtils(this.cacheSize);
+        this.name = classification.scientificName;
+        this.observations = new ArrayList<>(classification.toObservations());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (this.queryUtils != null)
+            this.queryUtils.close();
+    }
+
+    /**
+     * Build a candidate search query.
+     *
+     * @return The query
+     *
+     * @throws BayesianException if unable to build the query
+     */
+    @Benchmark
+    public Query build() throws BayesianException {
+        BooleanQuery.Builder builder = this.queryUtils.createBuilder();
+        builder.add(this.queryUtils.nameClause(this.name));
+        for (Observation observation : this.observations) {
+            builder.add(this.queryUtils.asClause(observation, false, 1.0f));
+        }
+        return builder.build();
+    }
+}
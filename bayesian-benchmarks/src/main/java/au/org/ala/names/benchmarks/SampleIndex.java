@@ -0,0 +1,132 @@
+package au.org.ala.names.benchmarks;
+
+import au.org.ala.bayesian.Classification;
+import au.org.ala.bayesian.Inferencer;
+import au.org.ala.bayesian.NetworkFactory;
+import au.org.ala.location.AlaLocationBuilder;
+import au.org.ala.location.AlaLocationFactory;
+import au.org.ala.names.ALANameSearcherConfiguration;
+import au.org.ala.names.AlaLinnaeanBuilder;
+import au.org.ala.names.AlaLinnaeanFactory;
+import au.org.ala.names.AlaVernacularBuilder;
+import au.org.ala.names.AlaVernacularFactory;
+import au.org.ala.names.AlaWeightAnalyser;
+import au.org.ala.names.builder.IndexBuilder;
+import au.org.ala.names.builder.IndexBuilderConfiguration;
+import au.org.ala.names.builder.LoadStore;
+import au.org.ala.names.builder.Source;
+import au.org.ala.names.lucene.LuceneClassifier;
+import au.org.ala.util.FileUtils;
+import lombok.Getter;
+import org.gbif.dwc.terms.GbifTerm;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.net.URL;
+import java.util.Arrays;
+
+/**
+ * A small set of linnaean, vernacular and location indexes built from the test fixtures.
+ * <p>
+ * The indexes are built into a temporary directory when the sample is created
+ * and removed when the sample is closed,
+ * so that benchmarks can be run without any external index.
+ * </p>
+ */
+public class SampleIndex implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(SampleIndex.class);
+
+    /** The taxonomy source */
+    public static final String TAXONOMY_SOURCE = "/sample-1.zip";
+    /** The location source */
+    public static final String LOCATION_SOURCE = "/location-1.zip";
+
+    /** The base directory for the work and index directories */
+    private final File base;
+    /** The searcher configuration for the built indexes */
+    @Getter
+    private final ALANameSearcherConfiguration configuration;
+
+    /**
+     * Build the sample indexes.
+     *
+     * @throws Exception if unable to build the indexes
+     */
+    public SampleIndex() throws Exception {
+        this.base = FileUtils.makeTmpDir("benchmark");
+        File linnaean = new File(this.base, "linnaean");
+        File vernacular = new File(this.base, "vernacular");
+        File location = new File(this.base, "location");
+        File suggester = new File(this.base, "suggester");
+        IndexBuilderConfiguration config;
+
+        logger.info("Building sample indexes in " + this.base);
+        config = new IndexBuilderConfiguration();
+        config.setBuilderClass(AlaLinnaeanBuilder.class);
+        config.setNetwork(AlaLinnaeanBuilder.class.getResource("/ala-linnaean.json"));
+        config.setFactoryClass(AlaLinnaeanFactory.class);
+        config.setWeightAnalyserClass(AlaWeightAnalyser.class);
+        this.buildIndex(config, AlaLinnaeanFactory.instance(), TAXONOMY_SOURCE, "linnaean-work", linnaean);
+        config = new IndexBuilderConfiguration();
+        config.setTypes(Arrays.asList(GbifTerm.VernacularName));
+        config.setBuilderClass(AlaVernacularBuilder.class);
+        config.setNetwork(AlaVernacularBuilder.class.getResource("/ala-vernacular.json"));
+        config.setFactoryClass(AlaVernacularFactory.class);
+        this.buildIndex(config, AlaVernacularFactory.instance(), TAXONOMY_SOURCE, "vernacular-work", vernacular);
+        config = new IndexBuilderConfiguration();
+        config.setTypes(Arrays.asList(AlaLocationFactory.CONCEPT));
+        config.setBuilderClass(AlaLocationBuilder.class);
+        config.setNetwork(AlaLocationBuilder.class.getResource("/ala-location.json"));
+        config.setFactoryClass(AlaLocationFactory.class);
+        this.buildIndex(config, AlaLocationFactory.instance(), LOCATION_SOURCE, "location-work", location);
+        this.configuration = ALANameSearcherConfiguration.builder()
+                .index(this.base)
+                .work(this.base)
+                .linnaean(linnaean)
+                .vernacular(vernacular)
+                .location(location)
+                .suggester(suggester)
+                .build();
+    }
+
+    /**
+     * Build an index from a fixture.
+     *
+     * @param config The builder configuration
+     * @param factory The network factory
+     * @param source The fixture resource name
+     * @param work The name of the work directory to use
+     * @param output The index output directory
+     *
+     * @throws Exception if unable to build the index
+     */
+    private <C extends Classification<C>, I extends Inferencer<C>, F extends NetworkFactory<C, I, F>> void buildIndex(IndexBuilderConfiguration config, F factory, String source, String work, File output) throws Exception {
+        URL url = SampleIndex.class.getResource(source);
+        if (url == null)
+            throw new IllegalStateException("Unable to find fixture " + source);
+        File workDir = new File(this.base, work);
+        if (!workDir.exists() && !workDir.mkdirs())
+            throw new IllegalStateException("Unable to create work directory " + workDir);
+        config.setWork(workDir);
+        IndexBuilder<C, I, F, LuceneClassifier> builder = new IndexBuilder<>(config);
+        try {
+            Source src = Source.create(url, factory, factory.getObservables(), config.getTypes());
+            builder.load(src);
+            LoadStore<LuceneClassifier> parameterised = builder.build();
+            builder.buildIndex(output, parameterised);
+        } finally {
+            builder.close();
+        }
+    }
+
+    /**
+     * Remove the sample indexes.
+     *
+     * @throws Exception if unable to delete the index directories
+     */
+    @Override
+    public void close() throws Exception {
+        FileUtils.deleteAll(this.base);
+    }
+}
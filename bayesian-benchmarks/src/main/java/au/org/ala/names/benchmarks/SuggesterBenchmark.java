@@ -0,0 +1,84 @@
+package au.org.ala.names.benchmarks;
+
+import au.org.ala.bayesian.BayesianException;
+import au.org.ala.bayesian.ClassifierSuggester;
+import au.org.ala.bayesian.ClassifierSuggester.Suggestion;
+import au.org.ala.names.ALANameSearcher;
+import au.org.ala.names.AlaLinnaeanFactory;
+import au.org.ala.names.lucene.LuceneClassifier;
+import au.org.ala.names.lucene.LuceneClassifierPrefixSuggester;
+import au.org.ala.names.lucene.LuceneClassifierSuggester;
+import au.org.ala.util.FileUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark autocomplete suggestions.
+ * <p>
+ * The infix suggester, built on a blended infix suggester and an ngram index,
+ * is compared with the prefix suggester, built on a finite state transducer.
+ * Both suggesters are built from a {@link SampleIndex}.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SuggesterBenchmark {
+    /** The type of suggester */
+    @Param({ "infix", "prefix" })
+    public String suggesterType;
+    /** The fragment to use for autocomplete suggestions. A short prefix, a longer prefix and a word within a name */
+    @Param({ "Can", "Canar", "acutif" })
+    public String fragment;
+
+    private SampleIndex index;
+    private ALANameSearcher searcher;
+    private File dir;
+    private ClassifierSuggester<LuceneClassifier> suggester;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        this.index = new SampleIndex();
+        this.searcher = new ALANameSearcher(this.index.getConfiguration());
+        this.dir = FileUtils.makeTmpDir("suggester-benchmark");
+        if ("prefix".equals(this.suggesterType)) {
+            LuceneClassifierPrefixSuggester prefix = new LuceneClassifierPrefixSuggester(this.dir, null, this.searcher.getSearcher(), AlaLinnaeanFactory.instance(), this.searcher.getVernacularSearcher());
+            prefix.load();
+            this.suggester = prefix;
+        } else {
+            LuceneClassifierSuggester infix = new LuceneClassifierSuggester(this.dir, null, this.searcher.getSearcher(), AlaLinnaeanFactory.instance(), this.searcher.getVernacularSearcher());
+            infix.load();
+            this.suggester = infix;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        if (this.suggester != null)
+            this.suggester.close();
+        if (this.searcher != null)
+            this.searcher.close();
+        if (this.dir != null)
+            FileUtils.deleteAll(this.dir);
+        if (this.index != null)
+            this.index.close();
+    }
+
+    /**
+     * Suggest autocomplete names for a fragment.
+     *
+     * @return The suggestions
+     *
+     * @throws BayesianException if unable to search the suggester
+     */
+    @Benchmark
+    public List<Suggestion<LuceneClassifier>> suggest() throws BayesianException {
+        return this.suggester.suggest(this.fragment, 10, true);
+    }
+}
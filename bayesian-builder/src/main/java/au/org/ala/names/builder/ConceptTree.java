@@ -0,0 +1,231 @@
+package au.org.ala.names.builder;
+
+import au.org.ala.bayesian.BayesianException;
+import au.org.ala.bayesian.Classifier;
+import au.org.ala.bayesian.Observable;
+import org.gbif.dwc.terms.Term;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An in-memory parent to children adjacency for the concepts in a load store.
+ * <p>
+ * The tree is built from a single sequential scan of the store and allows
+ * the builder to find the children of a concept without issuing a query.
+ * Concept identifiers are held in a sorted array and concepts are referred to by their position in that array.
+ * The children of each concept are held in compressed sparse row form:
+ * the children of concept <code>i</code> are the positions <code>children[offsets[i]]</code>
+ * to <code>children[offsets[i + 1] - 1]</code>, in store order.
+ * The parent of concept <code>i</code> is <code>parents[i]</code>, or -1 if it has no parent in the tree.
+ * The builder uses the tree to collect the identifiers it needs and then fetches the classifiers in a single batch.
+ * </p>
+ * <p>
+ * Building a tree is limited by a memory budget.
+ * If the estimated size of the tree exceeds the budget, then no tree is built
+ * and the builder should fall back to queries.
+ * </p>
+ */
+public class ConceptTree {
+    private static final Logger logger = LoggerFactory.getLogger(ConceptTree.class);
+
+    /** The estimated overhead of a string, in bytes */
+    private static final int STRING_OVERHEAD = 48;
+    /** The estimated cost of the array entries for a concept, in bytes */
+    private static final int ENTRY_OVERHEAD = 24;
+
+    /** The concept identifiers, sorted */
+    private final String[] ids;
+    /** The start of the children for each concept, with a final end offset */
+    private final int[] offsets;
+    /** The children of each concept, as positions in the identifier array */
+    private final int[] children;
+    /** The parent of each concept, as a position in the identifier array or -1 for none */
+    private final int[] parents;
+
+    /**
+     * Construct a concept tree.
+     *
+     * @param ids The sorted concept identifiers
+     * @param offsets The child offsets
+     * @param children The child positions
+     * @param parents The parent positions
+     */
+    protected ConceptTree(String[] ids, int[] offsets, int[] children, int[] parents) {
+        this.ids = ids;
+        this.offsets = offsets;
+        this.children = children;
+        this.parents = parents;
+    }
+
+    /**
+     * Get the number of concepts in the tree.
+     *
+     * @return The concept count
+     */
+    public int size() {
+        return this.ids.length;
+    }
+
+    /**
+     * Get the estimated memory used by the tree.
+     *
+     * @return The estimated size in bytes
+     */
+    public long getEstimatedSize() {
+        long size = (long) (this.offsets.length + this.children.length + this.parents.length) * Integer.BYTES;
+        for (String id: this.ids)
+            size += estimate(id);
+        return size;
+    }
+
+    /**
+     * Does the tree contain a concept?
+     *
+     * @param id The concept identifier
+     *
+     * @return True if the concept is in the tree
+     */
+    public boolean contains(String id) {
+        return id != null && Arrays.binarySearch(this.ids, id) >= 0;
+    }
+
+    /**
+     * Get the identifiers of the children of a concept.
+     *
+     * @param id The concept identifier
+     *
+     * @return The child identifiers, in store order, or null if the concept is not in the tree
+     */
+    public List<String> getChildren(String id) {
+        int pos = id == null ? -1 : Arrays.binarySearch(this.ids, id);
+        if (pos < 0)
+            return null;
+        int start = this.offsets[pos];
+        int end = this.offsets[pos + 1];
+        if (start == end)
+            return Collections.emptyList();
+        List<String> result = new ArrayList<>(end - start);
+        for (int i = start; i < end; i++)
+            result.add(this.ids[this.children[i]]);
+        return result;
+    }
+
+    /**
+     * Get the identifiers of the ancestors of a concept.
+     * <p>
+     * If there is a loop in the parents, the walk stops once it has returned to a concept that it has already seen,
+     * with the repeated identifier as the last element, so that the caller can detect the loop.
+     * </p>
+     *
+     * @param id The concept identifier
+     *
+     * @return The ancestor identifiers, starting with the immediate parent, or null if the concept is not in the tree
+     */
+    public List<String> getAncestors(String id) {
+        int pos = id == null ? -1 : Arrays.binarySearch(this.ids, id);
+        if (pos < 0)
+            return null;
+        List<String> result = new ArrayList<>();
+        for (pos = this.parents[pos]; pos >= 0 && result.size() <= this.ids.length; pos = this.parents[pos])
+            result.add(this.ids[pos]);
+        return result;
+    }
+
+    /**
+     * Estimate the memory used by an identifier.
+     *
+     * @param id The identifier
+     *
+     * @return The estimated size in bytes
+     */
+    private static long estimate(String id) {
+        return id == null ? 0 : STRING_OVERHEAD + id.length();
+    }
+
+    /**
+     * Build a concept tree from a store.
+     *
+     * @param source The store to scan
+     * @param type The concept type
+     * @param identifier The concept identifier observable
+     * @param parent The parent identifier observable
+     * @param budget The maximum estimated size of the tree and the working data needed to build it, in bytes
+     *
+     * @return The tree, or null if the tree would exceed the budget or the identifiers are not unique
+     *
+     * @throws BayesianException if unable to read the store
+     */
+    public static <Cl extends Classifier> ConceptTree build(LoadStore<Cl> source, Term type, Observable<String> identifier, Observable<String> parent, long budget) throws BayesianException {
+        int count = source.count(type);
+        long used = (long) count * ENTRY_OVERHEAD;
+        if (used > budget) {
+            logger.info("Concept tree for " + count + " concepts exceeds budget of " + budget + " bytes");
+            return null;
+        }
+        String[] ids = new String[count];
+        String[] parents = new String[count];
+        int n = 0;
+        Iterable<Cl> concepts = source.getAll(type);
+        try {
+            for (Cl classifier: concepts) {
+                if (n >= count) {
+                    logger.warn("Store has changed size during scan, expected " + count + " concepts");
+                    return null;
+                }
+                String id = classifier.get(identifier);
+                String pid = classifier.get(parent);
+                used += estimate(id) + estimate(pid);
+                if (used > budget) {
+                    logger.info("Concept tree exceeds budget of " + budget + " bytes after " + n + " of " + count + " concepts");
+                    return null;
+                }
+                if (id == null) {
+                    logger.warn("Concept without identifier, unable to build tree");
+                    return null;
+                }
+                ids[n] = id;
+                parents[n] = pid;
+                n++;
+            }
+        } finally {
+            LoadStore.close(concepts);
+        }
+        if (n < count) {
+            ids = Arrays.copyOf(ids, n);
+            parents = Arrays.copyOf(parents, n);
+        }
+        String[] sorted = ids.clone();
+        Arrays.sort(sorted);
+        for (int i = 1; i < sorted.length; i++) {
+            if (sorted[i].equals(sorted[i - 1])) {
+                logger.warn("Duplicate concept identifier " + sorted[i] + ", unable to build tree");
+                return null;
+            }
+        }
+        int[] offsets = new int[n + 1];
+        int[] parentPos = new int[n];
+        for (int i = 0; i < n; i++) {
+            int pos = parents[i] == null ? -1 : Arrays.binarySearch(sorted, parents[i]);
+            parentPos[Arrays.binarySearch(sorted, ids[i])] = pos < 0 ? -1 : pos;
+            if (pos >= 0)
+                offsets[pos + 1]++;
+        }
+        for (int i = 0; i < n; i++)
+            offsets[i + 1] += offsets[i];
+        int[] children = new int[offsets[n]];
+        int[] fill = Arrays.copyOf(offsets, n);
+        for (int i = 0; i < n; i++) {
+            int pos = parents[i] == null ? -1 : Arrays.binarySearch(sorted, parents[i]);
+            if (pos >= 0)
+                children[fill[pos]++] = Arrays.binarySearch(sorted, ids[i]);
+        }
+        ConceptTree tree = new ConceptTree(sorted, offsets, children, parentPos);
+        logger.info("Built concept tree of " + n + " concepts with " + children.length + " parent links, estimated size " + tree.getEstimatedSize() + " bytes");
+        return tree;
+    }
+}
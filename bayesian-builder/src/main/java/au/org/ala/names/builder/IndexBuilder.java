@@ -23,11 +23,21 @@ import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
 import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
 import java.net.URL;
 import java.text.SimpleDateFormat;
 import java.util.*;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -53,6 +63,20 @@ public class IndexBuilder<C extends Classification<C>, I extends Inferencer<C>,
     public static final SimpleDateFormat TIMESTAMP = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssXXX");
     /** The number of documents to commit in a batch */
     public static final int COMMIT_BATCH = 5000;
+    /** The interpretation stage */
+    public static final String STAGE_INTERPRET = "interpret";
+    /** The synonymisation stage */
+    public static final String STAGE_SYNONYMISE = "synonymise";
+    /** The broadening stage */
+    public static final String STAGE_BROADEN = "broaden";
+    /** The tree expansion stage */
+    public static final String STAGE_EXPAND = "expand";
+    /** The inference stage */
+    public static final String STAGE_INFER = "infer";
+    /** The weighting stage */
+    public static final String STAGE_WEIGHT = "weight";
+    /** The parameterisation stage */
+    public static final String STAGE_PARAMETERISE = "parameterise";
 
     protected IndexBuilderConfiguration config;
     /** The network that this is a builder for */
@@ -104,8 +128,14 @@ public class IndexBuilder<C extends Classification<C>, I extends Inferencer<C>,
     protected Set<Object> identifiers;
     /** The set of MBeans used */
     protected Set<ObjectInstance> mbeans;
+    /** The MBeans registered for work stores, so that they can be unregistered when a store is released */
+    private final Map<LoadStore<Cl>, ObjectInstance> storeMBeans;
     /** Source information metadata */
     protected List<Metadata> sources;
+    /** The in-memory concept tree, if one has been built */
+    private volatile ConceptTree conceptTree;
+    /** The store that the concept tree was built from */
+    private volatile LoadStore<Cl> conceptTreeSource;
 
     /**
      * Construct with a configuration.
@@ -151,6 +181,7 @@ public class IndexBuilder<C extends Classification<C>, I extends Inferencer<C>,
         this.stored.addAll(this.copy);
         this.identifiers = Collections.synchronizedSet(new HashSet<>());
         this.mbeans = new HashSet<>();
+        this.storeMBeans = new IdentityHashMap<>();
         this.stores = new ArrayList<>();
         this.loader = this.createWorkStore("loader");
         this.sources = new ArrayList<>();
@@ -181,6 +212,8 @@ public class IndexBuilder<C extends Classification<C>, I extends Inferencer<C>,
      * @throws BayesianException if unable to store information in the index or build inference parameters
      */
     public LoadStore<Cl> build() throws BayesianException {
+        if (this.config.isPipeline())
+            return this.buildPipelined();
         LoadStore<Cl> interpreted = this.interpret(this.loader);
         LoadStore<Cl> synonymised = this.synonymise(interpreted);
         LoadStore<Cl> broadened = this.broaden(synonymised);
@@ -192,6 +225,128 @@ public class IndexBuilder<C extends Classification<C>, I extends Inferencer<C>,
     }
 
 
+    /**
+     * Build the index using a pipeline of stages.
+     * <p>
+     * Stages that only need to see a single classifier at a time, such as inference and weighting,
+     * are fused into a single pass over the data, unless the stage is listed as a pipeline boundary.
+     * Stages that need random access to their source data, such as synonymisation, expansion and
+     * parameterisation, still read from a complete store.
+     * Each intermediate store is closed, and discarded, once the following stage has finished with it,
+     * unless the stage that produced it is listed as a pipeline boundary.
+     * </p>
+     *
+     * @return The parameterised data store
+     *
+     * @throws BayesianException if unable to store information in the index or build inference parameters
+     *
+     * @see IndexBuilderConfiguration#getPipelineBoundaries()
+     */
+    public LoadStore<Cl> buildPipelined() throws BayesianException {
+        LoadStore<Cl> interpreted = this.interpret(this.loader);
+        LoadStore<Cl> synonymised = this.synonymise(interpreted);
+        this.release(interpreted, synonymised, STAGE_INTERPRET);
+        LoadStore<Cl> broadened = this.broaden(synonymised);
+        this.release(synonymised, broadened, STAGE_SYNONYMISE);
+        LoadStore<Cl> expanded = this.expand(broadened);
+        this.release(broadened, expanded, STAGE_BROADEN);
+        LoadStore<Cl> weighted = this.stream(expanded, STAGE_EXPAND, STAGE_INFER, STAGE_WEIGHT);
+        LoadStore<Cl> parameterised = this.parameterise(weighted);
+        this.release(weighted, parameterised, STAGE_WEIGHT);
+        return parameterised;
+    }
+
+    /**
+     * Run a sequence of streaming stages over a store.
+     * <p>
+     * Consecutive stages are fused into a single pass, with a store only written
+     * at pipeline boundaries and after the last stage.
+     * </p>
+     *
+     * @param source The source store
+     * @param sourceStage The stage that produced the source store
+     * @param stages The streaming stages to run, in order
+     *
+     * @return The store containing the result of the last stage
+     *
+     * @throws BayesianException if unable to process the data
+     */
+    protected LoadStore<Cl> stream(LoadStore<Cl> source, String sourceStage, String... stages) throws BayesianException {
+        Set<String> boundaries = this.config.getPipelineBoundaries();
+        List<String> pending = new ArrayList<>();
+        Function<Cl, Cl> transform = Function.identity();
+        for (int i = 0; i < stages.length; i++) {
+            String stage = stages[i];
+            pending.add(stage);
+            transform = transform.andThen(this.getStreamTransform(stage));
+            if (i == stages.length - 1 || (boundaries != null && boundaries.contains(stage))) {
+                String name = String.join("-", pending);
+                LoadStore<Cl> target = this.createWorkStore(name);
+                this.process(
+                        name,
+                        "Processed " + name + " for {0} concepts, {2,number,0.0}/s, last {4}",
+                        source,
+                        target,
+                        transform
+                );
+                target.commit();
+                this.release(source, target, sourceStage);
+                source = target;
+                sourceStage = stage;
+                pending.clear();
+                transform = Function.identity();
+            }
+        }
+        return source;
+    }
+
+    /**
+     * Get the classifier transform for a streaming stage.
+     *
+     * @param stage The stage name
+     *
+     * @return The transform
+     *
+     * @throws BuilderException if the stage cannot be streamed
+     */
+    protected Function<Cl, Cl> getStreamTransform(String stage) throws BuilderException {
+        switch (stage) {
+            case STAGE_INTERPRET:
+                return this::interpret;
+            case STAGE_INFER:
+                return this::infer;
+            case STAGE_WEIGHT:
+                return this::weight;
+            default:
+                throw new BuilderException("Stage " + stage + " cannot be streamed");
+        }
+    }
+
+    /**
+     * Release an intermediate store once a pipeline stage has finished with it.
+     * <p>
+     * The store is kept if it is the loader, if it is also the result of the stage,
+     * or if the stage that produced it is a pipeline boundary.
+     * A released store is closed and any MBean registered for it is unregistered.
+     * </p>
+     *
+     * @param store The store to release
+     * @param result The result of the stage that read the store
+     * @param stage The stage that produced the store
+     *
+     * @throws StoreException if unable to close the store
+     */
+    protected void release(LoadStore<Cl> store, LoadStore<Cl> result, String stage) throws StoreException {
+        Set<String> boundaries = this.config.getPipelineBoundaries();
+        if (store == this.loader || store == result || (boundaries != null && boundaries.contains(stage)))
+            return;
+        if (this.stores.remove(store)) {
+            logger.info("Releasing " + stage + " store " + store.getName());
+            store.close();
+            this.unregisterJmx(this.storeMBeans.remove(store));
+        }
+    }
+
     /**
      * Close down the index builder.
      * <p>
@@ -205,13 +360,8 @@ public class IndexBuilder<C extends Classification<C>, I extends Inferencer<C>,
             store.close();
         }
         if (this.config.isEnableJmx()) {
-            MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
-            for (ObjectInstance mbean: this.mbeans) {
-                try {
-                    mbs.unregisterMBean(mbean.getObjectName());
-                } catch (Exception ex) {
-                    logger.error("Unable to unregister " + mbean, ex);
-                }
+            for (ObjectInstance mbean: new ArrayList<>(this.mbeans)) {
+                this.unregisterJmx(mbean);
             }
         }
     }
@@ -233,22 +383,31 @@ public class IndexBuilder<C extends Classification<C>, I extends Inferencer<C>,
                 "Interpreted {0} concepts, {2,number,0.0}/s, last {4}",
                 source,
                 target,
-                c -> {
-                    try {
-                        this.builder.generate(c, this.analyser);
-                        this.annotate(c);
-                        this.buildNames(c);
-                        this.builder.interpret(c, this.analyser);
-                        return c;
-                    } catch (BayesianException ex) {
-                        throw new IllegalArgumentException("Unable to process " + c.get(this.identifier), ex);
-                    }
-                }
+                this::interpret
                 );
         target.commit();
         return target;
     }
 
+    /**
+     * Interpret a single classifier.
+     *
+     * @param classifier The classifier
+     *
+     * @return The interpreted classifier
+     */
+    public Cl interpret(Cl classifier) {
+        try {
+            this.builder.generate(classifier, this.analyser);
+            this.annotate(classifier);
+            this.buildNames(classifier);
+            this.builder.interpret(classifier, this.analyser);
+            return classifier;
+        } catch (BayesianException ex) {
+            throw new IllegalArgumentException("Unable to process " + classifier.get(this.identifier), ex);
+        }
+    }
+
     /**
      * Get the alternative name interpretations for a classifier.
      *
@@ -360,13 +519,18 @@ public class IndexBuilder<C extends Classification<C>, I extends Inferencer<C>,
             return source;
         }
         final LoadStore<Cl> target = this.createWorkStore("broadened");
-        this.process(
-                "broaden",
-                "Broadened {0} concepts, {2,number,0.0}/s, last {4}",
-                source,
-                target,
-                c -> this.broaden(c, source)
-        );
+        this.buildConceptTree(source);
+        try {
+            this.process(
+                    "broaden",
+                    "Broadened {0} concepts, {2,number,0.0}/s, last {4}",
+                    source,
+                    target,
+                    c -> this.broaden(c, source)
+            );
+        } finally {
+            this.releaseConceptTree();
+        }
         target.commit();
         return target;
     }
@@ -394,27 +558,32 @@ public class IndexBuilder<C extends Classification<C>, I extends Inferencer<C>,
 
     @SneakyThrows
     public void broadenUp(Cl classifier, Function<Classifier, Boolean> broadener, LoadStore<Cl> source, Set<String> names, Set<String> seen) {
+        this.broadenUp(classifier, broadener, source, names, seen, this.getAncestors(source, classifier.get(this.identifier)));
+    }
+
+    @SneakyThrows
+    protected void broadenUp(Cl classifier, Function<Classifier, Boolean> broadener, LoadStore<Cl> source, Set<String> names, Set<String> seen, Map<String, Cl> ancestors) {
         String id = classifier.get(this.identifier);
         String pid = classifier.get(this.parent.get());
         if (pid == null)
             return;
         if (seen.contains(pid))
             throw new BuilderException("Loop in parents, already seen " + pid + " from immediate child " + id + " seen " + seen);
-        Cl p = source.get(this.conceptTerm, this.identifier, pid);
-        if (!broadener.apply(p))
+        Cl p = ancestors != null ? ancestors.get(pid) : source.get(this.conceptTerm, this.identifier, pid);
+        if (p == null || !broadener.apply(p))
             return;
         names.addAll(p.getAll(this.name));
         this.fullName.ifPresent(n -> names.addAll(p.getAll(n)));
         this.altName.ifPresent(n -> names.addAll(p.getAll(n)));
         this.synonymName.ifPresent(n -> names.addAll(p.getAll(n)));
         seen.add(pid);
-        this.broadenUp(p, broadener, source, names, seen);
+        this.broadenUp(p, broadener, source, names, seen, ancestors);
     }
 
     @SneakyThrows
     public void broadenDown(Cl classifier, Function<Classifier, Boolean> broadener, LoadStore<Cl> source, Set<String> names, Set<String> seen) {
         String id = classifier.get(this.identifier);
-        Iterable<Cl> children = source.getAll(this.conceptTerm, new Observation(true, this.parent.get(), id));
+        Iterable<Cl> children = this.getChildren(source, id);
         for (Cl child: children) {
             String cid = child.get(this.identifier);
             if (seen.contains(cid))
@@ -441,7 +610,12 @@ public class IndexBuilder<C extends Classification<C>, I extends Inferencer<C>,
      */
      public LoadStore<Cl> expand(LoadStore<Cl> source) throws BayesianException {
         LoadStore<Cl> expanded = this.createWorkStore("expanded");
-        this.expandTree(source, expanded);
+        this.buildConceptTree(source);
+        try {
+            this.expandTree(source, expanded);
+        } finally {
+            this.releaseConceptTree();
+        }
         this.expandSynonyms(source, expanded);
         return expanded;
      }
@@ -452,11 +626,16 @@ public class IndexBuilder<C extends Classification<C>, I extends Inferencer<C>,
      * <p>
      * This densely indexes the elements in the tree.
      * This makes parallelisation hard.
+     * If parallel expansion is configured, see {@link #expandTreeParallel(LoadStore, LoadStore)}
      * </p>
      *
      * @throws BayesianException if unable to traverse the tree, compute derivations or store data property
      */
     public void expandTree(LoadStore<Cl> source, LoadStore<Cl> target) throws BayesianException {
+        if (this.config.isParallelExpand() && this.config.getThreads() > 1) {
+            this.expandTreeParallel(source, target);
+            return;
+        }
         logger.info("Expanding accepted concept tree");
         int index = 1;
         int oldIndex = index;
@@ -505,7 +684,7 @@ public class IndexBuilder<C extends Classification<C>, I extends Inferencer<C>,
         classifier.setTrail(trail);
         if (this.parent.isPresent()) {
             parents.push(classifier);
-            Iterable<Cl> children = source.getAll(this.conceptTerm, new Observation(true, this.parent.get(), id));
+            Iterable<Cl> children = this.getChildren(source, id);
             for (Cl child : children) {
                 index = this.expandTree(child, parents, index, counter, source, target);
             }
@@ -517,6 +696,232 @@ public class IndexBuilder<C extends Classification<C>, I extends Inferencer<C>,
         return index + 1;
     }
 
+    /**
+     * Traverse the tree in parallel.
+     * <p>
+     * This is done in two passes.
+     * The first pass counts the size of each subtree and records the sizes of subtrees
+     * that are large enough to be worth expanding separately.
+     * The second pass expands the tree.
+     * Since the size of a large subtree is known, it can be given its own range of indexes
+     * and expanded as a separate task, while the rest of the tree continues to be expanded.
+     * The resulting indexes are identical to those of a serial traversal.
+     * </p>
+     *
+     * @param source The source documents
+     * @param target The target documents
+     *
+     * @throws BayesianException if unable to traverse the tree, compute derivations or store data property
+     */
+    public void expandTreeParallel(LoadStore<Cl> source, LoadStore<Cl> target) throws BayesianException {
+        logger.info("Expanding accepted concept tree with " + this.config.getThreads() + " threads");
+        Observation isRoot = source.getAnnotationObservation(BayesianTerm.isRoot);
+        List<Cl> top = source.getAllClassifiers(this.conceptTerm, isRoot);
+        int threshold = Math.max(1, this.config.getExpandForkThreshold());
+        Map<String, Integer> sizes = new ConcurrentHashMap<>();
+        Counter topCounter = new Counter("Processed {0} top level concepts, {1}s, {3,number,0.0}%", logger, 100, top.size());
+        Counter counter = new Counter("Processed {0} accepted concepts, {2,number,0.0}/s, last {4}", logger, this.config.getLogInterval(), -1);
+        this.registerJmx(topCounter, "top");
+        this.registerJmx(counter, "accepted");
+        ForkJoinPool pool = new ForkJoinPool(this.config.getThreads());
+        try {
+            List<CountTask> counts = top.stream()
+                    .map(c -> new CountTask(c.get(this.identifier), threshold, sizes, source))
+                    .collect(Collectors.toList());
+            counts.forEach(pool::execute);
+            int index = 1;
+            int[] starts = new int[top.size()];
+            for (int i = 0; i < counts.size(); i++) {
+                starts[i] = index;
+                index += counts.get(i).join();
+            }
+            logger.info("Counted " + (index - 1) + " accepted concepts, " + sizes.size() + " subtrees of " + threshold + " or more");
+            topCounter.start();
+            counter.start();
+            List<ExpandTask> expansions = new ArrayList<>(top.size());
+            for (int i = 0; i < top.size(); i++) {
+                ExpandTask expansion = new ExpandTask(top.get(i), new LinkedList<>(), starts[i], sizes, counter, source, target);
+                pool.execute(expansion);
+                expansions.add(expansion);
+            }
+            for (int i = 0; i < expansions.size(); i++) {
+                expansions.get(i).join();
+                topCounter.increment(top.get(i).getIdentifier());
+            }
+        } catch (IllegalStateException ex) {
+            // Task exceptions may be re-wrapped when joined
+            for (Throwable cause = ex.getCause(); cause != null; cause = cause.getCause())
+                if (cause instanceof BayesianException)
+                    throw (BayesianException) cause;
+            throw ex;
+        } finally {
+            pool.shutdownNow();
+        }
+        target.commit();
+        counter.stop();
+        topCounter.stop();
+    }
+
+    /**
+     * Expand a single classifier in the tree, as part of a parallel expansion.
+     * <p>
+     * Children with a known subtree size are expanded as separate tasks.
+     * The classifier is only stored once all its children have been expanded,
+     * so that the classifier is not modified while the children are reading it.
+     * </p>
+     *
+     * @param classifier The classifier
+     * @param parents A queue of parents, closest parent first
+     * @param index The index value
+     * @param sizes The sizes of subtrees to expand separately, keyed by identifier
+     * @param counter The statistics counter
+     * @param source The source documents
+     * @param target The target documents
+     *
+     * @return The next index value to use
+     *
+     * @throws BayesianException if unable to computer derived values or store the result
+     */
+    protected int expandTree(Cl classifier, Deque<Cl> parents, int index, Map<String, Integer> sizes, Counter counter, LoadStore<Cl> source, LoadStore<Cl> target) throws BayesianException {
+        int left = index;
+        String id = classifier.get(this.identifier);
+        List<ExpandTask> forked = new ArrayList<>();
+        // Perform all derivations
+        this.builder.expand(classifier, parents, this.analyser);
+        List<String> trail = parents.stream().map(p -> p.get(this.identifier)).collect(Collectors.toList());
+        Collections.reverse(trail);
+        classifier.setTrail(trail);
+        if (this.parent.isPresent()) {
+            parents.push(classifier);
+            Iterable<Cl> children = this.getChildren(source, id);
+            for (Cl child : children) {
+                Integer size = sizes.get(child.get(this.identifier));
+                if (size != null) {
+                    ExpandTask expansion = new ExpandTask(child, new LinkedList<>(parents), index, sizes, counter, source, target);
+                    expansion.fork();
+                    forked.add(expansion);
+                    index += size;
+                } else {
+                    index = this.expandTree(child, parents, index, sizes, counter, source, target);
+                }
+            }
+            parents.pop();
+        }
+        for (ExpandTask expansion: forked)
+            expansion.join();
+        classifier.setIndex(left, index);
+        target.store(classifier);
+        counter.increment(id);
+        return index + 1;
+    }
+
+    /**
+     * Build an in-memory concept tree for a source, if configured.
+     * <p>
+     * If the tree would exceed the configured memory budget, then no tree is built and
+     * children are found by querying the source.
+     * </p>
+     *
+     * @param source The source store
+     *
+     * @throws BayesianException if unable to read the source
+     *
+     * @see ConceptTree
+     */
+    protected void buildConceptTree(LoadStore<Cl> source) throws BayesianException {
+        int budget = this.config.getConceptTreeBudget();
+        if (budget <= 0 || !this.parent.isPresent())
+            return;
+        if (this.conceptTree != null && this.conceptTreeSource == source)
+            return;
+        logger.info("Building concept tree with a budget of " + budget + "Mb");
+        this.conceptTree = ConceptTree.build(source, this.conceptTerm, this.identifier, this.parent.get(), budget * 1024L * 1024L);
+        this.conceptTreeSource = this.conceptTree == null ? null : source;
+        if (this.conceptTree == null)
+            logger.info("Unable to build concept tree, using queries");
+    }
+
+    /**
+     * Release any concept tree.
+     */
+    protected void releaseConceptTree() {
+        this.conceptTree = null;
+        this.conceptTreeSource = null;
+    }
+
+    /**
+     * Get the children of a concept.
+     * <p>
+     * If there is a concept tree for the source, the child identifiers are found from the tree
+     * and the children fetched in a single batch.
+     * Otherwise, the source is queried for concepts with the parent.
+     * </p>
+     *
+     * @param source The source store
+     * @param id The parent identifier
+     *
+     * @return The children
+     *
+     * @throws BayesianException if unable to retrieve the children
+     */
+    protected Iterable<Cl> getChildren(LoadStore<Cl> source, String id) throws BayesianException {
+        ConceptTree tree = this.conceptTreeSource == source ? this.conceptTree : null;
+        List<String> ids = tree == null ? null : tree.getChildren(id);
+        if (ids == null)
+            return source.getAll(this.conceptTerm, new Observation(true, this.parent.get(), id));
+        if (ids.isEmpty())
+            return Collections.emptyList();
+        return new ArrayList<>(source.getAll(this.conceptTerm, this.identifier, ids).values());
+    }
+
+    /**
+     * Get the ancestors of a concept.
+     * <p>
+     * If there is a concept tree for the source, the ancestor identifiers are found from the tree
+     * and the ancestors fetched in a single batch.
+     * </p>
+     *
+     * @param source The source store
+     * @param id The concept identifier
+     *
+     * @return A map of identifier to ancestor, or null if there is no concept tree containing the concept
+     *
+     * @throws BayesianException if unable to retrieve the ancestors
+     */
+    protected Map<String, Cl> getAncestors(LoadStore<Cl> source, String id) throws BayesianException {
+        ConceptTree tree = this.conceptTreeSource == source ? this.conceptTree : null;
+        List<String> ids = tree == null ? null : tree.getAncestors(id);
+        if (ids == null)
+            return null;
+        if (ids.isEmpty())
+            return Collections.emptyMap();
+        return source.getAll(this.conceptTerm, this.identifier, ids);
+    }
+
+    /**
+     * Get the identifiers of the children of a concept.
+     * <p>
+     * If there is a concept tree for the source, then no classifiers need to be retrieved.
+     * </p>
+     *
+     * @param source The source store
+     * @param id The parent identifier
+     *
+     * @return The child identifiers
+     *
+     * @throws BayesianException if unable to retrieve the children
+     */
+    protected List<String> getChildIds(LoadStore<Cl> source, String id) throws BayesianException {
+        ConceptTree tree = this.conceptTreeSource == source ? this.conceptTree : null;
+        List<String> ids = tree == null ? null : tree.getChildren(id);
+        if (ids != null)
+            return ids;
+        ids = new ArrayList<>();
+        for (Cl child: source.getAll(this.conceptTerm, new Observation(true, this.parent.get(), id)))
+            ids.add(child.get(this.identifier));
+        return ids;
+    }
+
     /**
      * Expand all synonyms, including the portions of the parent taxonomy that are accurate.
      *
@@ -589,20 +994,29 @@ public class IndexBuilder<C extends Classification<C>, I extends Inferencer<C>,
                 "Inferred data for {0} concepts, {2,number,0.0}/s, last {4}",
                 source,
                 target,
-                c -> {
-                    try {
-                        this.analyser.analyseForIndex(c);
-                        this.builder.infer(c, this.analyser);
-                        return c;
-                    } catch (BayesianException ex) {
-                        throw new IllegalArgumentException("Unable to process " + c.get(this.identifier), ex);
-                    }
-                }
+                this::infer
         );
         target.commit();
         return target;
     }
 
+    /**
+     * Infer data for a single classifier.
+     *
+     * @param classifier The classifier
+     *
+     * @return The classifier with inferred data
+     */
+    public Cl infer(Cl classifier) {
+        try {
+            this.analyser.analyseForIndex(classifier);
+            this.builder.infer(classifier, this.analyser);
+            return classifier;
+        } catch (BayesianException ex) {
+            throw new IllegalArgumentException("Unable to process " + classifier.get(this.identifier), ex);
+        }
+    }
+
     /**
      * Build classifier weights
      * </p>
@@ -684,7 +1098,9 @@ public class IndexBuilder<C extends Classification<C>, I extends Inferencer<C>,
      */
     public LoadStore<Cl> createWorkStore(String name) throws StoreException {
         LoadStore<Cl> store = this.config.createLoadStore(name, true);
-        this.registerJmx(store, name);
+        ObjectInstance mbean = this.registerJmx(store, name);
+        if (mbean != null)
+            this.storeMBeans.put(store, mbean);
         this.stores.add(store);
         return store;
     }
@@ -706,13 +1122,36 @@ public class IndexBuilder<C extends Classification<C>, I extends Inferencer<C>,
      */
     public void process(String name, String message, LoadStore<Cl> source, LoadStore<Cl> target, Function<Cl, Cl> transform, Observation... clauses) throws BayesianException {
         final int count = source.count(this.conceptTerm, clauses);
-        final BlockingQueue<Cl> workQueue = new LinkedBlockingQueue<>(this.config.getThreads() * 4);
-        final Cl poisonPill = source.newClassifier();
         final Counter counter = new Counter(message, logger, this.config.getLogInterval(), count);
         final Iterable<Cl> concepts = source.getAll(this.conceptTerm, clauses);
 
         this.registerJmx(counter, name);
         logger.info("Processing " + name + " for " + count + " concepts");
+        try {
+            if (this.config.isVirtualThreads())
+                this.processTasks(name, concepts, target, transform, counter);
+            else
+                this.processWorkers(concepts, source, target, transform, counter);
+        } finally {
+            LoadStore.close(concepts);
+        }
+        target.commit();
+    }
+
+    /**
+     * Process a collection of classifiers with a fixed set of worker threads.
+     *
+     * @param concepts The classifiers to process
+     * @param source The source store
+     * @param target The target store
+     * @param transform The transformation to apply to each classifier
+     * @param counter The counter for statistics
+     *
+     * @throws BayesianException if unable to process the classifiers
+     */
+    protected void processWorkers(Iterable<Cl> concepts, LoadStore<Cl> source, LoadStore<Cl> target, Function<Cl, Cl> transform, Counter counter) throws BayesianException {
+        final BlockingQueue<Cl> workQueue = new LinkedBlockingQueue<>(this.config.getThreads() * 4);
+        final Cl poisonPill = source.newClassifier();
 
         List<Worker> workers = IntStream.range(0, this.config.getThreads()).mapToObj(i -> new Worker(transform, source, target, workQueue, counter, poisonPill)).collect(Collectors.toList());
         List<Thread> workerThreads = workers.stream().map(Thread::new).collect(Collectors.toList());
@@ -720,6 +1159,7 @@ public class IndexBuilder<C extends Classification<C>, I extends Inferencer<C>,
         counter.start();
         try {
             for (Cl classifier : concepts) {
+                counter.queued();
                 workQueue.put(classifier);
             }
             for (Worker consumer : workers)
@@ -735,7 +1175,93 @@ public class IndexBuilder<C extends Classification<C>, I extends Inferencer<C>,
             throw new InferenceException("Interupted during parameter building", ex);
         }
         counter.stop();
-        target.commit();
+    }
+
+    /**
+     * Process a collection of classifiers with a separate task for each classifier.
+     * <p>
+     * Tasks are run on virtual threads, if the JVM supports them, and on pooled platform threads otherwise.
+     * The number of tasks running at any one time is limited by {@link IndexBuilderConfiguration#getTaskConcurrency()}.
+     * Processing blocks on a store are not likely to tie up a scarce resource when using virtual threads,
+     * so the concurrency limit can be much higher than the number of processors.
+     * </p>
+     *
+     * @param name The name of the processing step
+     * @param concepts The classifiers to process
+     * @param target The target store
+     * @param transform The transformation to apply to each classifier
+     * @param counter The counter for statistics
+     *
+     * @throws BayesianException if unable to process the classifiers
+     */
+    protected void processTasks(String name, Iterable<Cl> concepts, LoadStore<Cl> target, Function<Cl, Cl> transform, Counter counter) throws BayesianException {
+        final int limit = Math.max(1, this.config.getTaskConcurrency());
+        final Semaphore permits = new Semaphore(limit);
+        final AtomicReference<Exception> error = new AtomicReference<>();
+        final ExecutorService executor = this.createTaskExecutor(name);
+
+        counter.start();
+        try {
+            for (Cl classifier : concepts) {
+                if (error.get() != null)
+                    break;
+                counter.queued();
+                permits.acquire();
+                executor.execute(() -> {
+                    counter.started();
+                    try {
+                        Cl result = transform.apply(classifier);
+                        if (result != null)
+                            target.store(result);
+                        counter.increment(classifier.get(this.identifier));
+                    } catch (Exception ex) {
+                        logger.error(ex.getMessage(), ex);
+                        error.compareAndSet(null, ex);
+                    } finally {
+                        counter.finished();
+                        permits.release();
+                    }
+                });
+            }
+            logger.debug("Waiting for tasks to complete");
+            permits.acquire(limit);
+            permits.release(limit);
+        } catch (InterruptedException ex) {
+            throw new InferenceException("Interupted during parameter building", ex);
+        } finally {
+            executor.shutdown();
+        }
+        if (error.get() != null)
+            throw new InferenceException("Worker error : " + error.get().getMessage());
+        counter.stop();
+    }
+
+    /**
+     * Create an executor that runs each task on its own thread.
+     * <p>
+     * If the JVM supports virtual threads (Java 21 and above) then a virtual thread per task executor is used.
+     * Otherwise, a cached pool of daemon platform threads is used.
+     * </p>
+     *
+     * @param name The name of the processing step, used to name platform threads
+     *
+     * @return The executor
+     */
+    protected ExecutorService createTaskExecutor(String name) {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (NoSuchMethodException ex) {
+            logger.info("Virtual threads not available for " + name + ", using platform threads");
+        } catch (ReflectiveOperationException ex) {
+            logger.warn("Unable to create virtual thread executor for " + name + ", using platform threads", ex);
+        }
+        final AtomicInteger sequence = new AtomicInteger();
+        return Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, name + "-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
     /**
@@ -774,7 +1300,9 @@ public class IndexBuilder<C extends Classification<C>, I extends Inferencer<C>,
          }
         if (!output.mkdirs())
             throw new IllegalArgumentException("Unable to create " + output);
-        LoadStore index = new LuceneLoadStore("index", output, false, false, this.config.getCacheSize());
+        LuceneLoadStore store = new LuceneLoadStore("index", output, false, false, this.config.getCacheSize());
+        store.setDocValues(this.config.isDocValues());
+        LoadStore index = store;
         // Copy taxa across
         Iterable<Cl> taxa = source.getAll(this.conceptTerm);
         for (Classifier classifier : taxa) {
@@ -825,6 +1353,7 @@ public class IndexBuilder<C extends Classification<C>, I extends Inferencer<C>,
         properties.put("identifier", this.identifier.getId());
         properties.put("name", this.name.getExternal(ExternalContext.LUCENE));
         properties.put("weight", this.weight.getExternal(ExternalContext.LUCENE));
+        properties.put("docValues", Boolean.toString(this.config.isDocValues()));
         Metadata networkMetadata = Metadata.builder()
                 .about(this.config.getNetwork().toURI())
                 .identifier(this.network.getId())
@@ -886,8 +1415,10 @@ public class IndexBuilder<C extends Classification<C>, I extends Inferencer<C>,
      *
      * @param bean The mbean to register
      * @param name The name of the mbean
+     *
+     * @return The registered mbean instance, or null for none
      */
-    public void registerJmx(Object bean, String name) {
+    public ObjectInstance registerJmx(Object bean, String name) {
         if (this.config.isEnableJmx()) {
             try {
                 MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
@@ -895,10 +1426,27 @@ public class IndexBuilder<C extends Classification<C>, I extends Inferencer<C>,
                 ObjectName on = new ObjectName(this.getClass().getPackage().getName() + ":type=" + bean.getClass().getSimpleName() + ",network=" + network + ",name=" + name);
                 ObjectInstance mbean = mbs.registerMBean(bean, on);
                 this.mbeans.add(mbean);
+                return mbean;
             } catch (Exception ex) {
                 logger.error("Unable to register bean " + name, ex);
             }
         }
+        return null;
+    }
+
+    /**
+     * Unregister an mbean previously registered with {@link #registerJmx(Object, String)}
+     *
+     * @param mbean The mbean instance (null for none)
+     */
+    protected void unregisterJmx(ObjectInstance mbean) {
+        if (mbean == null || !this.mbeans.remove(mbean))
+            return;
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(mbean.getObjectName());
+        } catch (Exception ex) {
+            logger.error("Unable to unregister " + mbean, ex);
+        }
     }
 
     /**
@@ -972,6 +1520,101 @@ public class IndexBuilder<C extends Classification<C>, I extends Inferencer<C>,
         public List<File> sources;
     }
 
+    /**
+     * Count the size of a subtree, for parallel expansion.
+     */
+    private class CountTask extends RecursiveTask<Integer> {
+        private final String id;
+        private final int threshold;
+        private final Map<String, Integer> sizes;
+        private final LoadStore<Cl> source;
+
+        /**
+         * Construct a count task.
+         *
+         * @param id The identifier of the subtree root
+         * @param threshold The size at which subtree sizes are recorded
+         * @param sizes The recorded subtree sizes
+         * @param source The source documents
+         */
+        public CountTask(String id, int threshold, Map<String, Integer> sizes, LoadStore<Cl> source) {
+            this.id = id;
+            this.threshold = threshold;
+            this.sizes = sizes;
+            this.source = source;
+        }
+
+        /**
+         * Count the subtree, including the subtree root.
+         *
+         * @return The number of accepted concepts in the subtree
+         */
+        @Override
+        protected Integer compute() {
+            int size = 1;
+            if (IndexBuilder.this.parent.isPresent()) {
+                List<CountTask> children = new ArrayList<>();
+                try {
+                    for (String child : IndexBuilder.this.getChildIds(this.source, this.id))
+                        children.add(new CountTask(child, this.threshold, this.sizes, this.source));
+                } catch (BayesianException ex) {
+                    throw new IllegalStateException("Unable to count children of " + this.id, ex);
+                }
+                for (CountTask child: invokeAll(children))
+                    size += child.join();
+            }
+            if (size >= this.threshold)
+                this.sizes.put(this.id, size);
+            return size;
+        }
+    }
+
+    /**
+     * Expand a subtree, for parallel expansion.
+     */
+    private class ExpandTask extends RecursiveAction {
+        private final Cl classifier;
+        private final Deque<Cl> parents;
+        private final int index;
+        private final Map<String, Integer> sizes;
+        private final Counter counter;
+        private final LoadStore<Cl> source;
+        private final LoadStore<Cl> target;
+
+        /**
+         * Construct an expansion task.
+         *
+         * @param classifier The subtree root
+         * @param parents The parents of the subtree root, closest parent first
+         * @param index The first index for the subtree
+         * @param sizes The sizes of subtrees to expand separately
+         * @param counter The statistics counter
+         * @param source The source documents
+         * @param target The target documents
+         */
+        public ExpandTask(Cl classifier, Deque<Cl> parents, int index, Map<String, Integer> sizes, Counter counter, LoadStore<Cl> source, LoadStore<Cl> target) {
+            this.classifier = classifier;
+            this.parents = parents;
+            this.index = index;
+            this.sizes = sizes;
+            this.counter = counter;
+            this.source = source;
+            this.target = target;
+        }
+
+        /**
+         * Expand the subtree.
+         */
+        @Override
+        protected void compute() {
+            try {
+                IndexBuilder.this.expandTree(this.classifier, this.parents, this.index, this.sizes, this.counter, this.source, this.target);
+            } catch (BayesianException ex) {
+                throw new IllegalStateException("Unable to expand " + this.classifier.getIdentifier(), ex);
+            }
+        }
+    }
+
     /**
      * Processor for parallelising work */
     private class Worker implements Runnable {
@@ -1021,10 +1664,15 @@ public class IndexBuilder<C extends Classification<C>, I extends Inferencer<C>,
                         logger.debug("Terminating worker " + Thread.currentThread().getName());
                         return;
                     }
-                    Cl result = this.transform.apply(classifier);
-                    if (result != null)
-                        this.target.store(classifier);
-                    this.counter.increment(result.get(IndexBuilder.this.identifier));
+                    this.counter.started();
+                    try {
+                        Cl result = this.transform.apply(classifier);
+                        if (result != null)
+                            this.target.store(classifier);
+                        this.counter.increment(result.get(IndexBuilder.this.identifier));
+                    } finally {
+                        this.counter.finished();
+                    }
                 }
             } catch (Exception ex) {
                 IndexBuilder.logger.error(ex.getMessage(), ex);
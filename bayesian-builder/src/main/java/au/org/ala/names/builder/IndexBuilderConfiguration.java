@@ -89,6 +89,16 @@ public class IndexBuilderConfiguration {
     @Getter
     @Setter
     private int threads;
+    /** Process each classifier as a separate task on a virtual thread, where available, rather than using a fixed set of worker threads (false by default) */
+    @JsonProperty
+    @Getter
+    @Setter
+    private boolean virtualThreads;
+    /** The maximum number of concurrent tasks when processing with virtual threads */
+    @JsonProperty
+    @Getter
+    @Setter
+    private int taskConcurrency;
     /**
      * The size of any internal cache (0 for default)
      */
@@ -101,6 +111,36 @@ public class IndexBuilderConfiguration {
     @Getter
     @Setter
     private boolean enableJmx;
+    /** Write doc value columns into the final index, so that searchers can build candidates without reading stored documents (false by default) */
+    @JsonProperty
+    @Getter
+    @Setter
+    private boolean docValues;
+    /** Expand the taxonomic tree in parallel, using the worker threads (false by default) */
+    @JsonProperty
+    @Getter
+    @Setter
+    private boolean parallelExpand;
+    /** The minimum size of a subtree that is expanded as a separate task when expanding in parallel */
+    @JsonProperty
+    @Getter
+    @Setter
+    private int expandForkThreshold;
+    /** The memory budget, in megabytes, for an in-memory concept tree used to find children without queries (0 for no tree) */
+    @JsonProperty
+    @Getter
+    @Setter
+    private int conceptTreeBudget;
+    /** Use a pipelined build, fusing stages that can be streamed and discarding intermediate stores when no longer needed (false by default) */
+    @JsonProperty
+    @Getter
+    @Setter
+    private boolean pipeline;
+    /** The stages that always write and keep their own store in a pipelined build, for debugging */
+    @JsonProperty
+    @Getter
+    @Setter
+    private Set<String> pipelineBoundaries;
     /** The metadata template with default values */
     @JsonProperty
     @Getter
@@ -123,8 +163,16 @@ public class IndexBuilderConfiguration {
         this.logInterval = 10000;
         this.types = Arrays.asList(DwcTerm.Taxon);
         this.threads = Runtime.getRuntime().availableProcessors();
+        this.virtualThreads = false;
+        this.taskConcurrency = 256;
         this.cacheSize = 0;
         this.enableJmx = true;
+        this.docValues = false;
+        this.parallelExpand = false;
+        this.expandForkThreshold = 1000;
+        this.conceptTreeBudget = 0;
+        this.pipeline = false;
+        this.pipelineBoundaries = new HashSet<>();
         this.metadataTemplate = Metadata.builder().build();
         this.parameters = new HashMap<>();
         this.resources = new HashMap<>();
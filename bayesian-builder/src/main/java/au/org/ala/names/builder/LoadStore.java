@@ -6,7 +6,10 @@ import lombok.Getter;
 import lombok.Setter;
 import org.gbif.dwc.terms.Term;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
@@ -279,6 +282,47 @@ abstract public class LoadStore<C extends Classifier> implements LoadStoreMXBean
      */
     abstract protected C doGet(Term type, Observable observable, String value) throws StoreException;
 
+    /**
+     * Get a batch of store entries by unique name/value.
+     *
+     * @param type The type of entry to get
+     * @param observable The observable to compare
+     * @param values The values to get
+     *
+     * @return A map of value to matching classifier, with values that cannot be found omitted
+     *
+     * @throws StoreException if there is an error with the underlying store
+     */
+    public Map<String, C> getAll(Term type, Observable observable, Collection<String> values) throws StoreException {
+        this.queries.incrementAndGet();
+        return this.doGetAll(type, observable, values);
+    }
+
+    /**
+     * Get a batch of store entries by unique name/value.
+     * <p>
+     * By default, each value is retrieved with {@link #doGet(Term, Observable, String)}.
+     * Subclasses can provide a more efficient lookup.
+     * </p>
+     *
+     * @param type The type of entry to get
+     * @param observable The observable to compare
+     * @param values The values to get
+     *
+     * @return A map of value to matching classifier, with values that cannot be found omitted
+     *
+     * @throws StoreException if there is an error with the underlying store
+     */
+    protected Map<String, C> doGetAll(Term type, Observable observable, Collection<String> values) throws StoreException {
+        Map<String, C> results = new LinkedHashMap<>(values.size());
+        for (String value: values) {
+            C classifier = this.doGet(type, observable, value);
+            if (classifier != null)
+                results.put(value, classifier);
+        }
+        return results;
+    }
+
     /**
      * Get a stream of all terms that match a particular value
      *
@@ -306,6 +350,29 @@ abstract public class LoadStore<C extends Classifier> implements LoadStoreMXBean
      */
     abstract protected Iterable<C> doGetAll(Term type, Observation... values) throws StoreException;
 
+    /**
+     * Release any resources held by the results of a {@link #getAll(Term, Observation...)} query.
+     * <p>
+     * Results may hold resources until they have been completely read.
+     * Callers that stop reading the results early should close them.
+     * </p>
+     *
+     * @param results The results
+     *
+     * @throws StoreException if unable to release the results
+     */
+    public static void close(Iterable<?> results) throws StoreException {
+        if (!(results instanceof AutoCloseable))
+            return;
+        try {
+            ((AutoCloseable) results).close();
+        } catch (StoreException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw new StoreException("Unable to close results", ex);
+        }
+    }
+
     /**
      * Get a list of all classifiers that match a particular value
      *
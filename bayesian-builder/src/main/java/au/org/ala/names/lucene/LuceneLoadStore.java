@@ -10,24 +10,41 @@ import lombok.NonNull;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.io.FileUtils;
-import org.apache.lucene.index.DirectoryReader;
-import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.document.Document;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.search.BooleanClause;
 import org.apache.lucene.search.BooleanQuery;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermInSetQuery;
+import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.store.FSDirectory;
 import org.apache.lucene.store.MMapDirectory;
+import org.apache.lucene.util.BytesRef;
 import org.gbif.dwc.terms.Term;
 
 import java.io.File;
 import java.io.IOException;
+import java.lang.ref.Cleaner;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -35,6 +52,8 @@ import java.util.stream.IntStream;
 public class LuceneLoadStore extends LoadStore<LuceneClassifier> {
     /** The default batch size for getting results. Assumes a smallish size */
     public static final int DEFAULT_BATCH_SIZE = 256;
+    /** Releases the searchers of abandoned iterators */
+    private static final Cleaner CLEANER = Cleaner.create();
     /** The name of the network description file */
     public static final String NETWORK_FILE = "network.json";
 
@@ -44,10 +63,22 @@ public class LuceneLoadStore extends LoadStore<LuceneClassifier> {
     private final Path dir;
     /** The load writer */
     private final IndexWriter writer;
-    /** The load reader */
-    private IndexReader reader;
-    /** The load searcher */
-    private IndexSearcher searcher;
+    /**
+     * Coordinates writes with commits.
+     * <p>
+     * The index writer is thread-safe, so any number of writers can add or update documents at the same time
+     * by holding the read lock.
+     * Commits and closes hold the write lock, so that they wait for in-flight writes to complete.
+     * Reads do not need the lock, since they use searchers acquired from the searcher manager.
+     * </p>
+     */
+    private final ReadWriteLock commitLock = new ReentrantReadWriteLock();
+    /** The manager for load searchers */
+    private final SearcherManager searcherManager;
+    /** Does the searcher need refreshing before the next read? */
+    private volatile boolean stale = true;
+    /** Searchers held by iterators and parameter analysers, released when the store is closed */
+    private final Set<Hold> held = ConcurrentHashMap.newKeySet();
     /** The batch size for gind all queries */
     @Getter
     @Setter
@@ -55,6 +86,10 @@ public class LuceneLoadStore extends LoadStore<LuceneClassifier> {
     /** Delete this store on closing */
     @Getter
     private final boolean temporary;
+    /** Write classifier values as doc value columns, as well as stored fields */
+    @Getter
+    @Setter
+    private boolean docValues = false;
     /** The annotation observable */
     private final Observable annotationObservable;
 
@@ -74,7 +109,7 @@ public class LuceneLoadStore extends LoadStore<LuceneClassifier> {
     public LuceneLoadStore(String name, File dir, boolean temporary, boolean memory, int cacheSize) throws StoreException {
         super(name, cacheSize);
         this.temporary = temporary;
-        this.queryUtils = new QueryUtils();
+        this.queryUtils = new QueryUtils(0);
         FSDirectory directory = null;
         if (!temporary && dir ==  null)
             throw new IllegalArgumentException("Non-temporary store must have a directory supplied.");
@@ -94,6 +129,7 @@ public class LuceneLoadStore extends LoadStore<LuceneClassifier> {
         config.setOpenMode(IndexWriterConfig.OpenMode.CREATE);
         try {
             this.writer = new IndexWriter(directory, config);
+            this.searcherManager = new SearcherManager(this.writer, null);
         } catch (IOException ex) {
             throw new StoreException("Unable to make index in " + directory, ex);
         }
@@ -153,15 +189,18 @@ public class LuceneLoadStore extends LoadStore<LuceneClassifier> {
      * @throws StoreException if unable to write the document
      */
     @Override
-    synchronized protected void doStore(LuceneClassifier classifier) throws StoreException {
+    protected void doStore(LuceneClassifier classifier) throws StoreException {
+        this.commitLock.readLock().lock();
         try {
-            this.writer.addDocument(classifier.isRetrieved() ? classifier.makeDocumentCopy() : classifier.getDocument());
+            this.writer.addDocument(this.prepare(classifier.isRetrieved() ? classifier.makeDocumentCopy() : classifier.getDocument()));
         } catch (IOException ex) {
             log.error("Unable to store " + classifier.getIdentifier());
             for (String[] vals: classifier.getAllValues()) {
                 log.info(vals[0] + ": " + IntStream.range(1, vals.length).mapToObj(i -> vals[i]).collect(Collectors.joining(", ")));
             }
             throw new StoreException("Unable to store " + classifier, ex);
+        } finally {
+            this.commitLock.readLock().unlock();
         }
     }
 
@@ -174,17 +213,20 @@ public class LuceneLoadStore extends LoadStore<LuceneClassifier> {
      * @throws BayesianException if unable to annotate or store the classifier
      */
     @Override
-    synchronized protected void doStore(LuceneClassifier classifier, @NonNull Term type) throws BayesianException {
-         try {
+    protected void doStore(LuceneClassifier classifier, @NonNull Term type) throws BayesianException {
+        this.commitLock.readLock().lock();
+        try {
             classifier.identify();
             classifier.setType(type);
-            this.writer.addDocument(classifier.getDocument());
+            this.writer.addDocument(this.prepare(classifier.getDocument()));
         } catch (Exception ex) {
             log.error("Unable to store " + classifier.getIdentifier());
             for (String[] vals: classifier.getAllValues()) {
                 log.info(vals[0] + ": " + IntStream.range(1, vals.length).mapToObj(i -> vals[i]).collect(Collectors.joining(", ")));
             }
             throw new StoreException("Unable to store " + classifier, ex);
+        } finally {
+            this.commitLock.readLock().unlock();
         }
     }
 
@@ -194,22 +236,41 @@ public class LuceneLoadStore extends LoadStore<LuceneClassifier> {
      * @param classifier The collection of information that makes up the entry
      */
     @Override
-    synchronized protected void doUpdate(LuceneClassifier classifier) throws StoreException {
+    protected void doUpdate(LuceneClassifier classifier) throws StoreException {
+        this.commitLock.readLock().lock();
         try {
             String id = classifier.getIdentifier();
             if (id == null || id.isEmpty())
                 throw new StoreException("No identifier for " + classifier);
             org.apache.lucene.index.Term term = new org.apache.lucene.index.Term(LuceneClassifier.ID_FIELD, id);
-            this.writer.updateDocument(term, classifier.makeDocumentCopy());
+            this.writer.updateDocument(term, this.prepare(classifier.makeDocumentCopy()));
         } catch (IOException ex) {
             log.error("Unable to store " + classifier.getIdentifier());
             for (String[] vals: classifier.getAllValues()) {
                 log.info(vals[0] + ": " + IntStream.range(1, vals.length).mapToObj(i -> vals[i]).collect(Collectors.joining(", ")));
             }
             throw new StoreException("Unable to store " + classifier, ex);
+        } finally {
+            this.commitLock.readLock().unlock();
         }
     }
 
+    /**
+     * Prepare a document for writing.
+     * <p>
+     * If doc values are being written, then the doc value columns are added.
+     * </p>
+     *
+     * @param document The document to write
+     *
+     * @return The document to actually write
+     *
+     * @see LuceneDocValuesClassifier#withDocValues(Document)
+     */
+    protected Document prepare(Document document) {
+        return this.docValues ? LuceneDocValuesClassifier.withDocValues(document) : document;
+    }
+
     /**
      * Store the index metadata alongside the index.
      *
@@ -260,23 +321,100 @@ public class LuceneLoadStore extends LoadStore<LuceneClassifier> {
      */
     @Override
     protected LuceneClassifier doGet(Term type, Observable observable, String value) throws StoreException {
-        this.ensureReader();
+        IndexSearcher searcher = this.acquire();
         try {
             BooleanQuery.Builder builder = new BooleanQuery.Builder();
             builder.add(LuceneClassifier.getTypeClause(type));
             builder.add(this.queryUtils.asClause(observable, value));
             Query query = builder.build();
-            TopDocs docs = this.searcher.search(query, 1);
+            TopDocs docs = searcher.search(query, 1);
             if (docs.totalHits.value == 0)
                 return null;
             if (docs.totalHits.value > 1)
                 throw new StoreException("More than one answer for " + observable.getId() + " = " + value);
-            return new LuceneClassifier(this.searcher.doc(docs.scoreDocs[0].doc));
+            return new LuceneClassifier(searcher.doc(docs.scoreDocs[0].doc));
         } catch (IOException ex) {
             throw new StoreException("Unable to search for " + observable.getId() + " = " + value, ex);
+        } finally {
+            this.release(searcher);
         }
     }
 
+    /**
+     * Get a batch of entries from the underlying store, assuming the term has unique values.
+     * <p>
+     * If the values are simple terms, then all the entries are found with a single
+     * {@link TermInSetQuery} and matched back to the requested values by term.
+     * Otherwise, each value is searched for separately.
+     * </p>
+     *
+     * @param type The object type
+     * @param observable The term to search
+     * @param values The values to get
+     *
+     * @return A map of value to the uniquely matching entry, in request order, with values that cannot be found omitted
+     *
+     * @throws StoreException if unable to search the store or a value matches more than one entry
+     */
+    @Override
+    protected Map<String, LuceneClassifier> doGetAll(Term type, Observable observable, Collection<String> values) throws StoreException {
+        Map<BytesRef, String> keys = new HashMap<>(values.size());
+        String field = null;
+        for (String value: values) {
+            TermQuery query = this.asTermQuery(observable, value);
+            if (query == null || (field != null && !field.equals(query.getTerm().field())))
+                return super.doGetAll(type, observable, values);
+            field = query.getTerm().field();
+            keys.put(query.getTerm().bytes(), value);
+        }
+        Map<String, LuceneClassifier> results = new LinkedHashMap<>(keys.size());
+        if (keys.isEmpty())
+            return results;
+        Map<String, LuceneClassifier> found = new HashMap<>(keys.size());
+        IndexSearcher searcher = this.acquire();
+        try {
+            BooleanQuery.Builder builder = new BooleanQuery.Builder();
+            builder.add(LuceneClassifier.getTypeClause(type));
+            builder.add(new TermInSetQuery(field, keys.keySet()), BooleanClause.Occur.FILTER);
+            TopDocs docs = searcher.search(builder.build(), keys.size() + 1);
+            for (ScoreDoc sd: docs.scoreDocs) {
+                LuceneClassifier classifier = new LuceneClassifier(searcher.doc(sd.doc));
+                Object stored = classifier.get(observable);
+                TermQuery query = stored == null ? null : this.asTermQuery(observable, stored.toString());
+                String value = query == null ? null : keys.get(query.getTerm().bytes());
+                if (value == null)
+                    throw new StoreException("Unable to match " + observable.getId() + " = " + stored + " to a requested value");
+                if (found.put(value, classifier) != null)
+                    throw new StoreException("More than one answer for " + observable.getId() + " = " + value);
+            }
+        } catch (IOException ex) {
+            throw new StoreException("Unable to search for " + observable.getId() + " in " + values, ex);
+        } finally {
+            this.release(searcher);
+        }
+        for (String value: values) {
+            LuceneClassifier classifier = found.get(value);
+            if (classifier != null)
+                results.put(value, classifier);
+        }
+        return results;
+    }
+
+    /**
+     * Get the term query for an observable value, if the value is searched for as a single term.
+     *
+     * @param observable The observable
+     * @param value The value
+     *
+     * @return The term query, or null if the value is not searched for as a single term
+     *
+     * @throws StoreException if unable to build the query
+     */
+    private TermQuery asTermQuery(Observable observable, String value) throws StoreException {
+        Query query = this.queryUtils.asClause(observable, value).getQuery();
+        return query instanceof TermQuery ? (TermQuery) query : null;
+    }
+
     /**
      * Get all the entries from the underlying store, assuming term has unique values.
      *
@@ -289,15 +427,16 @@ public class LuceneLoadStore extends LoadStore<LuceneClassifier> {
      */
     @Override
     protected Iterable<LuceneClassifier> doGetAll(Term type, Observation... values) throws StoreException {
-         this.ensureReader();
+        BooleanQuery.Builder builder = new BooleanQuery.Builder();
+        builder.add(LuceneClassifier.getTypeClause(type));
+        for (Observation o: values) {
+            builder.add(this.queryUtils.asClause(o));
+        }
+        Hold hold = this.hold();
         try {
-            BooleanQuery.Builder builder = new BooleanQuery.Builder();
-            builder.add(LuceneClassifier.getTypeClause(type));
-            for (Observation o: values) {
-                builder.add(this.queryUtils.asClause(o));
-            }
-            return new LuceneIterator(builder.build());
+            return new LuceneIterator(hold, builder.build());
         } catch (IOException ex) {
+            hold.run();
             throw new StoreException("Unable to search for " + values, ex);
         }
     }
@@ -311,21 +450,26 @@ public class LuceneLoadStore extends LoadStore<LuceneClassifier> {
      */
     @Override
     public int count(Term type, Observation... values) throws StoreException {
-        this.ensureReader();
+        IndexSearcher searcher = this.acquire();
         try {
             BooleanQuery.Builder builder = new BooleanQuery.Builder();
             builder.add(LuceneClassifier.getTypeClause(type));
             for (Observation o: values) {
                 builder.add(this.queryUtils.asClause(o));
             }
-            return this.searcher.count(builder.build());
+            return searcher.count(builder.build());
         } catch (IOException ex) {
             throw new StoreException("Unable to search for " + values, ex);
+        } finally {
+            this.release(searcher);
         }
     }
 
     /**
      * Get a parameter analyser for this store.
+     * <p>
+     * The analyser uses a searcher that is held until the store is closed.
+     * </p>
      *
      * @return The parameter analyser
      *
@@ -333,27 +477,30 @@ public class LuceneLoadStore extends LoadStore<LuceneClassifier> {
      */
     @Override
     public ParameterAnalyser getParameterAnalyser(Network network, Observable weight, double defaultWeight) throws BayesianException {
-        this.ensureReader();
-        return new LuceneParameterAnalyser(network, this.searcher, weight, defaultWeight, network.getInputs(), network.getOutputs(), this.getCacheSize(), true);
+        IndexSearcher searcher = this.hold().searcher;
+        return new LuceneParameterAnalyser(network, searcher, weight, defaultWeight, network.getInputs(), network.getOutputs(), this.getCacheSize(), true);
     }
 
     /**
      * Commit a loaded set of data.
+     * <p>
+     * Any writes in progress are completed before the commit.
+     * The searcher is refreshed before the next read.
+     * Searchers already in use are not affected and remain open until they are released.
+     * </p>
      *
      * @throws StoreException if unable to commit the underlying lucene index
      */
     @Override
-    synchronized public void commit() throws StoreException {
+    public void commit() throws StoreException {
+        this.commitLock.writeLock().lock();
         try {
             this.writer.commit();
-            if (this.reader != null) {
-                this.reader.close();
-                this.reader = null; // Forces re-open
-                this.searcher = null;
-            }
+            this.stale = true;
         } catch (IOException ex) {
             throw new StoreException("Unable to commit to store", ex);
-
+        } finally {
+            this.commitLock.writeLock().unlock();
         }
     }
 
@@ -366,51 +513,224 @@ public class LuceneLoadStore extends LoadStore<LuceneClassifier> {
      * @throws StoreException if unable to close the underlying lucene index
      */
     @Override
-    synchronized public void close() throws StoreException {
+    public void close() throws StoreException {
+        this.commitLock.writeLock().lock();
         try {
+            for (Hold hold: this.held)
+                hold.run();
+            this.searcherManager.close();
             if (this.writer != null)
                 this.writer.close();
-            if (this.reader != null)
-                this.reader.close();
+            this.queryUtils.close();
             if (this.temporary)
                 FileUtils.deleteDirectory(this.dir.toFile());
         } catch (IOException ex) {
             throw new StoreException("Unable to close store", ex);
+        } finally {
+            this.commitLock.writeLock().unlock();
+        }
+    }
+
+
+    /**
+     * Acquire a searcher for reading the store.
+     * <p>
+     * If there has been a commit since the last read, the searcher is refreshed
+     * so that it sees everything written to the store so far.
+     * The searcher must be released with {@link #release(IndexSearcher)} when finished with.
+     * </p>
+     *
+     * @return The searcher
+     *
+     * @throws StoreException if not able to refresh or acquire the searcher
+     */
+    protected IndexSearcher acquire() throws StoreException {
+        try {
+            if (this.stale) {
+                synchronized (this) {
+                    if (this.stale) {
+                        this.stale = false;
+                        this.searcherManager.maybeRefreshBlocking();
+                    }
+                }
+            }
+            return this.searcherManager.acquire();
+        } catch (IOException ex) {
+            throw new StoreException("Unable to open reader", ex);
         }
     }
 
+    /**
+     * Release a searcher acquired by {@link #acquire()}
+     *
+     * @param searcher The searcher
+     *
+     * @throws StoreException if unable to release the searcher
+     */
+    protected void release(IndexSearcher searcher) throws StoreException {
+        try {
+            this.searcherManager.release(searcher);
+        } catch (IOException ex) {
+            throw new StoreException("Unable to release reader", ex);
+        }
+    }
 
     /**
-     * Ensure that we have an open reader.
+     * Get the number of searchers currently held by iterators and parameter analysers.
      *
-     * @throws StoreException if not able to ensure the reader
+     * @return The number of held searchers
      */
-    protected void ensureReader() throws StoreException {
-        if (this.reader == null) {
+    public int getHeld() {
+        return this.held.size();
+    }
+
+    /**
+     * Acquire a searcher that is held until it is explicitly released or the store is closed.
+     *
+     * @return The hold on the searcher
+     *
+     * @throws StoreException if not able to acquire the searcher
+     */
+    protected Hold hold() throws StoreException {
+        Hold hold = new Hold(this.acquire());
+        this.held.add(hold);
+        return hold;
+    }
+
+    /**
+     * A hold on a searcher.
+     * <p>
+     * Running the hold releases the searcher, if it has not already been released.
+     * A hold does not refer to whatever is using the searcher, so that it can be used to clean up
+     * after an iterator that has been abandoned.
+     * </p>
+     */
+    protected class Hold implements Runnable {
+        /** The held searcher */
+        private final IndexSearcher searcher;
+        /** Has the searcher been released? */
+        private final AtomicBoolean released = new AtomicBoolean(false);
+
+        /**
+         * Construct for a searcher.
+         *
+         * @param searcher The acquired searcher
+         */
+        protected Hold(IndexSearcher searcher) {
+            this.searcher = searcher;
+        }
+
+        /**
+         * Has the searcher been released?
+         *
+         * @return True if released
+         */
+        public boolean isReleased() {
+            return this.released.get();
+        }
+
+        /**
+         * Release the searcher, if not already released.
+         */
+        @Override
+        public void run() {
+            if (!this.released.compareAndSet(false, true))
+                return;
+            LuceneLoadStore.this.held.remove(this);
             try {
-                this.reader = DirectoryReader.open(this.writer);
-                this.searcher = new IndexSearcher(this.reader);
-            } catch (IOException ex) {
-                throw new StoreException("Unable to open reader", ex);
+                LuceneLoadStore.this.release(this.searcher);
+            } catch (StoreException ex) {
+                log.warn("Unable to release searcher", ex);
             }
         }
     }
 
-    protected class LuceneIterator implements Iterable<LuceneClassifier>, Iterator<LuceneClassifier> {
+    /**
+     * Iterate over the results of a query.
+     * <p>
+     * The iterator reads from a single searcher, so that results are consistent even if the store is committed.
+     * Documents are read a batch at a time and the searcher is released once the last batch has been read,
+     * the iterator is closed or, if the iterator is abandoned, once the iterator has been garbage collected.
+     * Callers that stop iterating early should close the iterator, so that old index readers,
+     * and the index files that they refer to, are not kept open.
+     * </p>
+     */
+    protected class LuceneIterator implements Iterable<LuceneClassifier>, Iterator<LuceneClassifier>, AutoCloseable {
+        /** The hold on the searcher */
+        private final Hold hold;
+        /** The cleanup action that releases the searcher */
+        private final Cleaner.Cleanable cleanable;
+        /** The searcher to use */
+        private IndexSearcher searcher;
         /** The query to iterate over */
         private final Query query;
-         /** The current index into the results */
-        private int resultIndex;
+        /** The total number of results */
+        private final long total;
         /** The running count of results returned */
         private long index;
-        /** The current set of documents */
-        private TopDocs topDocs;
+        /** The running count of results read from the searcher */
+        private long fetched;
+        /** The last result in the current batch */
+        private ScoreDoc last;
+        /** The current batch of documents */
+        private List<Document> batch;
+         /** The current index into the batch */
+        private int resultIndex;
 
-        public LuceneIterator(Query query) throws IOException {
+        public LuceneIterator(Hold hold, Query query) throws IOException {
+            this.hold = hold;
+            this.cleanable = CLEANER.register(this, hold);
+            this.searcher = hold.searcher;
             this.query = query;
             this.index = 0;
+            this.fetched = 0;
+            this.last = null;
+            this.total = this.searcher.count(this.query);
+            this.batch = new ArrayList<>();
             this.resultIndex = 0;
-            this.topDocs = LuceneLoadStore.this.searcher.search(this.query, LuceneLoadStore.this.batchSize);
+            if (this.total > 0)
+                this.fill();
+            else
+                this.finish();
+        }
+
+        /**
+         * Read the next batch of documents.
+         *
+         * @throws IOException if unable to read the documents
+         */
+        private void fill() throws IOException {
+            if (this.searcher == null || this.hold.isReleased())
+                throw new IllegalStateException("Store closed during iteration");
+            TopDocs topDocs = this.last == null ?
+                    this.searcher.search(this.query, LuceneLoadStore.this.batchSize) :
+                    this.searcher.searchAfter(this.last, this.query, LuceneLoadStore.this.batchSize);
+            if (topDocs.scoreDocs.length == 0)
+                throw new IndexOutOfBoundsException("Expecting another document");
+            this.batch.clear();
+            for (ScoreDoc sd: topDocs.scoreDocs)
+                this.batch.add(this.searcher.doc(sd.doc));
+            this.last = topDocs.scoreDocs[topDocs.scoreDocs.length - 1];
+            this.resultIndex = 0;
+            this.fetched += topDocs.scoreDocs.length;
+            if (this.fetched >= this.total)
+                this.finish();
+        }
+
+        /**
+         * Release the searcher, once we have finished with it.
+         */
+        private void finish() {
+            this.searcher = null;
+            this.cleanable.clean();
+        }
+
+        /**
+         * Stop iterating and release the searcher.
+         */
+        @Override
+        public void close() {
+            this.finish();
         }
 
         /**
@@ -419,20 +739,20 @@ public class LuceneLoadStore extends LoadStore<LuceneClassifier> {
          */
         @Override
         public boolean hasNext() {
-             return this.index < this.topDocs.totalHits.value;
+             return this.index < this.total;
         }
 
         @Override
         public LuceneClassifier next() {
+            if (!this.hasNext())
+                throw new NoSuchElementException();
             try {
-                if (this.resultIndex >= this.topDocs.scoreDocs.length) {
-                    this.resultIndex = 0;
-                    this.topDocs = LuceneLoadStore.this.searcher.searchAfter(this.topDocs.scoreDocs[this.topDocs.scoreDocs.length - 1], this.query, LuceneLoadStore.this.batchSize);
-                    if (this.topDocs.scoreDocs.length == 0)
-                        throw new IndexOutOfBoundsException("Expecting another document");
-                }
+                if (this.resultIndex >= this.batch.size())
+                    this.fill();
                 this.index++;
-                return new LuceneClassifier(LuceneLoadStore.this.searcher.doc(this.topDocs.scoreDocs[this.resultIndex++].doc));
+                return new LuceneClassifier(this.batch.get(this.resultIndex++));
+            } catch (RuntimeException ex) {
+                throw ex;
             } catch (Exception ex) {
                 throw new IllegalStateException("Unable to get next document", ex);
              }
@@ -131,7 +131,7 @@ public class LuceneParameterAnalyser implements ParameterAnalyser {
         logger.info("Suppressed load exception count " + statistics.getSuppressedLoadExceptionCount());
         logger.info("Total load in milliseconds " + statistics.getTotalLoadMillis());
         this.queryCache.close();
-
+        this.queryUtils.close();
     }
 
     /**
@@ -4,6 +4,7 @@ import org.slf4j.Logger;
 
 import java.text.MessageFormat;
 import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * A counter that reports via a log at regular intervals.
@@ -12,17 +13,27 @@ import java.util.Date;
  * This has the following elements {0} = total count, {1} = total time, {2} = rate per second, {3} = percentage done
  * {4} = last object processed.
  * </p>
+ * <p>
+ * Counters used for concurrent work can also track the number of items waiting to be processed
+ * and the number of items currently being processed, via {@link #queued()}, {@link #started()} and {@link #finished()}.
+ * </p>
+ * <p>
+ * The counter is updated under a lock but may be read, for example via JMX, from other threads
+ * without locking, so the counts and times are volatile.
+ * </p>
  */
 public class Counter implements CounterMXBean {
     private final String message;
     private final Logger logger;
-    private int counter;
-    private int current;
+    private volatile int counter;
+    private volatile int current;
     private final int size;
-    private long start;
-    private long stop;
-    private long segment;
+    private volatile long start;
+    private volatile long stop;
+    private volatile long segment;
     private final int interval;
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
 
     /**
      * Construct with a defined identifier and a logger to report to.
@@ -69,11 +80,26 @@ public class Counter implements CounterMXBean {
      */
     @Override
     public double getCurrentRate() {
-        if (this.stop != 0)
-            return this.computeRate(this.counter, this.start, this.stop);
+        long stop = this.stop;
+        if (stop != 0)
+            return this.computeRate(this.counter, this.start, stop);
         return this.computeRate(this.current, this.segment, System.currentTimeMillis());
     }
 
+    /**
+     * Get the total rate for the counter.
+     *
+     * @return The number of counts per second since the counter started
+     */
+    @Override
+    public double getTotalRate() {
+        long start = this.start;
+        long stop = this.stop;
+        if (start == 0)
+            return 0.0;
+        return this.computeRate(this.counter, start, stop != 0 ? stop : System.currentTimeMillis());
+    }
+
     /**
      * Get the total count.
      *
@@ -84,6 +110,51 @@ public class Counter implements CounterMXBean {
         return this.counter;
     }
 
+    /**
+     * Get the number of items waiting to be processed.
+     *
+     * @return The queue depth
+     */
+    @Override
+    public int getQueueDepth() {
+        return this.queueDepth.get();
+    }
+
+    /**
+     * Get the number of items currently being processed.
+     *
+     * @return The number of active tasks
+     */
+    @Override
+    public int getActive() {
+        return this.active.get();
+    }
+
+    /**
+     * Note that an item has been queued for processing.
+     */
+    public void queued() {
+        this.queueDepth.incrementAndGet();
+    }
+
+    /**
+     * Note that processing of a queued item has started.
+     */
+    public void started() {
+        this.queueDepth.decrementAndGet();
+        this.active.incrementAndGet();
+    }
+
+    /**
+     * Note that processing of an item has finished.
+     * <p>
+     * This does not increment the count, see {@link #increment(Object)}
+     * </p>
+     */
+    public void finished() {
+        this.active.decrementAndGet();
+    }
+
     /**
      * Start the counter
      */
@@ -93,6 +164,8 @@ public class Counter implements CounterMXBean {
         this.start = System.currentTimeMillis();
         this.segment = this.start;
         this.stop = 0;
+        this.queueDepth.set(0);
+        this.active.set(0);
     }
 
     /**
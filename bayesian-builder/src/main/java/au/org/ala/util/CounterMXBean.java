@@ -27,11 +27,29 @@ public interface CounterMXBean {
      * @return The number of counts per second in the current segment
      */
     double getCurrentRate();
+    /**
+     * Get the total rate for the counter.
+     *
+     * @return The number of counts per second since the counter started
+     */
+    double getTotalRate();
     /**
      * Get the total count.
      *
      * @return The count
      */
     int getCount();
+    /**
+     * Get the number of items waiting to be processed.
+     *
+     * @return The queue depth
+     */
+    int getQueueDepth();
+    /**
+     * Get the number of items currently being processed.
+     *
+     * @return The number of active tasks
+     */
+    int getActive();
 
 }
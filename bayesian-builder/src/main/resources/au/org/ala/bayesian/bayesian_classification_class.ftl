@@ -317,12 +317,16 @@ public class ${className}<#if superClassName??> extends ${superClassName}</#if>
   }
 
   public ${inferencerClassName}.Evidence match(Classifier classifier) throws BayesianException {
-    ${inferencerClassName}.Evidence evidence = new ${inferencerClassName}.Evidence();
+    long[] evidence = PackedEvidence.create(${inferencerClassName}.Evidence.SIZE);
+    this.match(classifier, evidence);
+    return new ${inferencerClassName}.Evidence(evidence);
+  }
+
+  public void match(Classifier classifier, long[] evidence) throws BayesianException {
 <#list orderedNodes as node>
   <#assign observable = node.observable >
-    evidence.${node.evidence.id} = classifier.match(this.${observable.javaVariable}<#list observable.matchers as matcher>, ${factoryClassName}.${matcher.javaVariable}</#list>);
+    PackedEvidence.set(evidence, ${inferencerClassName}.Evidence.IDX$${node.evidence.id}, classifier.match(this.${observable.javaVariable}<#list observable.matchers as matcher>, ${factoryClassName}.${matcher.javaVariable}</#list>));
 </#list>
-    return evidence;
   }
 
 }
\ No newline at end of file
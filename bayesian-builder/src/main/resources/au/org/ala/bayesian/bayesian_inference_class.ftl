@@ -5,6 +5,7 @@ import au.org.ala.bayesian.Analyser;
 import au.org.ala.bayesian.Classifier;
 import au.org.ala.bayesian.Inference;
 import au.org.ala.bayesian.Inferencer;
+import au.org.ala.bayesian.PackedEvidence;
 import au.org.ala.bayesian.Trace;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
@@ -47,10 +48,39 @@ public class ${className}<#if superClassName??> extends ${superClassName}</#if>
   @JsonPropertyOrder(alphabetic = true)
   @JsonInclude(JsonInclude.Include.NON_EMPTY)
   public static class Evidence {
+    public static final int SIZE = ${orderedNodes?size};
+<#list orderedNodes as node>
+    public static final int IDX$${node.evidence.id} = ${node?index};
+</#list>
+
+    // Packed evidence, reused by each thread
+    private static final ThreadLocal<long[]> BUFFER = ThreadLocal.withInitial(() -> PackedEvidence.create(SIZE));
+
 <#list orderedNodes as node>
     public Boolean ${node.evidence.id};
 </#list>
 
+    public Evidence() {
+    }
+
+    public Evidence(long[] evidence) {
+<#list orderedNodes as node>
+      this.${node.evidence.id} = PackedEvidence.get(evidence, IDX$${node.evidence.id});
+</#list>
+    }
+
+    public long[] pack() {
+      long[] evidence = PackedEvidence.create(SIZE);
+<#list orderedNodes as node>
+      PackedEvidence.set(evidence, IDX$${node.evidence.id}, this.${node.evidence.id});
+</#list>
+      return evidence;
+    }
+
+    public static long[] buffer() {
+      return BUFFER.get();
+    }
+
 <#list orderedNodes as node>
     @JsonIgnore
     public boolean isT$${node.evidence.id}() {
@@ -62,6 +92,14 @@ public class ${className}<#if superClassName??> extends ${superClassName}</#if>
       return this.${node.evidence.id} == null || !this.${node.evidence.id};
     }
 
+    public static boolean isT$${node.evidence.id}(long[] evidence) {
+      return PackedEvidence.isT(evidence, IDX$${node.evidence.id});
+    }
+
+    public static boolean isF$${node.evidence.id}(long[] evidence) {
+      return PackedEvidence.isF(evidence, IDX$${node.evidence.id});
+    }
+
 </#list>
   }
 }
\ No newline at end of file
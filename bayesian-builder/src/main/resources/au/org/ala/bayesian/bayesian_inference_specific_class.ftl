@@ -21,7 +21,7 @@ public class ${className} implements Inferencer<${classificationClassName}> {
 
 <#list inputSignatures as sig>
   <#assign signature><#list sig as s><#if s>t<#else>f</#if></#list></#assign>
-  public double infer_${signature}(${parentClassName}.Evidence evidence, ${parametersClassName} parameters, Trace trace) {
+  public double infer_${signature}(long[] evidence, ${parametersClassName} parameters, Trace trace) {
 <#list inputs as node>
     double ${node.CE} = <#if sig[node?index]>1.0<#else>0.0</#if>;
     double ${node.CNotE} = <#if sig[node?index]>0.0<#else>1.0</#if>;
@@ -33,15 +33,15 @@ public class ${className} implements Inferencer<${classificationClassName}> {
     double ${node.CNotE} = 0.0;
         </#if>
     <#else>
-    double ${node.CE} = evidence.isT$${node.evidence.id}() ? 1.0 : 0.0;
-    double ${node.CNotE} = evidence.isF$${node.evidence.id}() ? 1.0 : 0.0;
+    double ${node.CE} = ${parentClassName}.Evidence.isT$${node.evidence.id}(evidence) ? 1.0 : 0.0;
+    double ${node.CNotE} = ${parentClassName}.Evidence.isF$${node.evidence.id}(evidence) ? 1.0 : 0.0;
     </#if>
 </#list>
 <#list orderedNodes as node>
   <#if !node.source>
     // Ignoring non-base ${node.observable.id}
   <#elseif node.interior?size gt 0>
-    if (evidence.isT$${node.evidence.id}()) {
+    if (${parentClassName}.Evidence.isT$${node.evidence.id}(evidence)) {
         <#list node.matchingInterior(signature, true) as inf>
        ${node.CE} += parameters.${inf.id}<#list inf.contributors as c><#assign base = nodes[c.observable.id]> * <#if c.match>${base.CE}<#else>${base.CNotE}</#if></#list>;
         </#list>
@@ -50,7 +50,7 @@ public class ${className} implements Inferencer<${classificationClassName}> {
         trace.add(TraceLevel.TRACE, "${node.formula} - ${node.observable.id}", "${node.formulaExpression(signature, true, true)}", val_, ${node.CE});
       }
     }
-    if (evidence.isF$${node.evidence.id}()) {
+    if (${parentClassName}.Evidence.isF$${node.evidence.id}(evidence)) {
       <#list node.matchingInterior(signature, false) as inf>
       ${node.CNotE} += parameters.${inf.id}<#list inf.contributors as c><#assign base = nodes[c.observable.id]> * <#if c.match>${base.CE}<#else>${base.CNotE}</#if></#list>;
       </#list>
@@ -60,7 +60,7 @@ public class ${className} implements Inferencer<${classificationClassName}> {
       }
     }
   <#elseif node.inference?size gt 0>
-    if (evidence.isT$${node.evidence.id}()) {
+    if (${parentClassName}.Evidence.isT$${node.evidence.id}(evidence)) {
       <#list node.matchingInference(signature, true) as inf>
       ${node.CE} += parameters.${inf.id}<#list inf.contributors as c><#assign base = nodes[c.observable.id]> * <#if c.match>${base.CE}<#else>${base.CNotE}</#if></#list>;
       </#list>
@@ -69,7 +69,7 @@ public class ${className} implements Inferencer<${classificationClassName}> {
         trace.add(TraceLevel.TRACE, "${node.formula} - ${node.observable.id}", "${node.formulaExpression(signature, true, false)}", val_, ${node.CE});
       }
     }
-    if (evidence.isF$${node.evidence.id}()) {
+    if (${parentClassName}.Evidence.isF$${node.evidence.id}(evidence)) {
       <#list node.matchingInference(signature, false) as inf>
       ${node.CNotE} += parameters.${inf.id}<#list inf.contributors as c><#assign base = nodes[c.observable.id]> * <#if c.match>${base.CE}<#else>${base.CNotE}</#if></#list>;
       </#list>
@@ -91,6 +91,10 @@ public class ${className} implements Inferencer<${classificationClassName}> {
 </#list>
 
   public Inference probability(${parentClassName}.Evidence evidence, ${parametersClassName} parameters, Trace trace) {
+    return this.probability(evidence.pack(), parameters, trace);
+  }
+
+  public Inference probability(long[] evidence, ${parametersClassName} parameters, Trace trace) {
     double c, p;
     double prior = <#list inputs as node><#if node?index gt 0> * </#if>parameters.${node.prior.id}</#list>;
     double ph = 0.0;
@@ -101,7 +105,7 @@ public class ${className} implements Inferencer<${classificationClassName}> {
     if (trace != null)
         trace.push(TraceLevel.TRACE, "p(${formulaForSignature(sig)})");
     try {
-        if (<#list sig as s><#assign node = inputs[s?index]>evidence.is<#if s>T<#else>F</#if>$${node.evidence.id}()<#if s?has_next> && </#if></#list>) {
+        if (<#list sig as s><#assign node = inputs[s?index]>${parentClassName}.Evidence.is<#if s>T<#else>F</#if>$${node.evidence.id}(evidence)<#if s?has_next> && </#if></#list>) {
           c = this.infer_${signature}(evidence, parameters, trace);
           p = c <#list inputs as node> * <#if sig[node?index]>parameters.${node.prior.id}<#else>parameters.${node.invertedPrior.id}</#if></#list>;
           if (trace != null) {
@@ -125,14 +129,11 @@ public class ${className} implements Inferencer<${classificationClassName}> {
     if (trace != null)
         trace.push(TraceLevel.TRACE, "inference");
     try {
-        ${parentClassName}.Evidence evidence = classification.match(classifier);
+        long[] evidence = ${parentClassName}.Evidence.buffer();
+        classification.match(classifier, evidence);
         if (trace != null)
-            trace.add(TraceLevel.TRACE, "evidence", evidence);
-        ${parametersClassName} params = (${parametersClassName}) classifier.getCachedParameters();
-        if (params == null) {
-          params = new ${parametersClassName}();
-          classifier.loadParameters(params);
-        }
+            trace.add(TraceLevel.TRACE, "evidence", new ${parentClassName}.Evidence(evidence));
+        ${parametersClassName} params = classifier.getParameters(${parametersClassName}::new);
         return this.probability(evidence, params, trace);
     } finally {
         if (trace != null)
@@ -8,6 +8,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 /**
  * Note these tests are for the hypothesis rain = true.
@@ -184,4 +185,23 @@ public class GrassTest {
         assertEquals(0.2900, inference.getEvidence(), 0.0001);
         assertEquals(0.0068, inference.getPosterior(), 0.0001);
     }
+
+    /**
+     * Packed evidence gives the same result as the evidence object
+     */
+    @Test
+    public void testPacked1() {
+        GrassInferencer.Evidence evidence = new GrassInferencer.Evidence();
+
+        evidence.e$wet = true;
+        evidence.e$sprinkler = false;
+        long[] packed = evidence.pack();
+        Inference inference = this.inferencer.probability(packed, this.parameters, null);
+        assertEquals(0.1632, inference.getEvidence(), 0.0001);
+        assertEquals(0.9706, inference.getPosterior(), 0.0001);
+        GrassInferencer.Evidence unpacked = new GrassInferencer.Evidence(packed);
+        assertNull(unpacked.e$rain);
+        assertEquals(Boolean.FALSE, unpacked.e$sprinkler);
+        assertEquals(Boolean.TRUE, unpacked.e$wet);
+    }
 }
@@ -0,0 +1,66 @@
+package au.org.ala.names.builder;
+
+import au.org.ala.names.generated.SimpleLinnaeanFactory;
+import au.org.ala.util.TestUtils;
+import org.gbif.dwc.terms.DwcTerm;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link ConceptTree}
+ */
+public class ConceptTreeTest {
+    private TestLoadStore store;
+
+    @Before
+    public void setUp() throws Exception {
+        this.store = new TestLoadStore("test", 0);
+        Reader reader = TestUtils.getResourceReader(this.getClass(), "source-1.csv");
+        CSVSource source = new CSVSource(DwcTerm.Taxon, reader, SimpleLinnaeanFactory.instance(), null);
+        source.load(this.store, null);
+        source.close();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        this.store.close();
+    }
+
+    @Test
+    public void testBuild1() throws Exception {
+        ConceptTree tree = ConceptTree.build(this.store, DwcTerm.Taxon, SimpleLinnaeanFactory.taxonId, SimpleLinnaeanFactory.parentNameUsageId, 1024 * 1024);
+        assertNotNull(tree);
+        assertEquals(11, tree.size());
+        assertTrue(tree.getEstimatedSize() > 0);
+        assertTrue(tree.contains("G-1"));
+        assertFalse(tree.contains("G-99"));
+        assertEquals(Collections.singletonList("P-1"), tree.getChildren("K-1"));
+        assertEquals(new HashSet<>(Arrays.asList("S-1", "S-2")), new HashSet<>(tree.getChildren("G-1")));
+        assertEquals(Collections.emptyList(), tree.getChildren("S-1"));
+        assertEquals(Collections.emptyList(), tree.getChildren("S-S-1"));
+        assertNull(tree.getChildren("G-99"));
+    }
+
+    @Test
+    public void testAncestors1() throws Exception {
+        ConceptTree tree = ConceptTree.build(this.store, DwcTerm.Taxon, SimpleLinnaeanFactory.taxonId, SimpleLinnaeanFactory.parentNameUsageId, 1024 * 1024);
+        assertNotNull(tree);
+        assertEquals(Arrays.asList("F-1", "O-1", "SC-1", "C-1", "SP-1", "P-1", "K-1"), tree.getAncestors("G-1"));
+        assertEquals(Collections.emptyList(), tree.getAncestors("K-1"));
+        assertEquals(Collections.emptyList(), tree.getAncestors("S-S-1"));
+        assertNull(tree.getAncestors("G-99"));
+    }
+
+    @Test
+    public void testBuild2() throws Exception {
+        assertNull(ConceptTree.build(this.store, DwcTerm.Taxon, SimpleLinnaeanFactory.taxonId, SimpleLinnaeanFactory.parentNameUsageId, 100));
+    }
+}
@@ -15,10 +15,18 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectInstance;
+import javax.management.ObjectName;
 import java.io.File;
+import java.lang.management.ManagementFactory;
 import java.net.URL;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.Assert.*;
 
@@ -71,6 +79,23 @@ public class IndexBuilderTest {
     }
 
 
+    @Test
+    public void testInterpret2() throws Exception {
+        Observable taxonID = this.builder.network.getObservable(DwcTerm.taxonID);
+        Observable scientificName = this.builder.network.getObservable(DwcTerm.scientificName);
+        URL surl = this.getClass().getResource("source-1.csv");
+        CSVSource source = new CSVSource(surl, this.builder.getFactory(), this.builder.getNetwork().getObservables());
+        this.builder.load(source);
+        this.config.setVirtualThreads(true);
+        this.config.setTaskConcurrency(4);
+        LoadStore interpreted = this.builder.interpret(this.builder.getLoader());
+        assertEquals(this.builder.getLoader().count(DwcTerm.Taxon), interpreted.count(DwcTerm.Taxon));
+        Classifier classifier = interpreted.get(DwcTerm.Taxon, taxonID, "S-1");
+        assertEquals("S-1", classifier.get(taxonID));
+        assertEquals("Artemia franciscana", classifier.get(scientificName));
+    }
+
+
     @Test
     public void testSynonymise1() throws Exception {
         Observable taxonID = this.builder.network.getObservable(DwcTerm.taxonID);
@@ -111,6 +136,52 @@ public class IndexBuilderTest {
         assertEquals(Collections.singleton("Animalia"), classifier.getAll(kingdom));
     }
 
+    @Test
+    public void testExpandTree2() throws Exception {
+        Observable taxonID = this.builder.network.getObservable(DwcTerm.taxonID);
+        URL surl = this.getClass().getResource("source-1.csv");
+        CSVSource source = new CSVSource(surl, this.builder.getFactory(), this.builder.getNetwork().getObservables());
+        this.builder.load(source);
+        LoadStore interpreted = this.builder.interpret(this.builder.getLoader());
+        LoadStore synonymised = this.builder.synonymise(interpreted);
+        LoadStore serial = this.builder.createWorkStore("serial");
+        this.builder.expandTree(synonymised, serial);
+        this.config.setParallelExpand(true);
+        this.config.setThreads(4);
+        this.config.setExpandForkThreshold(2);
+        LoadStore parallel = this.builder.createWorkStore("parallel");
+        this.builder.expandTree(synonymised, parallel);
+        for (String id: new String[] { "K-1", "P-1", "SP-1", "C-1", "SC-1", "O-1", "F-1", "G-1", "S-1", "S-2" }) {
+            Classifier expected = serial.get(DwcTerm.Taxon, taxonID, id);
+            Classifier actual = parallel.get(DwcTerm.Taxon, taxonID, id);
+            assertNotNull(expected);
+            assertNotNull(actual);
+            assertArrayEquals(expected.getIndex(), actual.getIndex());
+            assertEquals(expected.getTrail(), actual.getTrail());
+        }
+    }
+    @Test
+    public void testExpandTree3() throws Exception {
+        Observable taxonID = this.builder.network.getObservable(DwcTerm.taxonID);
+        Observable kingdom = this.builder.network.getObservable(DwcTerm.kingdom);
+        URL surl = this.getClass().getResource("source-1.csv");
+        CSVSource source = new CSVSource(surl, this.builder.getFactory(), this.builder.getNetwork().getObservables());
+        this.builder.load(source);
+        LoadStore interpreted = this.builder.interpret(this.builder.getLoader());
+        LoadStore synonymised = this.builder.synonymise(interpreted);
+        LoadStore serial = this.builder.createWorkStore("serial");
+        this.builder.expandTree(synonymised, serial);
+        this.config.setConceptTreeBudget(1);
+        LoadStore expanded = this.builder.expand(synonymised);
+        for (String id: new String[] { "K-1", "P-1", "SP-1", "C-1", "SC-1", "O-1", "F-1", "G-1", "S-1", "S-2" }) {
+            Classifier expected = serial.get(DwcTerm.Taxon, taxonID, id);
+            Classifier actual = expanded.get(DwcTerm.Taxon, taxonID, id);
+            assertNotNull(actual);
+            assertArrayEquals(expected.getIndex(), actual.getIndex());
+        }
+        Classifier classifier = expanded.get(DwcTerm.Taxon, taxonID, "S-S-1");
+        assertEquals("Animalia", classifier.get(kingdom));
+    }
 
     @Test
     public void testInfer1() throws Exception {
@@ -156,6 +227,70 @@ public class IndexBuilderTest {
     }
 
 
+    @Test
+    public void testBuildPipeline1() throws Exception {
+        Observable taxonID = this.builder.network.getObservable(DwcTerm.taxonID);
+        URL surl = this.getClass().getResource("source-1.csv");
+        CSVSource source = new CSVSource(surl, this.builder.getFactory(), this.builder.getNetwork().getObservables());
+        this.builder.load(source);
+        LoadStore standard = this.builder.build();
+        this.config.setPipeline(true);
+        int base = this.builder.getStores().size();
+        LoadStore pipelined = this.builder.build();
+        assertEquals(Collections.singletonList("parameterised"), this.storeNames(base));
+        this.config.setPipelineBoundaries(Collections.singleton(IndexBuilder.STAGE_INFER));
+        base = this.builder.getStores().size();
+        LoadStore bounded = this.builder.build();
+        assertEquals(Arrays.asList("infer", "parameterised"), this.storeNames(base));
+        for (String id: new String[] { "S-1", "S-S-1" }) {
+            Classifier expected = standard.get(DwcTerm.Taxon, taxonID, id);
+            SimpleLinnaeanParameters_FT ep = new SimpleLinnaeanParameters_FT();
+            expected.loadParameters(ep);
+            for (LoadStore store: new LoadStore[] { pipelined, bounded }) {
+                Classifier actual = store.get(DwcTerm.Taxon, taxonID, id);
+                assertNotNull(actual);
+                assertEquals(expected.getSignature(), actual.getSignature());
+                SimpleLinnaeanParameters_FT ap = new SimpleLinnaeanParameters_FT();
+                actual.loadParameters(ap);
+                assertEquals(ep.prior_taxonId_t, ap.prior_taxonId_t, 0.0001);
+                assertEquals(ep.inf_kingdom_f$t_t, ap.inf_kingdom_f$t_t, 0.0001);
+                assertEquals(ep.inf_phylum_t$f_f, ap.inf_phylum_t$f_f, 0.0001);
+            }
+        }
+    }
+
+    @Test
+    public void testBuildPipeline2() throws Exception {
+        MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+        URL surl = this.getClass().getResource("source-1.csv");
+        CSVSource source = new CSVSource(surl, this.builder.getFactory(), this.builder.getNetwork().getObservables());
+        this.builder.load(source);
+        this.config.setPipeline(true);
+        LoadStore pipelined = this.builder.build();
+        assertTrue(mbs.isRegistered(this.storeMBean("parameterised")));
+        for (String name: new String[] { "interpreted", "synonymised", "broadened", "expanded", "infer-weight" }) {
+            assertFalse(name, mbs.isRegistered(this.storeMBean(name)));
+            for (Object mbean: this.builder.mbeans)
+                assertNotEquals(name, this.storeMBean(name), ((ObjectInstance) mbean).getObjectName());
+        }
+        this.builder.close();
+        this.builder = null;
+        assertFalse(mbs.isRegistered(this.storeMBean("parameterised")));
+    }
+
+    private List<String> storeNames(int from) {
+        List<LoadStore> stores = this.builder.getStores();
+        return stores.subList(from, stores.size()).stream().map(LoadStore::getName).collect(Collectors.toList());
+    }
+
+    private ObjectName storeMBean(String name) {
+        try {
+            return new ObjectName(IndexBuilder.class.getPackage().getName() + ":type=" + LuceneLoadStore.class.getSimpleName() + ",network=" + this.builder.getNetwork().getJavaVariable() + ",name=" + name);
+        } catch (MalformedObjectNameException ex) {
+            throw new IllegalArgumentException(ex);
+        }
+    }
+
     @Test
     public void testBuildParameters2() throws Exception {
         Observable taxonID = this.builder.network.getObservable(DwcTerm.taxonID);
@@ -208,6 +343,8 @@ public class IndexBuilderTest {
             assertNotNull(metadata.getSources());
             assertEquals(2, metadata.getSources().size());
             assertFalse(metadata.getCreated().after(new Date()));
+            assertSame(metadata, searcher.getMetadata());
+            assertTrue(searcher.getMetadataLoaded() > 0);
             File nw = new File(output, "network.json");
             assertTrue(nw.exists());
             Network saved = Network.read(nw.toURI().toURL());
@@ -205,11 +205,15 @@ public class GrassClassification implements Classification<GrassClassification>
   }
 
   public GrassInferencer.Evidence match(Classifier classifier) throws BayesianException {
-    GrassInferencer.Evidence evidence = new GrassInferencer.Evidence();
-    evidence.e$rain = classifier.match(this.rain, GrassFactory.rain);
-    evidence.e$sprinkler = classifier.match(this.sprinkler, GrassFactory.sprinkler);
-    evidence.e$wet = classifier.match(this.wet, GrassFactory.wet);
-    return evidence;
+    long[] evidence = PackedEvidence.create(GrassInferencer.Evidence.SIZE);
+    this.match(classifier, evidence);
+    return new GrassInferencer.Evidence(evidence);
+  }
+
+  public void match(Classifier classifier, long[] evidence) throws BayesianException {
+    PackedEvidence.set(evidence, GrassInferencer.Evidence.IDX$e$rain, classifier.match(this.rain, GrassFactory.rain));
+    PackedEvidence.set(evidence, GrassInferencer.Evidence.IDX$e$sprinkler, classifier.match(this.sprinkler, GrassFactory.sprinkler));
+    PackedEvidence.set(evidence, GrassInferencer.Evidence.IDX$e$wet, classifier.match(this.wet, GrassFactory.wet));
   }
 
 }
\ No newline at end of file
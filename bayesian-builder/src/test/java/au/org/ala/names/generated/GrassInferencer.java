@@ -5,6 +5,7 @@ import au.org.ala.bayesian.Analyser;
 import au.org.ala.bayesian.Classifier;
 import au.org.ala.bayesian.Inference;
 import au.org.ala.bayesian.Inferencer;
+import au.org.ala.bayesian.PackedEvidence;
 import au.org.ala.bayesian.Trace;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
@@ -45,10 +46,39 @@ public class GrassInferencer implements Inferencer<GrassClassification> {
   @JsonPropertyOrder(alphabetic = true)
   @JsonInclude(JsonInclude.Include.NON_EMPTY)
   public static class Evidence {
+    public static final int SIZE = 3;
+    public static final int IDX$e$rain = 0;
+    public static final int IDX$e$sprinkler = 1;
+    public static final int IDX$e$wet = 2;
+
+    // Packed evidence, reused by each thread
+    private static final ThreadLocal<long[]> BUFFER = ThreadLocal.withInitial(() -> PackedEvidence.create(SIZE));
+
     public Boolean e$rain;
     public Boolean e$sprinkler;
     public Boolean e$wet;
 
+    public Evidence() {
+    }
+
+    public Evidence(long[] evidence) {
+      this.e$rain = PackedEvidence.get(evidence, IDX$e$rain);
+      this.e$sprinkler = PackedEvidence.get(evidence, IDX$e$sprinkler);
+      this.e$wet = PackedEvidence.get(evidence, IDX$e$wet);
+    }
+
+    public long[] pack() {
+      long[] evidence = PackedEvidence.create(SIZE);
+      PackedEvidence.set(evidence, IDX$e$rain, this.e$rain);
+      PackedEvidence.set(evidence, IDX$e$sprinkler, this.e$sprinkler);
+      PackedEvidence.set(evidence, IDX$e$wet, this.e$wet);
+      return evidence;
+    }
+
+    public static long[] buffer() {
+      return BUFFER.get();
+    }
+
     @JsonIgnore
     public boolean isT$e$rain() {
       return this.e$rain == null || this.e$rain;
@@ -59,6 +89,14 @@ public class GrassInferencer implements Inferencer<GrassClassification> {
       return this.e$rain == null || !this.e$rain;
     }
 
+    public static boolean isT$e$rain(long[] evidence) {
+      return PackedEvidence.isT(evidence, IDX$e$rain);
+    }
+
+    public static boolean isF$e$rain(long[] evidence) {
+      return PackedEvidence.isF(evidence, IDX$e$rain);
+    }
+
     @JsonIgnore
     public boolean isT$e$sprinkler() {
       return this.e$sprinkler == null || this.e$sprinkler;
@@ -69,6 +107,14 @@ public class GrassInferencer implements Inferencer<GrassClassification> {
       return this.e$sprinkler == null || !this.e$sprinkler;
     }
 
+    public static boolean isT$e$sprinkler(long[] evidence) {
+      return PackedEvidence.isT(evidence, IDX$e$sprinkler);
+    }
+
+    public static boolean isF$e$sprinkler(long[] evidence) {
+      return PackedEvidence.isF(evidence, IDX$e$sprinkler);
+    }
+
     @JsonIgnore
     public boolean isT$e$wet() {
       return this.e$wet == null || this.e$wet;
@@ -79,5 +125,13 @@ public class GrassInferencer implements Inferencer<GrassClassification> {
       return this.e$wet == null || !this.e$wet;
     }
 
+    public static boolean isT$e$wet(long[] evidence) {
+      return PackedEvidence.isT(evidence, IDX$e$wet);
+    }
+
+    public static boolean isF$e$wet(long[] evidence) {
+      return PackedEvidence.isF(evidence, IDX$e$wet);
+    }
+
   }
 }
\ No newline at end of file
@@ -19,15 +19,15 @@ public class GrassInferencer_ implements Inferencer<GrassClassification> {
     return SIGNATURE;
   }
 
-  public double infer_t(GrassInferencer.Evidence evidence, GrassParameters_ parameters, Trace trace) {
+  public double infer_t(long[] evidence, GrassParameters_ parameters, Trace trace) {
     double c$rain = 1.0;
     double nc$rain = 0.0;
-    double c$sprinkler = evidence.isT$e$sprinkler() ? 1.0 : 0.0;
-    double nc$sprinkler = evidence.isF$e$sprinkler() ? 1.0 : 0.0;
+    double c$sprinkler = GrassInferencer.Evidence.isT$e$sprinkler(evidence) ? 1.0 : 0.0;
+    double nc$sprinkler = GrassInferencer.Evidence.isF$e$sprinkler(evidence) ? 1.0 : 0.0;
     double c$wet = 0.0;
     double nc$wet = 0.0;
     // Ignoring non-base sprinkler
-    if (evidence.isT$e$wet()) {
+    if (GrassInferencer.Evidence.isT$e$wet(evidence)) {
        c$wet += parameters.derived_wet_t$t_t * c$rain * c$sprinkler;
        c$wet += parameters.derived_wet_t$t_f * c$rain * nc$sprinkler;
       if (trace != null) {
@@ -35,7 +35,7 @@ public class GrassInferencer_ implements Inferencer<GrassClassification> {
         trace.add(TraceLevel.TRACE, "p(wet) - wet", "p(wet | rain, sprinkler)·rain·sprinkler + p(wet | rain, ¬sprinkler)·rain·¬sprinkler", val_, c$wet);
       }
     }
-    if (evidence.isF$e$wet()) {
+    if (GrassInferencer.Evidence.isF$e$wet(evidence)) {
       nc$wet += parameters.derived_wet_f$t_t * c$rain * c$sprinkler;
       nc$wet += parameters.derived_wet_f$t_f * c$rain * nc$sprinkler;
       if (trace != null) {
@@ -51,15 +51,15 @@ public class GrassInferencer_ implements Inferencer<GrassClassification> {
     return result_;
   }
 
-  public double infer_f(GrassInferencer.Evidence evidence, GrassParameters_ parameters, Trace trace) {
+  public double infer_f(long[] evidence, GrassParameters_ parameters, Trace trace) {
     double c$rain = 0.0;
     double nc$rain = 1.0;
-    double c$sprinkler = evidence.isT$e$sprinkler() ? 1.0 : 0.0;
-    double nc$sprinkler = evidence.isF$e$sprinkler() ? 1.0 : 0.0;
+    double c$sprinkler = GrassInferencer.Evidence.isT$e$sprinkler(evidence) ? 1.0 : 0.0;
+    double nc$sprinkler = GrassInferencer.Evidence.isF$e$sprinkler(evidence) ? 1.0 : 0.0;
     double c$wet = 0.0;
     double nc$wet = 0.0;
     // Ignoring non-base sprinkler
-    if (evidence.isT$e$wet()) {
+    if (GrassInferencer.Evidence.isT$e$wet(evidence)) {
        c$wet += parameters.derived_wet_t$f_t * nc$rain * c$sprinkler;
        c$wet += parameters.derived_wet_t$f_f * nc$rain * nc$sprinkler;
       if (trace != null) {
@@ -67,7 +67,7 @@ public class GrassInferencer_ implements Inferencer<GrassClassification> {
         trace.add(TraceLevel.TRACE, "p(wet) - wet", "p(wet | ¬rain, sprinkler)·¬rain·sprinkler + p(wet | ¬rain, ¬sprinkler)·¬rain·¬sprinkler", val_, c$wet);
       }
     }
-    if (evidence.isF$e$wet()) {
+    if (GrassInferencer.Evidence.isF$e$wet(evidence)) {
       nc$wet += parameters.derived_wet_f$f_t * nc$rain * c$sprinkler;
       nc$wet += parameters.derived_wet_f$f_f * nc$rain * nc$sprinkler;
       if (trace != null) {
@@ -85,6 +85,10 @@ public class GrassInferencer_ implements Inferencer<GrassClassification> {
 
 
   public Inference probability(GrassInferencer.Evidence evidence, GrassParameters_ parameters, Trace trace) {
+    return this.probability(evidence.pack(), parameters, trace);
+  }
+
+  public Inference probability(long[] evidence, GrassParameters_ parameters, Trace trace) {
     double c, p;
     double prior = parameters.prior_rain_t;
     double ph = 0.0;
@@ -93,7 +97,7 @@ public class GrassInferencer_ implements Inferencer<GrassClassification> {
     if (trace != null)
         trace.push(TraceLevel.TRACE, "p(rain)");
     try {
-        if (evidence.isT$e$rain()) {
+        if (GrassInferencer.Evidence.isT$e$rain(evidence)) {
           c = this.infer_t(evidence, parameters, trace);
           p = c  * parameters.prior_rain_t;
           if (trace != null) {
@@ -109,7 +113,7 @@ public class GrassInferencer_ implements Inferencer<GrassClassification> {
     if (trace != null)
         trace.push(TraceLevel.TRACE, "p(¬rain)");
     try {
-        if (evidence.isF$e$rain()) {
+        if (GrassInferencer.Evidence.isF$e$rain(evidence)) {
           c = this.infer_f(evidence, parameters, trace);
           p = c  * parameters.prior_rain_f;
           if (trace != null) {
@@ -129,14 +133,11 @@ public class GrassInferencer_ implements Inferencer<GrassClassification> {
     if (trace != null)
         trace.push(TraceLevel.TRACE, "inference");
     try {
-        GrassInferencer.Evidence evidence = classification.match(classifier);
+        long[] evidence = GrassInferencer.Evidence.buffer();
+        classification.match(classifier, evidence);
         if (trace != null)
-            trace.add(TraceLevel.TRACE, "evidence", evidence);
-        GrassParameters_ params = (GrassParameters_) classifier.getCachedParameters();
-        if (params == null) {
-          params = new GrassParameters_();
-          classifier.loadParameters(params);
-        }
+            trace.add(TraceLevel.TRACE, "evidence", new GrassInferencer.Evidence(evidence));
+        GrassParameters_ params = classifier.getParameters(GrassParameters_::new);
         return this.probability(evidence, params, trace);
     } finally {
         if (trace != null)
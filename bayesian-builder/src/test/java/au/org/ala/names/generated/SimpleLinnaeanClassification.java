@@ -423,21 +423,25 @@ public class SimpleLinnaeanClassification implements Classification<SimpleLinnae
   }
 
   public SimpleLinnaeanInferencer.Evidence match(Classifier classifier) throws BayesianException {
-    SimpleLinnaeanInferencer.Evidence evidence = new SimpleLinnaeanInferencer.Evidence();
-    evidence.e$taxonId = classifier.match(this.taxonId, SimpleLinnaeanFactory.taxonId);
-    evidence.e$taxonRank = classifier.match(this.taxonRank, SimpleLinnaeanFactory.taxonRank);
-    evidence.e$specificEpithet = classifier.match(this.specificEpithet, SimpleLinnaeanFactory.specificEpithet);
-    evidence.e$scientificNameAuthorship = classifier.match(this.scientificNameAuthorship, SimpleLinnaeanFactory.scientificNameAuthorship);
-    evidence.e$scientificName = classifier.match(this.scientificName, SimpleLinnaeanFactory.scientificName, SimpleLinnaeanFactory.altScientificName);
-    evidence.e$soundexScientificName = classifier.match(this.soundexScientificName, SimpleLinnaeanFactory.soundexScientificName);
-    evidence.e$prefixScientificName = classifier.match(this.prefixScientificName, SimpleLinnaeanFactory.prefixScientificName);
-    evidence.e$genus = classifier.match(this.genus, SimpleLinnaeanFactory.genus);
-    evidence.e$family = classifier.match(this.family, SimpleLinnaeanFactory.family);
-    evidence.e$order = classifier.match(this.order, SimpleLinnaeanFactory.order);
-    evidence.e$class_ = classifier.match(this.class_, SimpleLinnaeanFactory.class_);
-    evidence.e$phylum = classifier.match(this.phylum, SimpleLinnaeanFactory.phylum);
-    evidence.e$kingdom = classifier.match(this.kingdom, SimpleLinnaeanFactory.kingdom);
-    return evidence;
+    long[] evidence = PackedEvidence.create(SimpleLinnaeanInferencer.Evidence.SIZE);
+    this.match(classifier, evidence);
+    return new SimpleLinnaeanInferencer.Evidence(evidence);
+  }
+
+  public void match(Classifier classifier, long[] evidence) throws BayesianException {
+    PackedEvidence.set(evidence, SimpleLinnaeanInferencer.Evidence.IDX$e$taxonId, classifier.match(this.taxonId, SimpleLinnaeanFactory.taxonId));
+    PackedEvidence.set(evidence, SimpleLinnaeanInferencer.Evidence.IDX$e$taxonRank, classifier.match(this.taxonRank, SimpleLinnaeanFactory.taxonRank));
+    PackedEvidence.set(evidence, SimpleLinnaeanInferencer.Evidence.IDX$e$specificEpithet, classifier.match(this.specificEpithet, SimpleLinnaeanFactory.specificEpithet));
+    PackedEvidence.set(evidence, SimpleLinnaeanInferencer.Evidence.IDX$e$scientificNameAuthorship, classifier.match(this.scientificNameAuthorship, SimpleLinnaeanFactory.scientificNameAuthorship));
+    PackedEvidence.set(evidence, SimpleLinnaeanInferencer.Evidence.IDX$e$scientificName, classifier.match(this.scientificName, SimpleLinnaeanFactory.scientificName, SimpleLinnaeanFactory.altScientificName));
+    PackedEvidence.set(evidence, SimpleLinnaeanInferencer.Evidence.IDX$e$soundexScientificName, classifier.match(this.soundexScientificName, SimpleLinnaeanFactory.soundexScientificName));
+    PackedEvidence.set(evidence, SimpleLinnaeanInferencer.Evidence.IDX$e$prefixScientificName, classifier.match(this.prefixScientificName, SimpleLinnaeanFactory.prefixScientificName));
+    PackedEvidence.set(evidence, SimpleLinnaeanInferencer.Evidence.IDX$e$genus, classifier.match(this.genus, SimpleLinnaeanFactory.genus));
+    PackedEvidence.set(evidence, SimpleLinnaeanInferencer.Evidence.IDX$e$family, classifier.match(this.family, SimpleLinnaeanFactory.family));
+    PackedEvidence.set(evidence, SimpleLinnaeanInferencer.Evidence.IDX$e$order, classifier.match(this.order, SimpleLinnaeanFactory.order));
+    PackedEvidence.set(evidence, SimpleLinnaeanInferencer.Evidence.IDX$e$class_, classifier.match(this.class_, SimpleLinnaeanFactory.class_));
+    PackedEvidence.set(evidence, SimpleLinnaeanInferencer.Evidence.IDX$e$phylum, classifier.match(this.phylum, SimpleLinnaeanFactory.phylum));
+    PackedEvidence.set(evidence, SimpleLinnaeanInferencer.Evidence.IDX$e$kingdom, classifier.match(this.kingdom, SimpleLinnaeanFactory.kingdom));
   }
 
 }
\ No newline at end of file
@@ -5,6 +5,7 @@ import au.org.ala.bayesian.Analyser;
 import au.org.ala.bayesian.Classifier;
 import au.org.ala.bayesian.Inference;
 import au.org.ala.bayesian.Inferencer;
+import au.org.ala.bayesian.PackedEvidence;
 import au.org.ala.bayesian.Trace;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
@@ -48,6 +49,24 @@ public class SimpleLinnaeanInferencer implements Inferencer<SimpleLinnaeanClassi
   @JsonPropertyOrder(alphabetic = true)
   @JsonInclude(JsonInclude.Include.NON_EMPTY)
   public static class Evidence {
+    public static final int SIZE = 13;
+    public static final int IDX$e$taxonId = 0;
+    public static final int IDX$e$taxonRank = 1;
+    public static final int IDX$e$specificEpithet = 2;
+    public static final int IDX$e$scientificNameAuthorship = 3;
+    public static final int IDX$e$scientificName = 4;
+    public static final int IDX$e$soundexScientificName = 5;
+    public static final int IDX$e$prefixScientificName = 6;
+    public static final int IDX$e$genus = 7;
+    public static final int IDX$e$family = 8;
+    public static final int IDX$e$order = 9;
+    public static final int IDX$e$class_ = 10;
+    public static final int IDX$e$phylum = 11;
+    public static final int IDX$e$kingdom = 12;
+
+    // Packed evidence, reused by each thread
+    private static final ThreadLocal<long[]> BUFFER = ThreadLocal.withInitial(() -> PackedEvidence.create(SIZE));
+
     public Boolean e$taxonId;
     public Boolean e$taxonRank;
     public Boolean e$specificEpithet;
@@ -62,6 +81,47 @@ public class SimpleLinnaeanInferencer implements Inferencer<SimpleLinnaeanClassi
     public Boolean e$phylum;
     public Boolean e$kingdom;
 
+    public Evidence() {
+    }
+
+    public Evidence(long[] evidence) {
+      this.e$taxonId = PackedEvidence.get(evidence, IDX$e$taxonId);
+      this.e$taxonRank = PackedEvidence.get(evidence, IDX$e$taxonRank);
+      this.e$specificEpithet = PackedEvidence.get(evidence, IDX$e$specificEpithet);
+      this.e$scientificNameAuthorship = PackedEvidence.get(evidence, IDX$e$scientificNameAuthorship);
+      this.e$scientificName = PackedEvidence.get(evidence, IDX$e$scientificName);
+      this.e$soundexScientificName = PackedEvidence.get(evidence, IDX$e$soundexScientificName);
+      this.e$prefixScientificName = PackedEvidence.get(evidence, IDX$e$prefixScientificName);
+      this.e$genus = PackedEvidence.get(evidence, IDX$e$genus);
+      this.e$family = PackedEvidence.get(evidence, IDX$e$family);
+      this.e$order = PackedEvidence.get(evidence, IDX$e$order);
+      this.e$class_ = PackedEvidence.get(evidence, IDX$e$class_);
+      this.e$phylum = PackedEvidence.get(evidence, IDX$e$phylum);
+      this.e$kingdom = PackedEvidence.get(evidence, IDX$e$kingdom);
+    }
+
+    public long[] pack() {
+      long[] evidence = PackedEvidence.create(SIZE);
+      PackedEvidence.set(evidence, IDX$e$taxonId, this.e$taxonId);
+      PackedEvidence.set(evidence, IDX$e$taxonRank, this.e$taxonRank);
+      PackedEvidence.set(evidence, IDX$e$specificEpithet, this.e$specificEpithet);
+      PackedEvidence.set(evidence, IDX$e$scientificNameAuthorship, this.e$scientificNameAuthorship);
+      PackedEvidence.set(evidence, IDX$e$scientificName, this.e$scientificName);
+      PackedEvidence.set(evidence, IDX$e$soundexScientificName, this.e$soundexScientificName);
+      PackedEvidence.set(evidence, IDX$e$prefixScientificName, this.e$prefixScientificName);
+      PackedEvidence.set(evidence, IDX$e$genus, this.e$genus);
+      PackedEvidence.set(evidence, IDX$e$family, this.e$family);
+      PackedEvidence.set(evidence, IDX$e$order, this.e$order);
+      PackedEvidence.set(evidence, IDX$e$class_, this.e$class_);
+      PackedEvidence.set(evidence, IDX$e$phylum, this.e$phylum);
+      PackedEvidence.set(evidence, IDX$e$kingdom, this.e$kingdom);
+      return evidence;
+    }
+
+    public static long[] buffer() {
+      return BUFFER.get();
+    }
+
     @JsonIgnore
     public boolean isT$e$taxonId() {
       return this.e$taxonId == null || this.e$taxonId;
@@ -72,6 +132,14 @@ public class SimpleLinnaeanInferencer implements Inferencer<SimpleLinnaeanClassi
       return this.e$taxonId == null || !this.e$taxonId;
     }
 
+    public static boolean isT$e$taxonId(long[] evidence) {
+      return PackedEvidence.isT(evidence, IDX$e$taxonId);
+    }
+
+    public static boolean isF$e$taxonId(long[] evidence) {
+      return PackedEvidence.isF(evidence, IDX$e$taxonId);
+    }
+
     @JsonIgnore
     public boolean isT$e$taxonRank() {
       return this.e$taxonRank == null || this.e$taxonRank;
@@ -82,6 +150,14 @@ public class SimpleLinnaeanInferencer implements Inferencer<SimpleLinnaeanClassi
       return this.e$taxonRank == null || !this.e$taxonRank;
     }
 
+    public static boolean isT$e$taxonRank(long[] evidence) {
+      return PackedEvidence.isT(evidence, IDX$e$taxonRank);
+    }
+
+    public static boolean isF$e$taxonRank(long[] evidence) {
+      return PackedEvidence.isF(evidence, IDX$e$taxonRank);
+    }
+
     @JsonIgnore
     public boolean isT$e$specificEpithet() {
       return this.e$specificEpithet == null || this.e$specificEpithet;
@@ -92,6 +168,14 @@ public class SimpleLinnaeanInferencer implements Inferencer<SimpleLinnaeanClassi
       return this.e$specificEpithet == null || !this.e$specificEpithet;
     }
 
+    public static boolean isT$e$specificEpithet(long[] evidence) {
+      return PackedEvidence.isT(evidence, IDX$e$specificEpithet);
+    }
+
+    public static boolean isF$e$specificEpithet(long[] evidence) {
+      return PackedEvidence.isF(evidence, IDX$e$specificEpithet);
+    }
+
     @JsonIgnore
     public boolean isT$e$scientificNameAuthorship() {
       return this.e$scientificNameAuthorship == null || this.e$scientificNameAuthorship;
@@ -102,6 +186,14 @@ public class SimpleLinnaeanInferencer implements Inferencer<SimpleLinnaeanClassi
       return this.e$scientificNameAuthorship == null || !this.e$scientificNameAuthorship;
     }
 
+    public static boolean isT$e$scientificNameAuthorship(long[] evidence) {
+      return PackedEvidence.isT(evidence, IDX$e$scientificNameAuthorship);
+    }
+
+    public static boolean isF$e$scientificNameAuthorship(long[] evidence) {
+      return PackedEvidence.isF(evidence, IDX$e$scientificNameAuthorship);
+    }
+
     @JsonIgnore
     public boolean isT$e$scientificName() {
       return this.e$scientificName == null || this.e$scientificName;
@@ -112,6 +204,14 @@ public class SimpleLinnaeanInferencer implements Inferencer<SimpleLinnaeanClassi
       return this.e$scientificName == null || !this.e$scientificName;
     }
 
+    public static boolean isT$e$scientificName(long[] evidence) {
+      return PackedEvidence.isT(evidence, IDX$e$scientificName);
+    }
+
+    public static boolean isF$e$scientificName(long[] evidence) {
+      return PackedEvidence.isF(evidence, IDX$e$scientificName);
+    }
+
     @JsonIgnore
     public boolean isT$e$soundexScientificName() {
       return this.e$soundexScientificName == null || this.e$soundexScientificName;
@@ -122,6 +222,14 @@ public class SimpleLinnaeanInferencer implements Inferencer<SimpleLinnaeanClassi
       return this.e$soundexScientificName == null || !this.e$soundexScientificName;
     }
 
+    public static boolean isT$e$soundexScientificName(long[] evidence) {
+      return PackedEvidence.isT(evidence, IDX$e$soundexScientificName);
+    }
+
+    public static boolean isF$e$soundexScientificName(long[] evidence) {
+      return PackedEvidence.isF(evidence, IDX$e$soundexScientificName);
+    }
+
     @JsonIgnore
     public boolean isT$e$prefixScientificName() {
       return this.e$prefixScientificName == null || this.e$prefixScientificName;
@@ -132,6 +240,14 @@ public class SimpleLinnaeanInferencer implements Inferencer<SimpleLinnaeanClassi
       return this.e$prefixScientificName == null || !this.e$prefixScientificName;
     }
 
+    public static boolean isT$e$prefixScientificName(long[] evidence) {
+      return PackedEvidence.isT(evidence, IDX$e$prefixScientificName);
+    }
+
+    public static boolean isF$e$prefixScientificName(long[] evidence) {
+      return PackedEvidence.isF(evidence, IDX$e$prefixScientificName);
+    }
+
     @JsonIgnore
     public boolean isT$e$genus() {
       return this.e$genus == null || this.e$genus;
@@ -142,6 +258,14 @@ public class SimpleLinnaeanInferencer implements Inferencer<SimpleLinnaeanClassi
       return this.e$genus == null || !this.e$genus;
     }
 
+    public static boolean isT$e$genus(long[] evidence) {
+      return PackedEvidence.isT(evidence, IDX$e$genus);
+    }
+
+    public static boolean isF$e$genus(long[] evidence) {
+      return PackedEvidence.isF(evidence, IDX$e$genus);
+    }
+
     @JsonIgnore
     public boolean isT$e$family() {
       return this.e$family == null || this.e$family;
@@ -152,6 +276,14 @@ public class SimpleLinnaeanInferencer implements Inferencer<SimpleLinnaeanClassi
       return this.e$family == null || !this.e$family;
     }
 
+    public static boolean isT$e$family(long[] evidence) {
+      return PackedEvidence.isT(evidence, IDX$e$family);
+    }
+
+    public static boolean isF$e$family(long[] evidence) {
+      return PackedEvidence.isF(evidence, IDX$e$family);
+    }
+
     @JsonIgnore
     public boolean isT$e$order() {
       return this.e$order == null || this.e$order;
@@ -162,6 +294,14 @@ public class SimpleLinnaeanInferencer implements Inferencer<SimpleLinnaeanClassi
       return this.e$order == null || !this.e$order;
     }
 
+    public static boolean isT$e$order(long[] evidence) {
+      return PackedEvidence.isT(evidence, IDX$e$order);
+    }
+
+    public static boolean isF$e$order(long[] evidence) {
+      return PackedEvidence.isF(evidence, IDX$e$order);
+    }
+
     @JsonIgnore
     public boolean isT$e$class_() {
       return this.e$class_ == null || this.e$class_;
@@ -172,6 +312,14 @@ public class SimpleLinnaeanInferencer implements Inferencer<SimpleLinnaeanClassi
       return this.e$class_ == null || !this.e$class_;
     }
 
+    public static boolean isT$e$class_(long[] evidence) {
+      return PackedEvidence.isT(evidence, IDX$e$class_);
+    }
+
+    public static boolean isF$e$class_(long[] evidence) {
+      return PackedEvidence.isF(evidence, IDX$e$class_);
+    }
+
     @JsonIgnore
     public boolean isT$e$phylum() {
       return this.e$phylum == null || this.e$phylum;
@@ -182,6 +330,14 @@ public class SimpleLinnaeanInferencer implements Inferencer<SimpleLinnaeanClassi
       return this.e$phylum == null || !this.e$phylum;
     }
 
+    public static boolean isT$e$phylum(long[] evidence) {
+      return PackedEvidence.isT(evidence, IDX$e$phylum);
+    }
+
+    public static boolean isF$e$phylum(long[] evidence) {
+      return PackedEvidence.isF(evidence, IDX$e$phylum);
+    }
+
     @JsonIgnore
     public boolean isT$e$kingdom() {
       return this.e$kingdom == null || this.e$kingdom;
@@ -192,5 +348,13 @@ public class SimpleLinnaeanInferencer implements Inferencer<SimpleLinnaeanClassi
       return this.e$kingdom == null || !this.e$kingdom;
     }
 
+    public static boolean isT$e$kingdom(long[] evidence) {
+      return PackedEvidence.isT(evidence, IDX$e$kingdom);
+    }
+
+    public static boolean isF$e$kingdom(long[] evidence) {
+      return PackedEvidence.isF(evidence, IDX$e$kingdom);
+    }
+
   }
 }
\ No newline at end of file
@@ -19,7 +19,7 @@ public class SimpleLinnaeanInferencer_FT implements Inferencer<SimpleLinnaeanCla
     return SIGNATURE;
   }
 
-  public double infer_t(SimpleLinnaeanInferencer.Evidence evidence, SimpleLinnaeanParameters_FT parameters, Trace trace) {
+  public double infer_t(long[] evidence, SimpleLinnaeanParameters_FT parameters, Trace trace) {
     double c$taxonId = 1.0;
     double nc$taxonId = 0.0;
     double c$taxonRank = 0.0;
@@ -28,10 +28,10 @@ public class SimpleLinnaeanInferencer_FT implements Inferencer<SimpleLinnaeanCla
     double nc$scientificNameAuthorship = 0.0;
     double c$scientificName = 0.0;
     double nc$scientificName = 0.0;
-    double c$prefixScientificName = evidence.isT$e$prefixScientificName() ? 1.0 : 0.0;
-    double nc$prefixScientificName = evidence.isF$e$prefixScientificName() ? 1.0 : 0.0;
-    double c$soundexScientificName = evidence.isT$e$soundexScientificName() ? 1.0 : 0.0;
-    double nc$soundexScientificName = evidence.isF$e$soundexScientificName() ? 1.0 : 0.0;
+    double c$prefixScientificName = SimpleLinnaeanInferencer.Evidence.isT$e$prefixScientificName(evidence) ? 1.0 : 0.0;
+    double nc$prefixScientificName = SimpleLinnaeanInferencer.Evidence.isF$e$prefixScientificName(evidence) ? 1.0 : 0.0;
+    double c$soundexScientificName = SimpleLinnaeanInferencer.Evidence.isT$e$soundexScientificName(evidence) ? 1.0 : 0.0;
+    double nc$soundexScientificName = SimpleLinnaeanInferencer.Evidence.isF$e$soundexScientificName(evidence) ? 1.0 : 0.0;
     double c$genus = 0.0;
     double nc$genus = 0.0;
     double c$family = 0.0;
@@ -44,42 +44,42 @@ public class SimpleLinnaeanInferencer_FT implements Inferencer<SimpleLinnaeanCla
     double nc$phylum = 0.0;
     double c$kingdom = 0.0;
     double nc$kingdom = 0.0;
-    if (evidence.isT$e$taxonRank()) {
+    if (SimpleLinnaeanInferencer.Evidence.isT$e$taxonRank(evidence)) {
       c$taxonRank += parameters.inf_taxonRank_t$t * c$taxonId;
       if (trace != null) {
         String val_ = this.formatDouble(parameters.inf_taxonRank_t$t) + " \u00b7 " + this.formatDouble(c$taxonId);
         trace.add(TraceLevel.TRACE, "p(taxonRank) - taxonRank", "p(taxonRank | taxonID)·taxonID", val_, c$taxonRank);
       }
     }
-    if (evidence.isF$e$taxonRank()) {
+    if (SimpleLinnaeanInferencer.Evidence.isF$e$taxonRank(evidence)) {
       nc$taxonRank += parameters.inf_taxonRank_f$t * c$taxonId;
       if (trace != null) {
         String val_ = this.formatDouble(parameters.inf_taxonRank_f$t) + " \u00b7 " + this.formatDouble(c$taxonId);
         trace.add(TraceLevel.TRACE, "p(¬taxonRank) - taxonRank", "p(¬taxonRank | taxonID)·taxonID", val_, nc$taxonRank);
       }
     }
-    if (evidence.isT$e$scientificNameAuthorship()) {
+    if (SimpleLinnaeanInferencer.Evidence.isT$e$scientificNameAuthorship(evidence)) {
       c$scientificNameAuthorship += parameters.inf_scientificNameAuthorship_t$t * c$taxonId;
       if (trace != null) {
         String val_ = this.formatDouble(parameters.inf_scientificNameAuthorship_t$t) + " \u00b7 " + this.formatDouble(c$taxonId);
         trace.add(TraceLevel.TRACE, "p(scientificNameAuthorship) - scientificNameAuthorship", "p(scientificNameAuthorship | taxonID)·taxonID", val_, c$scientificNameAuthorship);
       }
     }
-    if (evidence.isF$e$scientificNameAuthorship()) {
+    if (SimpleLinnaeanInferencer.Evidence.isF$e$scientificNameAuthorship(evidence)) {
       nc$scientificNameAuthorship += parameters.inf_scientificNameAuthorship_f$t * c$taxonId;
       if (trace != null) {
         String val_ = this.formatDouble(parameters.inf_scientificNameAuthorship_f$t) + " \u00b7 " + this.formatDouble(c$taxonId);
         trace.add(TraceLevel.TRACE, "p(¬scientificNameAuthorship) - scientificNameAuthorship", "p(¬scientificNameAuthorship | taxonID)·taxonID", val_, nc$scientificNameAuthorship);
       }
     }
-    if (evidence.isT$e$scientificName()) {
+    if (SimpleLinnaeanInferencer.Evidence.isT$e$scientificName(evidence)) {
       c$scientificName += parameters.inf_scientificName_t$t * c$taxonId;
       if (trace != null) {
         String val_ = this.formatDouble(parameters.inf_scientificName_t$t) + " \u00b7 " + this.formatDouble(c$taxonId);
         trace.add(TraceLevel.TRACE, "p(scientificName) - scientificName", "p(scientificName | taxonID)·taxonID", val_, c$scientificName);
       }
     }
-    if (evidence.isF$e$scientificName()) {
+    if (SimpleLinnaeanInferencer.Evidence.isF$e$scientificName(evidence)) {
       nc$scientificName += parameters.inf_scientificName_f$t * c$taxonId;
       if (trace != null) {
         String val_ = this.formatDouble(parameters.inf_scientificName_f$t) + " \u00b7 " + this.formatDouble(c$taxonId);
@@ -88,7 +88,7 @@ public class SimpleLinnaeanInferencer_FT implements Inferencer<SimpleLinnaeanCla
     }
     // Ignoring non-base prefixScientificName
     // Ignoring non-base soundexScientificName
-    if (evidence.isT$e$genus()) {
+    if (SimpleLinnaeanInferencer.Evidence.isT$e$genus(evidence)) {
        c$genus += parameters.derived_genus_t$t_ttt * c$taxonId * c$prefixScientificName * c$soundexScientificName * c$scientificName;
        c$genus += parameters.derived_genus_t$t_ttf * c$taxonId * c$prefixScientificName * c$soundexScientificName * nc$scientificName;
        c$genus += parameters.derived_genus_t$t_tft * c$taxonId * c$prefixScientificName * nc$soundexScientificName * c$scientificName;
@@ -102,7 +102,7 @@ public class SimpleLinnaeanInferencer_FT implements Inferencer<SimpleLinnaeanCla
         trace.add(TraceLevel.TRACE, "p(genus) - genus", "p(genus | taxonID, prefixScientificName, soundexScientificName, scientificName)·taxonID·prefixScientificName·soundexScientificName·scientificName + p(genus | taxonID, prefixScientificName, soundexScientificName, ¬scientificName)·taxonID·prefixScientificName·soundexScientificName·¬scientificName + p(genus | taxonID, prefixScientificName, ¬soundexScientificName, scientificName)·taxonID·prefixScientificName·¬soundexScientificName·scientificName + p(genus | taxonID, prefixScientificName, ¬soundexScientificName, ¬scientificName)·taxonID·prefixScientificName·¬soundexScientificName·¬scientificName + p(genus | taxonID, ¬prefixScientificName, soundexScientificName, scientificName)·taxonID·¬prefixScientificName·soundexScientificName·scientificName + p(genus | taxonID, ¬prefixScientificName, soundexScientificName, ¬scientificName)·taxonID·¬prefixScientificName·soundexScientificName·¬scientificName + p(genus | taxonID, ¬prefixScientificName, ¬soundexScientificName, scientificName)·taxonID·¬prefixScientificName·¬soundexScientificName·scientificName + p(genus | taxonID, ¬prefixScientificName, ¬soundexScientificName, ¬scientificName)·taxonID·¬prefixScientificName·¬soundexScientificName·¬scientificName", val_, c$genus);
       }
     }
-    if (evidence.isF$e$genus()) {
+    if (SimpleLinnaeanInferencer.Evidence.isF$e$genus(evidence)) {
       nc$genus += parameters.derived_genus_f$t_ttt * c$taxonId * c$prefixScientificName * c$soundexScientificName * c$scientificName;
       nc$genus += parameters.derived_genus_f$t_ttf * c$taxonId * c$prefixScientificName * c$soundexScientificName * nc$scientificName;
       nc$genus += parameters.derived_genus_f$t_tft * c$taxonId * c$prefixScientificName * nc$soundexScientificName * c$scientificName;
@@ -116,7 +116,7 @@ public class SimpleLinnaeanInferencer_FT implements Inferencer<SimpleLinnaeanCla
         trace.add(TraceLevel.TRACE, "p(¬genus) - !genus", "p(¬genus | taxonID, prefixScientificName, soundexScientificName, scientificName)·taxonID·prefixScientificName·soundexScientificName·scientificName + p(¬genus | taxonID, prefixScientificName, soundexScientificName, ¬scientificName)·taxonID·prefixScientificName·soundexScientificName·¬scientificName + p(¬genus | taxonID, prefixScientificName, ¬soundexScientificName, scientificName)·taxonID·prefixScientificName·¬soundexScientificName·scientificName + p(¬genus | taxonID, prefixScientificName, ¬soundexScientificName, ¬scientificName)·taxonID·prefixScientificName·¬soundexScientificName·¬scientificName + p(¬genus | taxonID, ¬prefixScientificName, soundexScientificName, scientificName)·taxonID·¬prefixScientificName·soundexScientificName·scientificName + p(¬genus | taxonID, ¬prefixScientificName, soundexScientificName, ¬scientificName)·taxonID·¬prefixScientificName·soundexScientificName·¬scientificName + p(¬genus | taxonID, ¬prefixScientificName, ¬soundexScientificName, scientificName)·taxonID·¬prefixScientificName·¬soundexScientificName·scientificName + p(¬genus | taxonID, ¬prefixScientificName, ¬soundexScientificName, ¬scientificName)·taxonID·¬prefixScientificName·¬soundexScientificName·¬scientificName", val_, nc$genus);
       }
     }
-    if (evidence.isT$e$family()) {
+    if (SimpleLinnaeanInferencer.Evidence.isT$e$family(evidence)) {
       c$family += parameters.inf_family_t$t_t * c$taxonId * c$genus;
       c$family += parameters.inf_family_t$t_f * c$taxonId * nc$genus;
       if (trace != null) {
@@ -124,7 +124,7 @@ public class SimpleLinnaeanInferencer_FT implements Inferencer<SimpleLinnaeanCla
         trace.add(TraceLevel.TRACE, "p(family) - family", "p(family | taxonID, genus)·taxonID·genus + p(family | taxonID, ¬genus)·taxonID·¬genus", val_, c$family);
       }
     }
-    if (evidence.isF$e$family()) {
+    if (SimpleLinnaeanInferencer.Evidence.isF$e$family(evidence)) {
       nc$family += parameters.inf_family_f$t_t * c$taxonId * c$genus;
       nc$family += parameters.inf_family_f$t_f * c$taxonId * nc$genus;
       if (trace != null) {
@@ -132,7 +132,7 @@ public class SimpleLinnaeanInferencer_FT implements Inferencer<SimpleLinnaeanCla
         trace.add(TraceLevel.TRACE, "p(¬family) - family", "p(¬family | taxonID, genus)·taxonID·genus + p(¬family | taxonID, ¬genus)·taxonID·¬genus", val_, nc$family);
       }
     }
-    if (evidence.isT$e$order()) {
+    if (SimpleLinnaeanInferencer.Evidence.isT$e$order(evidence)) {
       c$order += parameters.inf_order_t$t_t * c$taxonId * c$family;
       c$order += parameters.inf_order_t$t_f * c$taxonId * nc$family;
       if (trace != null) {
@@ -140,7 +140,7 @@ public class SimpleLinnaeanInferencer_FT implements Inferencer<SimpleLinnaeanCla
         trace.add(TraceLevel.TRACE, "p(order) - order", "p(order | taxonID, family)·taxonID·family + p(order | taxonID, ¬family)·taxonID·¬family", val_, c$order);
       }
     }
-    if (evidence.isF$e$order()) {
+    if (SimpleLinnaeanInferencer.Evidence.isF$e$order(evidence)) {
       nc$order += parameters.inf_order_f$t_t * c$taxonId * c$family;
       nc$order += parameters.inf_order_f$t_f * c$taxonId * nc$family;
       if (trace != null) {
@@ -148,7 +148,7 @@ public class SimpleLinnaeanInferencer_FT implements Inferencer<SimpleLinnaeanCla
         trace.add(TraceLevel.TRACE, "p(¬order) - order", "p(¬order | taxonID, family)·taxonID·family + p(¬order | taxonID, ¬family)·taxonID·¬family", val_, nc$order);
       }
     }
-    if (evidence.isT$e$class_()) {
+    if (SimpleLinnaeanInferencer.Evidence.isT$e$class_(evidence)) {
       c$class_ += parameters.inf_class__t$t_t * c$taxonId * c$order;
       c$class_ += parameters.inf_class__t$t_f * c$taxonId * nc$order;
       if (trace != null) {
@@ -156,7 +156,7 @@ public class SimpleLinnaeanInferencer_FT implements Inferencer<SimpleLinnaeanCla
         trace.add(TraceLevel.TRACE, "p(class) - class", "p(class | taxonID, order)·taxonID·order + p(class | taxonID, ¬order)·taxonID·¬order", val_, c$class_);
       }
     }
-    if (evidence.isF$e$class_()) {
+    if (SimpleLinnaeanInferencer.Evidence.isF$e$class_(evidence)) {
       nc$class_ += parameters.inf_class__f$t_t * c$taxonId * c$order;
       nc$class_ += parameters.inf_class__f$t_f * c$taxonId * nc$order;
       if (trace != null) {
@@ -164,7 +164,7 @@ public class SimpleLinnaeanInferencer_FT implements Inferencer<SimpleLinnaeanCla
         trace.add(TraceLevel.TRACE, "p(¬class) - class", "p(¬class | taxonID, order)·taxonID·order + p(¬class | taxonID, ¬order)·taxonID·¬order", val_, nc$class_);
       }
     }
-    if (evidence.isT$e$phylum()) {
+    if (SimpleLinnaeanInferencer.Evidence.isT$e$phylum(evidence)) {
       c$phylum += parameters.inf_phylum_t$t_t * c$taxonId * c$class_;
       c$phylum += parameters.inf_phylum_t$t_f * c$taxonId * nc$class_;
       if (trace != null) {
@@ -172,7 +172,7 @@ public class SimpleLinnaeanInferencer_FT implements Inferencer<SimpleLinnaeanCla
         trace.add(TraceLevel.TRACE, "p(phylum) - phylum", "p(phylum | taxonID, class)·taxonID·class + p(phylum | taxonID, ¬class)·taxonID·¬class", val_, c$phylum);
       }
     }
-    if (evidence.isF$e$phylum()) {
+    if (SimpleLinnaeanInferencer.Evidence.isF$e$phylum(evidence)) {
       nc$phylum += parameters.inf_phylum_f$t_t * c$taxonId * c$class_;
       nc$phylum += parameters.inf_phylum_f$t_f * c$taxonId * nc$class_;
       if (trace != null) {
@@ -180,7 +180,7 @@ public class SimpleLinnaeanInferencer_FT implements Inferencer<SimpleLinnaeanCla
         trace.add(TraceLevel.TRACE, "p(¬phylum) - phylum", "p(¬phylum | taxonID, class)·taxonID·class + p(¬phylum | taxonID, ¬class)·taxonID·¬class", val_, nc$phylum);
       }
     }
-    if (evidence.isT$e$kingdom()) {
+    if (SimpleLinnaeanInferencer.Evidence.isT$e$kingdom(evidence)) {
       c$kingdom += parameters.inf_kingdom_t$t_t * c$taxonId * c$phylum;
       c$kingdom += parameters.inf_kingdom_t$t_f * c$taxonId * nc$phylum;
       if (trace != null) {
@@ -188,7 +188,7 @@ public class SimpleLinnaeanInferencer_FT implements Inferencer<SimpleLinnaeanCla
         trace.add(TraceLevel.TRACE, "p(kingdom) - kingdom", "p(kingdom | taxonID, phylum)·taxonID·phylum + p(kingdom | taxonID, ¬phylum)·taxonID·¬phylum", val_, c$kingdom);
       }
     }
-    if (evidence.isF$e$kingdom()) {
+    if (SimpleLinnaeanInferencer.Evidence.isF$e$kingdom(evidence)) {
       nc$kingdom += parameters.inf_kingdom_f$t_t * c$taxonId * c$phylum;
       nc$kingdom += parameters.inf_kingdom_f$t_f * c$taxonId * nc$phylum;
       if (trace != null) {
@@ -204,7 +204,7 @@ public class SimpleLinnaeanInferencer_FT implements Inferencer<SimpleLinnaeanCla
     return result_;
   }
 
-  public double infer_f(SimpleLinnaeanInferencer.Evidence evidence, SimpleLinnaeanParameters_FT parameters, Trace trace) {
+  public double infer_f(long[] evidence, SimpleLinnaeanParameters_FT parameters, Trace trace) {
     double c$taxonId = 0.0;
     double nc$taxonId = 1.0;
     double c$taxonRank = 0.0;
@@ -213,10 +213,10 @@ public class SimpleLinnaeanInferencer_FT implements Inferencer<SimpleLinnaeanCla
     double nc$scientificNameAuthorship = 0.0;
     double c$scientificName = 0.0;
     double nc$scientificName = 0.0;
-    double c$prefixScientificName = evidence.isT$e$prefixScientificName() ? 1.0 : 0.0;
-    double nc$prefixScientificName = evidence.isF$e$prefixScientificName() ? 1.0 : 0.0;
-    double c$soundexScientificName = evidence.isT$e$soundexScientificName() ? 1.0 : 0.0;
-    double nc$soundexScientificName = evidence.isF$e$soundexScientificName() ? 1.0 : 0.0;
+    double c$prefixScientificName = SimpleLinnaeanInferencer.Evidence.isT$e$prefixScientificName(evidence) ? 1.0 : 0.0;
+    double nc$prefixScientificName = SimpleLinnaeanInferencer.Evidence.isF$e$prefixScientificName(evidence) ? 1.0 : 0.0;
+    double c$soundexScientificName = SimpleLinnaeanInferencer.Evidence.isT$e$soundexScientificName(evidence) ? 1.0 : 0.0;
+    double nc$soundexScientificName = SimpleLinnaeanInferencer.Evidence.isF$e$soundexScientificName(evidence) ? 1.0 : 0.0;
     double c$genus = 0.0;
     double nc$genus = 0.0;
     double c$family = 0.0;
@@ -229,42 +229,42 @@ public class SimpleLinnaeanInferencer_FT implements Inferencer<SimpleLinnaeanCla
     double nc$phylum = 0.0;
     double c$kingdom = 0.0;
     double nc$kingdom = 0.0;
-    if (evidence.isT$e$taxonRank()) {
+    if (SimpleLinnaeanInferencer.Evidence.isT$e$taxonRank(evidence)) {
       c$taxonRank += parameters.inf_taxonRank_t$f * nc$taxonId;
       if (trace != null) {
         String val_ = this.formatDouble(parameters.inf_taxonRank_t$f) + " \u00b7 " + this.formatDouble(nc$taxonId);
         trace.add(TraceLevel.TRACE, "p(taxonRank) - taxonRank", "p(taxonRank | ¬taxonID)·¬taxonID", val_, c$taxonRank);
       }
     }
-    if (evidence.isF$e$taxonRank()) {
+    if (SimpleLinnaeanInferencer.Evidence.isF$e$taxonRank(evidence)) {
       nc$taxonRank += parameters.inf_taxonRank_f$f * nc$taxonId;
       if (trace != null) {
         String val_ = this.formatDouble(parameters.inf_taxonRank_f$f) + " \u00b7 " + this.formatDouble(nc$taxonId);
         trace.add(TraceLevel.TRACE, "p(¬taxonRank) - taxonRank", "p(¬taxonRank | ¬taxonID)·¬taxonID", val_, nc$taxonRank);
       }
     }
-    if (evidence.isT$e$scientificNameAuthorship()) {
+    if (SimpleLinnaeanInferencer.Evidence.isT$e$scientificNameAuthorship(evidence)) {
       c$scientificNameAuthorship += parameters.inf_scientificNameAuthorship_t$f * nc$taxonId;
       if (trace != null) {
         String val_ = this.formatDouble(parameters.inf_scientificNameAuthorship_t$f) + " \u00b7 " + this.formatDouble(nc$taxonId);
         trace.add(TraceLevel.TRACE, "p(scientificNameAuthorship) - scientificNameAuthorship", "p(scientificNameAuthorship | ¬taxonID)·¬taxonID", val_, c$scientificNameAuthorship);
       }
     }
-    if (evidence.isF$e$scientificNameAuthorship()) {
+    if (SimpleLinnaeanInferencer.Evidence.isF$e$scientificNameAuthorship(evidence)) {
       nc$scientificNameAuthorship += parameters.inf_scientificNameAuthorship_f$f * nc$taxonId;
       if (trace != null) {
         String val_ = this.formatDouble(parameters.inf_scientificNameAuthorship_f$f) + " \u00b7 " + this.formatDouble(nc$taxonId);
         trace.add(TraceLevel.TRACE, "p(¬scientificNameAuthorship) - scientificNameAuthorship", "p(¬scientificNameAuthorship | ¬taxonID)·¬taxonID", val_, nc$scientificNameAuthorship);
       }
     }
-    if (evidence.isT$e$scientificName()) {
+    if (SimpleLinnaeanInferencer.Evidence.isT$e$scientificName(evidence)) {
       c$scientificName += parameters.inf_scientificName_t$f * nc$taxonId;
       if (trace != null) {
         String val_ = this.formatDouble(parameters.inf_scientificName_t$f) + " \u00b7 " + this.formatDouble(nc$taxonId);
         trace.add(TraceLevel.TRACE, "p(scientificName) - scientificName", "p(scientificName | ¬taxonID)·¬taxonID", val_, c$scientificName);
       }
     }
-    if (evidence.isF$e$scientificName()) {
+    if (SimpleLinnaeanInferencer.Evidence.isF$e$scientificName(evidence)) {
       nc$scientificName += parameters.inf_scientificName_f$f * nc$taxonId;
       if (trace != null) {
         String val_ = this.formatDouble(parameters.inf_scientificName_f$f) + " \u00b7 " + this.formatDouble(nc$taxonId);
@@ -273,7 +273,7 @@ public class SimpleLinnaeanInferencer_FT implements Inferencer<SimpleLinnaeanCla
     }
     // Ignoring non-base prefixScientificName
     // Ignoring non-base soundexScientificName
-    if (evidence.isT$e$genus()) {
+    if (SimpleLinnaeanInferencer.Evidence.isT$e$genus(evidence)) {
        c$genus += parameters.derived_genus_t$f_ttt * nc$taxonId * c$prefixScientificName * c$soundexScientificName * c$scientificName;
        c$genus += parameters.derived_genus_t$f_ttf * nc$taxonId * c$prefixScientificName * c$soundexScientificName * nc$scientificName;
        c$genus += parameters.derived_genus_t$f_tft * nc$taxonId * c$prefixScientificName * nc$soundexScientificName * c$scientificName;
@@ -287,7 +287,7 @@ public class SimpleLinnaeanInferencer_FT implements Inferencer<SimpleLinnaeanCla
         trace.add(TraceLevel.TRACE, "p(genus) - genus", "p(genus | ¬taxonID, prefixScientificName, soundexScientificName, scientificName)·¬taxonID·prefixScientificName·soundexScientificName·scientificName + p(genus | ¬taxonID, prefixScientificName, soundexScientificName, ¬scientificName)·¬taxonID·prefixScientificName·soundexScientificName·¬scientificName + p(genus | ¬taxonID, prefixScientificName, ¬soundexScientificName, scientificName)·¬taxonID·prefixScientificName·¬soundexScientificName·scientificName + p(genus | ¬taxonID, prefixScientificName, ¬soundexScientificName, ¬scientificName)·¬taxonID·prefixScientificName·¬soundexScientificName·¬scientificName + p(genus | ¬taxonID, ¬prefixScientificName, soundexScientificName, scientificName)·¬taxonID·¬prefixScientificName·soundexScientificName·scientificName + p(genus | ¬taxonID, ¬prefixScientificName, soundexScientificName, ¬scientificName)·¬taxonID·¬prefixScientificName·soundexScientificName·¬scientificName + p(genus | ¬taxonID, ¬prefixScientificName, ¬soundexScientificName, scientificName)·¬taxonID·¬prefixScientificName·¬soundexScientificName·scientificName + p(genus | ¬taxonID, ¬prefixScientificName, ¬soundexScientificName, ¬scientificName)·¬taxonID·¬prefixScientificName·¬soundexScientificName·¬scientificName", val_, c$genus);
       }
     }
-    if (evidence.isF$e$genus()) {
+    if (SimpleLinnaeanInferencer.Evidence.isF$e$genus(evidence)) {
       nc$genus += parameters.derived_genus_f$f_ttt * nc$taxonId * c$prefixScientificName * c$soundexScientificName * c$scientificName;
       nc$genus += parameters.derived_genus_f$f_ttf * nc$taxonId * c$prefixScientificName * c$soundexScientificName * nc$scientificName;
       nc$genus += parameters.derived_genus_f$f_tft * nc$taxonId * c$prefixScientificName * nc$soundexScientificName * c$scientificName;
@@ -301,7 +301,7 @@ public class SimpleLinnaeanInferencer_FT implements Inferencer<SimpleLinnaeanCla
         trace.add(TraceLevel.TRACE, "p(¬genus) - !genus", "p(¬genus | ¬taxonID, prefixScientificName, soundexScientificName, scientificName)·¬taxonID·prefixScientificName·soundexScientificName·scientificName + p(¬genus | ¬taxonID, prefixScientificName, soundexScientificName, ¬scientificName)·¬taxonID·prefixScientificName·soundexScientificName·¬scientificName + p(¬genus | ¬taxonID, prefixScientificName, ¬soundexScientificName, scientificName)·¬taxonID·prefixScientificName·¬soundexScientificName·scientificName + p(¬genus | ¬taxonID, prefixScientificName, ¬soundexScientificName, ¬scientificName)·¬taxonID·prefixScientificName·¬soundexScientificName·¬scientificName + p(¬genus | ¬taxonID, ¬prefixScientificName, soundexScientificName, scientificName)·¬taxonID·¬prefixScientificName·soundexScientificName·scientificName + p(¬genus | ¬taxonID, ¬prefixScientificName, soundexScientificName, ¬scientificName)·¬taxonID·¬prefixScientificName·soundexScientificName·¬scientificName + p(¬genus | ¬taxonID, ¬prefixScientificName, ¬soundexScientificName, scientificName)·¬taxonID·¬prefixScientificName·¬soundexScientificName·scientificName + p(¬genus | ¬taxonID, ¬prefixScientificName, ¬soundexScientificName, ¬scientificName)·¬taxonID·¬prefixScientificName·¬soundexScientificName·¬scientificName", val_, nc$genus);
       }
     }
-    if (evidence.isT$e$family()) {
+    if (SimpleLinnaeanInferencer.Evidence.isT$e$family(evidence)) {
       c$family += parameters.inf_family_t$f_t * nc$taxonId * c$genus;
       c$family += parameters.inf_family_t$f_f * nc$taxonId * nc$genus;
       if (trace != null) {
@@ -309,7 +309,7 @@ public class SimpleLinnaeanInferencer_FT implements Inferencer<SimpleLinnaeanCla
         trace.add(TraceLevel.TRACE, "p(family) - family", "p(family | ¬taxonID, genus)·¬taxonID·genus + p(family | ¬taxonID, ¬genus)·¬taxonID·¬genus", val_, c$family);
       }
     }
-    if (evidence.isF$e$family()) {
+    if (SimpleLinnaeanInferencer.Evidence.isF$e$family(evidence)) {
       nc$family += parameters.inf_family_f$f_t * nc$taxonId * c$genus;
       nc$family += parameters.inf_family_f$f_f * nc$taxonId * nc$genus;
       if (trace != null) {
@@ -317,7 +317,7 @@ public class SimpleLinnaeanInferencer_FT implements Inferencer<SimpleLinnaeanCla
         trace.add(TraceLevel.TRACE, "p(¬family) - family", "p(¬family | ¬taxonID, genus)·¬taxonID·genus + p(¬family | ¬taxonID, ¬genus)·¬taxonID·¬genus", val_, nc$family);
       }
     }
-    if (evidence.isT$e$order()) {
+    if (SimpleLinnaeanInferencer.Evidence.isT$e$order(evidence)) {
       c$order += parameters.inf_order_t$f_t * nc$taxonId * c$family;
       c$order += parameters.inf_order_t$f_f * nc$taxonId * nc$family;
       if (trace != null) {
@@ -325,7 +325,7 @@ public class SimpleLinnaeanInferencer_FT implements Inferencer<SimpleLinnaeanCla
         trace.add(TraceLevel.TRACE, "p(order) - order", "p(order | ¬taxonID, family)·¬taxonID·family + p(order | ¬taxonID, ¬family)·¬taxonID·¬family", val_, c$order);
       }
     }
-    if (evidence.isF$e$order()) {
+    if (SimpleLinnaeanInferencer.Evidence.isF$e$order(evidence)) {
       nc$order += parameters.inf_order_f$f_t * nc$taxonId * c$family;
       nc$order += parameters.inf_order_f$f_f * nc$taxonId * nc$family;
       if (trace != null) {
@@ -333,7 +333,7 @@ public class SimpleLinnaeanInferencer_FT implements Inferencer<SimpleLinnaeanCla
         trace.add(TraceLevel.TRACE, "p(¬order) - order", "p(¬order | ¬taxonID, family)·¬taxonID·family + p(¬order | ¬taxonID, ¬family)·¬taxonID·¬family", val_, nc$order);
       }
     }
-    if (evidence.isT$e$class_()) {
+    if (SimpleLinnaeanInferencer.Evidence.isT$e$class_(evidence)) {
       c$class_ += parameters.inf_class__t$f_t * nc$taxonId * c$order;
       c$class_ += parameters.inf_class__t$f_f * nc$taxonId * nc$order;
       if (trace != null) {
@@ -341,7 +341,7 @@ public class SimpleLinnaeanInferencer_FT implements Inferencer<SimpleLinnaeanCla
         trace.add(TraceLevel.TRACE, "p(class) - class", "p(class | ¬taxonID, order)·¬taxonID·order + p(class | ¬taxonID, ¬order)·¬taxonID·¬order", val_, c$class_);
       }
     }
-    if (evidence.isF$e$class_()) {
+    if (SimpleLinnaeanInferencer.Evidence.isF$e$class_(evidence)) {
       nc$class_ += parameters.inf_class__f$f_t * nc$taxonId * c$order;
       nc$class_ += parameters.inf_class__f$f_f * nc$taxonId * nc$order;
       if (trace != null) {
@@ -349,7 +349,7 @@ public class SimpleLinnaeanInferencer_FT implements Inferencer<SimpleLinnaeanCla
         trace.add(TraceLevel.TRACE, "p(¬class) - class", "p(¬class | ¬taxonID, order)·¬taxonID·order + p(¬class | ¬taxonID, ¬order)·¬taxonID·¬order", val_, nc$class_);
       }
     }
-    if (evidence.isT$e$phylum()) {
+    if (SimpleLinnaeanInferencer.Evidence.isT$e$phylum(evidence)) {
       c$phylum += parameters.inf_phylum_t$f_t * nc$taxonId * c$class_;
       c$phylum += parameters.inf_phylum_t$f_f * nc$taxonId * nc$class_;
       if (trace != null) {
@@ -357,7 +357,7 @@ public class SimpleLinnaeanInferencer_FT implements Inferencer<SimpleLinnaeanCla
         trace.add(TraceLevel.TRACE, "p(phylum) - phylum", "p(phylum | ¬taxonID, class)·¬taxonID·class + p(phylum | ¬taxonID, ¬class)·¬taxonID·¬class", val_, c$phylum);
       }
     }
-    if (evidence.isF$e$phylum()) {
+    if (SimpleLinnaeanInferencer.Evidence.isF$e$phylum(evidence)) {
       nc$phylum += parameters.inf_phylum_f$f_t * nc$taxonId * c$class_;
       nc$phylum += parameters.inf_phylum_f$f_f * nc$taxonId * nc$class_;
       if (trace != null) {
@@ -365,7 +365,7 @@ public class SimpleLinnaeanInferencer_FT implements Inferencer<SimpleLinnaeanCla
         trace.add(TraceLevel.TRACE, "p(¬phylum) - phylum", "p(¬phylum | ¬taxonID, class)·¬taxonID·class + p(¬phylum | ¬taxonID, ¬class)·¬taxonID·¬class", val_, nc$phylum);
       }
     }
-    if (evidence.isT$e$kingdom()) {
+    if (SimpleLinnaeanInferencer.Evidence.isT$e$kingdom(evidence)) {
       c$kingdom += parameters.inf_kingdom_t$f_t * nc$taxonId * c$phylum;
       c$kingdom += parameters.inf_kingdom_t$f_f * nc$taxonId * nc$phylum;
       if (trace != null) {
@@ -373,7 +373,7 @@ public class SimpleLinnaeanInferencer_FT implements Inferencer<SimpleLinnaeanCla
         trace.add(TraceLevel.TRACE, "p(kingdom) - kingdom", "p(kingdom | ¬taxonID, phylum)·¬taxonID·phylum + p(kingdom | ¬taxonID, ¬phylum)·¬taxonID·¬phylum", val_, c$kingdom);
       }
     }
-    if (evidence.isF$e$kingdom()) {
+    if (SimpleLinnaeanInferencer.Evidence.isF$e$kingdom(evidence)) {
       nc$kingdom += parameters.inf_kingdom_f$f_t * nc$taxonId * c$phylum;
       nc$kingdom += parameters.inf_kingdom_f$f_f * nc$taxonId * nc$phylum;
       if (trace != null) {
@@ -391,6 +391,10 @@ public class SimpleLinnaeanInferencer_FT implements Inferencer<SimpleLinnaeanCla
 
 
   public Inference probability(SimpleLinnaeanInferencer.Evidence evidence, SimpleLinnaeanParameters_FT parameters, Trace trace) {
+    return this.probability(evidence.pack(), parameters, trace);
+  }
+
+  public Inference probability(long[] evidence, SimpleLinnaeanParameters_FT parameters, Trace trace) {
     double c, p;
     double prior = parameters.prior_taxonId_t;
     double ph = 0.0;
@@ -399,7 +403,7 @@ public class SimpleLinnaeanInferencer_FT implements Inferencer<SimpleLinnaeanCla
     if (trace != null)
         trace.push(TraceLevel.TRACE, "p(taxonID)");
     try {
-        if (evidence.isT$e$taxonId()) {
+        if (SimpleLinnaeanInferencer.Evidence.isT$e$taxonId(evidence)) {
           c = this.infer_t(evidence, parameters, trace);
           p = c  * parameters.prior_taxonId_t;
           if (trace != null) {
@@ -415,7 +419,7 @@ public class SimpleLinnaeanInferencer_FT implements Inferencer<SimpleLinnaeanCla
     if (trace != null)
         trace.push(TraceLevel.TRACE, "p(¬taxonID)");
     try {
-        if (evidence.isF$e$taxonId()) {
+        if (SimpleLinnaeanInferencer.Evidence.isF$e$taxonId(evidence)) {
           c = this.infer_f(evidence, parameters, trace);
           p = c  * parameters.prior_taxonId_f;
           if (trace != null) {
@@ -435,14 +439,11 @@ public class SimpleLinnaeanInferencer_FT implements Inferencer<SimpleLinnaeanCla
     if (trace != null)
         trace.push(TraceLevel.TRACE, "inference");
     try {
-        SimpleLinnaeanInferencer.Evidence evidence = classification.match(classifier);
+        long[] evidence = SimpleLinnaeanInferencer.Evidence.buffer();
+        classification.match(classifier, evidence);
         if (trace != null)
-            trace.add(TraceLevel.TRACE, "evidence", evidence);
-        SimpleLinnaeanParameters_FT params = (SimpleLinnaeanParameters_FT) classifier.getCachedParameters();
-        if (params == null) {
-          params = new SimpleLinnaeanParameters_FT();
-          classifier.loadParameters(params);
-        }
+            trace.add(TraceLevel.TRACE, "evidence", new SimpleLinnaeanInferencer.Evidence(evidence));
+        SimpleLinnaeanParameters_FT params = classifier.getParameters(SimpleLinnaeanParameters_FT::new);
         return this.probability(evidence, params, trace);
     } finally {
         if (trace != null)
@@ -19,21 +19,21 @@ public class SimpleLinnaeanInferencer_TF implements Inferencer<SimpleLinnaeanCla
     return SIGNATURE;
   }
 
-  public double infer_t(SimpleLinnaeanInferencer.Evidence evidence, SimpleLinnaeanParameters_TF parameters, Trace trace) {
+  public double infer_t(long[] evidence, SimpleLinnaeanParameters_TF parameters, Trace trace) {
     double c$taxonId = 1.0;
     double nc$taxonId = 0.0;
     double c$taxonRank = 0.0;
     double nc$taxonRank = 0.0;
     double c$scientificNameAuthorship = 0.0;
     double nc$scientificNameAuthorship = 0.0;
-    double c$specificEpithet = evidence.isT$e$specificEpithet() ? 1.0 : 0.0;
-    double nc$specificEpithet = evidence.isF$e$specificEpithet() ? 1.0 : 0.0;
+    double c$specificEpithet = SimpleLinnaeanInferencer.Evidence.isT$e$specificEpithet(evidence) ? 1.0 : 0.0;
+    double nc$specificEpithet = SimpleLinnaeanInferencer.Evidence.isF$e$specificEpithet(evidence) ? 1.0 : 0.0;
     double c$scientificName = 0.0;
     double nc$scientificName = 0.0;
-    double c$prefixScientificName = evidence.isT$e$prefixScientificName() ? 1.0 : 0.0;
-    double nc$prefixScientificName = evidence.isF$e$prefixScientificName() ? 1.0 : 0.0;
-    double c$soundexScientificName = evidence.isT$e$soundexScientificName() ? 1.0 : 0.0;
-    double nc$soundexScientificName = evidence.isF$e$soundexScientificName() ? 1.0 : 0.0;
+    double c$prefixScientificName = SimpleLinnaeanInferencer.Evidence.isT$e$prefixScientificName(evidence) ? 1.0 : 0.0;
+    double nc$prefixScientificName = SimpleLinnaeanInferencer.Evidence.isF$e$prefixScientificName(evidence) ? 1.0 : 0.0;
+    double c$soundexScientificName = SimpleLinnaeanInferencer.Evidence.isT$e$soundexScientificName(evidence) ? 1.0 : 0.0;
+    double nc$soundexScientificName = SimpleLinnaeanInferencer.Evidence.isF$e$soundexScientificName(evidence) ? 1.0 : 0.0;
     double c$family = 0.0;
     double nc$family = 0.0;
     double c$order = 0.0;
@@ -44,28 +44,28 @@ public class SimpleLinnaeanInferencer_TF implements Inferencer<SimpleLinnaeanCla
     double nc$phylum = 0.0;
     double c$kingdom = 0.0;
     double nc$kingdom = 0.0;
-    if (evidence.isT$e$taxonRank()) {
+    if (SimpleLinnaeanInferencer.Evidence.isT$e$taxonRank(evidence)) {
       c$taxonRank += parameters.inf_taxonRank_t$t * c$taxonId;
       if (trace != null) {
         String val_ = this.formatDouble(parameters.inf_taxonRank_t$t) + " \u00b7 " + this.formatDouble(c$taxonId);
         trace.add(TraceLevel.TRACE, "p(taxonRank) - taxonRank", "p(taxonRank | taxonID)·taxonID", val_, c$taxonRank);
       }
     }
-    if (evidence.isF$e$taxonRank()) {
+    if (SimpleLinnaeanInferencer.Evidence.isF$e$taxonRank(evidence)) {
       nc$taxonRank += parameters.inf_taxonRank_f$t * c$taxonId;
       if (trace != null) {
         String val_ = this.formatDouble(parameters.inf_taxonRank_f$t) + " \u00b7 " + this.formatDouble(c$taxonId);
         trace.add(TraceLevel.TRACE, "p(¬taxonRank) - taxonRank", "p(¬taxonRank | taxonID)·taxonID", val_, nc$taxonRank);
       }
     }
-    if (evidence.isT$e$scientificNameAuthorship()) {
+    if (SimpleLinnaeanInferencer.Evidence.isT$e$scientificNameAuthorship(evidence)) {
       c$scientificNameAuthorship += parameters.inf_scientificNameAuthorship_t$t * c$taxonId;
       if (trace != null) {
         String val_ = this.formatDouble(parameters.inf_scientificNameAuthorship_t$t) + " \u00b7 " + this.formatDouble(c$taxonId);
         trace.add(TraceLevel.TRACE, "p(scientificNameAuthorship) - scientificNameAuthorship", "p(scientificNameAuthorship | taxonID)·taxonID", val_, c$scientificNameAuthorship);
       }
     }
-    if (evidence.isF$e$scientificNameAuthorship()) {
+    if (SimpleLinnaeanInferencer.Evidence.isF$e$scientificNameAuthorship(evidence)) {
       nc$scientificNameAuthorship += parameters.inf_scientificNameAuthorship_f$t * c$taxonId;
       if (trace != null) {
         String val_ = this.formatDouble(parameters.inf_scientificNameAuthorship_f$t) + " \u00b7 " + this.formatDouble(c$taxonId);
@@ -73,7 +73,7 @@ public class SimpleLinnaeanInferencer_TF implements Inferencer<SimpleLinnaeanCla
       }
     }
     // Ignoring non-base specificEpithet
-    if (evidence.isT$e$scientificName()) {
+    if (SimpleLinnaeanInferencer.Evidence.isT$e$scientificName(evidence)) {
        c$scientificName += parameters.derived_scientificName_t$t_t * c$taxonId * c$specificEpithet;
        c$scientificName += parameters.derived_scientificName_t$t_f * c$taxonId * nc$specificEpithet;
       if (trace != null) {
@@ -81,7 +81,7 @@ public class SimpleLinnaeanInferencer_TF implements Inferencer<SimpleLinnaeanCla
         trace.add(TraceLevel.TRACE, "p(scientificName) - scientificName", "p(scientificName | taxonID, specificEpithet)·taxonID·specificEpithet + p(scientificName | taxonID, ¬specificEpithet)·taxonID·¬specificEpithet", val_, c$scientificName);
       }
     }
-    if (evidence.isF$e$scientificName()) {
+    if (SimpleLinnaeanInferencer.Evidence.isF$e$scientificName(evidence)) {
       nc$scientificName += parameters.derived_scientificName_f$t_t * c$taxonId * c$specificEpithet;
       nc$scientificName += parameters.derived_scientificName_f$t_f * c$taxonId * nc$specificEpithet;
       if (trace != null) {
@@ -91,7 +91,7 @@ public class SimpleLinnaeanInferencer_TF implements Inferencer<SimpleLinnaeanCla
     }
     // Ignoring non-base prefixScientificName
     // Ignoring non-base soundexScientificName
-    if (evidence.isT$e$family()) {
+    if (SimpleLinnaeanInferencer.Evidence.isT$e$family(evidence)) {
        c$family += parameters.derived_family_t$t_ttt * c$taxonId * c$prefixScientificName * c$soundexScientificName * c$scientificName;
        c$family += parameters.derived_family_t$t_ttf * c$taxonId * c$prefixScientificName * c$soundexScientificName * nc$scientificName;
        c$family += parameters.derived_family_t$t_tft * c$taxonId * c$prefixScientificName * nc$soundexScientificName * c$scientificName;
@@ -105,7 +105,7 @@ public class SimpleLinnaeanInferencer_TF implements Inferencer<SimpleLinnaeanCla
         trace.add(TraceLevel.TRACE, "p(family) - family", "p(family | taxonID, prefixScientificName, soundexScientificName, scientificName)·taxonID·prefixScientificName·soundexScientificName·scientificName + p(family | taxonID, prefixScientificName, soundexScientificName, ¬scientificName)·taxonID·prefixScientificName·soundexScientificName·¬scientificName + p(family | taxonID, prefixScientificName, ¬soundexScientificName, scientificName)·taxonID·prefixScientificName·¬soundexScientificName·scientificName + p(family | taxonID, prefixScientificName, ¬soundexScientificName, ¬scientificName)·taxonID·prefixScientificName·¬soundexScientificName·¬scientificName + p(family | taxonID, ¬prefixScientificName, soundexScientificName, scientificName)·taxonID·¬prefixScientificName·soundexScientificName·scientificName + p(family | taxonID, ¬prefixScientificName, soundexScientificName, ¬scientificName)·taxonID·¬prefixScientificName·soundexScientificName·¬scientificName + p(family | taxonID, ¬prefixScientificName, ¬soundexScientificName, scientificName)·taxonID·¬prefixScientificName·¬soundexScientificName·scientificName + p(family | taxonID, ¬prefixScientificName, ¬soundexScientificName, ¬scientificName)·taxonID·¬prefixScientificName·¬soundexScientificName·¬scientificName", val_, c$family);
       }
     }
-    if (evidence.isF$e$family()) {
+    if (SimpleLinnaeanInferencer.Evidence.isF$e$family(evidence)) {
       nc$family += parameters.derived_family_f$t_ttt * c$taxonId * c$prefixScientificName * c$soundexScientificName * c$scientificName;
       nc$family += parameters.derived_family_f$t_ttf * c$taxonId * c$prefixScientificName * c$soundexScientificName * nc$scientificName;
       nc$family += parameters.derived_family_f$t_tft * c$taxonId * c$prefixScientificName * nc$soundexScientificName * c$scientificName;
@@ -119,7 +119,7 @@ public class SimpleLinnaeanInferencer_TF implements Inferencer<SimpleLinnaeanCla
         trace.add(TraceLevel.TRACE, "p(¬family) - !family", "p(¬family | taxonID, prefixScientificName, soundexScientificName, scientificName)·taxonID·prefixScientificName·soundexScientificName·scientificName + p(¬family | taxonID, prefixScientificName, soundexScientificName, ¬scientificName)·taxonID·prefixScientificName·soundexScientificName·¬scientificName + p(¬family | taxonID, prefixScientificName, ¬soundexScientificName, scientificName)·taxonID·prefixScientificName·¬soundexScientificName·scientificName + p(¬family | taxonID, prefixScientificName, ¬soundexScientificName, ¬scientificName)·taxonID·prefixScientificName·¬soundexScientificName·¬scientificName + p(¬family | taxonID, ¬prefixScientificName, soundexScientificName, scientificName)·taxonID·¬prefixScientificName·soundexScientificName·scientificName + p(¬family | taxonID, ¬prefixScientificName, soundexScientificName, ¬scientificName)·taxonID·¬prefixScientificName·soundexScientificName·¬scientificName + p(¬family | taxonID, ¬prefixScientificName, ¬soundexScientificName, scientificName)·taxonID·¬prefixScientificName·¬soundexScientificName·scientificName + p(¬family | taxonID, ¬prefixScientificName, ¬soundexScientificName, ¬scientificName)·taxonID·¬prefixScientificName·¬soundexScientificName·¬scientificName", val_, nc$family);
       }
     }
-    if (evidence.isT$e$order()) {
+    if (SimpleLinnaeanInferencer.Evidence.isT$e$order(evidence)) {
       c$order += parameters.inf_order_t$t_t * c$taxonId * c$family;
       c$order += parameters.inf_order_t$t_f * c$taxonId * nc$family;
       if (trace != null) {
@@ -127,7 +127,7 @@ public class SimpleLinnaeanInferencer_TF implements Inferencer<SimpleLinnaeanCla
         trace.add(TraceLevel.TRACE, "p(order) - order", "p(order | taxonID, family)·taxonID·family + p(order | taxonID, ¬family)·taxonID·¬family", val_, c$order);
       }
     }
-    if (evidence.isF$e$order()) {
+    if (SimpleLinnaeanInferencer.Evidence.isF$e$order(evidence)) {
       nc$order += parameters.inf_order_f$t_t * c$taxonId * c$family;
       nc$order += parameters.inf_order_f$t_f * c$taxonId * nc$family;
       if (trace != null) {
@@ -135,7 +135,7 @@ public class SimpleLinnaeanInferencer_TF implements Inferencer<SimpleLinnaeanCla
         trace.add(TraceLevel.TRACE, "p(¬order) - order", "p(¬order | taxonID, family)·taxonID·family + p(¬order | taxonID, ¬family)·taxonID·¬family", val_, nc$order);
       }
     }
-    if (evidence.isT$e$class_()) {
+    if (SimpleLinnaeanInferencer.Evidence.isT$e$class_(evidence)) {
       c$class_ += parameters.inf_class__t$t_t * c$taxonId * c$order;
       c$class_ += parameters.inf_class__t$t_f * c$taxonId * nc$order;
       if (trace != null) {
@@ -143,7 +143,7 @@ public class SimpleLinnaeanInferencer_TF implements Inferencer<SimpleLinnaeanCla
         trace.add(TraceLevel.TRACE, "p(class) - class", "p(class | taxonID, order)·taxonID·order + p(class | taxonID, ¬order)·taxonID·¬order", val_, c$class_);
       }
     }
-    if (evidence.isF$e$class_()) {
+    if (SimpleLinnaeanInferencer.Evidence.isF$e$class_(evidence)) {
       nc$class_ += parameters.inf_class__f$t_t * c$taxonId * c$order;
       nc$class_ += parameters.inf_class__f$t_f * c$taxonId * nc$order;
       if (trace != null) {
@@ -151,7 +151,7 @@ public class SimpleLinnaeanInferencer_TF implements Inferencer<SimpleLinnaeanCla
         trace.add(TraceLevel.TRACE, "p(¬class) - class", "p(¬class | taxonID, order)·taxonID·order + p(¬class | taxonID, ¬order)·taxonID·¬order", val_, nc$class_);
       }
     }
-    if (evidence.isT$e$phylum()) {
+    if (SimpleLinnaeanInferencer.Evidence.isT$e$phylum(evidence)) {
       c$phylum += parameters.inf_phylum_t$t_t * c$taxonId * c$class_;
       c$phylum += parameters.inf_phylum_t$t_f * c$taxonId * nc$class_;
       if (trace != null) {
@@ -159,7 +159,7 @@ public class SimpleLinnaeanInferencer_TF implements Inferencer<SimpleLinnaeanCla
         trace.add(TraceLevel.TRACE, "p(phylum) - phylum", "p(phylum | taxonID, class)·taxonID·class + p(phylum | taxonID, ¬class)·taxonID·¬class", val_, c$phylum);
       }
     }
-    if (evidence.isF$e$phylum()) {
+    if (SimpleLinnaeanInferencer.Evidence.isF$e$phylum(evidence)) {
       nc$phylum += parameters.inf_phylum_f$t_t * c$taxonId * c$class_;
       nc$phylum += parameters.inf_phylum_f$t_f * c$taxonId * nc$class_;
       if (trace != null) {
@@ -167,7 +167,7 @@ public class SimpleLinnaeanInferencer_TF implements Inferencer<SimpleLinnaeanCla
         trace.add(TraceLevel.TRACE, "p(¬phylum) - phylum", "p(¬phylum | taxonID, class)·taxonID·class + p(¬phylum | taxonID, ¬class)·taxonID·¬class", val_, nc$phylum);
       }
     }
-    if (evidence.isT$e$kingdom()) {
+    if (SimpleLinnaeanInferencer.Evidence.isT$e$kingdom(evidence)) {
       c$kingdom += parameters.inf_kingdom_t$t_t * c$taxonId * c$phylum;
       c$kingdom += parameters.inf_kingdom_t$t_f * c$taxonId * nc$phylum;
       if (trace != null) {
@@ -175,7 +175,7 @@ public class SimpleLinnaeanInferencer_TF implements Inferencer<SimpleLinnaeanCla
         trace.add(TraceLevel.TRACE, "p(kingdom) - kingdom", "p(kingdom | taxonID, phylum)·taxonID·phylum + p(kingdom | taxonID, ¬phylum)·taxonID·¬phylum", val_, c$kingdom);
       }
     }
-    if (evidence.isF$e$kingdom()) {
+    if (SimpleLinnaeanInferencer.Evidence.isF$e$kingdom(evidence)) {
       nc$kingdom += parameters.inf_kingdom_f$t_t * c$taxonId * c$phylum;
       nc$kingdom += parameters.inf_kingdom_f$t_f * c$taxonId * nc$phylum;
       if (trace != null) {
@@ -191,21 +191,21 @@ public class SimpleLinnaeanInferencer_TF implements Inferencer<SimpleLinnaeanCla
     return result_;
   }
 
-  public double infer_f(SimpleLinnaeanInferencer.Evidence evidence, SimpleLinnaeanParameters_TF parameters, Trace trace) {
+  public double infer_f(long[] evidence, SimpleLinnaeanParameters_TF parameters, Trace trace) {
     double c$taxonId = 0.0;
     double nc$taxonId = 1.0;
     double c$taxonRank = 0.0;
     double nc$taxonRank = 0.0;
     double c$scientificNameAuthorship = 0.0;
     double nc$scientificNameAuthorship = 0.0;
-    double c$specificEpithet = evidence.isT$e$specificEpithet() ? 1.0 : 0.0;
-    double nc$specificEpithet = evidence.isF$e$specificEpithet() ? 1.0 : 0.0;
+    double c$specificEpithet = SimpleLinnaeanInferencer.Evidence.isT$e$specificEpithet(evidence) ? 1.0 : 0.0;
+    double nc$specificEpithet = SimpleLinnaeanInferencer.Evidence.isF$e$specificEpithet(evidence) ? 1.0 : 0.0;
     double c$scientificName = 0.0;
     double nc$scientificName = 0.0;
-    double c$prefixScientificName = evidence.isT$e$prefixScientificName() ? 1.0 : 0.0;
-    double nc$prefixScientificName = evidence.isF$e$prefixScientificName() ? 1.0 : 0.0;
-    double c$soundexScientificName = evidence.isT$e$soundexScientificName() ? 1.0 : 0.0;
-    double nc$soundexScientificName = evidence.isF$e$soundexScientificName() ? 1.0 : 0.0;
+    double c$prefixScientificName = SimpleLinnaeanInferencer.Evidence.isT$e$prefixScientificName(evidence) ? 1.0 : 0.0;
+    double nc$prefixScientificName = SimpleLinnaeanInferencer.Evidence.isF$e$prefixScientificName(evidence) ? 1.0 : 0.0;
+    double c$soundexScientificName = SimpleLinnaeanInferencer.Evidence.isT$e$soundexScientificName(evidence) ? 1.0 : 0.0;
+    double nc$soundexScientificName = SimpleLinnaeanInferencer.Evidence.isF$e$soundexScientificName(evidence) ? 1.0 : 0.0;
     double c$family = 0.0;
     double nc$family = 0.0;
     double c$order = 0.0;
@@ -216,28 +216,28 @@ public class SimpleLinnaeanInferencer_TF implements Inferencer<SimpleLinnaeanCla
     double nc$phylum = 0.0;
     double c$kingdom = 0.0;
     double nc$kingdom = 0.0;
-    if (evidence.isT$e$taxonRank()) {
+    if (SimpleLinnaeanInferencer.Evidence.isT$e$taxonRank(evidence)) {
       c$taxonRank += parameters.inf_taxonRank_t$f * nc$taxonId;
       if (trace != null) {
         String val_ = this.formatDouble(parameters.inf_taxonRank_t$f) + " \u00b7 " + this.formatDouble(nc$taxonId);
         trace.add(TraceLevel.TRACE, "p(taxonRank) - taxonRank", "p(taxonRank | ¬taxonID)·¬taxonID", val_, c$taxonRank);
       }
     }
-    if (evidence.isF$e$taxonRank()) {
+    if (SimpleLinnaeanInferencer.Evidence.isF$e$taxonRank(evidence)) {
       nc$taxonRank += parameters.inf_taxonRank_f$f * nc$taxonId;
       if (trace != null) {
         String val_ = this.formatDouble(parameters.inf_taxonRank_f$f) + " \u00b7 " + this.formatDouble(nc$taxonId);
         trace.add(TraceLevel.TRACE, "p(¬taxonRank) - taxonRank", "p(¬taxonRank | ¬taxonID)·¬taxonID", val_, nc$taxonRank);
       }
     }
-    if (evidence.isT$e$scientificNameAuthorship()) {
+    if (SimpleLinnaeanInferencer.Evidence.isT$e$scientificNameAuthorship(evidence)) {
       c$scientificNameAuthorship += parameters.inf_scientificNameAuthorship_t$f * nc$taxonId;
       if (trace != null) {
         String val_ = this.formatDouble(parameters.inf_scientificNameAuthorship_t$f) + " \u00b7 " + this.formatDouble(nc$taxonId);
         trace.add(TraceLevel.TRACE, "p(scientificNameAuthorship) - scientificNameAuthorship", "p(scientificNameAuthorship | ¬taxonID)·¬taxonID", val_, c$scientificNameAuthorship);
       }
     }
-    if (evidence.isF$e$scientificNameAuthorship()) {
+    if (SimpleLinnaeanInferencer.Evidence.isF$e$scientificNameAuthorship(evidence)) {
       nc$scientificNameAuthorship += parameters.inf_scientificNameAuthorship_f$f * nc$taxonId;
       if (trace != null) {
         String val_ = this.formatDouble(parameters.inf_scientificNameAuthorship_f$f) + " \u00b7 " + this.formatDouble(nc$taxonId);
@@ -245,7 +245,7 @@ public class SimpleLinnaeanInferencer_TF implements Inferencer<SimpleLinnaeanCla
       }
     }
     // Ignoring non-base specificEpithet
-    if (evidence.isT$e$scientificName()) {
+    if (SimpleLinnaeanInferencer.Evidence.isT$e$scientificName(evidence)) {
        c$scientificName += parameters.derived_scientificName_t$f_t * nc$taxonId * c$specificEpithet;
        c$scientificName += parameters.derived_scientificName_t$f_f * nc$taxonId * nc$specificEpithet;
       if (trace != null) {
@@ -253,7 +253,7 @@ public class SimpleLinnaeanInferencer_TF implements Inferencer<SimpleLinnaeanCla
         trace.add(TraceLevel.TRACE, "p(scientificName) - scientificName", "p(scientificName | ¬taxonID, specificEpithet)·¬taxonID·specificEpithet + p(scientificName | ¬taxonID, ¬specificEpithet)·¬taxonID·¬specificEpithet", val_, c$scientificName);
       }
     }
-    if (evidence.isF$e$scientificName()) {
+    if (SimpleLinnaeanInferencer.Evidence.isF$e$scientificName(evidence)) {
       nc$scientificName += parameters.derived_scientificName_f$f_t * nc$taxonId * c$specificEpithet;
       nc$scientificName += parameters.derived_scientificName_f$f_f * nc$taxonId * nc$specificEpithet;
       if (trace != null) {
@@ -263,7 +263,7 @@ public class SimpleLinnaeanInferencer_TF implements Inferencer<SimpleLinnaeanCla
     }
     // Ignoring non-base prefixScientificName
     // Ignoring non-base soundexScientificName
-    if (evidence.isT$e$family()) {
+    if (SimpleLinnaeanInferencer.Evidence.isT$e$family(evidence)) {
        c$family += parameters.derived_family_t$f_ttt * nc$taxonId * c$prefixScientificName * c$soundexScientificName * c$scientificName;
        c$family += parameters.derived_family_t$f_ttf * nc$taxonId * c$prefixScientificName * c$soundexScientificName * nc$scientificName;
        c$family += parameters.derived_family_t$f_tft * nc$taxonId * c$prefixScientificName * nc$soundexScientificName * c$scientificName;
@@ -277,7 +277,7 @@ public class SimpleLinnaeanInferencer_TF implements Inferencer<SimpleLinnaeanCla
         trace.add(TraceLevel.TRACE, "p(family) - family", "p(family | ¬taxonID, prefixScientificName, soundexScientificName, scientificName)·¬taxonID·prefixScientificName·soundexScientificName·scientificName + p(family | ¬taxonID, prefixScientificName, soundexScientificName, ¬scientificName)·¬taxonID·prefixScientificName·soundexScientificName·¬scientificName + p(family | ¬taxonID, prefixScientificName, ¬soundexScientificName, scientificName)·¬taxonID·prefixScientificName·¬soundexScientificName·scientificName + p(family | ¬taxonID, prefixScientificName, ¬soundexScientificName, ¬scientificName)·¬taxonID·prefixScientificName·¬soundexScientificName·¬scientificName + p(family | ¬taxonID, ¬prefixScientificName, soundexScientificName, scientificName)·¬taxonID·¬prefixScientificName·soundexScientificName·scientificName + p(family | ¬taxonID, ¬prefixScientificName, soundexScientificName, ¬scientificName)·¬taxonID·¬prefixScientificName·soundexScientificName·¬scientificName + p(family | ¬taxonID, ¬prefixScientificName, ¬soundexScientificName, scientificName)·¬taxonID·¬prefixScientificName·¬soundexScientificName·scientificName + p(family | ¬taxonID, ¬prefixScientificName, ¬soundexScientificName, ¬scientificName)·¬taxonID·¬prefixScientificName·¬soundexScientificName·¬scientificName", val_, c$family);
       }
     }
-    if (evidence.isF$e$family()) {
+    if (SimpleLinnaeanInferencer.Evidence.isF$e$family(evidence)) {
       nc$family += parameters.derived_family_f$f_ttt * nc$taxonId * c$prefixScientificName * c$soundexScientificName * c$scientificName;
       nc$family += parameters.derived_family_f$f_ttf * nc$taxonId * c$prefixScientificName * c$soundexScientificName * nc$scientificName;
       nc$family += parameters.derived_family_f$f_tft * nc$taxonId * c$prefixScientificName * nc$soundexScientificName * c$scientificName;
@@ -291,7 +291,7 @@ public class SimpleLinnaeanInferencer_TF implements Inferencer<SimpleLinnaeanCla
         trace.add(TraceLevel.TRACE, "p(¬family) - !family", "p(¬family | ¬taxonID, prefixScientificName, soundexScientificName, scientificName)·¬taxonID·prefixScientificName·soundexScientificName·scientificName + p(¬family | ¬taxonID, prefixScientificName, soundexScientificName, ¬scientificName)·¬taxonID·prefixScientificName·soundexScientificName·¬scientificName + p(¬family | ¬taxonID, prefixScientificName, ¬soundexScientificName, scientificName)·¬taxonID·prefixScientificName·¬soundexScientificName·scientificName + p(¬family | ¬taxonID, prefixScientificName, ¬soundexScientificName, ¬scientificName)·¬taxonID·prefixScientificName·¬soundexScientificName·¬scientificName + p(¬family | ¬taxonID, ¬prefixScientificName, soundexScientificName, scientificName)·¬taxonID·¬prefixScientificName·soundexScientificName·scientificName + p(¬family | ¬taxonID, ¬prefixScientificName, soundexScientificName, ¬scientificName)·¬taxonID·¬prefixScientificName·soundexScientificName·¬scientificName + p(¬family | ¬taxonID, ¬prefixScientificName, ¬soundexScientificName, scientificName)·¬taxonID·¬prefixScientificName·¬soundexScientificName·scientificName + p(¬family | ¬taxonID, ¬prefixScientificName, ¬soundexScientificName, ¬scientificName)·¬taxonID·¬prefixScientificName·¬soundexScientificName·¬scientificName", val_, nc$family);
       }
     }
-    if (evidence.isT$e$order()) {
+    if (SimpleLinnaeanInferencer.Evidence.isT$e$order(evidence)) {
       c$order += parameters.inf_order_t$f_t * nc$taxonId * c$family;
       c$order += parameters.inf_order_t$f_f * nc$taxonId * nc$family;
       if (trace != null) {
@@ -299,7 +299,7 @@ public class SimpleLinnaeanInferencer_TF implements Inferencer<SimpleLinnaeanCla
         trace.add(TraceLevel.TRACE, "p(order) - order", "p(order | ¬taxonID, family)·¬taxonID·family + p(order | ¬taxonID, ¬family)·¬taxonID·¬family", val_, c$order);
       }
     }
-    if (evidence.isF$e$order()) {
+    if (SimpleLinnaeanInferencer.Evidence.isF$e$order(evidence)) {
       nc$order += parameters.inf_order_f$f_t * nc$taxonId * c$family;
       nc$order += parameters.inf_order_f$f_f * nc$taxonId * nc$family;
       if (trace != null) {
@@ -307,7 +307,7 @@ public class SimpleLinnaeanInferencer_TF implements Inferencer<SimpleLinnaeanCla
         trace.add(TraceLevel.TRACE, "p(¬order) - order", "p(¬order | ¬taxonID, family)·¬taxonID·family + p(¬order | ¬taxonID, ¬family)·¬taxonID·¬family", val_, nc$order);
       }
     }
-    if (evidence.isT$e$class_()) {
+    if (SimpleLinnaeanInferencer.Evidence.isT$e$class_(evidence)) {
       c$class_ += parameters.inf_class__t$f_t * nc$taxonId * c$order;
       c$class_ += parameters.inf_class__t$f_f * nc$taxonId * nc$order;
       if (trace != null) {
@@ -315,7 +315,7 @@ public class SimpleLinnaeanInferencer_TF implements Inferencer<SimpleLinnaeanCla
         trace.add(TraceLevel.TRACE, "p(class) - class", "p(class | ¬taxonID, order)·¬taxonID·order + p(class | ¬taxonID, ¬order)·¬taxonID·¬order", val_, c$class_);
       }
     }
-    if (evidence.isF$e$class_()) {
+    if (SimpleLinnaeanInferencer.Evidence.isF$e$class_(evidence)) {
       nc$class_ += parameters.inf_class__f$f_t * nc$taxonId * c$order;
       nc$class_ += parameters.inf_class__f$f_f * nc$taxonId * nc$order;
       if (trace != null) {
@@ -323,7 +323,7 @@ public class SimpleLinnaeanInferencer_TF implements Inferencer<SimpleLinnaeanCla
         trace.add(TraceLevel.TRACE, "p(¬class) - class", "p(¬class | ¬taxonID, order)·¬taxonID·order + p(¬class | ¬taxonID, ¬order)·¬taxonID·¬order", val_, nc$class_);
       }
     }
-    if (evidence.isT$e$phylum()) {
+    if (SimpleLinnaeanInferencer.Evidence.isT$e$phylum(evidence)) {
       c$phylum += parameters.inf_phylum_t$f_t * nc$taxonId * c$class_;
       c$phylum += parameters.inf_phylum_t$f_f * nc$taxonId * nc$class_;
       if (trace != null) {
@@ -331,7 +331,7 @@ public class SimpleLinnaeanInferencer_TF implements Inferencer<SimpleLinnaeanCla
         trace.add(TraceLevel.TRACE, "p(phylum) - phylum", "p(phylum | ¬taxonID, class)·¬taxonID·class + p(phylum | ¬taxonID, ¬class)·¬taxonID·¬class", val_, c$phylum);
       }
     }
-    if (evidence.isF$e$phylum()) {
+    if (SimpleLinnaeanInferencer.Evidence.isF$e$phylum(evidence)) {
       nc$phylum += parameters.inf_phylum_f$f_t * nc$taxonId * c$class_;
       nc$phylum += parameters.inf_phylum_f$f_f * nc$taxonId * nc$class_;
       if (trace != null) {
@@ -339,7 +339,7 @@ public class SimpleLinnaeanInferencer_TF implements Inferencer<SimpleLinnaeanCla
         trace.add(TraceLevel.TRACE, "p(¬phylum) - phylum", "p(¬phylum | ¬taxonID, class)·¬taxonID·class + p(¬phylum | ¬taxonID, ¬class)·¬taxonID·¬class", val_, nc$phylum);
       }
     }
-    if (evidence.isT$e$kingdom()) {
+    if (SimpleLinnaeanInferencer.Evidence.isT$e$kingdom(evidence)) {
       c$kingdom += parameters.inf_kingdom_t$f_t * nc$taxonId * c$phylum;
       c$kingdom += parameters.inf_kingdom_t$f_f * nc$taxonId * nc$phylum;
       if (trace != null) {
@@ -347,7 +347,7 @@ public class SimpleLinnaeanInferencer_TF implements Inferencer<SimpleLinnaeanCla
         trace.add(TraceLevel.TRACE, "p(kingdom) - kingdom", "p(kingdom | ¬taxonID, phylum)·¬taxonID·phylum + p(kingdom | ¬taxonID, ¬phylum)·¬taxonID·¬phylum", val_, c$kingdom);
       }
     }
-    if (evidence.isF$e$kingdom()) {
+    if (SimpleLinnaeanInferencer.Evidence.isF$e$kingdom(evidence)) {
       nc$kingdom += parameters.inf_kingdom_f$f_t * nc$taxonId * c$phylum;
       nc$kingdom += parameters.inf_kingdom_f$f_f * nc$taxonId * nc$phylum;
       if (trace != null) {
@@ -365,6 +365,10 @@ public class SimpleLinnaeanInferencer_TF implements Inferencer<SimpleLinnaeanCla
 
 
   public Inference probability(SimpleLinnaeanInferencer.Evidence evidence, SimpleLinnaeanParameters_TF parameters, Trace trace) {
+    return this.probability(evidence.pack(), parameters, trace);
+  }
+
+  public Inference probability(long[] evidence, SimpleLinnaeanParameters_TF parameters, Trace trace) {
     double c, p;
     double prior = parameters.prior_taxonId_t;
     double ph = 0.0;
@@ -373,7 +377,7 @@ public class SimpleLinnaeanInferencer_TF implements Inferencer<SimpleLinnaeanCla
     if (trace != null)
         trace.push(TraceLevel.TRACE, "p(taxonID)");
     try {
-        if (evidence.isT$e$taxonId()) {
+        if (SimpleLinnaeanInferencer.Evidence.isT$e$taxonId(evidence)) {
           c = this.infer_t(evidence, parameters, trace);
           p = c  * parameters.prior_taxonId_t;
           if (trace != null) {
@@ -389,7 +393,7 @@ public class SimpleLinnaeanInferencer_TF implements Inferencer<SimpleLinnaeanCla
     if (trace != null)
         trace.push(TraceLevel.TRACE, "p(¬taxonID)");
     try {
-        if (evidence.isF$e$taxonId()) {
+        if (SimpleLinnaeanInferencer.Evidence.isF$e$taxonId(evidence)) {
           c = this.infer_f(evidence, parameters, trace);
           p = c  * parameters.prior_taxonId_f;
           if (trace != null) {
@@ -409,14 +413,11 @@ public class SimpleLinnaeanInferencer_TF implements Inferencer<SimpleLinnaeanCla
     if (trace != null)
         trace.push(TraceLevel.TRACE, "inference");
     try {
-        SimpleLinnaeanInferencer.Evidence evidence = classification.match(classifier);
+        long[] evidence = SimpleLinnaeanInferencer.Evidence.buffer();
+        classification.match(classifier, evidence);
         if (trace != null)
-            trace.add(TraceLevel.TRACE, "evidence", evidence);
-        SimpleLinnaeanParameters_TF params = (SimpleLinnaeanParameters_TF) classifier.getCachedParameters();
-        if (params == null) {
-          params = new SimpleLinnaeanParameters_TF();
-          classifier.loadParameters(params);
-        }
+            trace.add(TraceLevel.TRACE, "evidence", new SimpleLinnaeanInferencer.Evidence(evidence));
+        SimpleLinnaeanParameters_TF params = classifier.getParameters(SimpleLinnaeanParameters_TF::new);
         return this.probability(evidence, params, trace);
     } finally {
         if (trace != null)
@@ -5,6 +5,7 @@ import au.org.ala.bayesian.Observable;
 import au.org.ala.bayesian.Observation;
 import au.org.ala.bayesian.StoreException;
 import au.org.ala.names.builder.Annotator;
+import au.org.ala.names.builder.LoadStore;
 import au.org.ala.names.builder.TestAnnotator;
 import org.gbif.dwc.terms.DwcTerm;
 import org.gbif.dwc.terms.Term;
@@ -13,7 +14,15 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.Assert.*;
 
@@ -83,6 +92,56 @@ public class LuceneLoadStoreTest {
         }
     }
 
+    @Test
+    public void testStoreGet3() throws Exception {
+        this.store.store(this.makeClassifier(DwcTerm.Taxon, "taxonID", "ID-1", "scientificName", "Acacia dealbata", "genus", "Acacia", "family", "Fabaceae"), DwcTerm.Taxon);
+        this.store.store(this.makeClassifier(DwcTerm.Taxon, "taxonID", "ID-2", "scientificName", "Acacia abbreviata", "genus", "Acacia", "family", "Fabaceae"), DwcTerm.Taxon);
+        this.store.store(this.makeClassifier(DwcTerm.Taxon, "taxonID", "ID-3", "scientificName", "Eucalyptus regnans", "genus", "Eucalyptus", "family", "Myrtaceae"), DwcTerm.Taxon);
+        this.store.commit();
+        int queries = this.store.getQueries();
+        Map<String, LuceneClassifier> results = this.store.getAll(DwcTerm.Taxon, TAXON_ID_OBS, Arrays.asList("ID-3", "ID-99", "ID-1"));
+        assertEquals(queries + 1, this.store.getQueries());
+        assertEquals(Arrays.asList("ID-3", "ID-1"), new ArrayList<>(results.keySet()));
+        assertEquals("Eucalyptus regnans", results.get("ID-3").get(SCIENTIFIC_NAME_OBS).toString());
+        assertEquals("Acacia dealbata", results.get("ID-1").get(SCIENTIFIC_NAME_OBS).toString());
+        assertTrue(this.store.getAll(DwcTerm.Taxon, TAXON_ID_OBS, Collections.emptyList()).isEmpty());
+    }
+
+    @Test
+    public void testStoreGet4() throws Exception {
+        this.store.store(this.makeClassifier(DwcTerm.Taxon, "taxonID", "ID-1", "scientificName", "Acacia dealbata", "genus", "Acacia", "family", "Fabaceae"), DwcTerm.Taxon);
+        this.store.store(this.makeClassifier(DwcTerm.Taxon, "taxonID", "ID-1", "scientificName", "Acacia abbreviata", "genus", "Acacia", "family", "Fabaceae"), DwcTerm.Taxon);
+        this.store.commit();
+        try {
+            this.store.getAll(DwcTerm.Taxon, TAXON_ID_OBS, Collections.singletonList("ID-1"));
+            fail("Expecting store exception");
+        } catch (StoreException ex) {
+            assertEquals("More than one answer for taxonID = ID-1", ex.getMessage());
+        }
+    }
+
+    @Test
+    public void testStoreGetAll2() throws Exception {
+        for (int i = 0; i < 3; i++)
+            this.store.store(this.makeClassifier(DwcTerm.Taxon, "taxonID", "ID-" + i, "scientificName", "Acacia " + i, "genus", "Acacia", "family", "Fabaceae"), DwcTerm.Taxon);
+        this.store.commit();
+        this.store.setBatchSize(1);
+        Iterable<LuceneClassifier> all = this.store.getAll(DwcTerm.Taxon);
+        Iterator<LuceneClassifier> di = all.iterator();
+        assertTrue(di.hasNext());
+        assertNotNull(di.next());
+        assertEquals(1, this.store.getHeld());
+        LoadStore.close(all);
+        assertEquals(0, this.store.getHeld());
+        LoadStore.close(all);
+        assertEquals(0, this.store.getHeld());
+        int count = 0;
+        for (LuceneClassifier classifier: this.store.getAll(DwcTerm.Taxon))
+            count++;
+        assertEquals(3, count);
+        assertEquals(0, this.store.getHeld());
+    }
+
     @Test
     public void testStoreGetAll() throws Exception {
         LuceneClassifier v1 = this.makeClassifier(DwcTerm.Taxon,"taxonID", "ID-1", "scientificName", "Acacia dealbata", "genus", "Acacia", "family", "Fabaceae");
@@ -104,4 +163,72 @@ public class LuceneLoadStoreTest {
         assertFalse(di.hasNext());
     }
 
+    @Test
+    public void testConcurrentStore1() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                final int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 250; i++) {
+                        LuceneClassifier v = this.makeClassifier(DwcTerm.Taxon, "taxonID", "ID-" + thread + "-" + i, "scientificName", "Acacia dealbata", "genus", "Acacia");
+                        this.store.store(v, DwcTerm.Taxon);
+                        if (i % 100 == 0)
+                            this.store.commit();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future: futures)
+                future.get();
+        } finally {
+            executor.shutdown();
+        }
+        this.store.commit();
+        assertEquals(1000, this.store.count(DwcTerm.Taxon));
+        LuceneClassifier v = this.store.get(DwcTerm.Taxon, TAXON_ID_OBS, "ID-3-249");
+        assertNotNull(v);
+        assertEquals("Acacia", v.get(GENUS_OBS).toString());
+    }
+
+    @Test
+    public void testConcurrentCommit1() throws Exception {
+        for (int i = 0; i < 300; i++)
+            this.store.store(this.makeClassifier(DwcTerm.Taxon, "taxonID", "ID-" + i, "scientificName", "Acacia dealbata", "genus", "Acacia"), DwcTerm.Taxon);
+        this.store.commit();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            futures.add(executor.submit(() -> {
+                for (int i = 300; i < 600; i++) {
+                    this.store.store(this.makeClassifier(DwcTerm.Taxon, "taxonID", "ID-" + i, "scientificName", "Acacia dealbata", "genus", "Acacia"), DwcTerm.Taxon);
+                    if (i % 10 == 0)
+                        this.store.commit();
+                }
+                return null;
+            }));
+            for (int t = 0; t < 3; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 100; i++) {
+                        LuceneClassifier v = this.store.get(DwcTerm.Taxon, TAXON_ID_OBS, "ID-" + (i * 3));
+                        assertNotNull(v);
+                        assertTrue(this.store.count(DwcTerm.Taxon) >= 300);
+                        int n = 0;
+                        for (LuceneClassifier c: this.store.getAll(DwcTerm.Taxon, new Observation(true, GENUS_OBS, "Acacia")))
+                            n++;
+                        assertTrue(n >= 300);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future: futures)
+                future.get();
+        } finally {
+            executor.shutdown();
+        }
+        this.store.commit();
+        assertEquals(600, this.store.count(DwcTerm.Taxon));
+    }
+
 }
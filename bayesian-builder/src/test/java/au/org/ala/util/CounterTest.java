@@ -69,6 +69,35 @@ public class CounterTest {
         assertTrue("Message is " + message, message.matches("Test 35 elapsed \\d, \\d+/s, 350%, last Waffle"));
     }
 
+    @Test
+    public void testTotalRate1() throws Exception {
+        assertEquals(0.0, this.counter.getTotalRate(), 0.0001);
+        this.counter.start();
+        this.run(10);
+        this.counter.stop();
+        assertEquals(10, this.counter.getCount());
+        assertTrue("Rate is " + this.counter.getTotalRate(), this.counter.getTotalRate() > 0.0);
+    }
+
+    @Test
+    public void testActive1() throws Exception {
+        this.counter.start();
+        this.counter.queued();
+        this.counter.queued();
+        assertEquals(2, this.counter.getQueueDepth());
+        assertEquals(0, this.counter.getActive());
+        this.counter.started();
+        assertEquals(1, this.counter.getQueueDepth());
+        assertEquals(1, this.counter.getActive());
+        this.counter.finished();
+        this.counter.increment("A");
+        assertEquals(1, this.counter.getQueueDepth());
+        assertEquals(0, this.counter.getActive());
+        assertEquals(1, this.counter.getCount());
+        this.counter.start();
+        assertEquals(0, this.counter.getQueueDepth());
+    }
+
     @Test
     public void testStartTime1() throws Exception {
         long start = System.currentTimeMillis();
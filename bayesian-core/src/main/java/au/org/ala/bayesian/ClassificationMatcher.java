@@ -3,8 +3,14 @@ package au.org.ala.bayesian;
 import au.org.ala.util.BacktrackingIterator;
 import au.org.ala.util.Service;
 import au.org.ala.util.Statistics;
+import au.org.ala.vocab.BayesianTerm;
 import lombok.Getter;
 import lombok.NonNull;
+import org.cache2k.Cache;
+import org.cache2k.Cache2kBuilder;
+import org.cache2k.event.CacheEntryEvictedListener;
+import org.cache2k.extra.jmx.JmxSupport;
+import org.gbif.dwc.terms.Term;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -14,9 +20,17 @@ import javax.management.ObjectName;
 import java.io.PrintWriter;
 import java.io.Writer;
 import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Provide search services for a classification.
@@ -126,6 +140,50 @@ public class ClassificationMatcher<C extends Classification<C>, I extends Infere
      * The hint modification statistics
      */
     private final Statistics matchableStatistics = new Statistics("matchable");
+    /**
+     * The batch size statistics
+     */
+    private final Statistics batchStatistics = new Statistics("batch matches");
+    /**
+     * The batch elapsed time statistics
+     */
+    private final Statistics batchTimeStatistics = new Statistics("batch elapsed time");
+    /**
+     * The executor used for batch matching, created on demand
+     */
+    private ExecutorService batchExecutor;
+    /**
+     * The cache of match results, null if match results are not cached
+     */
+    private final Cache<MatchKey, Match<C, M>> matchCache;
+    /**
+     * The number of match cache hits
+     */
+    private final AtomicLong matchCacheHits = new AtomicLong();
+    /**
+     * The number of match cache misses
+     */
+    private final AtomicLong matchCacheMisses = new AtomicLong();
+    /**
+     * The number of match cache evictions
+     */
+    private final AtomicLong matchCacheEvictions = new AtomicLong();
+    /**
+     * The number of searches satisfied from a request's search memo
+     */
+    private final AtomicLong memoisedSearches = new AtomicLong();
+    /**
+     * The number of inferences satisfied from a request's search memo
+     */
+    private final AtomicLong memoisedInferences = new AtomicLong();
+    /**
+     * The number of requests that reached the search or inference limit
+     */
+    private final AtomicLong searchLimits = new AtomicLong();
+    /**
+     * The number of requests that exceeded their time limit
+     */
+    private final AtomicLong searchTimeouts = new AtomicLong();
 
     /**
      * Create with a searcher and inferencer.
@@ -143,11 +201,25 @@ public class ClassificationMatcher<C extends Classification<C>, I extends Infere
         this.analyser = this.factory.createAnalyser(analyserConfig);
         this.identifier = this.factory.getIdentifier();
         this.accepted = this.factory.getAccepted();
+        if (this.config.getMatchCacheSize() > 0) {
+            Cache2kBuilder<MatchKey, Match<C, M>> builder = new Cache2kBuilder<MatchKey, Match<C, M>>() {}
+                    .name(getCacheName("matchCache"))
+                    .entryCapacity(this.config.getMatchCacheSize())
+                    .addListener((CacheEntryEvictedListener<MatchKey, Match<C, M>>) (cache, entry) -> this.matchCacheEvictions.incrementAndGet());
+            if (this.config.isEnableJmx())
+                builder.enable(JmxSupport.class);
+            this.matchCache = builder.build();
+        } else {
+            this.matchCache = null;
+        }
         if (this.config.isEnableJmx()) {
             String network = this.factory.getNetworkId().replaceAll("[^A-Za-z0-9.]+", ".");
             try {
                 MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
-                ObjectName on = new ObjectName(this.getClass().getPackage().getName() + ":type=" + this.getClass().getSimpleName() + ",network=" + network);
+                String base = this.getClass().getPackage().getName() + ":type=" + this.getClass().getSimpleName() + ",network=" + network;
+                ObjectName on = new ObjectName(base);
+                for (int i = 2; mbs.isRegistered(on); i++)
+                    on = new ObjectName(base + ",instance=" + i); // Another matcher is open, eg. when swapping indexes
                 this.mbean = mbs.registerMBean(this, on);
             } catch (Exception ex) {
                 logger.error("Unable to register searcher " + network, ex);
@@ -162,6 +234,14 @@ public class ClassificationMatcher<C extends Classification<C>, I extends Infere
      */
     @Override
     public void close() throws Exception {
+        synchronized (this) {
+            if (this.batchExecutor != null) {
+                this.batchExecutor.shutdownNow();
+                this.batchExecutor = null;
+            }
+        }
+        if (this.matchCache != null)
+            this.matchCache.close();
         if (this.mbean != null) {
             try {
                 MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
@@ -174,6 +254,10 @@ public class ClassificationMatcher<C extends Classification<C>, I extends Infere
 
     /**
      * Find a match for a classification
+     * <p>
+     * If a match cache has been configured and the options allow it,
+     * then the analysed classification is looked up in the cache before searching.
+     * </p>
      *
      * @param classification The classification to match
      * @param options The match options
@@ -182,6 +266,8 @@ public class ClassificationMatcher<C extends Classification<C>, I extends Infere
      */
     @NonNull
     public Match<C, M> findMatch(@NonNull C classification, MatchOptions options) throws BayesianException {
+        if (this.matchCache != null && this.isCacheable(options))
+            return this.findCachedMatch(classification, options);
         M measurement = null;
         Optional<Trace> trace = Optional.empty();
         if (this.config.isStatistics() || options.isMeasure()) {
@@ -204,6 +290,243 @@ public class ClassificationMatcher<C extends Classification<C>, I extends Infere
         return annotated;
     }
 
+    /**
+     * Find a match for a classification, using the match cache.
+     * <p>
+     * The classification is analysed and the analysed form, along with the options,
+     * used as a key into the cache.
+     * The cached match is stored without fidelity, since that depends on the original template.
+     * Each caller gets its own copy of the match, so that changes to the returned classifications
+     * do not leak into the cache or to other callers.
+     * </p>
+     *
+     * @param classification The classification to match
+     * @param options The match options
+     * @return A match, {@link Match#invalidMatch()} is returned if no match is found
+     * @throws BayesianException if there is a failure during inference
+     */
+    protected Match<C, M> findCachedMatch(C classification, MatchOptions options) throws BayesianException {
+        M measurement = null;
+        if (this.config.isStatistics()) {
+            measurement = this.createMeasurement();
+            measurement.start();
+        }
+        classification.inferForSearch(this.analyser, options);
+        MatchKey key = new MatchKey(classification, options);
+        Match<C, M> match = this.matchCache.peek(key);
+        if (match != null) {
+            this.matchCacheHits.incrementAndGet();
+            match = match.copy();
+        } else {
+            this.matchCacheMisses.incrementAndGet();
+            match = this.findAnalysedMatch(classification, options, measurement, Optional.empty());
+            if (!match.getIssues().contains(BayesianTerm.searchTimeout)) // Timed-out results depend on circumstances
+                this.matchCache.put(key, match.copy());
+        }
+        if (measurement != null)
+            measurement.stop();
+        this.recordMeasurement(measurement);
+        return match.getActual() == null ? match : match.with(classification.buildFidelity(match.getActual()));
+    }
+
+    /**
+     * Can the results of a match with these options be cached?
+     * <p>
+     * Matches that have been asked to trace or measure their progress are not cached,
+     * since a cached result would not contain the correct trace or measurement.
+     * </p>
+     *
+     * @param options The match options
+     * @return True if the result can be cached
+     */
+    protected boolean isCacheable(MatchOptions options) {
+        return options.getTrace() == Trace.TraceLevel.NONE && !options.isMeasure();
+    }
+
+    /**
+     * Find matches for a list of classifications.
+     * <p>
+     * Matching is spread across the batch executor.
+     * The searcher and inferencer are shared between workers, since both are
+     * thread-safe, and the results are returned in the same order as the classifications.
+     * </p>
+     *
+     * @param classifications The classifications to match
+     * @param options The match options
+     * @return A list of matches, with {@link Match#invalidMatch()} for any classification that cannot be matched
+     * @throws BayesianException if there is a failure during inference
+     */
+    @NonNull
+    public List<Match<C, M>> findMatches(@NonNull List<C> classifications, MatchOptions options) throws BayesianException {
+        final long start = System.currentTimeMillis();
+        final List<Match<C, M>> matches = new ArrayList<>(classifications.size());
+        final Deque<Future<Match<C, M>>> window = new ArrayDeque<>(this.getBatchWindow());
+        final Iterator<C> source = classifications.iterator();
+        try {
+            this.fillWindow(source, options, window);
+            while (!window.isEmpty()) {
+                matches.add(this.nextMatch(window.removeFirst()));
+                this.fillWindow(source, options, window);
+            }
+        } finally {
+            window.forEach(f -> f.cancel(true));
+        }
+        this.recordBatch(matches.size(), System.currentTimeMillis() - start);
+        return matches;
+    }
+
+    /**
+     * Find matches for a sequence of classifications.
+     * <p>
+     * Classifications are only consumed from the source as space becomes available in the
+     * batch window, so that a slow consumer will not cause an unlimited number of
+     * results to accumulate.
+     * Results are supplied in the same order as the source classifications.
+     * </p>
+     *
+     * @param classifications The source of classifications to match
+     * @param options The match options
+     * @return An iterator over the resulting matches
+     */
+    @NonNull
+    public Iterator<Match<C, M>> findMatches(@NonNull Iterator<C> classifications, MatchOptions options) {
+        return new BatchIterator(classifications, options);
+    }
+
+    /**
+     * Find matches for a stream of classifications.
+     * <p>
+     * The resulting stream is sequential and ordered in the same order as the source stream.
+     * </p>
+     *
+     * @param classifications The classifications to match
+     * @param options The match options
+     * @return A stream of resulting matches
+     *
+     * @see #findMatches(Iterator, MatchOptions)
+     */
+    @NonNull
+    public Stream<Match<C, M>> findMatches(@NonNull Stream<C> classifications, MatchOptions options) {
+        BatchIterator iterator = new BatchIterator(classifications.iterator(), options);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(iterator::cancel)
+                .onClose(classifications::close);
+    }
+
+    /**
+     * Submit classifications to the batch executor until the window is full.
+     *
+     * @param source The source of classifications
+     * @param options The match options
+     * @param window The queue of matches in progress
+     */
+    private void fillWindow(Iterator<C> source, MatchOptions options, Deque<Future<Match<C, M>>> window) {
+        final int limit = this.getBatchWindow();
+        final ExecutorService executor = this.getBatchExecutor();
+        while (window.size() < limit && source.hasNext()) {
+            final C classification = source.next();
+            window.addLast(executor.submit(() -> this.findMatch(classification, options)));
+        }
+    }
+
+    /**
+     * Wait for the next match in a batch.
+     *
+     * @param future The future result
+     * @return The completed match
+     * @throws BayesianException if the match failed
+     */
+    private Match<C, M> nextMatch(Future<Match<C, M>> future) throws BayesianException {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InferenceException("Interrupted while waiting for match", ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof BayesianException)
+                throw (BayesianException) cause;
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            throw new InferenceException("Unable to match", cause);
+        }
+    }
+
+    /**
+     * Get the maximum number of batch matches in progress.
+     *
+     * @return The batch window size
+     */
+    protected int getBatchWindow() {
+        int window = this.config.getBatchWindow();
+        return window > 0 ? window : this.getBatchThreads() * 4;
+    }
+
+    /**
+     * Get the number of batch threads to use.
+     *
+     * @return The number of batch worker threads
+     */
+    protected int getBatchThreads() {
+        int threads = this.config.getBatchThreads();
+        return threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Get the executor used for batch matching.
+     * <p>
+     * The executor is created on first use.
+     * </p>
+     *
+     * @return The batch executor
+     */
+    protected synchronized ExecutorService getBatchExecutor() {
+        if (this.batchExecutor == null)
+            this.batchExecutor = this.createBatchExecutor();
+        return this.batchExecutor;
+    }
+
+    /**
+     * Create an executor for batch matching.
+     * <p>
+     * If virtual threads are requested and available, then a virtual thread per task
+     * executor is used, with the batch window limiting the number of active matches.
+     * Otherwise, a fixed pool of daemon platform threads is used.
+     * </p>
+     *
+     * @return The new executor
+     */
+    protected ExecutorService createBatchExecutor() {
+        if (this.config.isBatchVirtualThreads()) {
+            try {
+                Method virtual = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+                return (ExecutorService) virtual.invoke(null);
+            } catch (NoSuchMethodException ex) {
+                logger.warn("Virtual threads are not available, using platform threads for batch matching");
+            } catch (Exception ex) {
+                logger.error("Unable to create virtual thread executor, using platform threads for batch matching", ex);
+            }
+        }
+        final String prefix = "matcher-" + this.factory.getNetworkId() + "-";
+        final AtomicInteger index = new AtomicInteger();
+        return Executors.newFixedThreadPool(this.getBatchThreads(), r -> {
+            Thread thread = new Thread(r, prefix + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Record the results of a batch.
+     *
+     * @param size The number of matches in the batch
+     * @param elapsed The elapsed time in milliseconds
+     */
+    protected void recordBatch(long size, long elapsed) {
+        this.batchStatistics.add(size);
+        this.batchTimeStatistics.add(elapsed);
+    }
+
     /**
      * Find a match for a classification
      *
@@ -216,13 +539,70 @@ public class ClassificationMatcher<C extends Classification<C>, I extends Infere
      */
     @NonNull
     protected Match<C, M> findMatch(@NonNull C classification, MatchOptions options, M measurement, Optional<Trace> trace) throws BayesianException {
+        classification.inferForSearch(this.analyser, options);
+        return this.findAnalysedMatch(classification, options, measurement, trace);
+    }
+
+    /**
+     * Find a match for a classification that has already been analysed.
+     *
+     * @param classification The analysed classification to match
+     * @param options The options for matching
+     * @param measurement The measurements to gather
+     * @param trace Any trace to gather
+     * @return A match, {@link Match#invalidMatch()} is returned if no match is found
+     * @throws BayesianException if there is a failure during inference
+     *
+     * @see Classification#inferForSearch(Analyser, MatchOptions)
+     */
+    @NonNull
+    protected Match<C, M> findAnalysedMatch(@NonNull C classification, MatchOptions options, M measurement, Optional<Trace> trace) throws BayesianException {
+        SearchMemo memo = this.createMemo(options);
+        Match<C, M> match = this.findAnalysedMatch(classification, options, measurement, trace, memo);
+        this.memoisedSearches.addAndGet(memo.getSearchHits());
+        this.memoisedInferences.addAndGet(memo.getInferenceHits());
+        if (memo.isLimited()) {
+            this.searchLimits.incrementAndGet();
+            trace.ifPresent(t -> t.add(Trace.TraceLevel.SUMMARY, "limited", memo.getSearchCount() + " searches, " + memo.getInferenceCount() + " inferences"));
+            match = match.with(BayesianTerm.searchLimit);
+        }
+        if (memo.isExpired()) {
+            this.searchTimeouts.incrementAndGet();
+            trace.ifPresent(t -> t.add(Trace.TraceLevel.SUMMARY, "timeout", options.getTimeout() + "ms"));
+            match = match.with(BayesianTerm.searchTimeout);
+        }
+        return match;
+    }
+
+    /**
+     * Find a match for an analysed classification, recording searches and inferences in a memo.
+     * <p>
+     * If the memo reaches its search or inference limit, or the deadline for the match passes,
+     * the best match found so far is returned.
+     * This may be a match chosen from only some of the candidates for a search,
+     * since candidates after the limit are not inferred.
+     * Candidates are considered in search order, so the candidates that have been inferred
+     * are the ones the searcher judged most likely.
+     * Such a match is still returned as valid, flagged with {@link BayesianTerm#searchLimit}
+     * or {@link BayesianTerm#searchTimeout}, so that callers can decide whether to trust it.
+     * </p>
+     *
+     * @param classification The analysed classification to match
+     * @param options The options for matching
+     * @param measurement The measurements to gather
+     * @param trace Any trace to gather
+     * @param memo The search memo for this request
+     * @return A match, {@link Match#invalidMatch()} is returned if no match is found
+     * @throws BayesianException if there is a failure during inference
+     */
+    @NonNull
+    protected Match<C, M> findAnalysedMatch(@NonNull C classification, MatchOptions options, M measurement, Optional<Trace> trace, SearchMemo memo) throws BayesianException {
         trace.ifPresent(t -> t.push(Trace.TraceLevel.SUMMARY, "match"));
         try {
-            classification.inferForSearch(this.analyser, options);
             classification = this.prepareForMatching(classification);
 
             // Immediate search
-            final Match<C, M> match = this.findSource(classification, options, measurement, trace);
+            final Match<C, M> match = this.findSource(classification, options, measurement, trace, memo);
             Match<C, M> bad = Match.invalidMatch();
             if (match != null && match.isValid()) {
                 trace.ifPresent(t -> t.value(Trace.TraceLevel.SUMMARY, match));
@@ -238,14 +618,14 @@ public class ClassificationMatcher<C extends Classification<C>, I extends Infere
             C modified = null;
             C previous = base;
             Iterator<C> sourceClassifications = new BacktrackingIterator<>(base, base.searchModificationOrder());
-            while (sourceClassifications.hasNext()) {
+            while (sourceClassifications.hasNext() && !memo.isStopped()) {
                 modified = sourceClassifications.next();
                 if (modified == previous)
                     continue;
                 if (measurement != null)
                     measurement.searchModification();
                 modified.inferForSearch(this.analyser, options);
-                final Match<C, M> modifiedMatch = this.findSource(modified, options, measurement, trace);
+                final Match<C, M> modifiedMatch = this.findSource(modified, options, measurement, trace, memo);
                 if (modifiedMatch != null && modifiedMatch.isValid()) {
                     trace.ifPresent(t -> t.value(Trace.TraceLevel.SUMMARY, modifiedMatch));
                     return modifiedMatch;
@@ -265,23 +645,32 @@ public class ClassificationMatcher<C extends Classification<C>, I extends Infere
      * @param options         The match options
      * @param measurement    The performance measurement (null for no measurement)
      * @param trace Any trace to gather
+     * @param memo The search memo for this request
      * @return A match or null for no match
      * @throws BayesianException if there is an error in search or inference
      */
-    protected Match<C, M> findSource(@NonNull C classification, MatchOptions options, M measurement, Optional<Trace> trace) throws BayesianException {
+    protected Match<C, M> findSource(@NonNull C classification, MatchOptions options, M measurement, Optional<Trace> trace, SearchMemo memo) throws BayesianException {
         trace.ifPresent(t -> t.push(Trace.TraceLevel.SUMMARY, "source"));
         trace.ifPresent(t -> t.add(Trace.TraceLevel.SUMMARY, "classification", classification.clone()));
         try {
-            if (measurement != null)
-                measurement.search();
-            List<? extends Classifier> candidates = this.getSearcher().search(classification);
-            if (measurement != null)
-                measurement.addCandidates(candidates.size());
+            SearchMemo.Key key = memo.key(classification);
+            List<? extends Classifier> memoised = memo.getCandidates(key);
+            if (memoised == null) {
+                if (!memo.canSearch())
+                    return null;
+                if (measurement != null)
+                    measurement.search();
+                memoised = this.getSearcher().search(classification, memo.getRemaining());
+                memo.putCandidates(key, memoised);
+                if (measurement != null)
+                    measurement.addCandidates(memoised.size());
+            }
+            final List<? extends Classifier> candidates = memoised;
             if (candidates.isEmpty())
                 return null;
             trace.ifPresent(t -> t.add(Trace.TraceLevel.SUMMARY, "candidates", candidates.size()));
             // First do a basic match and see if we have something easily matchable
-            final Match<C, M> match = this.findMatch(classification, candidates, options, measurement, trace);
+            final Match<C, M> match = this.findMatch(classification, candidates, options, measurement, trace, memo);
             Match<C, M> bad = null;
             if (match != null && match.isValid()) {
                 trace.ifPresent(t -> t.value(Trace.TraceLevel.SUMMARY, match));
@@ -297,13 +686,13 @@ public class ClassificationMatcher<C extends Classification<C>, I extends Infere
             C modified = null;
             C previous = base;
             Iterator<C> subClassifications = new BacktrackingIterator<>(base, base.hintModificationOrder());
-            while (subClassifications.hasNext()) {
+            while (subClassifications.hasNext() && !memo.isStopped()) {
                 modified = subClassifications.next();
                 if (modified == classification || modified == previous) // Skip null case
                     continue;
                 if (measurement != null)
                     measurement.hintModification();
-                final Match<C, M> modifiedMatch = this.findMatch(modified, candidates, options, measurement, trace);
+                final Match<C, M> modifiedMatch = this.findMatch(modified, candidates, options, measurement, trace, memo);
                 if (modifiedMatch != null && modifiedMatch.isValid()) {
                     trace.ifPresent(t -> t.value(Trace.TraceLevel.SUMMARY, modifiedMatch));
                     return modifiedMatch;
@@ -327,17 +716,18 @@ public class ClassificationMatcher<C extends Classification<C>, I extends Infere
      * @param options         The match options
      * @param measurement    The measurement for the searcg, null for no collection
      * @param trace Any trace, null for no trace
+     * @param memo The search memo for this request
      * @return A match or null for no match
      * @throws BayesianException if there is an error in search or inference
      */
-    protected Match<C, M> findMatch(@NonNull C classification, List<? extends Classifier> candidates, MatchOptions options, MatchMeasurement measurement, Optional<Trace> trace) throws BayesianException {
+    protected Match<C, M> findMatch(@NonNull C classification, List<? extends Classifier> candidates, MatchOptions options, MatchMeasurement measurement, Optional<Trace> trace, SearchMemo memo) throws BayesianException {
         trace.ifPresent(t -> t.push(Trace.TraceLevel.INFO, "match"));
         trace.ifPresent(t -> t.add(Trace.TraceLevel.INFO, "classification", classification.clone()));
         try {
             if (measurement != null)
                 measurement.match();
             // First do a basic match and see if we have something easily matchable
-            List<Match<C, M>> results = this.doMatch(classification, candidates, measurement, trace);
+            List<Match<C, M>> results = this.doMatch(classification, candidates, measurement, trace, memo);
             if (measurement != null)
                 measurement.addMatchable(results.size());
             final Match<C, M> match = this.findSingle(classification, results, measurement);
@@ -358,13 +748,13 @@ public class ClassificationMatcher<C extends Classification<C>, I extends Infere
             C modified = null;
             C previous = base;
             Iterator<C> subClassifications = new BacktrackingIterator<>(base, base.matchModificationOrder());
-            while (subClassifications.hasNext()) {
+            while (subClassifications.hasNext() && !memo.isStopped()) {
                 modified = subClassifications.next();
                 if (modified == classification || modified == previous) // Skip null case
                     continue;
                 if (measurement != null)
                     measurement.matchModification();
-                results = this.doMatch(modified, candidates, measurement, trace);
+                results = this.doMatch(modified, candidates, measurement, trace, memo);
                 final Match<C, M> modifiedMatch = this.findSingle(modified, results, measurement);
                 if (modifiedMatch != null && modifiedMatch.isValid()) {
                     trace.ifPresent(t -> t.value(Trace.TraceLevel.INFO, modifiedMatch));
@@ -378,6 +768,21 @@ public class ClassificationMatcher<C extends Classification<C>, I extends Infere
         }
     }
 
+    /**
+     * Create a search memo for a single match request.
+     * <p>
+     * The memo is limited by the configured maximum number of searches and inferences
+     * and by any time limit in the match options.
+     * </p>
+     *
+     * @param options The match options
+     *
+     * @return A new memo
+     */
+    protected SearchMemo createMemo(MatchOptions options) {
+        return new SearchMemo(this.config.getMaxSearches(), this.config.getMaxInferences(), options.getTimeout());
+    }
+
     /**
      * Prepare a classification for matching.
      * <p>
@@ -441,20 +846,28 @@ public class ClassificationMatcher<C extends Classification<C>, I extends Infere
 
     /**
      * Build matches for candidates
+     * <p>
+     * If the memo's inference limit is reached part-way through the candidates,
+     * the remaining candidates are skipped and the matches for the candidates
+     * inferred so far are returned.
+     * Inferences already in the memo are reused and do not count towards the limit.
+     * </p>
      *
      * @param classification The classification to match
      * @param candidates The candidates
      * @param measurement Any measurements
      * @param trace Any tracing
+     * @param memo The search memo for this request
      *
      * @return A list of matches
      *
      * @throws BayesianException if something goes wrong with a match
      */
-    protected List<Match<C, M>> doMatch(C classification, List<? extends Classifier> candidates, MatchMeasurement measurement, Optional<Trace> trace) throws BayesianException {
+    protected List<Match<C, M>> doMatch(C classification, List<? extends Classifier> candidates, MatchMeasurement measurement, Optional<Trace> trace, SearchMemo memo) throws BayesianException {
         int index = 0;
         int maxCandidate = 0;
         List<Match<C, M>> results = new ArrayList<>(candidates.size());
+        SearchMemo.Key key = memo.key(classification);
         for (Classifier candidate : candidates) {
             final String label = Integer.toString(index);
             index++;
@@ -466,7 +879,14 @@ public class ClassificationMatcher<C extends Classification<C>, I extends Infere
             trace.ifPresent(t -> t.addSummary(Trace.TraceLevel.INFO, "candidate", candidate));
             trace.ifPresent(t -> t.add(Trace.TraceLevel.DEBUG, "classifier", candidate));
             try {
-                Inference inference = this.inferencer.probability(classification, candidate, trace.orElse(null));
+                Inference memoised = memo.getInference(key, candidate);
+                if (memoised == null) {
+                    if (!memo.canInfer())
+                        break;
+                    memoised = this.inferencer.probability(classification, candidate, trace.orElse(null));
+                    memo.putInference(key, candidate, memoised);
+                }
+                final Inference inference = memoised;
                 trace.ifPresent(t -> t.value(Trace.TraceLevel.DEBUG, inference));
                 if (!this.isPossible(classification, candidate, inference)) {
                     trace.ifPresent(t -> t.add(Trace.TraceLevel.INFO, "discarded", null));
@@ -491,12 +911,38 @@ public class ClassificationMatcher<C extends Classification<C>, I extends Infere
 
     /**
      * Resolve the results to ensure that accepted values are kept.
+     * <p>
+     * The accepted classifiers for all the synonyms in the results are retrieved as a batch.
+     * </p>
      *
      * @param results The results
      * @return The resolved results.
      */
     protected List<Match<C, M>> resolve(List<Match<C, M>> results) {
-        return results.stream().map(this::resolve).collect(Collectors.toList());
+        if (!this.accepted.isPresent() || !this.identifier.isPresent())
+            return results;
+        try {
+            Map<Term, Set<String>> acceptedIds = new HashMap<>();
+            for (Match<C, M> match: results) {
+                String acceptedId = match.getMatch().getAccepted();
+                if (acceptedId != null)
+                    acceptedIds.computeIfAbsent(match.getMatch().getType(), t -> new LinkedHashSet<>()).add(acceptedId);
+            }
+            if (acceptedIds.isEmpty())
+                return results;
+            Map<Term, Map<String, ? extends Classifier>> acceptedCandidates = new HashMap<>();
+            for (Map.Entry<Term, Set<String>> entry: acceptedIds.entrySet())
+                acceptedCandidates.put(entry.getKey(), this.getSearcher().getAll(entry.getKey(), this.identifier.get(), entry.getValue()));
+            List<Match<C, M>> resolved = new ArrayList<>(results.size());
+            for (Match<C, M> match: results) {
+                String acceptedId = match.getMatch().getAccepted();
+                Classifier acceptedCandidate = acceptedId == null ? null : acceptedCandidates.get(match.getMatch().getType()).get(acceptedId);
+                resolved.add(acceptedCandidate == null ? match : this.resolve(match, acceptedCandidate));
+            }
+            return resolved;
+        } catch (Exception ex) {
+            throw new IllegalStateException("Unable to resolve " + results, ex);
+        }
     }
 
     /**
@@ -513,14 +959,27 @@ public class ClassificationMatcher<C extends Classification<C>, I extends Infere
             Classifier acceptedCandidate = this.getSearcher().get(match.getMatch().getType(), this.identifier.get(), acceptedId);
             if (acceptedCandidate == null)
                 return match;
-            C acceptedClassification = this.factory.createClassification();
-            acceptedClassification.read(acceptedCandidate, true);
-            return match.withAccepted(acceptedCandidate, acceptedClassification);
+            return this.resolve(match, acceptedCandidate);
         } catch (Exception ex) {
             throw new IllegalStateException("Unable to match " + match, ex);
         }
     }
 
+    /**
+     * Add an accepted taxon to the match.
+     *
+     * @param match The match
+     * @param acceptedCandidate The accepted classifier
+     * @return The match with the accepted result
+     *
+     * @throws BayesianException if unable to read the accepted classifier
+     */
+    protected Match<C, M> resolve(Match<C, M> match, Classifier acceptedCandidate) throws BayesianException {
+        C acceptedClassification = this.factory.createClassification();
+        acceptedClassification.read(acceptedCandidate, true);
+        return match.withAccepted(acceptedCandidate, acceptedClassification);
+    }
+
     /**
      * Annotate the result list with additional information and issues.
      *
@@ -725,6 +1184,8 @@ public class ClassificationMatcher<C extends Classification<C>, I extends Infere
         pw.println(this.matchStatistics);
         pw.println(this.matchModificationStatistics);
         pw.println(this.matchableStatistics);
+        pw.println(this.batchStatistics);
+        pw.println(this.batchTimeStatistics);
     }
 
     /**
@@ -839,7 +1300,164 @@ public class ClassificationMatcher<C extends Classification<C>, I extends Infere
         return this.matchableStatistics.toString();
     }
 
+    /**
+     * Get a summary of the batch size statistics
+     *
+     * @return The batch size statistics
+     */
+    @Override
+    public String getBatchStatistics() {
+        return this.batchStatistics.toString();
+    }
+
+    /**
+     * Get a summary of the batch elapsed time statistics
+     *
+     * @return The batch time statistics
+     */
+    @Override
+    public String getBatchTimeStatistics() {
+        return this.batchTimeStatistics.toString();
+    }
+
+    /**
+     * Get the overall batch throughput.
+     *
+     * @return The number of batch matches per second, or NaN if no batches have been run
+     */
+    @Override
+    public double getBatchThroughput() {
+        long elapsed = this.batchTimeStatistics.getSum();
+        if (elapsed <= 0)
+            return Double.NaN;
+        return (this.batchStatistics.getSum() * 1000.0) / elapsed;
+    }
+
+    /**
+     * Get the number of match requests satisfied by the match cache.
+     *
+     * @return The number of cache hits
+     */
+    @Override
+    public long getMatchCacheHits() {
+        return this.matchCacheHits.get();
+    }
+
+    /**
+     * Get the number of cacheable match requests not found in the match cache.
+     *
+     * @return The number of cache misses
+     */
+    @Override
+    public long getMatchCacheMisses() {
+        return this.matchCacheMisses.get();
+    }
+
+    /**
+     * Get the number of results evicted from the match cache.
+     *
+     * @return The number of cache evictions
+     */
+    @Override
+    public long getMatchCacheEvictions() {
+        return this.matchCacheEvictions.get();
+    }
+
+    /**
+     * Get the number of searches satisfied from a request's search memo.
+     *
+     * @return The number of memoised searches
+     */
+    @Override
+    public long getMemoisedSearches() {
+        return this.memoisedSearches.get();
+    }
+
+    /**
+     * Get the number of inferences satisfied from a request's search memo.
+     *
+     * @return The number of memoised inferences
+     */
+    @Override
+    public long getMemoisedInferences() {
+        return this.memoisedInferences.get();
+    }
+
+    /**
+     * Get the number of requests that reached the search or inference limit.
+     *
+     * @return The number of limited requests
+     */
+    @Override
+    public long getSearchLimits() {
+        return this.searchLimits.get();
+    }
+
+    /**
+     * Get the number of requests that exceeded their time limit.
+     *
+     * @return The number of timed-out requests
+     */
+    @Override
+    public long getSearchTimeouts() {
+        return this.searchTimeouts.get();
+    }
+
     protected static String getCacheName(String field) {
         return "MatcherCache" + "-" + field + "-" + cacheIndex.getAndIncrement();
     }
+
+    /**
+     * An iterator that feeds classifications to the batch executor and returns
+     * the results in order.
+     */
+    private class BatchIterator implements Iterator<Match<C, M>> {
+        private final Iterator<C> source;
+        private final MatchOptions options;
+        private final Deque<Future<Match<C, M>>> window;
+        private final long start;
+        private long count;
+        private boolean recorded;
+
+        public BatchIterator(Iterator<C> source, MatchOptions options) {
+            this.source = source;
+            this.options = options;
+            this.window = new ArrayDeque<>(getBatchWindow());
+            this.start = System.currentTimeMillis();
+            this.count = 0;
+            this.recorded = false;
+        }
+
+        @Override
+        public boolean hasNext() {
+            fillWindow(this.source, this.options, this.window);
+            if (this.window.isEmpty() && !this.recorded) {
+                recordBatch(this.count, System.currentTimeMillis() - this.start);
+                this.recorded = true;
+            }
+            return !this.window.isEmpty();
+        }
+
+        @Override
+        public Match<C, M> next() {
+            if (!this.hasNext())
+                throw new NoSuchElementException();
+            try {
+                Match<C, M> match = nextMatch(this.window.removeFirst());
+                this.count++;
+                return match;
+            } catch (BayesianException ex) {
+                this.cancel();
+                throw new IllegalStateException("Unable to match", ex);
+            }
+        }
+
+        /**
+         * Cancel any outstanding matches
+         */
+        public void cancel() {
+            this.window.forEach(f -> f.cancel(true));
+            this.window.clear();
+        }
+    }
 }
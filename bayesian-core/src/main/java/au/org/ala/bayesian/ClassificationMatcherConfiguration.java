@@ -27,4 +27,28 @@ public class ClassificationMatcherConfiguration {
     @JsonProperty
     @Builder.Default
     private int secondaryCacheSize = 100000;
+    /** The number of worker threads used for batch matching. Zero or less means use the number of available processors */
+    @JsonProperty
+    @Builder.Default
+    private int batchThreads = 0;
+    /** Use virtual threads for batch matching, if the JVM supports them. Otherwise platform threads are used */
+    @JsonProperty
+    @Builder.Default
+    private boolean batchVirtualThreads = false;
+    /** The maximum number of batch matches in progress at any one time. Zero or less means four times the number of batch threads */
+    @JsonProperty
+    @Builder.Default
+    private int batchWindow = 0;
+    /** The size of the cache of match results. Zero or less means no match results are cached */
+    @JsonProperty
+    @Builder.Default
+    private int matchCacheSize = 0;
+    /** The maximum number of distinct searches made for a single match request. Zero or less means no limit */
+    @JsonProperty
+    @Builder.Default
+    private int maxSearches = 0;
+    /** The maximum number of distinct candidate inferences made for a single match request. Zero or less means no limit */
+    @JsonProperty
+    @Builder.Default
+    private int maxInferences = 0;
 }
@@ -70,4 +70,74 @@ public interface ClassificationMatcherMXBean {
      * @return The hint modification statistics
      */
     String getMatchableStatistics();
+
+    /**
+     * Get a summary of the batch size statistics.
+     *
+     * @return The batch size statistics
+     */
+    String getBatchStatistics();
+
+    /**
+     * Get a summary of the batch elapsed time statistics.
+     *
+     * @return The batch time statistics
+     */
+    String getBatchTimeStatistics();
+
+    /**
+     * Get the overall batch throughput.
+     *
+     * @return The number of batch matches per second, or NaN if no batches have been run
+     */
+    double getBatchThroughput();
+
+    /**
+     * Get the number of match requests satisfied by the match cache.
+     *
+     * @return The number of cache hits
+     */
+    long getMatchCacheHits();
+
+    /**
+     * Get the number of cacheable match requests not found in the match cache.
+     *
+     * @return The number of cache misses
+     */
+    long getMatchCacheMisses();
+
+    /**
+     * Get the number of results evicted from the match cache.
+     *
+     * @return The number of cache evictions
+     */
+    long getMatchCacheEvictions();
+
+    /**
+     * Get the number of searches satisfied from a request's search memo.
+     *
+     * @return The number of memoised searches
+     */
+    long getMemoisedSearches();
+
+    /**
+     * Get the number of inferences satisfied from a request's search memo.
+     *
+     * @return The number of memoised inferences
+     */
+    long getMemoisedInferences();
+
+    /**
+     * Get the number of requests that reached the search or inference limit.
+     *
+     * @return The number of limited requests
+     */
+    long getSearchLimits();
+
+    /**
+     * Get the number of requests that exceeded their time limit.
+     *
+     * @return The number of timed-out requests
+     */
+    long getSearchTimeouts();
 }
@@ -3,6 +3,7 @@ package au.org.ala.bayesian;
 import org.gbif.dwc.terms.Term;
 
 import java.util.*;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -319,6 +320,35 @@ public interface Classifier {
      */
     void loadParameters(Parameters parameters) throws StoreException;
 
+    /**
+     * Get the inference parameters for this classifier, loading them if necessary.
+     * <p>
+     * If the parameters have already been loaded, then the cached parameters are returned.
+     * Otherwise, a new parameter set is created by the factory and loaded.
+     * Implementations that may be shared between threads should ensure that
+     * the parameters are only loaded once and are safely published to other threads.
+     * Callers must treat the returned parameters as immutable.
+     * </p>
+     *
+     * @param factory The factory for an empty parameter set
+     * @param <P> The type of parameters
+     *
+     * @return The loaded parameters
+     *
+     * @throws StoreException if unable to retrieve the parameters
+     *
+     * @see #getCachedParameters()
+     * @see #loadParameters(Parameters)
+     */
+    default <P extends Parameters> P getParameters(Supplier<P> factory) throws StoreException {
+        P parameters = (P) this.getCachedParameters();
+        if (parameters == null) {
+            parameters = factory.get();
+            this.loadParameters(parameters);
+        }
+        return parameters;
+    }
+
     /**
      * Store the inference parameters in a classifier.
      *
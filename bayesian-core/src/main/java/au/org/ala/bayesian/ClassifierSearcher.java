@@ -4,7 +4,10 @@ import au.org.ala.util.Metadata;
 import au.org.ala.util.Service;
 import org.gbif.dwc.terms.Term;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * A searcher for classifiers that fit a classification.
@@ -48,6 +51,56 @@ abstract public class ClassifierSearcher<C extends Classifier> implements AutoCl
      */
     abstract public List<C> getAll(Term type, Observable identifier, Object id) throws BayesianException;
 
+    /**
+     * Get classifiers for a batch of identifiers.
+     * <p>
+     * By default, each identifier is retrieved with {@link #get(Term, Observable, Object)}.
+     * Subclasses can provide a more efficient lookup.
+     * </p>
+     *
+     * @param type The type of classifier to get
+     * @param identifier The identifier observable
+     * @param ids The ids to search for
+     *
+     * @return A map of identifier to classifier, with identifiers that cannot be found omitted
+     *
+     * @throws BayesianException if unable to retrieve information about the classifiers
+     */
+    public Map<String, C> getAll(Term type, Observable<String> identifier, Collection<String> ids) throws BayesianException {
+        Map<String, C> results = new LinkedHashMap<>(ids.size());
+        for (String id: ids) {
+            C classifier = this.get(type, identifier, id);
+            if (classifier != null)
+                results.put(id, classifier);
+        }
+        return results;
+    }
+
+    /**
+     * Get all the classifiers for a batch of non-unique identifiers.
+     * <p>
+     * By default, each identifier is retrieved with {@link #getAll(Term, Observable, Object)}.
+     * Subclasses can provide a more efficient lookup.
+     * </p>
+     *
+     * @param type The type of classifier to get
+     * @param identifier The identifier observable
+     * @param ids The ids to search for
+     *
+     * @return A map of identifier to the classifiers with that identifier, with identifiers that cannot be found omitted
+     *
+     * @throws BayesianException if unable to retrieve information about the classifiers
+     */
+    public Map<String, List<C>> getAllGrouped(Term type, Observable<String> identifier, Collection<String> ids) throws BayesianException {
+        Map<String, List<C>> results = new LinkedHashMap<>(ids.size());
+        for (String id: ids) {
+            List<C> classifiers = this.getAll(type, identifier, id);
+            if (!classifiers.isEmpty())
+                results.put(id, classifiers);
+        }
+        return results;
+    }
+
     /**
      * Search for a set of possible candidate classifiers that match the supplied classification.
      *
@@ -59,6 +112,25 @@ abstract public class ClassifierSearcher<C extends Classifier> implements AutoCl
      */
     abstract public List<C> search(Classification classification) throws BayesianException;
 
+    /**
+     * Search for a set of possible candidate classifiers that match the supplied classification,
+     * taking no more than a time limit.
+     * <p>
+     * If the time limit is exceeded, any candidates found so far are returned.
+     * By default, the time limit is ignored.
+     * </p>
+     *
+     * @param classification The classification
+     * @param timeout The time limit in milliseconds, zero or less for no limit
+     *
+     * @return A list of potential classifiers
+     *
+     * @throws BayesianException if unable to correctly match the classifiers
+     */
+    public List<C> search(Classification classification, long timeout) throws BayesianException {
+        return this.search(classification);
+    }
+
     /**
      * Get the classifier metadata.
      *
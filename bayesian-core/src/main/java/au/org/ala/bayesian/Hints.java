@@ -100,4 +100,44 @@ public class Hints<C extends Classification<C>> implements Cloneable {
         }
         modifications.add(mods);
     }
+
+    /**
+     * Get the hints that actually have values.
+     *
+     * @return A map of observable to hints, with empty hint sets removed
+     */
+    protected Map<Observable, Set> getNonEmptyHints() {
+        return this.hints.entrySet().stream()
+                .filter(e -> e.getValue() != null && !e.getValue().isEmpty())
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    }
+
+    /**
+     * Hash code, based on the non-empty hints.
+     *
+     * @return The hash code for the hints
+     */
+    @Override
+    public int hashCode() {
+        return this.getNonEmptyHints().hashCode();
+    }
+
+    /**
+     * Equality test.
+     * <p>
+     * Two sets of hints are equal if they have the same non-empty hint values.
+     * </p>
+     *
+     * @param obj The object to test against
+     *
+     * @return True if obj has the same hints
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (!(obj instanceof Hints))
+            return false;
+        return this.getNonEmptyHints().equals(((Hints<?>) obj).getNonEmptyHints());
+    }
 }
@@ -216,6 +216,24 @@ public class Match<C extends Classification<C>, M extends MatchMeasurement> {
         return new Match<>(this.actual, this.candidate, this.match, this.acceptedCandidate, this.accepted, this.probability, fidelity, this.issues, this.measurement, trace);
     }
 
+    /**
+     * Make a copy of this match that does not share classifications with the original.
+     * <p>
+     * Classifications are mutable, so a match that is handed out to more than one caller,
+     * such as a cached match, needs to be copied first.
+     * The candidate classifiers come from the index and, like the issues, are shared.
+     * </p>
+     *
+     * @return A copy of the match
+     */
+    public Match<C, M> copy() {
+        if (this == INVALID_MATCH || this == EMPTY_MATCH)
+            return this;
+        C m = this.match == null ? null : this.match.clone();
+        C a = this.accepted == null ? null : (this.accepted == this.match ? m : this.accepted.clone());
+        return new Match<>(this.actual == null ? null : this.actual.clone(), this.candidate, m, this.acceptedCandidate, a, this.probability, this.fidelity, this.issues, this.measurement, this.trace);
+    }
+
     @SneakyThrows
     public Map<String, Object> getFullDescription(NetworkFactory<?, ?, ?> factory) {
         Map<String, Object> desc = new LinkedHashMap<>();
@@ -0,0 +1,58 @@
+package au.org.ala.bayesian;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import org.gbif.dwc.terms.Term;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A key for caching the result of a match.
+ * <p>
+ * The key is built from an analysed classification, so that templates which
+ * normalise to the same search produce the same key.
+ * The key captures the observations, issues and hints of the classification,
+ * along with the options used to make the match.
+ * </p>
+ */
+@Getter
+@EqualsAndHashCode
+public class MatchKey {
+    /** The classification type */
+    private final Term type;
+    /** The observed values */
+    private final Map<Observable<?>, Set<?>> values;
+    /** Any issues associated with the classification */
+    private final Issues issues;
+    /** Any hints associated with the classification */
+    private final Hints<?> hints;
+    /** The match options */
+    private final MatchOptions options;
+
+    /**
+     * Construct for an analysed classification.
+     * <p>
+     * The key takes a snapshot of the classification's values and issues.
+     * </p>
+     *
+     * @param classification The analysed classification
+     * @param options The match options
+     *
+     * @throws BayesianException if unable to copy the classification hints
+     */
+    public MatchKey(Classification<?> classification, MatchOptions options) throws BayesianException {
+        this.type = classification.getType();
+        this.values = new HashMap<>();
+        for (Observation<?> observation: classification.toObservations())
+            this.values.put(observation.getObservable(), observation.getValues());
+        this.issues = new Issues(classification.getIssues());
+        try {
+            this.hints = classification.getHints().clone();
+        } catch (CloneNotSupportedException ex) {
+            throw new InferenceException("Unable to copy hints", ex);
+        }
+        this.options = options;
+    }
+}
@@ -88,4 +88,21 @@ public class MatchOptions {
      */
     @Builder.Default
     TraceLevel trace = TraceLevel.NONE;
+    /**
+     * The time limit for a match, in milliseconds.
+     * <p>
+     * If the time limit is exceeded, the best match found so far is returned,
+     * flagged with {@link au.org.ala.vocab.BayesianTerm#searchTimeout}.
+     * Zero or less means no time limit.
+     * </p>
+     * <p>
+     * The limit is a soft limit.
+     * It is checked before each search, inference and modification but work that has already
+     * started is not interrupted.
+     * In particular, resolving accepted taxa and annotating the matches for a set of candidates
+     * runs to completion, so a match can take longer than the limit by that amount.
+     * </p>
+     */
+    @Builder.Default
+    long timeout = 0;
 }
@@ -31,6 +31,9 @@ import java.util.stream.Collectors;
 abstract public class MatchTool<C extends Classification<C>, I extends Inferencer<C>, F extends NetworkFactory<C, I, F>, M extends MatchMeasurement> implements AutoCloseable {
     private static final Logger logger = LoggerFactory.getLogger(MatchTool.class);
 
+    /** The number of checks to match in a single batch */
+    protected static final int BATCH_SIZE = 1000;
+
     protected F factory;
     protected ClassificationMatcher<C, I, F, M> matcher;
     protected List<BiConsumer<String[], Check>> inputs;
@@ -78,11 +81,20 @@ abstract public class MatchTool<C extends Classification<C>, I extends Inference
         String[] inputHeaders = this.readInputs();
         this.buildTranslator(inputHeaders);
         this.writeHeader();
+        List<Check> checks = new ArrayList<>(BATCH_SIZE);
         Check check;
-        while ((check = this.nextCheck()) != null) {
-            Match<C, M> match = this.matcher.findMatch(check.classification.clone(), MatchOptions.ALL);
-            this.writeResult(check, match);
-        }
+        do {
+            check = this.nextCheck();
+            if (check != null)
+                checks.add(check);
+            if (checks.size() >= BATCH_SIZE || (check == null && !checks.isEmpty())) {
+                List<C> classifications = checks.stream().map(c -> c.classification.clone()).collect(Collectors.toList());
+                List<Match<C, M>> matches = this.matcher.findMatches(classifications, MatchOptions.ALL);
+                for (int i = 0; i < checks.size(); i++)
+                    this.writeResult(checks.get(i), matches.get(i));
+                checks.clear();
+            }
+        } while (check != null);
         this.writeFooter();
         this.close();
     }
@@ -0,0 +1,108 @@
+package au.org.ala.bayesian;
+
+import java.util.Arrays;
+
+/**
+ * Tri-state evidence packed into an array of longs.
+ * <p>
+ * Each piece of evidence can be true, false or unknown (null).
+ * Inference only needs to know whether the evidence permits a true value and
+ * whether it permits a false value, so each piece of evidence is held as a pair of bits:
+ * a T bit, set for true or unknown evidence, and an F bit, set for false or unknown evidence.
+ * Evidence is indexed by position, with 64 pieces of evidence to a pair of words.
+ * The T bits for a block of 64 are held in the even word and the F bits in the following odd word.
+ * </p>
+ * <p>
+ * Packed evidence arrays can be reused, since {@link #set(long[], int, Boolean)} overwrites
+ * both bits of the evidence.
+ * This allows generated inferencers to evaluate evidence without allocating objects
+ * for each candidate.
+ * </p>
+ */
+public class PackedEvidence {
+    /** Prevent instantiation */
+    private PackedEvidence() {
+    }
+
+    /**
+     * Create a packed evidence array with all evidence unknown.
+     *
+     * @param size The number of pieces of evidence
+     *
+     * @return A suitably sized array
+     */
+    public static long[] create(int size) {
+        long[] evidence = new long[((size + 63) >>> 6) << 1];
+        clear(evidence);
+        return evidence;
+    }
+
+    /**
+     * Set all evidence to unknown.
+     *
+     * @param evidence The packed evidence
+     */
+    public static void clear(long[] evidence) {
+        Arrays.fill(evidence, -1L);
+    }
+
+    /**
+     * Set a piece of evidence.
+     *
+     * @param evidence The packed evidence
+     * @param index The evidence index
+     * @param value The value, true, false or null for unknown
+     */
+    public static void set(long[] evidence, int index, Boolean value) {
+        final int word = (index >>> 6) << 1;
+        final long bit = 1L << index; // Shift is implicitly modulo 64
+        if (value == null) {
+            evidence[word] |= bit;
+            evidence[word + 1] |= bit;
+        } else if (value) {
+            evidence[word] |= bit;
+            evidence[word + 1] &= ~bit;
+        } else {
+            evidence[word] &= ~bit;
+            evidence[word + 1] |= bit;
+        }
+    }
+
+    /**
+     * Get a piece of evidence as a value.
+     *
+     * @param evidence The packed evidence
+     * @param index The evidence index
+     *
+     * @return True, false or null for unknown
+     */
+    public static Boolean get(long[] evidence, int index) {
+        final boolean t = isT(evidence, index);
+        final boolean f = isF(evidence, index);
+        return t == f ? null : Boolean.valueOf(t);
+    }
+
+    /**
+     * Does a piece of evidence permit a true value?
+     *
+     * @param evidence The packed evidence
+     * @param index The evidence index
+     *
+     * @return True if the evidence is true or unknown
+     */
+    public static boolean isT(long[] evidence, int index) {
+        return (evidence[(index >>> 6) << 1] & (1L << index)) != 0L;
+    }
+
+    /**
+     * Does a piece of evidence permit a false value?
+     *
+     * @param evidence The packed evidence
+     * @param index The evidence index
+     *
+     * @return True if the evidence is false or unknown
+     */
+    public static boolean isF(long[] evidence, int index) {
+        return (evidence[((index >>> 6) << 1) + 1] & (1L << index)) != 0L;
+    }
+}
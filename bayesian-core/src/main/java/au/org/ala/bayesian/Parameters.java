@@ -1,12 +1,22 @@
 package au.org.ala.bayesian;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
 
 /**
  * Base class for generated parameters classes.
  *
  */
 public interface Parameters {
+    /** The little-endian marker at the start of a compact parameter encoding, "BP". Serialized encodings start with 0xACED */
+    short COMPACT_MAGIC = 0x5042;
+    /** The current version of the compact encoding */
+    byte COMPACT_VERSION = 1;
+    /** The size of the compact encoding header */
+    int COMPACT_HEADER_SIZE = 8;
+
     /**
      * Load a vector of parameters into the parameter set.
      * <p>
@@ -27,14 +37,47 @@ public interface Parameters {
      *
      * @throws IOException if unable to read
      *
-     * @see #storeAsBytes()
+     * @see #loadFromBytes(byte[], int, int)
      */
     default void loadFromBytes(byte[] vector) throws IOException {
-        ByteArrayInputStream is = new ByteArrayInputStream(vector);
+        this.loadFromBytes(vector, 0, vector.length);
+    }
+
+    /**
+     * Load an encoded set of doubles from a region of an array of bytes.
+     * <p>
+     * Both the compact encoding produced by {@link #storeAsCompactBytes()} and the
+     * legacy serialized encoding produced by {@link #storeAsBytes()} can be read.
+     * The compact encoding is read directly from the array via a little-endian double buffer view.
+     * </p>
+     *
+     * @param vector The bytes to read
+     * @param offset The start of the encoded parameters
+     * @param length The length of the encoded parameters
+     *
+     * @throws IOException if unable to read
+     */
+    default void loadFromBytes(byte[] vector, int offset, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(vector, offset, length).order(ByteOrder.LITTLE_ENDIAN);
+        if (length >= COMPACT_HEADER_SIZE && buffer.getShort(offset) == COMPACT_MAGIC) {
+            byte version = buffer.get(offset + 2);
+            if (version != COMPACT_VERSION)
+                throw new IOException("Unsupported parameter encoding version " + version);
+            int size = buffer.getInt(offset + 4);
+            if (size < 0 || size > (length - COMPACT_HEADER_SIZE) / Double.BYTES)
+                throw new IOException("Invalid parameter vector size " + size);
+            buffer.position(offset + COMPACT_HEADER_SIZE);
+            DoubleBuffer doubles = buffer.asDoubleBuffer();
+            double[] values = new double[size];
+            doubles.get(values);
+            this.load(values);
+            return;
+        }
+        ByteArrayInputStream is = new ByteArrayInputStream(vector, offset, length);
         ObjectInputStream os = new ObjectInputStream(is);
-        int length = os.readInt();
-        double[] values = new double[length];
-        for (int i = 0; i < length; i++)
+        int size = os.readInt();
+        double[] values = new double[size];
+        for (int i = 0; i < size; i++)
             values[i] = os.readDouble();
         os.close();
         this.load(values);
@@ -65,6 +108,7 @@ public interface Parameters {
      * @throws IOException if unable to write
      *
      * @see #loadFromBytes(byte[])
+     * @see #storeAsCompactBytes()
      */
     default byte[] storeAsBytes() throws IOException {
         double[] values = this.store();
@@ -77,4 +121,29 @@ public interface Parameters {
         os.close();
         return bytes.toByteArray();
     }
- }
+
+    /**
+     * Produces a compact encoding of the parameters.
+     * <p>
+     * The encoding is a {@link #COMPACT_HEADER_SIZE} byte header, consisting of the
+     * {@link #COMPACT_MAGIC} marker, a version byte, a reserved byte and a little-endian integer with the length of the array,
+     * followed by the parameters as little-endian doubles.
+     * The doubles are aligned on an 8 byte boundary, so that they can be read via a double buffer view.
+     * </p>
+     *
+     * @return A byte array with the encoded result.
+     *
+     * @see #loadFromBytes(byte[], int, int)
+     */
+    default byte[] storeAsCompactBytes() {
+        double[] values = this.store();
+        byte[] bytes = new byte[COMPACT_HEADER_SIZE + values.length * Double.BYTES];
+        ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putShort(COMPACT_MAGIC);
+        buffer.put(COMPACT_VERSION);
+        buffer.put((byte) 0);
+        buffer.putInt(values.length);
+        buffer.asDoubleBuffer().put(values);
+        return bytes;
+    }
+}
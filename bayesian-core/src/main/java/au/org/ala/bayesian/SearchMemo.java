@@ -0,0 +1,259 @@
+package au.org.ala.bayesian;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import org.gbif.dwc.terms.Term;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Memoised searches and inferences for a single match request.
+ * <p>
+ * A match request explores source, hint and match modifications of the original template.
+ * Different modification paths can arrive at a classification with the same observations,
+ * and therefore the same search query and the same evidence for each candidate.
+ * The memo records the candidates and inference results for each distinct set of observations,
+ * so that repeated paths reuse the earlier work.
+ * </p>
+ * <p>
+ * The memo also enforces a cap on the number of distinct searches and inferences
+ * for a request. Once a cap is reached, the memo is marked as limited and
+ * the matcher stops exploring modifications.
+ * Similarly, if the request has a time limit, the memo is marked as expired once the
+ * deadline has passed.
+ * The deadline is only checked when the matcher asks whether it can continue,
+ * so work that is already under way, such as resolving and annotating a set of matches, is not cut short.
+ * </p>
+ * <p>
+ * Memos are not thread-safe; they are intended to be confined to a single match request.
+ * </p>
+ */
+public class SearchMemo {
+    /** The maximum number of distinct searches, zero or less for no limit */
+    private final int maxSearches;
+    /** The maximum number of distinct inferences, zero or less for no limit */
+    private final int maxInferences;
+    /** Does this memo have a deadline? */
+    private final boolean timed;
+    /** The deadline, in terms of {@link System#nanoTime()} */
+    private final long deadline;
+    /** The candidates retrieved for each key */
+    private final Map<Key, List<? extends Classifier>> candidates;
+    /** The inferences made for each key and candidate */
+    private final Map<Key, Map<Classifier, Inference>> inferences;
+    /** The number of distinct searches */
+    @Getter
+    private int searchCount;
+    /** The number of searches satisfied from the memo */
+    @Getter
+    private int searchHits;
+    /** The number of distinct inferences */
+    @Getter
+    private int inferenceCount;
+    /** The number of inferences satisfied from the memo */
+    @Getter
+    private int inferenceHits;
+    /** Has a cap been reached? */
+    @Getter
+    private boolean limited;
+    /** Has the deadline passed? */
+    @Getter
+    private boolean expired;
+
+    /**
+     * Construct with limits.
+     *
+     * @param maxSearches The maximum number of distinct searches, zero or less for no limit
+     * @param maxInferences The maximum number of distinct inferences, zero or less for no limit
+     */
+    public SearchMemo(int maxSearches, int maxInferences) {
+        this(maxSearches, maxInferences, 0);
+    }
+
+    /**
+     * Construct with limits and a time limit.
+     * <p>
+     * The deadline is measured from construction.
+     * </p>
+     *
+     * @param maxSearches The maximum number of distinct searches, zero or less for no limit
+     * @param maxInferences The maximum number of distinct inferences, zero or less for no limit
+     * @param timeout The time limit in milliseconds, zero or less for no limit
+     */
+    public SearchMemo(int maxSearches, int maxInferences, long timeout) {
+        this.maxSearches = maxSearches;
+        this.maxInferences = maxInferences;
+        this.timed = timeout > 0;
+        this.deadline = this.timed ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout) : 0;
+        this.candidates = new HashMap<>();
+        this.inferences = new HashMap<>();
+        this.searchCount = 0;
+        this.searchHits = 0;
+        this.inferenceCount = 0;
+        this.inferenceHits = 0;
+        this.limited = false;
+        this.expired = false;
+    }
+
+    /**
+     * Check to see whether the deadline has passed.
+     *
+     * @return True if the deadline has passed
+     */
+    private boolean checkDeadline() {
+        if (this.timed && !this.expired && System.nanoTime() - this.deadline >= 0)
+            this.expired = true;
+        return this.expired;
+    }
+
+    /**
+     * Should the matcher stop exploring possibilities?
+     * <p>
+     * This checks the deadline and marks the memo as expired if it has passed.
+     * </p>
+     *
+     * @return True if either a cap has been reached or the deadline has passed
+     */
+    public boolean isStopped() {
+        return this.checkDeadline() || this.limited;
+    }
+
+    /**
+     * Get the time remaining before the deadline.
+     *
+     * @return The remaining time in milliseconds (at least one), or zero for no time limit
+     */
+    public long getRemaining() {
+        if (!this.timed)
+            return 0;
+        return Math.max(1, TimeUnit.NANOSECONDS.toMillis(this.deadline - System.nanoTime()));
+    }
+
+    /**
+     * Build a key for a classification.
+     * <p>
+     * The key is a snapshot of the classification's type, name and observations,
+     * which is all that is used to build a search query or evidence.
+     * </p>
+     *
+     * @param classification The classification
+     *
+     * @return The key
+     */
+    public Key key(Classification<?> classification) {
+        return new Key(classification);
+    }
+
+    /**
+     * Get memoised candidates.
+     *
+     * @param key The classification key
+     *
+     * @return The candidates or null for not found
+     */
+    public List<? extends Classifier> getCandidates(Key key) {
+        List<? extends Classifier> found = this.candidates.get(key);
+        if (found != null)
+            this.searchHits++;
+        return found;
+    }
+
+    /**
+     * Can another search be made?
+     * <p>
+     * If the search cap has been reached, the memo is marked as limited.
+     * If the deadline has passed, the memo is marked as expired.
+     * </p>
+     *
+     * @return True if a search can be made
+     */
+    public boolean canSearch() {
+        if (this.maxSearches > 0 && this.searchCount >= this.maxSearches)
+            this.limited = true;
+        return !this.isStopped();
+    }
+
+    /**
+     * Record the candidates for a search.
+     *
+     * @param key The classification key
+     * @param found The candidates
+     */
+    public void putCandidates(Key key, List<? extends Classifier> found) {
+        this.searchCount++;
+        this.candidates.put(key, found);
+    }
+
+    /**
+     * Get a memoised inference.
+     *
+     * @param key The classification key
+     * @param candidate The candidate
+     *
+     * @return The inference or null for not found
+     */
+    public Inference getInference(Key key, Classifier candidate) {
+        Map<Classifier, Inference> found = this.inferences.get(key);
+        Inference inference = found == null ? null : found.get(candidate);
+        if (inference != null)
+            this.inferenceHits++;
+        return inference;
+    }
+
+    /**
+     * Can another inference be made?
+     * <p>
+     * If the inference cap has been reached, the memo is marked as limited.
+     * If the deadline has passed, the memo is marked as expired.
+     * </p>
+     *
+     * @return True if an inference can be made
+     */
+    public boolean canInfer() {
+        if (this.maxInferences > 0 && this.inferenceCount >= this.maxInferences)
+            this.limited = true;
+        return !this.isStopped();
+    }
+
+    /**
+     * Record an inference.
+     * <p>
+     * Candidates are recorded by identity, since the same candidate list
+     * is reused for memoised searches.
+     * </p>
+     *
+     * @param key The classification key
+     * @param candidate The candidate
+     * @param inference The inference
+     */
+    public void putInference(Key key, Classifier candidate, Inference inference) {
+        this.inferenceCount++;
+        this.inferences.computeIfAbsent(key, k -> new IdentityHashMap<>()).put(candidate, inference);
+    }
+
+    /**
+     * The search-relevant parts of a classification.
+     */
+    @EqualsAndHashCode
+    public static class Key {
+        /** The classification type */
+        private final Term type;
+        /** The classification name */
+        private final String name;
+        /** The observed values */
+        private final Map<Observable<?>, Set<?>> values;
+
+        private Key(Classification<?> classification) {
+            this.type = classification.getType();
+            this.name = classification.getName();
+            this.values = new HashMap<>();
+            for (Observation<?> observation: classification.toObservations())
+                this.values.put(observation.getObservable(), observation.getValues());
+        }
+    }
+}
@@ -67,6 +67,10 @@ public enum BayesianTerm implements Term {
     invalidMatch,
     /** Issue flagging that the match is based on identifier lookup */
     identifierMatch,
+    /** Issue flagging that the search was stopped early after reaching the search limit. The match may have been chosen from some of the candidates */
+    searchLimit,
+    /** Issue flagging that the search was stopped early after exceeding the match time limit */
+    searchTimeout,
     /** Default concept type */
     Concept,
     /** Record type describing document metadata */
@@ -0,0 +1,77 @@
+package au.org.ala.bayesian;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PackedEvidenceTest {
+    @Test
+    public void testCreate1() {
+        long[] evidence = PackedEvidence.create(3);
+        assertEquals(2, evidence.length);
+        assertNull(PackedEvidence.get(evidence, 0));
+        assertTrue(PackedEvidence.isT(evidence, 2));
+        assertTrue(PackedEvidence.isF(evidence, 2));
+    }
+
+    @Test
+    public void testCreate2() {
+        assertEquals(2, PackedEvidence.create(64).length);
+        assertEquals(4, PackedEvidence.create(65).length);
+    }
+
+    @Test
+    public void testSet1() {
+        long[] evidence = PackedEvidence.create(3);
+        PackedEvidence.set(evidence, 0, true);
+        PackedEvidence.set(evidence, 1, false);
+        PackedEvidence.set(evidence, 2, null);
+        assertEquals(Boolean.TRUE, PackedEvidence.get(evidence, 0));
+        assertTrue(PackedEvidence.isT(evidence, 0));
+        assertFalse(PackedEvidence.isF(evidence, 0));
+        assertEquals(Boolean.FALSE, PackedEvidence.get(evidence, 1));
+        assertFalse(PackedEvidence.isT(evidence, 1));
+        assertTrue(PackedEvidence.isF(evidence, 1));
+        assertNull(PackedEvidence.get(evidence, 2));
+        assertTrue(PackedEvidence.isT(evidence, 2));
+        assertTrue(PackedEvidence.isF(evidence, 2));
+    }
+
+    // Reuse overwrites previous values
+    @Test
+    public void testSet2() {
+        long[] evidence = PackedEvidence.create(2);
+        PackedEvidence.set(evidence, 0, true);
+        PackedEvidence.set(evidence, 1, false);
+        PackedEvidence.set(evidence, 0, false);
+        PackedEvidence.set(evidence, 1, null);
+        assertEquals(Boolean.FALSE, PackedEvidence.get(evidence, 0));
+        assertNull(PackedEvidence.get(evidence, 1));
+        PackedEvidence.set(evidence, 0, true);
+        assertEquals(Boolean.TRUE, PackedEvidence.get(evidence, 0));
+    }
+
+    // Evidence beyond the first word
+    @Test
+    public void testSet3() {
+        long[] evidence = PackedEvidence.create(130);
+        PackedEvidence.set(evidence, 1, true);
+        PackedEvidence.set(evidence, 65, false);
+        PackedEvidence.set(evidence, 129, true);
+        assertEquals(Boolean.TRUE, PackedEvidence.get(evidence, 1));
+        assertEquals(Boolean.FALSE, PackedEvidence.get(evidence, 65));
+        assertEquals(Boolean.TRUE, PackedEvidence.get(evidence, 129));
+        assertNull(PackedEvidence.get(evidence, 64));
+        assertNull(PackedEvidence.get(evidence, 128));
+    }
+
+    @Test
+    public void testClear1() {
+        long[] evidence = PackedEvidence.create(2);
+        PackedEvidence.set(evidence, 0, true);
+        PackedEvidence.set(evidence, 1, false);
+        PackedEvidence.clear(evidence);
+        assertNull(PackedEvidence.get(evidence, 0));
+        assertNull(PackedEvidence.get(evidence, 1));
+    }
+}
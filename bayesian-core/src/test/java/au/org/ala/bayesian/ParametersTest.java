@@ -3,6 +3,8 @@ package au.org.ala.bayesian;
 import au.org.ala.util.TestUtils;
 import org.junit.Test;
 
+import java.io.IOException;
+
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
@@ -79,6 +81,49 @@ public class ParametersTest {
         assertEquals(0.01, parameters.inf_t_ff$wet, 0.001);
     }
 
+    @Test
+    public void testStoreAsCompactBytes1() throws Exception {
+        GrassParameters parameters = new GrassParameters();
+        parameters.load(new double[] { 0.2, 0.01, 0.4, 0.99, 0.8, 0.9, 0.01 });
+        byte[] values = parameters.storeAsCompactBytes();
+        assertEquals(64, values.length);
+        assertEquals('B', values[0]);
+        assertEquals('P', values[1]);
+        assertEquals(Parameters.COMPACT_VERSION, values[2]);
+        assertEquals(7, values[4]);
+    }
+
+    @Test
+    public void testLoadFromCompactStore1() throws Exception {
+        GrassParameters parameters1 = new GrassParameters();
+        parameters1.load(new double[] { 0.2, 0.01, 0.4, 0.99, 0.8, 0.9, 0.01 });
+        GrassParameters parameters2 = new GrassParameters();
+        parameters2.loadFromBytes(parameters1.storeAsCompactBytes());
+        assertArrayEquals(parameters1.store(), parameters2.store(), 0.0);
+        assertEquals(0.99, parameters2.inf_f_t$sprinkler, 0.001);
+    }
+
+    @Test
+    public void testLoadFromCompactStore2() throws Exception {
+        GrassParameters parameters1 = new GrassParameters();
+        parameters1.load(new double[] { 0.2, 0.01, 0.4, 0.99, 0.8, 0.9, 0.01 });
+        byte[] encoded = parameters1.storeAsCompactBytes();
+        byte[] padded = new byte[encoded.length + 5];
+        System.arraycopy(encoded, 0, padded, 3, encoded.length);
+        GrassParameters parameters2 = new GrassParameters();
+        parameters2.loadFromBytes(padded, 3, encoded.length);
+        assertArrayEquals(parameters1.store(), parameters2.store(), 0.0);
+    }
+
+    @Test(expected = IOException.class)
+    public void testLoadFromCompactStore3() throws Exception {
+        GrassParameters parameters1 = new GrassParameters();
+        parameters1.load(new double[] { 0.2, 0.01, 0.4, 0.99, 0.8, 0.9, 0.01 });
+        byte[] encoded = parameters1.storeAsCompactBytes();
+        GrassParameters parameters2 = new GrassParameters();
+        parameters2.loadFromBytes(encoded, 0, encoded.length - Double.BYTES);
+    }
+
     // A test class for the parameters load/store
     public static class GrassParameters implements Parameters {
         public double prior_t$rain; // rain prior probability
@@ -0,0 +1,124 @@
+package au.org.ala.bayesian;
+
+import au.org.ala.vocab.BayesianTerm;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SearchMemoTest {
+    private static Classifier createClassifier() {
+        return (Classifier) Proxy.newProxyInstance(SearchMemoTest.class.getClassLoader(), new Class<?>[] { Classifier.class }, (proxy, method, args) -> {
+            if (method.getName().equals("equals"))
+                return proxy == args[0];
+            if (method.getName().equals("hashCode"))
+                return System.identityHashCode(proxy);
+            return null;
+        });
+    }
+
+    @Test
+    public void testKey1() {
+        SearchMemo memo = new SearchMemo(0, 0);
+        TestClassification classification1 = new TestClassification();
+        classification1.scientificName = "Acacia dealbata";
+        classification1.class_ = "Equisetopsida";
+        TestClassification classification2 = classification1.clone();
+        classification2.addIssue(BayesianTerm.illformedData);
+        assertEquals(memo.key(classification1), memo.key(classification2));
+        classification2.class_ = null;
+        assertNotEquals(memo.key(classification1), memo.key(classification2));
+    }
+
+    @Test
+    public void testCandidates1() {
+        SearchMemo memo = new SearchMemo(0, 0);
+        TestClassification classification1 = new TestClassification();
+        classification1.scientificName = "Acacia dealbata";
+        TestClassification classification2 = classification1.clone();
+        List<Classifier> candidates = Arrays.asList(createClassifier());
+        SearchMemo.Key key1 = memo.key(classification1);
+        assertNull(memo.getCandidates(key1));
+        assertTrue(memo.canSearch());
+        memo.putCandidates(key1, candidates);
+        assertSame(candidates, memo.getCandidates(memo.key(classification2)));
+        assertEquals(1, memo.getSearchCount());
+        assertEquals(1, memo.getSearchHits());
+        assertFalse(memo.isLimited());
+    }
+
+    @Test
+    public void testCandidates2() {
+        SearchMemo memo = new SearchMemo(1, 0);
+        TestClassification classification1 = new TestClassification();
+        classification1.scientificName = "Acacia dealbata";
+        TestClassification classification2 = new TestClassification();
+        classification2.scientificName = "Acacia";
+        assertTrue(memo.canSearch());
+        memo.putCandidates(memo.key(classification1), Collections.emptyList());
+        assertFalse(memo.isLimited());
+        assertNull(memo.getCandidates(memo.key(classification2)));
+        assertFalse(memo.canSearch());
+        assertTrue(memo.isLimited());
+    }
+
+    @Test
+    public void testInference1() {
+        SearchMemo memo = new SearchMemo(0, 0);
+        TestClassification classification = new TestClassification();
+        classification.scientificName = "Acacia dealbata";
+        Classifier candidate1 = createClassifier();
+        Classifier candidate2 = createClassifier();
+        Inference inference = Inference.forPEC(0.1, 0.2, 0.5);
+        SearchMemo.Key key = memo.key(classification);
+        assertNull(memo.getInference(key, candidate1));
+        assertTrue(memo.canInfer());
+        memo.putInference(key, candidate1, inference);
+        assertSame(inference, memo.getInference(memo.key(classification.clone()), candidate1));
+        assertNull(memo.getInference(key, candidate2));
+        assertEquals(1, memo.getInferenceCount());
+        assertEquals(1, memo.getInferenceHits());
+    }
+
+    @Test
+    public void testInference2() {
+        SearchMemo memo = new SearchMemo(0, 2);
+        TestClassification classification = new TestClassification();
+        classification.scientificName = "Acacia dealbata";
+        SearchMemo.Key key = memo.key(classification);
+        assertTrue(memo.canInfer());
+        memo.putInference(key, createClassifier(), Inference.forPEC(0.1, 0.2, 0.5));
+        assertTrue(memo.canInfer());
+        memo.putInference(key, createClassifier(), Inference.forPEC(0.1, 0.2, 0.5));
+        assertFalse(memo.canInfer());
+        assertTrue(memo.isLimited());
+        assertFalse(memo.canSearch());
+    }
+
+    @Test
+    public void testTimeout1() {
+        SearchMemo memo = new SearchMemo(0, 0);
+        assertEquals(0, memo.getRemaining());
+        assertTrue(memo.canSearch());
+        assertFalse(memo.isStopped());
+        assertFalse(memo.isExpired());
+    }
+
+    @Test
+    public void testTimeout2() throws Exception {
+        SearchMemo memo = new SearchMemo(0, 0, 5);
+        assertTrue(memo.getRemaining() > 0);
+        Thread.sleep(20);
+        assertTrue(memo.isStopped());
+        assertTrue(memo.isExpired());
+        assertFalse(memo.canSearch());
+        assertFalse(memo.canInfer());
+        assertTrue(memo.isExpired());
+        assertTrue(memo.isStopped());
+        assertFalse(memo.isLimited());
+    }
+}
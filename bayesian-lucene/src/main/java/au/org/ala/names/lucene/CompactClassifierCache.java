@@ -0,0 +1,374 @@
+package au.org.ala.names.lucene;
+
+import au.org.ala.bayesian.ExternalContext;
+import au.org.ala.bayesian.Observable;
+import au.org.ala.bayesian.Parameters;
+import lombok.Getter;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.util.BytesRef;
+import org.cache2k.Cache2kBuilder;
+import org.cache2k.IntCache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A compact cache of classifiers, keyed by lucene document number.
+ * <p>
+ * Rather than holding complete classifiers, with their lucene documents, the cache
+ * holds the stored fields of each document packed into a single byte array, using the
+ * same encoding as the doc value columns of {@link LuceneDocValuesClassifier}.
+ * If a set of fields is supplied, only those fields are packed.
+ * This is usually the internal classifier fields, such as the parameters and trail,
+ * along with the fields for the observables that the matcher reads.
+ * Fields are decoded from the packed data each time they are asked for, so that an entry
+ * stays the same size however often it is used.
+ * Only the inference parameters, which are plain numbers, are kept once decoded.
+ * </p>
+ * <p>
+ * Classifiers can be modified, so each retrieval returns a new, lightweight, {@link LuceneCompactClassifier}
+ * view of the shared, immutable, entry.
+ * </p>
+ * <p>
+ * Entries are held in a cache2k cache keyed by the primitive document number,
+ * which evicts the least valuable entries when full.
+ * Two threads may load the same document at the same time, in which case the
+ * last one to finish wins.
+ * </p>
+ */
+public class CompactClassifierCache implements AutoCloseable {
+    /** The minimum number of entries */
+    private static final int MIN_CAPACITY = 16;
+
+    /** The entries */
+    private final IntCache<Entry> entries;
+    /** The maximum number of entries */
+    private final int capacity;
+    /** The source of classifiers not in the cache */
+    private final Loader loader;
+    /** The stored fields to pack into an entry, null for all stored fields */
+    private final Set<String> fields;
+    /** The number of cache hits */
+    private final AtomicLong hits = new AtomicLong();
+    /** The number of cache misses */
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Construct a cache.
+     *
+     * @param capacity The maximum number of entries
+     * @param loader The source of classifiers that are not in the cache
+     * @param fields The stored fields to keep in each entry, null for all stored fields
+     */
+    public CompactClassifierCache(int capacity, Loader loader, Set<String> fields) {
+        this.capacity = Math.max(MIN_CAPACITY, capacity);
+        this.entries = Cache2kBuilder.of(Integer.class, Entry.class)
+                .entryCapacity(this.capacity)
+                .buildForIntKey();
+        this.loader = loader;
+        this.fields = fields;
+    }
+
+    /**
+     * Construct a cache that keeps all stored fields.
+     *
+     * @param capacity The maximum number of entries
+     * @param loader The source of classifiers that are not in the cache
+     */
+    public CompactClassifierCache(int capacity, Loader loader) {
+        this(capacity, loader, null);
+    }
+
+    /**
+     * Get the stored fields to keep in entries for classifiers that are read as a set of observables.
+     * <p>
+     * These are the internal classifier fields, such as the parameters and trail,
+     * along with the fields for each observable.
+     * </p>
+     *
+     * @param observables The observables read from candidates, null for all stored fields
+     *
+     * @return The field names, or null for all stored fields
+     */
+    public static Set<String> fieldsFor(Collection<Observable<?>> observables) {
+        if (observables == null)
+            return null;
+        Set<String> fields = new HashSet<>(Arrays.asList(
+                LuceneClassifier.ID_FIELD,
+                LuceneClassifier.TYPE_FIELD,
+                LuceneClassifier.NAMES_FIELD,
+                LuceneClassifier.ANNOTATION_FIELD,
+                LuceneClassifier.PARAMETERS_FIELD,
+                LuceneClassifier.INDEX_FIELD,
+                LuceneClassifier.SIGNATURE_FIELD,
+                LuceneClassifier.TRAIL_FIELD
+        ));
+        for (Observable<?> observable: observables) {
+            fields.add(observable.getExternal(ExternalContext.LUCENE));
+            fields.add(observable.getExternal(ExternalContext.LUCENE_VARIANT));
+        }
+        return fields;
+    }
+
+    /**
+     * Get the maximum number of entries in the cache.
+     *
+     * @return The capacity
+     */
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    /**
+     * Get the number of entries in the cache.
+     *
+     * @return The number of cached entries
+     */
+    public int size() {
+        return this.entries.asMap().size();
+    }
+
+    /**
+     * Get the number of cache hits.
+     *
+     * @return The hit count
+     */
+    public long getHits() {
+        return this.hits.get();
+    }
+
+    /**
+     * Get the number of cache misses.
+     *
+     * @return The miss count
+     */
+    public long getMisses() {
+        return this.misses.get();
+    }
+
+    /**
+     * Get a classifier for a document.
+     *
+     * @param doc The document number
+     *
+     * @return A classifier for the document
+     *
+     * @throws IOException if unable to load the document
+     */
+    public LuceneClassifier get(int doc) throws IOException {
+        Entry entry = this.entries.peek(doc);
+        if (entry != null) {
+            this.hits.incrementAndGet();
+        } else {
+            this.misses.incrementAndGet();
+            LuceneClassifier classifier = this.loader.load(doc);
+            entry = Entry.of(doc, classifier.getDocument(), this.fields);
+            this.entries.put(doc, entry);
+        }
+        return new LuceneCompactClassifier(entry, this.loader);
+    }
+
+    /**
+     * Empty the cache.
+     */
+    public void clear() {
+        this.entries.clear();
+    }
+
+    /**
+     * Close the cache, releasing the entries.
+     */
+    @Override
+    public void close() {
+        this.entries.close();
+    }
+
+    /**
+     * The source of classifiers for the cache.
+     */
+    @FunctionalInterface
+    public interface Loader {
+        /**
+         * Load a classifier for a document.
+         *
+         * @param doc The document number
+         *
+         * @return The classifier
+         *
+         * @throws IOException if unable to load the document
+         */
+        LuceneClassifier load(int doc) throws IOException;
+    }
+
+    /**
+     * A compacted document.
+     * <p>
+     * The values for each field name are encoded as a run in a single data array.
+     * An entry may only hold some of the stored fields of the document,
+     * in which case it is not complete.
+     * Decoded parameters are kept once they have been decoded.
+     * </p>
+     */
+    public static class Entry {
+        /** An empty field list */
+        private static final IndexableField[] EMPTY = new IndexableField[0];
+
+        /** The document number */
+        @Getter
+        private final int doc;
+        /** The field names */
+        private final String[] names;
+        /** The start of each field's values in the data, with a final end offset */
+        private final int[] offsets;
+        /** The encoded values */
+        private final byte[] data;
+        /** Does this entry hold all the stored fields of the document? */
+        @Getter
+        private final boolean complete;
+        /** The decoded parameters, if they have been decoded */
+        @Getter
+        private volatile Parameters parameters;
+
+        /**
+         * Construct an entry.
+         *
+         * @param doc The document number
+         * @param names The field names
+         * @param offsets The field offsets
+         * @param data The encoded field values
+         * @param complete True if the entry holds all the stored fields
+         */
+        protected Entry(int doc, String[] names, int[] offsets, byte[] data, boolean complete) {
+            this.doc = doc;
+            this.names = names;
+            this.offsets = offsets;
+            this.data = data;
+            this.complete = complete;
+            this.parameters = null;
+        }
+
+        /**
+         * Build an entry from all the stored fields of a document.
+         *
+         * @param doc The document number
+         * @param document The document
+         *
+         * @return The compacted entry
+         */
+        public static Entry of(int doc, Document document) {
+            return of(doc, document, null);
+        }
+
+        /**
+         * Build an entry from some of the stored fields of a document.
+         *
+         * @param doc The document number
+         * @param document The document
+         * @param fields The fields to keep, null for all stored fields
+         *
+         * @return The compacted entry
+         */
+        public static Entry of(int doc, Document document, Set<String> fields) {
+            Map<String, List<IndexableField>> stored = new LinkedHashMap<>();
+            boolean complete = true;
+            for (IndexableField field: document) {
+                if (!field.fieldType().stored())
+                    continue;
+                if (fields != null && !fields.contains(field.name()))
+                    complete = false;
+                else
+                    stored.computeIfAbsent(field.name(), n -> new ArrayList<>()).add(field);
+            }
+            String[] names = new String[stored.size()];
+            int[] offsets = new int[names.length + 1];
+            ByteArrayOutputStream data = new ByteArrayOutputStream(names.length * 32);
+            int i = 0;
+            for (Map.Entry<String, List<IndexableField>> entry: stored.entrySet()) {
+                BytesRef encoded = LuceneDocValuesClassifier.encode(entry.getValue());
+                names[i] = entry.getKey();
+                offsets[i] = data.size();
+                data.write(encoded.bytes, encoded.offset, encoded.length);
+                i++;
+            }
+            offsets[i] = data.size();
+            return new Entry(doc, names, offsets, data.toByteArray(), complete);
+        }
+
+        /**
+         * Get the field names in this entry.
+         *
+         * @return The field names
+         */
+        public String[] getNames() {
+            return this.names.clone();
+        }
+
+        /**
+         * Does this entry hold values for a field?
+         * <p>
+         * If the entry is complete, then a field that is not held has no values.
+         * Otherwise, the field may have values in the original document.
+         * </p>
+         *
+         * @param name The field name
+         *
+         * @return True if the field is in the entry
+         */
+        public boolean contains(String name) {
+            return this.indexOf(name) >= 0;
+        }
+
+        /**
+         * Get the decoded fields with a particular name.
+         * <p>
+         * The fields are decoded from the packed data on each call.
+         * </p>
+         *
+         * @param name The field name
+         *
+         * @return The decoded fields, in the order they were added
+         *
+         * @throws IOException if unable to decode the values
+         */
+        public IndexableField[] getFields(String name) throws IOException {
+            int i = this.indexOf(name);
+            if (i < 0)
+                return EMPTY;
+            return LuceneDocValuesClassifier.decode(name, new BytesRef(this.data, this.offsets[i], this.offsets[i + 1] - this.offsets[i]));
+        }
+
+        /**
+         * Find the position of a field name.
+         *
+         * @param name The field name
+         *
+         * @return The position, or -1 for not found
+         */
+        private int indexOf(String name) {
+            for (int i = 0; i < this.names.length; i++) {
+                if (this.names[i].equals(name))
+                    return i;
+            }
+            return -1;
+        }
+
+        /**
+         * Remember the decoded parameters for this entry.
+         *
+         * @param parameters The parameters
+         */
+        protected void setParameters(Parameters parameters) {
+            this.parameters = parameters;
+        }
+    }
+}
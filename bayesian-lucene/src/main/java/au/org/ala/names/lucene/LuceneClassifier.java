@@ -23,6 +23,7 @@ import org.gbif.dwc.terms.TermFactory;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.function.Supplier;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -38,7 +39,8 @@ import static au.org.ala.bayesian.ExternalContext.LUCENE_VARIANT;
 @Slf4j
 @TraceDescriptor(identify = true, identifier = "getLabel", description = "getFullDescription", summary = "getSummaryDescription")
 public class LuceneClassifier implements Classifier {
-    public static Metadata LUCENE_METADATA;
+    /** The metadata describing the lucene classifier format, read once when the class is loaded */
+    public static final Metadata LUCENE_METADATA = readLuceneMetadata();
 
     /** The default field name for identifiers */
     public static final String ID_FIELD = "_id";
@@ -61,26 +63,17 @@ public class LuceneClassifier implements Classifier {
     /** The trail separator regular expression */
     public static final Pattern TRAIL_SEPARATOR_REGEX = Pattern.compile("\\|");
 
-    {
-        try {
-            LUCENE_METADATA = Metadata.read(LuceneClassifier.class.getResource("lucene-metadata.json"));
-        } catch (Exception ex) {
-            throw new IllegalStateException("No metadata for lucene classifiers", ex);
-        }
-    }
-
     /** The underlying lucene document */
-    @Getter
     @JsonIgnore
     private final Document document;
     /** Has this document been retrieved from a store (in which case it is hard ti store again */
     @Getter
     @JsonIgnore
     private final boolean retrieved;
-    /** The cached parameters */
+    /** The cached parameters. Volatile, since classifiers may be shared between threads by a searcher cache */
     @Getter
     @JsonIgnore
-    private Parameters cachedParameters;
+    private volatile Parameters cachedParameters;
 
     /**
      * Construct for an empty document
@@ -105,6 +98,19 @@ public class LuceneClassifier implements Classifier {
         this.cachedParameters = null;
     }
 
+    /**
+     * Read the lucene classifier metadata.
+     *
+     * @return The metadata
+     */
+    private static Metadata readLuceneMetadata() {
+        try {
+            return Metadata.read(LuceneClassifier.class.getResource("lucene-metadata.json"));
+        } catch (Exception ex) {
+            throw new IllegalStateException("No metadata for lucene classifiers", ex);
+        }
+    }
+
     /**
      * Make a copy of the document with all new fields.
      * <p>
@@ -119,7 +125,7 @@ public class LuceneClassifier implements Classifier {
      */
     public Document makeDocumentCopy() {
         Document copy = new Document();
-        for (IndexableField field: this.document) {
+        for (IndexableField field: this.getDocument()) {
             if (!field.fieldType().stored()) {
                 continue; // Assume added in by what is below
             }
@@ -175,6 +181,89 @@ public class LuceneClassifier implements Classifier {
         return copy;
     }
 
+    /**
+     * Get the underlying lucene document.
+     * <p>
+     * Modifications to the classifier are made to this document.
+     * </p>
+     *
+     * @return The document
+     */
+    @JsonIgnore
+    public Document getDocument() {
+        return this.document;
+    }
+
+    /**
+     * Get the fields with a particular name.
+     * <p>
+     * All reads of the underlying document go through this method,
+     * so that subclasses can supply field values from somewhere other than a stored document.
+     * </p>
+     *
+     * @param name The field name
+     *
+     * @return The fields, in the order they were added
+     */
+    protected IndexableField[] getFields(String name) {
+        return this.document.getFields(name);
+    }
+
+    /**
+     * Get the first field with a particular name.
+     *
+     * @param name The field name
+     *
+     * @return The first field or null for no such field
+     */
+    protected IndexableField getField(String name) {
+        IndexableField[] fields = this.getFields(name);
+        return fields.length == 0 ? null : fields[0];
+    }
+
+    /**
+     * Get the first string value of a field.
+     *
+     * @param name The field name
+     *
+     * @return The string value, or null for not found
+     */
+    protected String getValue(String name) {
+        for (IndexableField field: this.getFields(name)) {
+            String value = field.stringValue();
+            if (value != null)
+                return value;
+        }
+        return null;
+    }
+
+    /**
+     * Get the all string values of a field.
+     *
+     * @param name The field name
+     *
+     * @return The string values in the order they were added
+     */
+    protected String[] getValues(String name) {
+        return Arrays.stream(this.getFields(name)).map(IndexableField::stringValue).filter(Objects::nonNull).toArray(String[]::new);
+    }
+
+    /**
+     * Get the first binary value of a field.
+     *
+     * @param name The field name
+     *
+     * @return The binary value, or null for not found
+     */
+    protected BytesRef getBinaryValue(String name) {
+        for (IndexableField field: this.getFields(name)) {
+            BytesRef value = field.binaryValue();
+            if (value != null)
+                return value;
+        }
+        return null;
+    }
+
     /**
      * Does this classifier contain any non-variant information about this observable?
      *
@@ -184,7 +273,7 @@ public class LuceneClassifier implements Classifier {
      */
     @Override
     public boolean has(Observable observable) {
-        return this.document.getField(observable.getExternal(LUCENE)) != null;
+        return this.getField(observable.getExternal(LUCENE)) != null;
     }
 
     /**
@@ -196,7 +285,7 @@ public class LuceneClassifier implements Classifier {
      */
     @Override
     public boolean hasAny(Observable observable) {
-        return this.document.getField(observable.getExternal(LUCENE)) != null || this.document.getField(observable.getExternal(LUCENE_VARIANT)) != null;
+        return this.getField(observable.getExternal(LUCENE)) != null || this.getField(observable.getExternal(LUCENE_VARIANT)) != null;
     }
 
     /**
@@ -241,7 +330,7 @@ public class LuceneClassifier implements Classifier {
                 return null;
             boolean allNull = true;
             for (Observable observable: observables) {
-                IndexableField[] fields = this.document.getFields(observable.getExternal(variants && observable.getMultiplicity().isMany() ? LUCENE_VARIANT : LUCENE));
+                IndexableField[] fields = this.getFields(observable.getExternal(variants && observable.getMultiplicity().isMany() ? LUCENE_VARIANT : LUCENE));
                 if (fields.length == 0)
                     continue;
                 Analysis<T, C, Q, ?> analysis = observable.getAnalysis();
@@ -293,7 +382,7 @@ public class LuceneClassifier implements Classifier {
     @Override
     public <T> void add(Observable<T> observable, T value, boolean variant, boolean replace) throws StoreException {
         if (replace)
-            this.document.removeFields(observable.getExternal(LUCENE));
+            this.getDocument().removeFields(observable.getExternal(LUCENE));
         if (value == null)
             return;
         boolean index = !observable.hasProperty(BayesianTerm.index, false); // True by default
@@ -322,11 +411,11 @@ public class LuceneClassifier implements Classifier {
         if (!(classifier instanceof LuceneClassifier))
             throw new IllegalArgumentException("Expecting instnce of LuceneClassifier");
         String fieldName = observable.getExternal(LUCENE);
-        for (IndexableField field: ((LuceneClassifier) classifier).document.getFields(fieldName))
-            this.document.add(field);
+        for (IndexableField field: ((LuceneClassifier) classifier).getFields(fieldName))
+            this.getDocument().add(field);
         fieldName = observable.getExternal(LUCENE_VARIANT);
-        for (IndexableField field: ((LuceneClassifier) classifier).document.getFields(fieldName))
-            this.document.add(field);
+        for (IndexableField field: ((LuceneClassifier) classifier).getFields(fieldName))
+            this.getDocument().add(field);
     }
 
     /**
@@ -337,8 +426,8 @@ public class LuceneClassifier implements Classifier {
      */
     @Override
     public void clear(Observable observable) throws StoreException {
-        this.document.removeFields(observable.getExternal(LUCENE));
-        this.document.removeFields(observable.getExternal(LUCENE_VARIANT));
+        this.getDocument().removeFields(observable.getExternal(LUCENE));
+        this.getDocument().removeFields(observable.getExternal(LUCENE_VARIANT));
     }
 
     /**
@@ -349,7 +438,7 @@ public class LuceneClassifier implements Classifier {
      */
     @Override
     public <T> T get(Observable<T> observable) {
-        IndexableField field = this.document.getField(observable.getExternal(LUCENE));
+        IndexableField field = this.getField(observable.getExternal(LUCENE));
         return this.convert(observable, field);
     }
 
@@ -366,7 +455,7 @@ public class LuceneClassifier implements Classifier {
     public <T> LinkedHashSet<T> getAll(Observable<T>... observables) {
         LinkedHashSet<T> values = new LinkedHashSet<>(observables.length);
         for (Observable<T> observable: observables) {
-            IndexableField[] fs = this.document.getFields(observable.getExternal(LUCENE));
+            IndexableField[] fs = this.getFields(observable.getExternal(LUCENE));
             for (IndexableField f : fs) {
                 T v = this.convert(observable, f);
                 if (v != null)
@@ -376,7 +465,7 @@ public class LuceneClassifier implements Classifier {
         for (Observable<T> observable : observables) {
             if (!observable.getMultiplicity().isMany())
                 continue;
-            IndexableField[] fs = this.document.getFields(observable.getExternal(LUCENE_VARIANT));
+            IndexableField[] fs = this.getFields(observable.getExternal(LUCENE_VARIANT));
             for (IndexableField f : fs) {
                 T v = this.convert(observable, f);
                 if (v != null)
@@ -393,7 +482,7 @@ public class LuceneClassifier implements Classifier {
      */
     @Override
     public String getIdentifier() {
-        return this.document.get(ID_FIELD);
+        return this.getValue(ID_FIELD);
     }
 
     /**
@@ -411,7 +500,7 @@ public class LuceneClassifier implements Classifier {
 
         if (id == null || id.isEmpty()) {
             id = UUID.randomUUID().toString();
-            this.document.add(new StringField(ID_FIELD, id, Field.Store.YES));
+            this.getDocument().add(new StringField(ID_FIELD, id, Field.Store.YES));
         }
         return id;
     }
@@ -436,7 +525,7 @@ public class LuceneClassifier implements Classifier {
      */
     @Override
     public Term getType() throws StoreException {
-        String type = this.document.get(TYPE_FIELD);
+        String type = this.getValue(TYPE_FIELD);
 
         if (type == null || type.isEmpty())
             return null;
@@ -451,8 +540,8 @@ public class LuceneClassifier implements Classifier {
     @Override
     public void setType(Term type) {
         String value = type.qualifiedName();
-        this.document.removeFields(TYPE_FIELD);
-        this.document.add(new StringField(TYPE_FIELD, value, Field.Store.YES));
+        this.getDocument().removeFields(TYPE_FIELD);
+        this.getDocument().add(new StringField(TYPE_FIELD, value, Field.Store.YES));
     }
 
     /**
@@ -467,7 +556,7 @@ public class LuceneClassifier implements Classifier {
     @Override
     public boolean hasAnnotation(Term annotation) {
         String value = annotation.qualifiedName();
-        for (String v: this.document.getValues(ANNOTATION_FIELD)) {
+        for (String v: this.getValues(ANNOTATION_FIELD)) {
             if (value.equals(v))
                 return true;
         }
@@ -481,7 +570,7 @@ public class LuceneClassifier implements Classifier {
      */
     @Override
     public void annotate(Term annotation) {
-        this.document.add(new StringField(ANNOTATION_FIELD, annotation.qualifiedName(), Field.Store.YES));
+        this.getDocument().add(new StringField(ANNOTATION_FIELD, annotation.qualifiedName(), Field.Store.YES));
     }
 
     /**
@@ -491,36 +580,68 @@ public class LuceneClassifier implements Classifier {
      * @throws StoreException if unable to retrieve the parameters
      */
     @Override
-    public void loadParameters(Parameters parameters) throws StoreException {
-        BytesRef bytes = this.document.getBinaryValue(PARAMETERS_FIELD);
+    public synchronized void loadParameters(Parameters parameters) throws StoreException {
+        BytesRef bytes = this.getBinaryValue(PARAMETERS_FIELD);
 
         this.cachedParameters = null;
         if (bytes == null)
             return;
         try {
-            parameters.loadFromBytes(bytes.bytes);
+            parameters.loadFromBytes(bytes.bytes, bytes.offset, bytes.length);
         } catch (IOException ex) {
             throw new StoreException("Unable to load parameters", ex);
         }
         this.cachedParameters = parameters;
     }
 
+    /**
+     * Get the inference parameters for this classifier, loading them if necessary.
+     * <p>
+     * Classifiers are shared between threads when held in a searcher cache,
+     * so the parameters are decoded at most once, under a lock, and published
+     * via a volatile field.
+     * Once loaded, no further locking is needed to get the parameters.
+     * </p>
+     *
+     * @param factory The factory for an empty parameter set
+     * @param <P> The type of parameters
+     *
+     * @return The loaded parameters
+     *
+     * @throws StoreException if unable to retrieve the parameters
+     */
+    @Override
+    public <P extends Parameters> P getParameters(Supplier<P> factory) throws StoreException {
+        Parameters parameters = this.cachedParameters;
+        if (parameters == null) {
+            synchronized (this) {
+                parameters = this.cachedParameters;
+                if (parameters == null) {
+                    parameters = factory.get();
+                    this.loadParameters(parameters);
+                }
+            }
+        }
+        return (P) parameters;
+    }
+
     /**
      * Store the inference parameters in a classifier.
+     * <p>
+     * Parameters are stored in the compact encoding.
+     * </p>
      *
      * @param parameters The inferred parameters
      * @throws StoreException if unable to store the parameters in the document
+     *
+     * @see Parameters#storeAsCompactBytes()
      */
     @Override
-    public void storeParameters(Parameters parameters) throws StoreException {
-        try {
-            BytesRef bytes = new BytesRef(parameters.storeAsBytes());
-            this.document.removeFields(PARAMETERS_FIELD);
-            this.document.add(new StoredField(PARAMETERS_FIELD, bytes));
-            this.cachedParameters = parameters;
-        } catch (IOException ex) {
-            throw new StoreException("Unable to save parameters to document", ex);
-        }
+    public synchronized void storeParameters(Parameters parameters) throws StoreException {
+        BytesRef bytes = new BytesRef(parameters.storeAsCompactBytes());
+        this.getDocument().removeFields(PARAMETERS_FIELD);
+        this.getDocument().add(new StoredField(PARAMETERS_FIELD, bytes));
+        this.cachedParameters = parameters;
     }
 
     /**
@@ -530,7 +651,7 @@ public class LuceneClassifier implements Classifier {
      */
     @Override
     public int[] getIndex() {
-        IndexableField[] fields = this.document.getFields(INDEX_FIELD);
+        IndexableField[] fields = this.getFields(INDEX_FIELD);
 
         if (fields.length == 0)
             return null;
@@ -554,9 +675,9 @@ public class LuceneClassifier implements Classifier {
      */
     @Override
     public void setIndex(int left, int right) {
-        this.document.removeFields(INDEX_FIELD);
-        this.document.add(new StoredField(INDEX_FIELD, left));
-        this.document.add(new StoredField(INDEX_FIELD, right));
+        this.getDocument().removeFields(INDEX_FIELD);
+        this.getDocument().add(new StoredField(INDEX_FIELD, left));
+        this.getDocument().add(new StoredField(INDEX_FIELD, right));
     }
 
     /**
@@ -569,7 +690,7 @@ public class LuceneClassifier implements Classifier {
      */
     @Override
     public Collection<String> getNames() {
-        return Arrays.asList(this.document.getValues(NAMES_FIELD));
+        return Arrays.asList(this.getValues(NAMES_FIELD));
     }
 
     /**
@@ -582,9 +703,9 @@ public class LuceneClassifier implements Classifier {
      */
     @Override
     public void setNames(Collection<String> names) {
-        this.document.removeFields(NAMES_FIELD);
+        this.getDocument().removeFields(NAMES_FIELD);
         for (String name: names)
-            document.add(new TextField(NAMES_FIELD, name, Field.Store.YES));
+            this.getDocument().add(new TextField(NAMES_FIELD, name, Field.Store.YES));
     }
 
     /**
@@ -595,7 +716,7 @@ public class LuceneClassifier implements Classifier {
     @Override
     @JsonIgnore
     public String getSignature() {
-        return this.document.get(SIGNATURE_FIELD);
+        return this.getValue(SIGNATURE_FIELD);
     }
 
     /**
@@ -608,9 +729,9 @@ public class LuceneClassifier implements Classifier {
      */
     @Override
     public void setSignature(String signature) {
-        this.document.removeFields(SIGNATURE_FIELD);
+        this.getDocument().removeFields(SIGNATURE_FIELD);
         if (signature != null)
-            this.document.add(new StringField(SIGNATURE_FIELD, signature, Field.Store.YES));
+            this.getDocument().add(new StringField(SIGNATURE_FIELD, signature, Field.Store.YES));
     }
 
     /**
@@ -624,7 +745,7 @@ public class LuceneClassifier implements Classifier {
     @Override
     @JsonIgnore
     public List<String> getTrail() {
-        String trails = this.document.get(TRAIL_FIELD);
+        String trails = this.getValue(TRAIL_FIELD);
         if (trails == null)
             return null;
         return TRAIL_SEPARATOR_REGEX.splitAsStream(trails).collect(Collectors.toList());
@@ -637,10 +758,10 @@ public class LuceneClassifier implements Classifier {
      */
     @Override
     public void setTrail(List<String> trail) {
-        this.document.removeFields(TRAIL_FIELD);
+        this.getDocument().removeFields(TRAIL_FIELD);
         if (trail != null) {
             String trails = String.join(TRAIL_SEPARATOR, trail);
-            this.document.add(new StoredField(TRAIL_FIELD, trails));
+            this.getDocument().add(new StoredField(TRAIL_FIELD, trails));
         }
     }
 
@@ -669,27 +790,27 @@ public class LuceneClassifier implements Classifier {
             val = (S) normaliser.normalise((String) val);
         if (val instanceof Integer) {
             int iVal = ((Number) val).intValue();
-            this.document.add(new StoredField(field, iVal));
+            this.getDocument().add(new StoredField(field, iVal));
             if (index)
-                this.document.add(new IntPoint(field, iVal));
+                this.getDocument().add(new IntPoint(field, iVal));
         } else if (val instanceof Number) {
             double dVal = ((Number) val).doubleValue();
-            this.document.add(new StoredField(field, dVal));
+            this.getDocument().add(new StoredField(field, dVal));
             if (index)
-                this.document.add(new DoublePoint(field, dVal));
+                this.getDocument().add(new DoublePoint(field, dVal));
         } else {
             String sv = val.toString();
             if (!index) {
-                this.document.add(new StoredField(field, sv));
+                this.getDocument().add(new StoredField(field, sv));
                 return;
             }
             switch (observable.getStyle()) {
                 case IDENTIFIER:
                 case CANONICAL:
-                    this.document.add(new StringField(field, sv, Field.Store.YES));
+                    this.getDocument().add(new StringField(field, sv, Field.Store.YES));
                     break;
                 default:
-                    this.document.add(new TextField(field, sv, Field.Store.YES));
+                    this.getDocument().add(new TextField(field, sv, Field.Store.YES));
                     break;
             }
         }
@@ -744,6 +865,6 @@ public class LuceneClassifier implements Classifier {
     @Override
     @JsonIgnore
     public Collection<String[]> getAllValues() {
-        return this.document.getFields().stream().map(f -> new String[] {f.name(), f.stringValue() }).collect(Collectors.toList());
+        return this.getDocument().getFields().stream().map(f -> new String[] {f.name(), f.stringValue() }).collect(Collectors.toList());
     }
 }
@@ -11,22 +11,39 @@ import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.SneakyThrows;
 import org.apache.lucene.document.Document;
+import org.apache.lucene.document.DoublePoint;
+import org.apache.lucene.document.FloatPoint;
+import org.apache.lucene.document.IntPoint;
+import org.apache.lucene.document.LongPoint;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.PointValues;
+import org.apache.lucene.index.PostingsEnum;
+import org.apache.lucene.index.ReaderUtil;
+import org.apache.lucene.index.Terms;
+import org.apache.lucene.index.TermsEnum;
 import org.apache.lucene.search.*;
 import org.apache.lucene.search.suggest.DocumentDictionary;
 import org.apache.lucene.search.suggest.Lookup;
 import org.apache.lucene.search.suggest.analyzing.FuzzySuggester;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.store.MMapDirectory;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.BytesRef;
 import org.cache2k.Cache;
 import org.cache2k.Cache2kBuilder;
+import org.cache2k.CacheManager;
 import org.cache2k.extra.jmx.JmxSupport;
 import org.gbif.dwc.terms.Term;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
 import javax.management.ObjectInstance;
 import javax.management.ObjectName;
 import java.io.File;
@@ -34,9 +51,16 @@ import java.io.IOException;
 import java.lang.management.ManagementFactory;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToDoubleFunction;
 
 /**
  * A searcher that searches a lucene index for possible candidates.
@@ -46,6 +70,12 @@ public class LuceneClassifierSearcher extends ClassifierSearcher<LuceneClassifie
 
     /** Batch size for retrieving all values */
     private static final int BATCH_SIZE = 20;
+    /** Lookup result for no matching document */
+    public static final int NO_DOC = -1;
+    /** Lookup result for more than one matching document */
+    private static final int MULTIPLE_DOCS = -2;
+    /** The number of hits to count accurately for a time-limited query (as for {@link IndexSearcher#search(Query, int)}) */
+    private static final int TOTAL_HITS_THRESHOLD = 1000;
 
     /** The name of the metadata file */
     public static final String METADATA_FILE = "metadata.json";
@@ -70,12 +100,32 @@ public class LuceneClassifierSearcher extends ClassifierSearcher<LuceneClassifie
     private final QueryUtils queryUtils;
     /** The classifier cache */
     private final Cache<Integer, LuceneClassifier> classifierCache;
+    /** The compact classifier cache */
+    private final CompactClassifierCache compactCache;
+    /** The query result cache */
+    private final Cache<Query, TopHits> queryCache;
     /** JMX registration */
     private ObjectInstance mbean;
     /** The get count */
     private final AtomicLong gets = new AtomicLong();
     /** The query count */
     private final AtomicLong queries = new AtomicLong();
+    /** The timed-out query count */
+    private final AtomicLong timeouts = new AtomicLong();
+    /** The query cache hit count */
+    private final AtomicLong queryCacheHits = new AtomicLong();
+    /** The query cache miss count */
+    private final AtomicLong queryCacheMisses = new AtomicLong();
+    /** The index metadata, read once for the lifetime of the searcher */
+    private volatile Metadata metadata;
+    /** The time taken to load the metadata, in milliseconds */
+    private volatile long metadataLoadTime;
+    /** The time the metadata was last loaded, in milliseconds since the epoch */
+    private volatile long metadataLoaded;
+    /** The time taken to warm up the searcher, in milliseconds */
+    private volatile long warmupTime;
+    /** The number of classifiers loaded into the cache during warm-up */
+    private volatile int warmupClassifiers;
 
     /**
      * Construct for a path to the lucene index.
@@ -87,16 +137,41 @@ public class LuceneClassifierSearcher extends ClassifierSearcher<LuceneClassifie
      * @throws StoreException if unable to open the index
      */
     public LuceneClassifierSearcher(Path path, LuceneClassifierSearcherConfiguration config, Observable<String> key) throws StoreException {
+        this(path, config, key, null);
+    }
+
+    /**
+     * Construct for a path to the lucene index, with the observables that are read from candidates.
+     * <p>
+     * If a compact cache is used, then only the internal classifier fields and the fields for
+     * the observables are packed into the cache entries.
+     * </p>
+     *
+     * @param path The path
+     * @param config The searcher configuration (null for a default value)
+     * @param key The key observable
+     * @param observables The observables read from candidates, null for all stored fields
+     *
+     * @throws StoreException if unable to open the index
+     */
+    public LuceneClassifierSearcher(Path path, LuceneClassifierSearcherConfiguration config, Observable<String> key, Collection<Observable<?>> observables) throws StoreException {
         this.key = key;
         this.config = config == null ? LuceneClassifierSearcherConfiguration.builder().build() : config;
-        String name = path.getFileName().toString();
+        String name = this.instanceName(path.getFileName().toString());
+        long start = System.currentTimeMillis();
         try {
             this.path = path;
-            this.directory = FSDirectory.open(this.path);
+            this.directory = this.openDirectory(this.path);
             this.indexReader = DirectoryReader.open(this.directory);
             this.searcher = new IndexSearcher(this.indexReader);
             this.queryUtils = new QueryUtils();
-            if (this.config.isCache()) {
+            if (new File(this.path.toFile(), METADATA_FILE).exists())
+                this.metadata = this.loadMetadata();
+            if (this.config.isCache() && this.config.isCompactCache()) {
+                this.classifierCache = null;
+                this.compactCache = new CompactClassifierCache(this.config.getCacheSize(), this::doGet, CompactClassifierCache.fieldsFor(observables));
+            } else if (this.config.isCache()) {
+                this.compactCache = null;
                 Cache2kBuilder<Integer, LuceneClassifier> builder = Cache2kBuilder.of(Integer.class, LuceneClassifier.class)
                         .name(name)
                         .permitNullValues(true)
@@ -107,12 +182,28 @@ public class LuceneClassifierSearcher extends ClassifierSearcher<LuceneClassifie
                 this.classifierCache = builder.build();
             } else {
                 this.classifierCache = null;
+                this.compactCache = null;
+            }
+            if (this.config.getQueryCacheSize() > 0) {
+                Cache2kBuilder<Query, TopHits> builder = Cache2kBuilder.of(Query.class, TopHits.class)
+                        .name(name + "-queries")
+                        .entryCapacity(this.config.getQueryCacheSize());
+                if (this.config.isEnableJmx())
+                    builder.enable(JmxSupport.class);
+                this.queryCache = builder.build();
+            } else {
+                this.queryCache = null;
+            }
+            if (this.config.getWarmupSize() > 0)
+                this.warmupClassifiers = this.warmup(this.config.getWarmupSize(), this.config.getWarmupField());
+            if (this.config.isPreload() || this.config.getWarmupSize() > 0) {
+                this.warmupTime = System.currentTimeMillis() - start;
+                logger.info("Warmed up " + name + " in " + this.warmupTime + "ms, loading " + this.warmupClassifiers + " classifiers");
             }
             if (this.config.isEnableJmx()) {
                 try {
                     MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
-                    ObjectName on = new ObjectName(this.getClass().getPackage().getName() + ":type=" + this.getClass().getSimpleName() + ",name=" + name);
-                    this.mbean = mbs.registerMBean(this, on);
+                    this.mbean = mbs.registerMBean(this, this.objectName(name));
                 } catch (Exception ex) {
                     logger.error("Unable to register searcher " + name, ex);
                 }
@@ -132,7 +223,23 @@ public class LuceneClassifierSearcher extends ClassifierSearcher<LuceneClassifie
      * @throws StoreException if unable to open the index
      */
     public LuceneClassifierSearcher(File file, LuceneClassifierSearcherConfiguration config, Observable<String> key) throws StoreException {
-        this(file.toPath(), config, key);
+        this(file.toPath(), config, key, null);
+    }
+
+    /**
+     * Construct for a file to the lucene index directory, with the observables that are read from candidates.
+     *
+     * @param file The path
+     * @param config The searcher configuration (null for a default value)
+     * @param key The key observable
+     * @param observables The observables read from candidates, null for all stored fields
+     *
+     * @throws StoreException if unable to open the index
+     *
+     * @see #LuceneClassifierSearcher(Path, LuceneClassifierSearcherConfiguration, Observable, Collection)
+     */
+    public LuceneClassifierSearcher(File file, LuceneClassifierSearcherConfiguration config, Observable<String> key, Collection<Observable<?>> observables) throws StoreException {
+        this(file.toPath(), config, key, observables);
     }
 
     /**
@@ -155,6 +262,146 @@ public class LuceneClassifierSearcher extends ClassifierSearcher<LuceneClassifie
         return this.queries.get();
     }
 
+    /**
+     * Get the number of queries that exceeded their time limit
+     *
+     * @return The timeout count
+     */
+    @Override
+    public long getTimeouts() {
+        return this.timeouts.get();
+    }
+
+    /**
+     * Get the number of queries answered from the query cache
+     *
+     * @return The query cache hit count
+     */
+    @Override
+    public long getQueryCacheHits() {
+        return this.queryCacheHits.get();
+    }
+
+    /**
+     * Get the number of queries not found in the query cache
+     *
+     * @return The query cache miss count
+     */
+    @Override
+    public long getQueryCacheMisses() {
+        return this.queryCacheMisses.get();
+    }
+
+    /**
+     * Get the proportion of queries answered from the query cache
+     *
+     * @return The hit rate, or zero if there have been no cached queries
+     */
+    @Override
+    public double getQueryCacheHitRate() {
+        long hits = this.queryCacheHits.get();
+        long total = hits + this.queryCacheMisses.get();
+        return total == 0 ? 0.0 : ((double) hits) / total;
+    }
+
+    /**
+     * Get the time taken to warm up the searcher
+     *
+     * @return The warm-up time in milliseconds, zero for no warm-up
+     */
+    @Override
+    public long getWarmupTime() {
+        return this.warmupTime;
+    }
+
+    /**
+     * Get the number of classifiers loaded into the cache during warm-up
+     *
+     * @return The warm-up classifier count
+     */
+    @Override
+    public int getWarmupClassifiers() {
+        return this.warmupClassifiers;
+    }
+
+    /**
+     * Get the number of classifiers currently in the classifier cache
+     *
+     * @return The number of cached classifiers
+     */
+    @Override
+    public int getCachedClassifiers() {
+        if (this.compactCache != null)
+            return this.compactCache.size();
+        if (this.classifierCache != null)
+            return this.classifierCache.asMap().size();
+        return 0;
+    }
+
+    /**
+     * Get the proportion of the classifier cache that is in use
+     *
+     * @return The fill level, from 0 to 1
+     */
+    @Override
+    public double getCacheFill() {
+        int capacity = this.getCacheCapacity();
+        return capacity == 0 ? 0.0 : ((double) this.getCachedClassifiers()) / capacity;
+    }
+
+    /**
+     * Get the capacity of the classifier cache.
+     *
+     * @return The maximum number of cached classifiers, zero for no cache
+     */
+    private int getCacheCapacity() {
+        if (this.compactCache != null)
+            return this.compactCache.getCapacity();
+        if (this.classifierCache != null)
+            return this.config.getCacheSize();
+        return 0;
+    }
+
+    /**
+     * Get the number of classifiers found in the compact classifier cache
+     *
+     * @return The compact cache hit count
+     */
+    @Override
+    public long getCompactCacheHits() {
+        return this.compactCache == null ? 0 : this.compactCache.getHits();
+    }
+
+    /**
+     * Get the number of classifiers not found in the compact classifier cache
+     *
+     * @return The compact cache miss count
+     */
+    @Override
+    public long getCompactCacheMisses() {
+        return this.compactCache == null ? 0 : this.compactCache.getMisses();
+    }
+
+    /**
+     * Get the time taken to load the index metadata
+     *
+     * @return The load time in milliseconds
+     */
+    @Override
+    public long getMetadataLoadTime() {
+        return this.metadataLoadTime;
+    }
+
+    /**
+     * Get the time the index metadata was last loaded
+     *
+     * @return The load timestamp in milliseconds since the epoch, zero for not loaded
+     */
+    @Override
+    public long getMetadataLoaded() {
+        return this.metadataLoaded;
+    }
+
     /**
      * Search for a classifier by identifier.
      *
@@ -167,24 +414,75 @@ public class LuceneClassifierSearcher extends ClassifierSearcher<LuceneClassifie
     @Override
     public LuceneClassifier get(Term type, Observable identifier, Object id) throws BayesianException {
         this.gets.incrementAndGet();
-        BooleanQuery.Builder builder = this.queryUtils.createBuilder();
-        builder.add(LuceneClassifier.getTypeClause(type));
-        builder.add(
-                this.queryUtils.asQuery(
-                        identifier.getExternal(ExternalContext.LUCENE),
-                        identifier.getStyle(),
-                        identifier.getNormaliser(),
-                        identifier.getAnalysis(),
-                        id),
-                BooleanClause.Occur.MUST);
+        int docID = this.findDocID(type, identifier, id);
+        if (docID == NO_DOC)
+            return null;
+        try {
+            return this.retrieve(docID);
+        } catch (IOException ex) {
+            throw new StoreException("Unable to retrive documents", ex);
+        }
+    }
+
+    /**
+     * Get a classifier by lucene document number.
+     * <p>
+     * Document numbers are only valid for the index version that they were found in.
+     * </p>
+     *
+     * @param docID The document number
+     *
+     * @return The classifier
+     *
+     * @throws StoreException if unable to retrieve the classifier
+     *
+     * @see #getIndexVersion()
+     * @see #findDocID(Term, Observable, Object)
+     */
+    public LuceneClassifier get(int docID) throws StoreException {
+        this.gets.incrementAndGet();
         try {
+            return this.retrieve(docID);
+        } catch (IOException ex) {
+            throw new StoreException("Unable to retrive document " + docID, ex);
+        }
+    }
+
+    /**
+     * Find the lucene document number for a classifier identifier.
+     *
+     * @param type The classifier type
+     * @param identifier The identifier observable
+     * @param id The identifier value
+     *
+     * @return The document number or {@link #NO_DOC} for not found
+     *
+     * @throws BayesianException if the identifier is not unique or unable to search the index
+     */
+    public int findDocID(Term type, Observable identifier, Object id) throws BayesianException {
+        Query idQuery = this.queryUtils.asQuery(
+                identifier.getExternal(ExternalContext.LUCENE),
+                identifier.getStyle(),
+                identifier.getNormaliser(),
+                identifier.getAnalysis(),
+                id);
+        try {
+            if (idQuery instanceof TermQuery) {
+                org.apache.lucene.index.Term term = ((TermQuery) idQuery).getTerm();
+                int docID = this.lookup(type, term.field(), new BytesRef[] { term.bytes() })[0];
+                if (docID == MULTIPLE_DOCS)
+                    throw new StoreException("Multiple matches for identifier " + id);
+                return docID;
+            }
+            BooleanQuery.Builder builder = this.queryUtils.createBuilder();
+            builder.add(LuceneClassifier.getTypeClause(type));
+            builder.add(idQuery, BooleanClause.Occur.MUST);
             TopDocs docs = this.searcher.search(builder.build(), 1);
             if (docs.totalHits.value == 0)
-                return null;
+                return NO_DOC;
             if (docs.totalHits.value > 1)
                 throw new StoreException("Multiple matches for identifier " + id);
-            int docID = docs.scoreDocs[0].doc;
-            return this.classifierCache == null ? this.doGet(docID) : this.classifierCache.get(docID);
+            return docs.scoreDocs[0].doc;
         } catch (IOException ex) {
             throw new StoreException("Unable to retrive documents", ex);
         }
@@ -218,7 +516,7 @@ public class LuceneClassifierSearcher extends ClassifierSearcher<LuceneClassifie
             TopDocs docs = this.searcher.search(query, BATCH_SIZE);
             while (docs.scoreDocs.length > 0) {
                 for (ScoreDoc doc: docs.scoreDocs) {
-                    results.add(this.classifierCache == null ? this.doGet(doc.doc) : this.classifierCache.get(doc.doc));
+                    results.add(this.retrieve(doc.doc));
                 }
                 docs = this.searcher.searchAfter(docs.scoreDocs[docs.scoreDocs.length - 1], query, BATCH_SIZE);
             }
@@ -228,14 +526,456 @@ public class LuceneClassifierSearcher extends ClassifierSearcher<LuceneClassifie
         return results;
     }
 
+    /**
+     * Get classifiers for a batch of identifiers.
+     * <p>
+     * If the identifiers are simple terms, then the term dictionary is used to
+     * look up all the identifiers in a single pass over the index segments, without running a query.
+     * Otherwise, each identifier is searched for separately.
+     * </p>
+     *
+     * @param type The type of classifier to get
+     * @param identifier The identifier observable
+     * @param ids The ids to search for
+     *
+     * @return A map of identifier to classifier, with identifiers that cannot be found omitted
+     *
+     * @throws BayesianException if unable to retrieve information about the classifiers
+     */
+    @Override
+    public Map<String, LuceneClassifier> getAll(Term type, Observable<String> identifier, Collection<String> ids) throws BayesianException {
+        String field = identifier.getExternal(ExternalContext.LUCENE);
+        String[] keys = ids.toArray(new String[0]);
+        BytesRef[] values = new BytesRef[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            Query idQuery = this.queryUtils.asQuery(field, identifier.getStyle(), identifier.getNormaliser(), identifier.getAnalysis(), keys[i]);
+            if (!(idQuery instanceof TermQuery) || !((TermQuery) idQuery).getTerm().field().equals(field))
+                return super.getAll(type, identifier, ids);
+            values[i] = ((TermQuery) idQuery).getTerm().bytes();
+        }
+        this.gets.addAndGet(keys.length);
+        Map<String, LuceneClassifier> results = new LinkedHashMap<>(keys.length);
+        try {
+            int[] docs = this.lookup(type, field, values);
+            for (int i = 0; i < keys.length; i++) {
+                if (docs[i] == MULTIPLE_DOCS)
+                    throw new StoreException("Multiple matches for identifier " + keys[i]);
+                if (docs[i] != NO_DOC)
+                    results.put(keys[i], this.retrieve(docs[i]));
+            }
+        } catch (IOException ex) {
+            throw new StoreException("Unable to retrive documents", ex);
+        }
+        return results;
+    }
+
+    /**
+     * Get all the classifiers for a batch of non-unique identifiers.
+     * <p>
+     * If the identifiers are simple terms, then all the identifiers are found with a single
+     * pass over the term dictionary and the results grouped by the requested identifier,
+     * so that identifiers that are normalised before indexing are still grouped under the value asked for.
+     * Otherwise, each identifier is searched for separately.
+     * </p>
+     *
+     * @param type The type of classifier to get
+     * @param identifier The identifier observable
+     * @param ids The ids to search for
+     *
+     * @return A map of identifier to the classifiers with that identifier, in index order, with identifiers that cannot be found omitted
+     *
+     * @throws BayesianException if unable to retrieve information about the classifiers
+     */
+    @Override
+    public Map<String, List<LuceneClassifier>> getAllGrouped(Term type, Observable<String> identifier, Collection<String> ids) throws BayesianException {
+        String field = identifier.getExternal(ExternalContext.LUCENE);
+        String[] keys = new String[ids.size()];
+        BytesRef[] values = new BytesRef[keys.length];
+        int i = 0;
+        for (String id: ids) {
+            Query idQuery = this.queryUtils.asQuery(field, identifier.getStyle(), identifier.getNormaliser(), identifier.getAnalysis(), id);
+            if (!(idQuery instanceof TermQuery) || !((TermQuery) idQuery).getTerm().field().equals(field))
+                return super.getAllGrouped(type, identifier, ids);
+            keys[i] = id;
+            values[i] = ((TermQuery) idQuery).getTerm().bytes();
+            i++;
+        }
+        Map<String, List<LuceneClassifier>> results = new LinkedHashMap<>(keys.length);
+        if (keys.length == 0)
+            return results;
+        this.gets.incrementAndGet();
+        try {
+            List<List<Integer>> docs = new ArrayList<>(keys.length);
+            for (i = 0; i < keys.length; i++)
+                docs.add(new ArrayList<>());
+            this.lookup(type, field, values, (index, doc) -> {
+                docs.get(index).add(doc);
+                return true;
+            });
+            for (i = 0; i < keys.length; i++) {
+                if (docs.get(i).isEmpty())
+                    continue;
+                List<LuceneClassifier> classifiers = results.computeIfAbsent(keys[i], k -> new ArrayList<>());
+                if (!classifiers.isEmpty())
+                    continue; // Duplicate request
+                for (int doc: docs.get(i))
+                    classifiers.add(this.retrieve(doc));
+            }
+        } catch (IOException ex) {
+            throw new StoreException("Unable to retrive documents", ex);
+        }
+        return results;
+    }
+
+    /**
+     * Look up documents by exact term, using the term dictionary directly.
+     * <p>
+     * This avoids the overhead of building, weighting and scoring a query
+     * when all that is needed is the document for a unique identifier.
+     * </p>
+     *
+     * @param type The classifier type
+     * @param field The field name
+     * @param values The term values
+     *
+     * @return For each value, the matching document number, {@link #NO_DOC} for no match or {@link #MULTIPLE_DOCS} for more than one match
+     *
+     * @throws IOException if unable to read the index
+     */
+    private int[] lookup(Term type, String field, BytesRef[] values) throws IOException {
+        int[] docs = new int[values.length];
+        Arrays.fill(docs, NO_DOC);
+        this.lookup(type, field, values, (index, doc) -> {
+            if (docs[index] != NO_DOC) {
+                docs[index] = MULTIPLE_DOCS;
+                return false;
+            }
+            docs[index] = doc;
+            return true;
+        });
+        return docs;
+    }
+
+    /**
+     * Visit the documents with exact terms, using the term dictionary directly.
+     * <p>
+     * Each segment's term dictionary is positioned on each value with {@link TermsEnum#seekExact(BytesRef)}
+     * and the matching postings checked against the postings for the classifier type.
+     * Documents are visited in index order for each value.
+     * </p>
+     *
+     * @param type The classifier type
+     * @param field The field name
+     * @param values The term values
+     * @param visitor The visitor, called with the value index and document number
+     *
+     * @throws IOException if unable to read the index
+     */
+    private void lookup(Term type, String field, BytesRef[] values, PostingVisitor visitor) throws IOException {
+        boolean[] stopped = new boolean[values.length];
+        BytesRef typeValue = new BytesRef(type.qualifiedName());
+        for (LeafReaderContext leaf: this.indexReader.leaves()) {
+            LeafReader reader = leaf.reader();
+            Terms terms = reader.terms(field);
+            Terms types = reader.terms(LuceneClassifier.TYPE_FIELD);
+            if (terms == null || types == null)
+                continue;
+            TermsEnum termsEnum = terms.iterator();
+            TermsEnum typesEnum = types.iterator();
+            if (!typesEnum.seekExact(typeValue))
+                continue;
+            Bits live = reader.getLiveDocs();
+            PostingsEnum postings = null;
+            PostingsEnum typePostings = null;
+            for (int i = 0; i < values.length; i++) {
+                if (stopped[i] || !termsEnum.seekExact(values[i]))
+                    continue;
+                postings = termsEnum.postings(postings, PostingsEnum.NONE);
+                typePostings = typesEnum.postings(typePostings, PostingsEnum.NONE);
+                for (int doc = postings.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = postings.nextDoc()) {
+                    if (live != null && !live.get(doc))
+                        continue;
+                    int typeDoc = typePostings.docID() >= doc ? typePostings.docID() : typePostings.advance(doc);
+                    if (typeDoc != doc)
+                        continue;
+                    if (!visitor.visit(i, leaf.docBase + doc)) {
+                        stopped[i] = true;
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Visit documents found by a term lookup.
+     */
+    @FunctionalInterface
+    private interface PostingVisitor {
+        /**
+         * Visit a document.
+         *
+         * @param index The index of the term value
+         * @param doc The document number
+         *
+         * @return True to continue visiting documents for this value, false to stop
+         */
+        boolean visit(int index, int doc);
+    }
+
+    /**
+     * Choose a name for this searcher's caches and management bean.
+     * <p>
+     * Normally, this is the name of the index directory.
+     * If another searcher is already open with the same name, for example when
+     * a replacement index is opened alongside the current index, a suffix is added.
+     * </p>
+     *
+     * @param base The index directory name
+     *
+     * @return A name that is not already in use
+     */
+    private String instanceName(String base) {
+        MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+        CacheManager manager = CacheManager.getInstance();
+        String name = base;
+        try {
+            for (int i = 2; manager.getCache(name) != null || manager.getCache(name + "-queries") != null || mbs.isRegistered(this.objectName(name)); i++)
+                name = base + "-" + i;
+        } catch (MalformedObjectNameException ex) {
+            logger.warn("Unable to check name " + name, ex);
+        }
+        return name;
+    }
+
+    /**
+     * Build the management bean name for a searcher.
+     *
+     * @param name The searcher name
+     *
+     * @return The object name
+     *
+     * @throws MalformedObjectNameException if the name is invalid
+     */
+    private ObjectName objectName(String name) throws MalformedObjectNameException {
+        return new ObjectName(this.getClass().getPackage().getName() + ":type=" + this.getClass().getSimpleName() + ",name=" + name);
+    }
+
+    /**
+     * Open the index directory.
+     * <p>
+     * If preloading is configured, the index files are memory-mapped and
+     * loaded into physical memory when they are opened.
+     * </p>
+     *
+     * @param path The path to the index
+     *
+     * @return The index directory
+     *
+     * @throws IOException if unable to open the directory
+     */
+    protected Directory openDirectory(Path path) throws IOException {
+        if (this.config.isPreload()) {
+            MMapDirectory directory = new MMapDirectory(path);
+            directory.setPreload(true);
+            return directory;
+        }
+        return FSDirectory.open(path);
+    }
+
+    /**
+     * Warm up the classifier cache.
+     * <p>
+     * If a warm-up field is supplied, the documents with the highest values for the field
+     * are loaded. Otherwise, the first documents in the index are loaded.
+     * Documents are loaded in ascending order of value, so that the most
+     * important documents are the ones left in the cache if there is contention for cache space.
+     * </p>
+     *
+     * @param size The number of classifiers to load
+     * @param field The numeric field to order documents by, or null for index order
+     *
+     * @return The number of classifiers loaded
+     *
+     * @throws IOException if unable to read the index
+     */
+    protected int warmup(int size, String field) throws IOException {
+        int limit = Math.min(Math.min(size, this.getCacheCapacity()), this.indexReader.numDocs());
+        if (limit <= 0)
+            return 0;
+        int[] docs = field == null ? null : this.findHighest(field, limit);
+        if (docs == null || docs.length == 0)
+            docs = this.findFirst(limit);
+        for (int doc: docs)
+            this.retrieve(doc);
+        return docs.length;
+    }
+
+    /**
+     * Find the first live documents in the index.
+     *
+     * @param limit The number of documents to find
+     *
+     * @return The document numbers
+     */
+    private int[] findFirst(int limit) {
+        int[] docs = new int[limit];
+        int found = 0;
+        for (LeafReaderContext leaf: this.indexReader.leaves()) {
+            Bits live = leaf.reader().getLiveDocs();
+            for (int doc = 0; doc < leaf.reader().maxDoc() && found < limit; doc++) {
+                if (live == null || live.get(doc))
+                    docs[found++] = leaf.docBase + doc;
+            }
+        }
+        return found == limit ? docs : Arrays.copyOf(docs, found);
+    }
+
+    /**
+     * Find the documents with the highest values for a numeric field.
+     * <p>
+     * The field's point values are scanned, skipping any part of the point tree
+     * that cannot contain values higher than those already found.
+     * Points only record the number of bytes in a value, so the points are decoded according to
+     * the type of value stored for the field, which is the type the observable stores.
+     * </p>
+     *
+     * @param field The field name
+     * @param limit The number of documents to find
+     *
+     * @return The document numbers, in ascending order of value
+     *
+     * @throws IOException if unable to read the index
+     */
+    private int[] findHighest(String field, int limit) throws IOException {
+        PriorityQueue<RankedDoc> highest = new PriorityQueue<>(limit, Comparator.comparingDouble(rd -> rd.value));
+        for (LeafReaderContext leaf: this.indexReader.leaves()) {
+            PointValues points = leaf.reader().getPointValues(field);
+            if (points == null || points.getNumIndexDimensions() != 1)
+                continue;
+            final ToDoubleFunction<byte[]> decoder = this.findPointDecoder(leaf.reader(), points, field);
+            if (decoder == null) {
+                logger.warn("Unable to determine the type of points for " + field + ", ignoring segment");
+                continue;
+            }
+            final Bits live = leaf.reader().getLiveDocs();
+            final int base = leaf.docBase;
+            points.intersect(new PointValues.IntersectVisitor() {
+                @Override
+                public void visit(int docID) {
+                    // Not called, since cells are never entirely inside the query
+                }
+
+                @Override
+                public void visit(int docID, byte[] packedValue) {
+                    if (live != null && !live.get(docID))
+                        return;
+                    double value = decoder.applyAsDouble(packedValue);
+                    if (highest.size() < limit) {
+                        highest.add(new RankedDoc(base + docID, value));
+                    } else if (value > highest.peek().value) {
+                        highest.poll();
+                        highest.add(new RankedDoc(base + docID, value));
+                    }
+                }
+
+                @Override
+                public PointValues.Relation compare(byte[] minPackedValue, byte[] maxPackedValue) {
+                    if (highest.size() >= limit && decoder.applyAsDouble(maxPackedValue) <= highest.peek().value)
+                        return PointValues.Relation.CELL_OUTSIDE_QUERY;
+                    return PointValues.Relation.CELL_CROSSES_QUERY;
+                }
+            });
+        }
+        int[] docs = new int[highest.size()];
+        for (int i = 0; i < docs.length; i++)
+            docs[i] = highest.poll().doc;
+        return docs;
+    }
+
+    /**
+     * Choose a decoder for the points of a numeric field.
+     * <p>
+     * The type of the field is found from the stored value of the first document with a point.
+     * {@link LuceneClassifier} stores integers, longs, floats and doubles with the matching type of point.
+     * </p>
+     *
+     * @param reader The segment reader
+     * @param points The point values for the field
+     * @param field The field name
+     *
+     * @return A decoder that converts a packed point into a double, or null if the type cannot be determined
+     *
+     * @throws IOException if unable to read the segment
+     */
+    private ToDoubleFunction<byte[]> findPointDecoder(LeafReader reader, PointValues points, String field) throws IOException {
+        final int[] sample = { -1 };
+        points.intersect(new PointValues.IntersectVisitor() {
+            @Override
+            public void visit(int docID) {
+                // Not called, since cells are never entirely inside the query
+            }
+
+            @Override
+            public void visit(int docID, byte[] packedValue) {
+                if (sample[0] < 0)
+                    sample[0] = docID;
+            }
+
+            @Override
+            public PointValues.Relation compare(byte[] minPackedValue, byte[] maxPackedValue) {
+                return sample[0] < 0 ? PointValues.Relation.CELL_CROSSES_QUERY : PointValues.Relation.CELL_OUTSIDE_QUERY;
+            }
+        });
+        if (sample[0] < 0)
+            return null;
+        IndexableField stored = reader.document(sample[0], Collections.singleton(field)).getField(field);
+        Number value = stored == null ? null : stored.numericValue();
+        if (value instanceof Integer || value instanceof Short || value instanceof Byte)
+            return packed -> IntPoint.decodeDimension(packed, 0);
+        if (value instanceof Long)
+            return packed -> LongPoint.decodeDimension(packed, 0);
+        if (value instanceof Float)
+            return packed -> FloatPoint.decodeDimension(packed, 0);
+        if (value instanceof Double)
+            return packed -> DoublePoint.decodeDimension(packed, 0);
+        return null;
+    }
+
+    /**
+     * Get the classifier for a document, using a cache if there is one.
+     *
+     * @param docID The document ID
+     *
+     * @return The classifier from the index.
+     */
+    protected LuceneClassifier retrieve(int docID) throws IOException {
+        if (this.compactCache != null)
+            return this.compactCache.get(docID);
+        if (this.classifierCache != null)
+            return this.classifierCache.get(docID);
+        return this.doGet(docID);
+    }
+
     /**
      * Cache get for a document.
+     * <p>
+     * If doc values are enabled and the document's segment has been built with
+     * doc value columns then a classifier that reads values from the columns is returned.
+     * Otherwise the stored document is read.
+     * </p>
      *
      * @param docID The document ID
      *
      * @return The classifier from the index.
      */
     protected LuceneClassifier doGet(int docID) throws IOException {
+        if (this.config.isDocValues()) {
+            List<LeafReaderContext> leaves = this.indexReader.leaves();
+            LeafReaderContext leaf = leaves.get(ReaderUtil.subIndex(docID, leaves));
+            if (LuceneDocValuesClassifier.hasDocValues(leaf.reader()))
+                return new LuceneDocValuesClassifier(leaf.reader(), docID - leaf.docBase);
+        }
         Document document = this.indexReader.document(docID);
         return new LuceneClassifier(document);
     }
@@ -254,6 +994,29 @@ public class LuceneClassifierSearcher extends ClassifierSearcher<LuceneClassifie
      */
     @Override
     public List<LuceneClassifier> search(Classification classification) throws StoreException {
+        return this.search(classification, 0);
+    }
+
+    /**
+     * Search for a set of possible candidate classifiers that match the supplied classification,
+     * taking no more than a time limit.
+     * <p>
+     * The query is run through a {@link TimeLimitingCollector}.
+     * If the time limit is exceeded, the candidates collected so far are returned.
+     * </p>
+     * <p>
+     * If there is a query cache, the top hits for the query are taken from the cache, if present.
+     * </p>
+     *
+     * @param classification The classification
+     * @param timeout The time limit in milliseconds, zero or less for no limit
+     *
+     * @return A list of potential classifiers
+     *
+     * @throws StoreException     if unable to retrieve the results
+     */
+    @Override
+    public List<LuceneClassifier> search(Classification classification, long timeout) throws StoreException {
         this.queries.incrementAndGet();
         Collection<Observation> criteria = classification.toObservations();
         BooleanQuery.Builder builder = this.queryUtils.createBuilder();
@@ -276,13 +1039,14 @@ public class LuceneClassifierSearcher extends ClassifierSearcher<LuceneClassifie
         Query query = builder.build();
         List<LuceneClassifier> classifiers = null;
         try {
-            TopDocs docs = this.searcher.search(query, this.config.getQueryLimit());
+            TopHits hits = this.findHits(query, timeout);
             float cutoff = this.config.getScoreCutoff();
-            classifiers = new ArrayList<>(Math.min(this.config.getQueryLimit(), (int) docs.totalHits.value));
-            for (ScoreDoc doc: docs.scoreDocs) {
-                if (doc.score < cutoff)
+            classifiers = new ArrayList<>(hits.docs.length);
+            for (int i = 0; i < hits.docs.length; i++) {
+                if (hits.scores[i] < cutoff)
                     continue;
-                classifiers.add(this.classifierCache == null ? this.doGet(doc.doc) : this.classifierCache.get(doc.doc));
+                int doc = hits.docs[i];
+                classifiers.add(this.retrieve(doc));
             }
         } catch (IOException ex) {
             throw new StoreException("Unable to retrive documents", ex);
@@ -290,11 +1054,111 @@ public class LuceneClassifierSearcher extends ClassifierSearcher<LuceneClassifie
         return classifiers;
     }
 
+    /**
+     * Find the top hits for a query.
+     * <p>
+     * If there is a query cache and the hits have already been found, then the cached hits are used.
+     * Cached hits hold lucene document numbers, which are only valid because the index reader
+     * is opened once and never re-opened.
+     * If the reader is ever re-opened, the query cache must be cleared at the same time.
+     * Results from a query that has timed out are not cached.
+     * </p>
+     *
+     * @param query The query
+     * @param timeout The time limit in milliseconds, zero or less for no limit
+     *
+     * @return The top hits
+     *
+     * @throws IOException if unable to search the index
+     */
+    private TopHits findHits(Query query, long timeout) throws IOException {
+        if (this.queryCache != null) {
+            TopHits hits = this.queryCache.peek(query);
+            if (hits != null) {
+                this.queryCacheHits.incrementAndGet();
+                return hits;
+            }
+            this.queryCacheMisses.incrementAndGet();
+        }
+        TopDocs docs;
+        boolean complete = true;
+        if (timeout > 0) {
+            TopScoreDocCollector collector = TopScoreDocCollector.create(this.config.getQueryLimit(), TOTAL_HITS_THRESHOLD);
+            try {
+                this.searcher.search(query, new TimeLimitingCollector(collector, TimeLimitingCollector.getGlobalCounter(), timeout));
+            } catch (TimeLimitingCollector.TimeExceededException ex) {
+                this.timeouts.incrementAndGet();
+                complete = false;
+                logger.debug("Query timed out after " + ex.getTimeElapsed() + "ms " + query);
+            }
+            docs = collector.topDocs();
+        } else {
+            docs = this.searcher.search(query, this.config.getQueryLimit());
+        }
+        TopHits hits = new TopHits(docs.scoreDocs);
+        if (this.queryCache != null && complete)
+            this.queryCache.put(query, hits);
+        return hits;
+    }
+
+    /**
+     * Get the index metadata.
+     * <p>
+     * The index reader is opened once and never re-opened, so the metadata
+     * is read once and is fixed for the lifetime of the searcher.
+     * To see a new index, open a new searcher.
+     * </p>
+     *
+     * @return The metadata
+     */
     @Override
     @SneakyThrows
     public Metadata getMetadata() {
+        Metadata metadata = this.metadata;
+        if (metadata == null) {
+            synchronized (this) {
+                metadata = this.metadata;
+                if (metadata == null) {
+                    metadata = this.loadMetadata();
+                    this.metadata = metadata;
+                }
+            }
+        }
+        return metadata;
+    }
+
+    /**
+     * Get the version of the index reader.
+     * <p>
+     * The index reader is not re-opened, so this is constant for the lifetime of the searcher.
+     * </p>
+     *
+     * @return The reader version, or zero if not available
+     */
+    public long getIndexVersion() {
+        IndexReader reader = this.indexReader;
+        return reader instanceof DirectoryReader ? ((DirectoryReader) reader).getVersion() : 0;
+    }
+
+    /**
+     * Read the metadata from the index directory.
+     *
+     * @return The metadata
+     *
+     * @throws StoreException if unable to read the metadata
+     */
+    private Metadata loadMetadata() throws StoreException {
         File source = new File(this.path.toFile(), METADATA_FILE);
-        return Metadata.read(source);
+        long start = System.currentTimeMillis();
+        try {
+            Metadata metadata = Metadata.read(source);
+            long now = System.currentTimeMillis();
+            this.metadataLoadTime = now - start;
+            this.metadataLoaded = now;
+            return metadata;
+        } catch (Exception ex) {
+            throw new StoreException("Unable to read metadata from " + source, ex);
+        }
     }
 
     /**
@@ -316,6 +1180,13 @@ public class LuceneClassifierSearcher extends ClassifierSearcher<LuceneClassifie
             if (this.classifierCache != null) {
                 this.classifierCache.close();
             }
+            if (this.compactCache != null) {
+                this.compactCache.close();
+            }
+            if (this.queryCache != null) {
+                this.queryCache.close();
+            }
+            this.queryUtils.close();
             this.searcher = null;
             if (this.indexReader != null) {
                 this.indexReader.close();
@@ -329,4 +1200,38 @@ public class LuceneClassifierSearcher extends ClassifierSearcher<LuceneClassifie
            throw new StoreException("Unable to close lucene searcher at " + this.directory, ex);
         }
     }
+
+    /**
+     * The top hits for a query, as parallel document identifier and score arrays.
+     */
+    private static class TopHits {
+        /** The document identifiers, in descending score order */
+        private final int[] docs;
+        /** The corresponding scores */
+        private final float[] scores;
+
+        public TopHits(ScoreDoc[] scoreDocs) {
+            this.docs = new int[scoreDocs.length];
+            this.scores = new float[scoreDocs.length];
+            for (int i = 0; i < scoreDocs.length; i++) {
+                this.docs[i] = scoreDocs[i].doc;
+                this.scores[i] = scoreDocs[i].score;
+            }
+        }
+    }
+
+    /**
+     * A document ranked by the value of a field.
+     */
+    private static class RankedDoc {
+        /** The document number */
+        private final int doc;
+        /** The field value */
+        private final double value;
+
+        public RankedDoc(int doc, double value) {
+            this.doc = doc;
+            this.value = value;
+        }
+    }
 }
@@ -34,4 +34,28 @@ public class LuceneClassifierSearcherConfiguration {
     @JsonProperty
     @Builder.Default
     private int cacheSize = 10000;
+    /** Use a compact, document number keyed cache (see {@link CompactClassifierCache}) for classifiers, rather than a general-purpose cache */
+    @JsonProperty
+    @Builder.Default
+    private boolean compactCache = false;
+    /** Build candidates from doc value columns, if the index has them. Otherwise stored documents are used */
+    @JsonProperty
+    @Builder.Default
+    private boolean docValues = false;
+    /** Preload the index files into memory when the index is opened */
+    @JsonProperty
+    @Builder.Default
+    private boolean preload = false;
+    /** The number of classifiers to load into the classifier cache when the index is opened, zero for none */
+    @JsonProperty
+    @Builder.Default
+    private int warmupSize = 0;
+    /** The numeric field used to choose the classifiers to load when warming up, highest values first. If null, classifiers are loaded in index order */
+    @JsonProperty
+    @Builder.Default
+    private String warmupField = null;
+    /** The number of query results to cache, zero for no query cache */
+    @JsonProperty
+    @Builder.Default
+    private int queryCacheSize = 0;
 }
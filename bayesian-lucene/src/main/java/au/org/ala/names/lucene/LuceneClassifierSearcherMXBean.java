@@ -13,4 +13,76 @@ public interface LuceneClassifierSearcherMXBean {
      * @return The query count
      */
     long getQueries();
+    /**
+     * Get the number of queries that exceeded their time limit
+     *
+     * @return The timeout count
+     */
+    long getTimeouts();
+    /**
+     * Get the number of queries answered from the query cache
+     *
+     * @return The query cache hit count
+     */
+    long getQueryCacheHits();
+    /**
+     * Get the number of queries not found in the query cache
+     *
+     * @return The query cache miss count
+     */
+    long getQueryCacheMisses();
+    /**
+     * Get the proportion of queries answered from the query cache
+     *
+     * @return The hit rate, or zero if there have been no cached queries
+     */
+    double getQueryCacheHitRate();
+    /**
+     * Get the time taken to warm up the searcher
+     *
+     * @return The warm-up time in milliseconds, zero for no warm-up
+     */
+    long getWarmupTime();
+    /**
+     * Get the number of classifiers loaded into the cache during warm-up
+     *
+     * @return The warm-up classifier count
+     */
+    int getWarmupClassifiers();
+    /**
+     * Get the number of classifiers currently in the classifier cache
+     *
+     * @return The number of cached classifiers
+     */
+    int getCachedClassifiers();
+    /**
+     * Get the proportion of the classifier cache that is in use
+     *
+     * @return The fill level, from 0 to 1
+     */
+    double getCacheFill();
+    /**
+     * Get the number of classifiers found in the compact classifier cache
+     *
+     * @return The compact cache hit count
+     */
+    long getCompactCacheHits();
+    /**
+     * Get the number of classifiers not found in the compact classifier cache
+     *
+     * @return The compact cache miss count
+     */
+    long getCompactCacheMisses();
+    /**
+     * Get the time taken to load the index metadata
+     *
+     * @return The load time in milliseconds
+     */
+    long getMetadataLoadTime();
+    /**
+     * Get the time the index metadata was last loaded
+     *
+     * @return The load timestamp in milliseconds since the epoch, zero for not loaded
+     */
+    long getMetadataLoaded();
 }
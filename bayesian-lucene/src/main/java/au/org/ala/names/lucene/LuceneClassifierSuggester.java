@@ -27,6 +27,7 @@ import org.apache.lucene.search.suggest.Lookup;
 import org.apache.lucene.search.suggest.analyzing.*;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.IOUtils;
 import org.gbif.dwc.terms.Term;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -37,14 +38,47 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
+/**
+ * A suggester that uses a lucene infix suggester.
+ * <p>
+ * The suggester is built from a work index containing a document for each classifier in the sources.
+ * The work index is kept, with each document tagged by source, so that only sources that have changed
+ * need to be re-read when the suggester is rebuilt.
+ * Each build of the suggester is placed in a new generation directory and the suggester metadata
+ * records which generation is current.
+ * If the suggester is out of date when loaded, the previous generation continues to serve
+ * suggestions while a replacement is built in the background, and the two are swapped once the
+ * replacement is ready.
+ * </p>
+ * <p>
+ * Suggesters that share a directory also share a build lock, so that only one of them
+ * builds into the work index and generation directories at a time.
+ * A previous generation is only removed once no suggester sharing the directory is using it.
+ * </p>
+ */
 public class LuceneClassifierSuggester extends ClassifierSuggester<LuceneClassifier> {
     private static final Logger logger = LoggerFactory.getLogger(LuceneClassifierSuggester.class);
 
     /** The name of the suggester metadata file */
     protected static final String SUGGESTER_METADATA = "suggester-metadata.json";
+    /** The metadata property that holds the current generation directory */
+    protected static final String GENERATION_PROPERTY = "generation";
+    /** The prefix for generation directories */
+    protected static final String GENERATION_PREFIX = "suggest-";
+    /** The name of the work index directory */
+    protected static final String WORK_DIRECTORY = "work";
 
     /** The name field for the temporary index */
     public static final String NAME_FIELD = "name";
@@ -56,6 +90,11 @@ public class LuceneClassifierSuggester extends ClassifierSuggester<LuceneClassif
     public static final String SYNONYM_FIELD = "synonym";
     /** The type field */
     public static final String TYPE_FIELD = "type";
+    /** The source field for the work index */
+    public static final String SOURCE_FIELD = "source";
+
+    /** The shared state for each suggester directory, keyed by canonical path */
+    private static final Map<File, SharedDirectory> SHARED = new ConcurrentHashMap<>();
 
     /** The base searcher */
     private final LuceneClassifierSearcher base;
@@ -65,27 +104,41 @@ public class LuceneClassifierSuggester extends ClassifierSuggester<LuceneClassif
     private final List<LuceneClassifierSearcher> sources;
     /** The suggester analyser */
     private final Analyzer analyzer;
-    /** The suggester */
-    private AnalyzingInfixSuggester suggester;
+    /** The current suggester */
+    private final AtomicReference<AnalyzingInfixSuggester> suggester;
     /** The suggester store directory */
     private final FSDirectory directory;
+    /** Was the directory opened by this suggester, and so needs closing? */
+    private final boolean ownDirectory;
+    /** The suggester store location */
+    private final File root;
+    /** The location of the current suggester */
+    private volatile File location;
     /** How to measure distance from the query */
     private final EditDistance<Integer> distance;
     /** The suggester metadata */
-    private Metadata metadata;
+    private volatile Metadata metadata;
     /** The work directory */
     private File workDirectory = null;
+    /** The work index store */
+    private FSDirectory workStore = null;
     /** The index writer for building the temporary index */
     private IndexWriter workWriter = null;
     /** The lucene utilities */
     private final QueryUtils utils;
     /** The weighting function */
     private Function<LuceneClassifier, Double> weighter;
+    /** The state shared with other suggesters using the same directory, also used as the build lock */
+    private final SharedDirectory shared;
+    /** The most recent background rebuild */
+    private volatile CompletableFuture<Void> rebuild;
+    /** Set when the suggester has been closed */
+    private volatile boolean closed;
 
     /**
      * Construct an empty suggester with a source of truth.
      *
-     * @param directory The directory to store the suggestion index in
+     * @param directory The directory to store the suggestion index in. This is owned by the caller and is not closed by the suggester.
      * @param weighter The searcher
      * @param base The base classifier
      * @param baseFactory The base factory description
@@ -93,6 +146,38 @@ public class LuceneClassifierSuggester extends ClassifierSuggester<LuceneClassif
      * @throws StoreException if unable to make the suggester
      */
     public LuceneClassifierSuggester(FSDirectory directory, Function<LuceneClassifier, Double> weighter, LuceneClassifierSearcher base, NetworkFactory baseFactory, LuceneClassifierSearcher... additional) throws StoreException {
+        this(directory, false, weighter, base, baseFactory, additional);
+    }
+
+    /**
+     * Construct an empty suggester with a source of truth, stored in a directory opened by the suggester.
+     * <p>
+     * The directory is closed when the suggester is closed.
+     * </p>
+     *
+     * @param directory The directory to store the suggestion index in
+     * @param weighter The searcher
+     * @param base The base classifier
+     * @param baseFactory The base factory description
+     *
+     * @throws StoreException if unable to open the directory or make the suggester
+     */
+    public LuceneClassifierSuggester(File directory, Function<LuceneClassifier, Double> weighter, LuceneClassifierSearcher base, NetworkFactory baseFactory, LuceneClassifierSearcher... additional) throws StoreException {
+        this(open(directory), true, weighter, base, baseFactory, additional);
+    }
+
+    /**
+     * Construct an empty suggester with a source of truth.
+     *
+     * @param directory The directory to store the suggestion index in
+     * @param ownDirectory True if the directory is to be closed with the suggester
+     * @param weighter The searcher
+     * @param base The base classifier
+     * @param baseFactory The base factory description
+     *
+     * @throws StoreException if unable to make the suggester
+     */
+    private LuceneClassifierSuggester(FSDirectory directory, boolean ownDirectory, Function<LuceneClassifier, Double> weighter, LuceneClassifierSearcher base, NetworkFactory baseFactory, LuceneClassifierSearcher[] additional) throws StoreException {
         try {
             this.base = base;
             this.baseFactory = baseFactory;
@@ -100,17 +185,44 @@ public class LuceneClassifierSuggester extends ClassifierSuggester<LuceneClassif
             this.sources.add(base);
             this.sources.addAll(Arrays.asList(additional));
             this.directory = directory;
+            this.ownDirectory = ownDirectory;
+            this.root = directory.getDirectory().toFile();
+            this.location = null;
             this.weighter = weighter;
-            this.utils = new QueryUtils();
+            this.utils = new QueryUtils(0);
             this.analyzer = this.utils.createSuggesterAnalyzer();
             this.distance = new LongestCommonSubsequenceDistance();
+            this.suggester = new AtomicReference<>();
+            this.shared = SHARED.computeIfAbsent(this.root.getCanonicalFile(), f -> new SharedDirectory());
+            this.rebuild = CompletableFuture.completedFuture(null);
+            this.closed = false;
         } catch (Exception ex) {
             throw new StoreException("Unable to set up suggester", ex);
         }
     }
 
+    /**
+     * Open a suggester directory.
+     *
+     * @param directory The directory location
+     *
+     * @return The opened directory
+     *
+     * @throws StoreException if unable to open the directory
+     */
+    private static FSDirectory open(File directory) throws StoreException {
+        try {
+            return FSDirectory.open(directory.toPath());
+        } catch (IOException ex) {
+            throw new StoreException("Unable to open suggester directory " + directory, ex);
+        }
+    }
+
     /**
      * Start construction of a suggester.
+     * <p>
+     * This opens the work index, creating it if it does not already exist.
+     * </p>
      *
      * @see #add(LuceneClassifierSearcher)
      *
@@ -118,13 +230,14 @@ public class LuceneClassifierSuggester extends ClassifierSuggester<LuceneClassif
      */
     public void start() throws StoreException {
         try {
-            this.workDirectory = FileUtils.makeTmpDir("suggest");
-            logger.info("Creating temporary index at " + this.workDirectory);
+            this.workDirectory = new File(this.root, WORK_DIRECTORY);
+            logger.info("Opening work index at " + this.workDirectory);
             IndexWriterConfig config = new IndexWriterConfig(this.utils.createAnalyzer());
-            config.setOpenMode(IndexWriterConfig.OpenMode.CREATE);
-            this.workWriter = new IndexWriter(FSDirectory.open(this.workDirectory.toPath()), config);
+            config.setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND);
+            this.workStore = FSDirectory.open(this.workDirectory.toPath());
+            this.workWriter = new IndexWriter(this.workStore, config);
         } catch (IOException ex) {
-            throw new StoreException("Unable to start index building");
+            throw new StoreException("Unable to start index building", ex);
         }
     }
 
@@ -137,127 +250,371 @@ public class LuceneClassifierSuggester extends ClassifierSuggester<LuceneClassif
      * )}
      * and then finish it off with {@link #create()}
      * </p>
+     * <p>
+     * Any entries already in the work index for the source are replaced.
+     * Each segment of the source index is read in parallel.
+     * </p>
      *
      * @param source The source searcher
      *
      * @throws IOException if unable to add the source
      */
     public void add(LuceneClassifierSearcher source) throws StoreException {
+        if (this.workWriter == null)
+            throw new StoreException("Work index has not been started");
         Observable<String> key = source.getKey();
+        String sourceId = this.getSourceId(source);
         logger.info("Adding source " + source.getDirectory() + " with key " + key);
         IndexReader sr = source.getIndexReader();
         if (sr.hasDeletions())
             throw new StoreException("Unable to handle deleted documents");
-        String synonymAnnotation = BayesianTerm.isSynonym.qualifiedName();
+        List<LeafReaderContext> leaves = sr.leaves();
+        int threads = Math.max(1, Math.min(leaves.size(), Runtime.getRuntime().availableProcessors()));
+        AtomicInteger index = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "suggester-" + sourceId + "-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
         try {
-            for (int i = 0; i < sr.maxDoc(); i++) {
-                Document doc = sr.document(i);
-                LuceneClassifier classifier = new LuceneClassifier(doc);
-                String id = classifier.get(key);
-                if (id == null)
-                    continue;
-                Document suggest = new Document();
-                suggest.add(new StoredField(ID_FIELD, id));
-                suggest.add(new StoredField(TYPE_FIELD, classifier.getType().qualifiedName()));
-                for (String name: classifier.getNames()) {
-                    suggest.add(new StringField(NAME_FIELD, name, Field.Store.YES));
-                }
-                double weight = this.weighter == null ? 1.0 : this.weighter.apply(classifier);
-                suggest.add(new StoredField(WEIGHT_FIELD, weight));
-                boolean synonym = false;
-                for (IndexableField f: doc.getFields(LuceneClassifier.ANNOTATION_FIELD)) {
-                    synonym = synonym || synonymAnnotation.equals(f.stringValue());
-                }
-                suggest.add(new StoredField(SYNONYM_FIELD, synonym ? "T" : "F"));
-                this.workWriter.addDocument(suggest);
-            }
-            logger.info("Added " + sr.maxDoc() + " entries");
+            this.workWriter.deleteDocuments(new org.apache.lucene.index.Term(SOURCE_FIELD, sourceId));
+            List<Future<Integer>> segments = new ArrayList<>(leaves.size());
+            for (LeafReaderContext leaf: leaves)
+                segments.add(executor.submit(() -> this.add(sourceId, key, leaf.reader())));
+            int added = 0;
+            for (Future<Integer> segment: segments)
+                added += segment.get();
+            logger.info("Added " + added + " entries from " + leaves.size() + " segments");
             this.workWriter.commit();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new StoreException("Interrupted while adding " + source.getDirectory(), ex);
+        } catch (ExecutionException ex) {
+            throw new StoreException("Unable to generate suggestion", ex.getCause());
         } catch (IOException ex) {
             throw new StoreException("Unable to generate suggestion", ex);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Add the documents in a single segment to the work index.
+     *
+     * @param sourceId The source identifier
+     * @param key The source key
+     * @param reader The segment reader
+     *
+     * @return The number of entries added
+     *
+     * @throws IOException if unable to read or add the documents
+     */
+    private int add(String sourceId, Observable<String> key, LeafReader reader) throws IOException {
+        String synonymAnnotation = BayesianTerm.isSynonym.qualifiedName();
+        int added = 0;
+        for (int i = 0; i < reader.maxDoc(); i++) {
+            Document doc = reader.document(i);
+            LuceneClassifier classifier = new LuceneClassifier(doc);
+            String id = classifier.get(key);
+            if (id == null)
+                continue;
+            Document suggest = new Document();
+            suggest.add(new StringField(SOURCE_FIELD, sourceId, Field.Store.NO));
+            suggest.add(new StoredField(ID_FIELD, id));
+            suggest.add(new StoredField(TYPE_FIELD, classifier.getType().qualifiedName()));
+            for (String name: classifier.getNames()) {
+                suggest.add(new StringField(NAME_FIELD, name, Field.Store.YES));
+            }
+            double weight = this.weighter == null ? 1.0 : this.weighter.apply(classifier);
+            suggest.add(new StoredField(WEIGHT_FIELD, weight));
+            boolean synonym = false;
+            for (IndexableField f: doc.getFields(LuceneClassifier.ANNOTATION_FIELD)) {
+                synonym = synonym || synonymAnnotation.equals(f.stringValue());
+            }
+            suggest.add(new StoredField(SYNONYM_FIELD, synonym ? "T" : "F"));
+            this.workWriter.addDocument(suggest);
+            added++;
         }
+        return added;
     }
 
     /**
      * Create the suggester form the work index
+     * <p>
+     * The suggester is built in a new generation directory.
+     * Once built, the metadata is updated and the new suggester replaces
+     * any previous suggester.
+     * </p>
      *
      * @see #add(LuceneClassifierSearcher)
      *
      * @throws StoreException
      */
     public void create() throws StoreException {
+        synchronized (this.shared) {
+            this.doCreate();
+        }
+    }
+
+    /**
+     * Create the suggester from the work index, with the build lock held.
+     *
+     * @throws StoreException if unable to build the suggester
+     */
+    private void doCreate() throws StoreException {
         if (this.workWriter == null || this.workDirectory == null) {
             throw new StoreException("Unable to create. Work index has not been built");
         }
-        logger.info("Building suggester from work index " + this.workDirectory);
+        File generation = this.newGeneration();
+        logger.info("Building suggester at " + generation + " from work index " + this.workDirectory);
+        AnalyzingInfixSuggester built = null;
         try {
             this.workWriter.commit();
             this.workWriter.close();
-            FSDirectory dir = FSDirectory.open(this.workDirectory.toPath());
-            IndexReader reader = DirectoryReader.open(dir);
-            DocumentDictionary dictionary = new DocumentDictionary(
-                    reader,
-                    NAME_FIELD,
-                    WEIGHT_FIELD,
-                    ID_FIELD,
-                    LuceneClassifier.TYPE_FIELD
-            );
-            this.suggester.build(dictionary);
-            this.suggester.commit();
-            logger.info("Suggester contains " + this.suggester.getCount() + " entries");
-            dir.close();
-            FileUtils.deleteAll(this.workDirectory);
-            this.workDirectory = null;
             this.workWriter = null;
+            try (IndexReader reader = DirectoryReader.open(this.workStore)) {
+                DocumentDictionary dictionary = new DocumentDictionary(
+                        reader,
+                        NAME_FIELD,
+                        WEIGHT_FIELD,
+                        ID_FIELD,
+                        LuceneClassifier.TYPE_FIELD
+                );
+                built = new BlendedInfixSuggester(
+                        FSDirectory.open(generation.toPath()),
+                        this.analyzer
+                );
+                built.build(dictionary);
+                built.commit();
+            }
+            logger.info("Suggester contains " + built.getCount() + " entries");
+            this.workStore.close();
+            this.workStore = null;
+            this.workDirectory = null;
+            this.swap(built, generation);
         } catch (IOException ex) {
-            throw new StoreException("Unable to create from " + this.workWriter, ex);
+            IOUtils.closeWhileHandlingException(built, this.workWriter, this.workStore);
+            this.workWriter = null;
+            this.workStore = null;
+            try {
+                FileUtils.deleteAll(generation);
+            } catch (IOException ex1) {
+                logger.error("Unable to remove failed suggester build at " + generation, ex1);
+            }
+            throw new StoreException("Unable to create from " + this.workDirectory, ex);
         }
     }
 
     /**
      * Try to load a pre-built suggester.
-     * If not, then build it.
+     * <p>
+     * If there is no pre-built suggester, then one is built before returning.
+     * If the pre-built suggester is out of date, then it is used while a replacement is built
+     * in the background.
+     * Only sources that have changed are re-read when rebuilding.
+     * </p>
      *
-     * @return True if loaded successfully
+     * @return True if loaded successfully and up to date
      *
      * @throws IOException if unable to read the suggester
+     *
+     * @see #getRebuild()
      */
     public boolean load() throws IOException, StoreException {
-        boolean build = false;
+        Collection<LuceneClassifierSearcher> changed = this.findChanged();
+        AnalyzingInfixSuggester current = this.open();
+        if (current == null) {
+            logger.info("Building suggester at " + this.root);
+            this.rebuild(this.sources);
+            return false;
+        }
+        this.suggester.set(current);
+        if (changed.isEmpty()) {
+            logger.info("Suggester " + current + " in " + this.location + " has " + current.getCount() + " entries");
+            return true;
+        }
+        logger.info("Rebuilding suggester at " + this.root + " in the background, using " + this.location + " until complete");
+        this.rebuildAsync(changed);
+        return false;
+    }
+
+    /**
+     * Find the sources that have changed since the suggester was last built.
+     * <p>
+     * The currency of each source is compared with the currency recorded when the suggester was built.
+     * </p>
+     *
+     * @return The changed sources, all sources if there is no usable suggester metadata
+     */
+    protected Collection<LuceneClassifierSearcher> findChanged() {
+        File metadataFile = new File(this.root, SUGGESTER_METADATA);
+        if (!metadataFile.exists())
+            return this.sources;
         try {
-            File metadataFile = new File(this.directory.getDirectory().toFile(), SUGGESTER_METADATA);
-            if (!metadataFile.exists()) {
-                build = true;
-            } else {
-                this.metadata = Metadata.read(metadataFile);
-                Date currency = this.metadata.getCurrency();
-                for (LuceneClassifierSearcher source : this.sources) {
-                    Date sc = source.getMetadata().getCurrency();
-                    if (sc != null && sc.after(currency)) {
-                        logger.warn("Suggestion index at " + this.directory + " is out of date source " + source.getIndexReader() + " has currency " + sc);
-                        build = true;
-                    }
+            this.metadata = Metadata.read(metadataFile);
+            Date currency = this.metadata.getCurrency();
+            List<Metadata> built = this.metadata.getSources();
+            List<LuceneClassifierSearcher> changed = new ArrayList<>();
+            for (int i = 0; i < this.sources.size(); i++) {
+                LuceneClassifierSearcher source = this.sources.get(i);
+                Date sc = source.getMetadata().getCurrency();
+                Date bc = built != null && i < built.size() ? built.get(i).getCurrency() : currency;
+                if (sc != null && (bc == null || sc.after(bc))) {
+                    logger.warn("Suggestion index at " + this.root + " is out of date source " + source.getIndexReader() + " has currency " + sc);
+                    changed.add(source);
                 }
             }
+            return changed;
         } catch (Exception ex) {
             logger.error("Unable to determine currency of suggester, rebuilding", ex);
+            this.metadata = null;
+            return this.sources;
+        }
+    }
+
+    /**
+     * Open the suggester described by the metadata.
+     *
+     * @return The suggester, or null if there is no suggester to open
+     *
+     * @throws IOException if unable to open the suggester
+     */
+    protected AnalyzingInfixSuggester open() throws IOException {
+        if (this.metadata == null)
+            return null;
+        File location = this.getGeneration(this.metadata);
+        FSDirectory dir = FSDirectory.open(location.toPath());
+        if (!DirectoryReader.indexExists(dir)) {
+            dir.close();
+            return null;
         }
-        this.suggester = new BlendedInfixSuggester(
-                this.directory,
-                this.analyzer
-        );
-        if (!build) {
-            logger.info("Suggester " + this.suggester + " in " + this.directory + " has " + this.suggester.getCount() + " entries");
-        } else {
-            logger.info("Building suggester at " + this.directory);
+        this.location = location;
+        this.shared.acquire(location);
+        return new BlendedInfixSuggester(dir, this.analyzer);
+    }
+
+    /**
+     * Rebuild the suggester.
+     * <p>
+     * Only the changed sources are re-read into the work index, unless there is no work index,
+     * in which case all sources are read.
+     * The new suggester replaces the current suggester once built.
+     * If the suggester is closed while rebuilding, the rebuild is abandoned before
+     * the next source is read.
+     * </p>
+     *
+     * @param changed The sources that have changed
+     *
+     * @throws StoreException if unable to build the suggester
+     * @throws CancellationException if the suggester has been closed
+     */
+    public void rebuild(Collection<LuceneClassifierSearcher> changed) throws StoreException {
+        synchronized (this.shared) {
+            this.checkClosed();
+            Collection<LuceneClassifierSearcher> rebuild = changed;
+            try (FSDirectory work = FSDirectory.open(new File(this.root, WORK_DIRECTORY).toPath())) {
+                if (!DirectoryReader.indexExists(work))
+                    rebuild = this.sources;
+            } catch (IOException ex) {
+                throw new StoreException("Unable to open work index for " + this.root, ex);
+            }
             this.start();
-            for (LuceneClassifierSearcher source: this.sources) {
-                this.add(source);
+            try {
+                for (LuceneClassifierSearcher source: rebuild) {
+                    this.checkClosed();
+                    this.add(source);
+                }
+                this.checkClosed();
+            } catch (StoreException | RuntimeException ex) {
+                IOUtils.closeWhileHandlingException(this.workWriter, this.workStore);
+                this.workWriter = null;
+                this.workStore = null;
+                this.workDirectory = null;
+                throw ex;
             }
-            this.create();
-            this.store();
+            this.doCreate();
+        }
+    }
+
+    /**
+     * Abandon a build if the suggester has been closed.
+     *
+     * @throws CancellationException if closed
+     */
+    private void checkClosed() {
+        if (this.closed)
+            throw new CancellationException("Suggester at " + this.root + " has been closed");
+    }
+
+    /**
+     * Rebuild the suggester in the background.
+     * <p>
+     * The current suggester continues to provide suggestions until the rebuild is complete.
+     * </p>
+     *
+     * @param changed The sources that have changed
+     *
+     * @return A future that completes when the new suggester is in use
+     *
+     * @see #rebuild(Collection)
+     */
+    public CompletableFuture<Void> rebuildAsync(Collection<LuceneClassifierSearcher> changed) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        this.rebuild = future;
+        Thread worker = new Thread(() -> {
+            try {
+                this.rebuild(changed);
+                future.complete(null);
+            } catch (CancellationException ex) {
+                logger.info("Abandoned rebuild of suggester at " + this.root);
+                future.cancel(false);
+            } catch (Throwable ex) {
+                logger.error("Unable to rebuild suggester at " + this.root, ex);
+                future.completeExceptionally(ex);
+            }
+        }, "LuceneClassifierSuggester-rebuild");
+        worker.setDaemon(true);
+        worker.start();
+        return future;
+    }
+
+    /**
+     * Get the most recent background rebuild.
+     *
+     * @return A future that completes when the rebuild is finished, already complete if there has been no rebuild
+     */
+    public CompletableFuture<Void> getRebuild() {
+        return this.rebuild;
+    }
+
+    /**
+     * Replace the current suggester with a newly built suggester.
+     * <p>
+     * The metadata is updated and the previous generation is closed.
+     * The previous generation is removed, unless another suggester sharing the directory is still using it.
+     * If this suggester has been closed in the meantime, the new suggester is discarded.
+     * </p>
+     *
+     * @param built The new suggester
+     * @param generation The location of the new suggester
+     *
+     * @throws IOException if unable to store the metadata
+     */
+    protected synchronized void swap(AnalyzingInfixSuggester built, File generation) throws IOException {
+        if (this.closed) {
+            built.close();
+            FileUtils.deleteAll(generation);
+            return;
         }
-        return !build;
+        File previous = this.location;
+        this.store(generation);
+        this.location = generation;
+        this.shared.acquire(generation);
+        AnalyzingInfixSuggester old = this.suggester.getAndSet(built);
+        if (old != null)
+            old.close();
+        if (previous != null && this.shared.release(previous) && !previous.equals(this.root) && !previous.equals(generation))
+            FileUtils.deleteAll(previous);
     }
 
     /**
@@ -266,18 +623,70 @@ public class LuceneClassifierSuggester extends ClassifierSuggester<LuceneClassif
      * @throws IOException if unable to write the suggester
      */
     public void store() throws IOException {
-        File store = new File(this.directory.getDirectory().toFile(), SUGGESTER_METADATA);
+        this.store(this.location == null ? this.root : this.location);
+    }
+
+    /**
+     * Store the metadata for a suggester
+     *
+     * @param location The location of the suggester
+     *
+     * @throws IOException if unable to write the suggester
+     */
+    protected void store(File location) throws IOException {
+        File store = new File(this.root, SUGGESTER_METADATA);
         logger.info("Creating store metadata " + store);
         this.metadata = Metadata.builder()
                 .identifier(this.baseFactory.getNetworkId() + "-suggester")
                 .title("Suggestion Index")
                 .created(new Date())
                 .sources(this.sources.stream().map(ClassifierSearcher::getMetadata).collect(Collectors.toList()))
+                .properties(location.equals(this.root) ? null : Collections.singletonMap(GENERATION_PROPERTY, location.getName()))
                 .build();
         ObjectMapper mapper = JsonUtils.createMapper();
         mapper.writeValue(store, metadata);
      }
 
+    /**
+     * Get the location of the suggester described by some metadata.
+     * <p>
+     * Suggesters built before generations were used are stored directly in the suggester directory.
+     * </p>
+     *
+     * @param metadata The suggester metadata
+     *
+     * @return The suggester location
+     */
+    protected File getGeneration(Metadata metadata) {
+        String generation = metadata.getProperties() == null ? null : metadata.getProperties().get(GENERATION_PROPERTY);
+        return generation == null ? this.root : new File(this.root, generation);
+    }
+
+    /**
+     * Choose a new, unused generation directory.
+     *
+     * @return The new generation directory
+     */
+    protected File newGeneration() {
+        long generation = System.currentTimeMillis();
+        File location;
+        while ((location = new File(this.root, GENERATION_PREFIX + generation)).exists())
+            generation++;
+        return location;
+    }
+
+    /**
+     * Get the identifier used to tag documents from a source in the work index.
+     *
+     * @param source The source
+     *
+     * @return The position of the source, or the source directory if not one of the configured sources
+     */
+    protected String getSourceId(LuceneClassifierSearcher source) {
+        int index = this.sources.indexOf(source);
+        return index >= 0 ? Integer.toString(index) : source.getDirectory().toString();
+    }
+
     /**
      * Build a suggestion list for a fragment of text.
      *
@@ -291,7 +700,19 @@ public class LuceneClassifierSuggester extends ClassifierSuggester<LuceneClassif
         int gets = Math.max(size * 2, 10);
         List<Suggestion<LuceneClassifier>> suggestions = new ArrayList<>(gets);
         try {
-            List<Lookup.LookupResult> results = this.suggester.lookup(fragment.toLowerCase(), false, gets);
+            AnalyzingInfixSuggester suggester = this.suggester.get();
+            if (suggester == null)
+                throw new StoreException("Suggester at " + this.root + " has not been loaded");
+            List<Lookup.LookupResult> results;
+            try {
+                results = suggester.lookup(fragment.toLowerCase(), false, gets);
+            } catch (IllegalStateException ex) {
+                // Swapped and closed during lookup, so try the replacement
+                AnalyzingInfixSuggester replacement = this.suggester.get();
+                if (replacement == null || replacement == suggester)
+                    throw ex;
+                results = replacement.lookup(fragment.toLowerCase(), false, gets);
+            }
             Term baseType = this.baseFactory.getConcept();
             Optional<Observable<String>> baseIdentifier = this.baseFactory.getIdentifier(); // Presence checked on construction
             Optional<Observable<String>> synonymIdentifier = this.baseFactory.getAccepted();
@@ -326,11 +747,63 @@ public class LuceneClassifierSuggester extends ClassifierSuggester<LuceneClassif
 
     /**
      * Close the resource.
+     * <p>
+     * Any background rebuild is abandoned and waited for, so that it does not leave
+     * a partially built generation behind.
+     * The suggester directory is only closed if it was opened by the suggester.
+     * </p>
      *
      * @throws Exception if unable to close
      */
     @Override
     public void close() throws Exception {
-        this.suggester.close();
+        this.closed = true;
+        try {
+            this.rebuild.get();
+        } catch (CancellationException | ExecutionException ex) {
+            // Already logged by the rebuild, if not caused by closing
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            if (this.location != null) {
+                this.shared.release(this.location);
+                this.location = null;
+            }
+            IOUtils.close(this.suggester.getAndSet(null), this.utils, this.ownDirectory ? this.directory : null);
+        }
+    }
+
+    /**
+     * The state shared by all suggesters using the same directory.
+     * <p>
+     * Instances are used as the build lock for the directory and
+     * count the suggesters using each generation.
+     * </p>
+     */
+    private static class SharedDirectory {
+        /** The number of suggesters using each generation */
+        private final Map<File, Integer> users = new ConcurrentHashMap<>();
+
+        /**
+         * Note that a suggester is using a generation.
+         *
+         * @param generation The generation
+         */
+        public void acquire(File generation) {
+            this.users.merge(generation, 1, Integer::sum);
+        }
+
+        /**
+         * Note that a suggester has stopped using a generation.
+         *
+         * @param generation The generation
+         *
+         * @return True if nothing else is using the generation
+         */
+        public boolean release(File generation) {
+            Integer count = this.users.computeIfPresent(generation, (g, c) -> c > 1 ? c - 1 : null);
+            return count == null;
+        }
     }
 }
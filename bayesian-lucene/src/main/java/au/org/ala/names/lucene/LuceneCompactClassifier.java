@@ -0,0 +1,150 @@
+package au.org.ala.names.lucene;
+
+import au.org.ala.bayesian.Parameters;
+import au.org.ala.bayesian.StoreException;
+import lombok.Getter;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.IndexableField;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Supplier;
+
+/**
+ * A lucene classifier that reads its values from a {@link CompactClassifierCache} entry.
+ * <p>
+ * Fields are decoded from the entry when asked for.
+ * Inference parameters are shared with the cache entry, so that they are decoded once
+ * for all the classifiers built from the entry.
+ * </p>
+ * <p>
+ * If the classifier is modified, the document is requested or a field that the entry does not hold is asked for,
+ * then the full document is built and the classifier behaves like an ordinary lucene classifier.
+ * A complete entry is rebuilt into a document. Otherwise the document is loaded again from the index.
+ * As with {@link LuceneDocValuesClassifier}, the rebuilt document only contains stored fields
+ * and is not suitable for writing back to an index.
+ * </p>
+ */
+public class LuceneCompactClassifier extends LuceneClassifier {
+    /** The cache entry */
+    @Getter
+    private final CompactClassifierCache.Entry entry;
+    /** The source of the full document, if the entry is not complete */
+    private final CompactClassifierCache.Loader loader;
+    /** Has the full document been built from the entry? */
+    private volatile boolean materialised;
+
+    /**
+     * Construct for a cache entry.
+     *
+     * @param entry The entry
+     * @param loader The source of the full document, if the entry is not complete
+     */
+    public LuceneCompactClassifier(CompactClassifierCache.Entry entry, CompactClassifierCache.Loader loader) {
+        super(new Document());
+        this.entry = entry;
+        this.loader = loader;
+        this.materialised = false;
+    }
+
+    /**
+     * Get the underlying document.
+     * <p>
+     * The document is built from the entry on first access.
+     * </p>
+     *
+     * @return The full document
+     */
+    @Override
+    public Document getDocument() {
+        if (!this.materialised)
+            this.materialise();
+        return super.getDocument();
+    }
+
+    /**
+     * Get the fields with a particular name.
+     * <p>
+     * Unless the document has been built, the fields are taken from the entry.
+     * If the entry does not hold the field and is not complete, the full document is built.
+     * </p>
+     *
+     * @param name The field name
+     *
+     * @return The fields, in the order they were added
+     */
+    @Override
+    protected IndexableField[] getFields(String name) {
+        if (!this.materialised && (this.entry.isComplete() || this.entry.contains(name)))
+            return this.decode(name);
+        if (!this.materialised)
+            this.materialise();
+        return super.getFields(name);
+    }
+
+    /**
+     * Get the inference parameters for this classifier, loading them if necessary.
+     * <p>
+     * Unless the classifier has been modified, the parameters are taken from, or
+     * stored in, the cache entry.
+     * </p>
+     *
+     * @param factory The factory for an empty parameter set
+     * @param <P> The type of parameters
+     *
+     * @return The loaded parameters
+     *
+     * @throws StoreException if unable to retrieve the parameters
+     */
+    @Override
+    public <P extends Parameters> P getParameters(Supplier<P> factory) throws StoreException {
+        if (this.materialised)
+            return super.getParameters(factory);
+        Parameters parameters = this.entry.getParameters();
+        if (parameters == null) {
+            parameters = super.getParameters(factory);
+            this.entry.setParameters(parameters);
+        }
+        return (P) parameters;
+    }
+
+    /**
+     * Build the full document from the entry, or from the index if the entry is not complete.
+     */
+    protected synchronized void materialise() {
+        if (this.materialised)
+            return;
+        Document document = super.getDocument();
+        if (this.entry.isComplete() || this.loader == null) {
+            for (String name: this.entry.getNames()) {
+                for (IndexableField field: this.decode(name))
+                    document.add(field);
+            }
+        } else {
+            try {
+                for (IndexableField field: this.loader.load(this.entry.getDoc()).getDocument()) {
+                    if (field.fieldType().stored())
+                        document.add(field);
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Unable to load document " + this.entry.getDoc(), ex);
+            }
+        }
+        this.materialised = true;
+    }
+
+    /**
+     * Decode the values for a field name.
+     *
+     * @param name The field name
+     *
+     * @return The decoded fields
+     */
+    protected IndexableField[] decode(String name) {
+        try {
+            return this.entry.getFields(name);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Unable to decode " + name + " for document " + this.entry.getDoc(), ex);
+        }
+    }
+}
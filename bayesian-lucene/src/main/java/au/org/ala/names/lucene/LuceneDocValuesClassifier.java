@@ -0,0 +1,282 @@
+package au.org.ala.names.lucene;
+
+import lombok.Getter;
+import org.apache.lucene.document.BinaryDocValuesField;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.index.*;
+import org.apache.lucene.util.BytesRef;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A lucene classifier that reads its values from per-segment doc values.
+ * <p>
+ * Indexes built with doc values (see {@link #withDocValues(Document)}) hold a copy of
+ * each stored field as a binary doc value column, encoded with all the field values in order.
+ * Candidates can then be built without loading and decompressing the entire stored document.
+ * Columns are only read when the field is first asked for,
+ * so inference only touches the fields that the generated match actually uses.
+ * </p>
+ * <p>
+ * The classifier is tied to an open segment reader.
+ * If the classifier is modified, or the document is requested, then the full document is
+ * built from the doc values and the classifier behaves like an ordinary lucene classifier.
+ * However, the rebuilt document only contains stored fields and is not suitable for
+ * writing back to an index.
+ * </p>
+ */
+public class LuceneDocValuesClassifier extends LuceneClassifier {
+    /** An empty field list */
+    private static final IndexableField[] EMPTY = new IndexableField[0];
+
+    /** Encoding tag for a string */
+    private static final byte STRING_TAG = 0;
+    /** Encoding tag for an integer */
+    private static final byte INT_TAG = 1;
+    /** Encoding tag for a long */
+    private static final byte LONG_TAG = 2;
+    /** Encoding tag for a float */
+    private static final byte FLOAT_TAG = 3;
+    /** Encoding tag for a double */
+    private static final byte DOUBLE_TAG = 4;
+    /** Encoding tag for a binary value */
+    private static final byte BINARY_TAG = 5;
+
+    /** The segment reader */
+    @Getter
+    private final LeafReader reader;
+    /** The segment-local document number */
+    @Getter
+    private final int doc;
+    /** The columns that have been read so far */
+    private final Map<String, IndexableField[]> columns;
+    /** Has the full document been built from the doc values? */
+    private volatile boolean materialised;
+
+    /**
+     * Construct for a document in a segment.
+     *
+     * @param reader The segment reader
+     * @param doc The segment-local document number
+     */
+    public LuceneDocValuesClassifier(LeafReader reader, int doc) {
+        super(new Document());
+        this.reader = reader;
+        this.doc = doc;
+        this.columns = new ConcurrentHashMap<>();
+        this.materialised = false;
+    }
+
+    /**
+     * Get the underlying document.
+     * <p>
+     * The document is built from all the doc value columns on first access.
+     * </p>
+     *
+     * @return The full document
+     */
+    @Override
+    public Document getDocument() {
+        if (!this.materialised)
+            this.materialise();
+        return super.getDocument();
+    }
+
+    /**
+     * Get the fields with a particular name.
+     * <p>
+     * Unless the document has been built, the fields are read from the doc value column
+     * for that name and remembered.
+     * </p>
+     *
+     * @param name The field name
+     *
+     * @return The fields, in the order they were added
+     */
+    @Override
+    protected IndexableField[] getFields(String name) {
+        if (this.materialised)
+            return super.getFields(name);
+        IndexableField[] fields = this.columns.get(name);
+        if (fields == null) {
+            fields = this.readColumn(name);
+            this.columns.putIfAbsent(name, fields);
+        }
+        return fields;
+    }
+
+    /**
+     * Build the full document from the doc value columns.
+     */
+    protected synchronized void materialise() {
+        if (this.materialised)
+            return;
+        Document document = super.getDocument();
+        for (FieldInfo info: this.reader.getFieldInfos()) {
+            if (info.getDocValuesType() != DocValuesType.BINARY)
+                continue;
+            IndexableField[] fields = this.columns.get(info.name);
+            if (fields == null)
+                fields = this.readColumn(info.name);
+            for (IndexableField field: fields)
+                document.add(field);
+        }
+        this.materialised = true;
+        this.columns.clear();
+    }
+
+    /**
+     * Read and decode the values in a column.
+     *
+     * @param name The column (field) name
+     *
+     * @return The decoded fields
+     */
+    protected IndexableField[] readColumn(String name) {
+        try {
+            BinaryDocValues values = this.reader.getBinaryDocValues(name);
+            if (values == null || !values.advanceExact(this.doc))
+                return EMPTY;
+            return decode(name, values.binaryValue());
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Unable to read column " + name + " for document " + this.doc, ex);
+        }
+    }
+
+    /**
+     * Does a segment contain classifier doc values?
+     *
+     * @param reader The segment reader
+     *
+     * @return True if the segment has been written with doc value columns
+     */
+    public static boolean hasDocValues(LeafReader reader) {
+        FieldInfo info = reader.getFieldInfos().fieldInfo(ID_FIELD);
+        return info != null && info.getDocValuesType() == DocValuesType.BINARY;
+    }
+
+    /**
+     * Add doc value columns to a document.
+     * <p>
+     * Each stored field is grouped by name and written as a binary doc value
+     * containing all the values for the field, in order.
+     * The original document is not modified.
+     * </p>
+     *
+     * @param document The source document
+     *
+     * @return A document containing the original fields and the doc value columns
+     */
+    public static Document withDocValues(Document document) {
+        Map<String, List<IndexableField>> stored = new LinkedHashMap<>();
+        Document copy = new Document();
+        for (IndexableField field: document) {
+            if (field.fieldType().docValuesType() != DocValuesType.NONE)
+                continue; // Rebuild any existing columns
+            copy.add(field);
+            if (field.fieldType().stored())
+                stored.computeIfAbsent(field.name(), n -> new ArrayList<>()).add(field);
+        }
+        for (Map.Entry<String, List<IndexableField>> entry: stored.entrySet())
+            copy.add(new BinaryDocValuesField(entry.getKey(), encode(entry.getValue())));
+        return copy;
+    }
+
+    /**
+     * Encode a list of fields into a column value.
+     *
+     * @param fields The fields
+     *
+     * @return The encoded value
+     */
+    protected static BytesRef encode(List<IndexableField> fields) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(fields.size() * 16 + 4);
+            DataOutputStream os = new DataOutputStream(bytes);
+            os.writeInt(fields.size());
+            for (IndexableField field: fields) {
+                BytesRef binary = field.binaryValue();
+                Number number = field.numericValue();
+                if (binary != null) {
+                    os.writeByte(BINARY_TAG);
+                    os.writeInt(binary.length);
+                    os.write(binary.bytes, binary.offset, binary.length);
+                } else if (number instanceof Integer || number instanceof Short || number instanceof Byte) {
+                    os.writeByte(INT_TAG);
+                    os.writeInt(number.intValue());
+                } else if (number instanceof Long) {
+                    os.writeByte(LONG_TAG);
+                    os.writeLong(number.longValue());
+                } else if (number instanceof Float) {
+                    os.writeByte(FLOAT_TAG);
+                    os.writeFloat(number.floatValue());
+                } else if (number != null) {
+                    os.writeByte(DOUBLE_TAG);
+                    os.writeDouble(number.doubleValue());
+                } else {
+                    byte[] string = field.stringValue().getBytes(StandardCharsets.UTF_8);
+                    os.writeByte(STRING_TAG);
+                    os.writeInt(string.length);
+                    os.write(string);
+                }
+            }
+            os.close();
+            return new BytesRef(bytes.toByteArray());
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Unable to encode fields", ex);
+        }
+    }
+
+    /**
+     * Decode a column value into a list of fields.
+     *
+     * @param name The field name
+     * @param value The encoded value
+     *
+     * @return The decoded fields
+     *
+     * @throws IOException if unable to decode the value
+     */
+    protected static IndexableField[] decode(String name, BytesRef value) throws IOException {
+        DataInputStream is = new DataInputStream(new ByteArrayInputStream(value.bytes, value.offset, value.length));
+        int size = is.readInt();
+        IndexableField[] fields = new IndexableField[size];
+        for (int i = 0; i < size; i++) {
+            byte tag = is.readByte();
+            switch (tag) {
+                case STRING_TAG:
+                    byte[] string = new byte[is.readInt()];
+                    is.readFully(string);
+                    fields[i] = new StoredField(name, new String(string, StandardCharsets.UTF_8));
+                    break;
+                case INT_TAG:
+                    fields[i] = new StoredField(name, is.readInt());
+                    break;
+                case LONG_TAG:
+                    fields[i] = new StoredField(name, is.readLong());
+                    break;
+                case FLOAT_TAG:
+                    fields[i] = new StoredField(name, is.readFloat());
+                    break;
+                case DOUBLE_TAG:
+                    fields[i] = new StoredField(name, is.readDouble());
+                    break;
+                case BINARY_TAG:
+                    byte[] binary = new byte[is.readInt()];
+                    is.readFully(binary);
+                    fields[i] = new StoredField(name, binary);
+                    break;
+                default:
+                    throw new IOException("Unknown field tag " + tag + " for " + name);
+            }
+        }
+        return fields;
+    }
+}
@@ -2,6 +2,7 @@ package au.org.ala.names.lucene;
 
 import au.org.ala.bayesian.*;
 import au.org.ala.util.BasicNormaliser;
+import lombok.EqualsAndHashCode;
 import org.apache.commons.lang3.Range;
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.core.KeywordTokenizerFactory;
@@ -17,7 +18,10 @@ import org.apache.lucene.index.Term;
 import org.apache.lucene.search.*;
 import org.apache.lucene.search.BooleanQuery.Builder;
 import org.apache.lucene.util.QueryBuilder;
+import org.cache2k.Cache;
+import org.cache2k.Cache2kBuilder;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.util.Collection;
 import java.util.HashMap;
@@ -28,18 +32,53 @@ import static au.org.ala.bayesian.ExternalContext.LUCENE_VARIANT;
 
 /**
  * Build queries for lucene indexes
+ * <p>
+ * Query utilities can be shared between threads.
+ * The analyzer reuses its token streams on a per-thread basis and
+ * the queries built for single values are cached, since lucene queries are immutable.
+ * If the analyzer is the default keyword analyzer, then text queries are built
+ * directly, rather than via the analyzer.
+ * </p>
+ * <p>
+ * Query utilities hold an analyzer and, optionally, a query cache and should be closed
+ * by their owner when no longer needed.
+ * Utilities used for building indexes, where queries are rarely repeated, should be constructed
+ * with no cache.
+ * </p>
  */
-public class QueryUtils {
+public class QueryUtils implements Closeable {
     /** The amount to boost results from a matching name */
     public static final float NAME_BOOST = 2.0f;
+    /** The default size of the query cache */
+    public static final int DEFAULT_CACHE_SIZE = 10000;
 
     private final Analyzer analyzer;
+    /** The query builder for analysed text */
+    private final QueryBuilder queryBuilder;
+    /** Is the analyzer a lower-case keyword analyzer? */
+    private final boolean keyword;
+    /** The cache of single-value queries (null for no cache) */
+    private final Cache<QueryKey, Query> queryCache;
 
     /**
      * Default constructor
      */
     public QueryUtils() throws StoreException {
+        this(DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * Construct with a query cache size.
+     *
+     * @param cacheSize The number of single-value queries to cache, zero or less for no cache
+     */
+    public QueryUtils(int cacheSize) throws StoreException {
         this.analyzer = this.createAnalyzer();
+        this.queryBuilder = new QueryBuilder(this.analyzer);
+        this.keyword = this.isKeywordAnalyzer();
+        this.queryCache = cacheSize <= 0 ? null : Cache2kBuilder.of(QueryKey.class, Query.class)
+                .entryCapacity(cacheSize)
+                .build();
     }
 
     /**
@@ -103,8 +142,7 @@ public class QueryUtils {
      * @return The name search query
      */
     public BooleanClause nameClause(String value) {
-        QueryBuilder builder = new QueryBuilder(this.analyzer);
-        Query query = builder.createPhraseQuery(LuceneClassifier.NAMES_FIELD, value);
+        Query query = this.textQuery(LuceneClassifier.NAMES_FIELD, value);
         query = new BoostQuery(query, NAME_BOOST);
         return new BooleanClause(query, BooleanClause.Occur.SHOULD);
     }
@@ -186,6 +224,9 @@ public class QueryUtils {
 
     /**
      * Concert a field/value into a query.
+     * <p>
+     * Queries for single values are cached.
+     * </p>
      *
      * @param field The field name
      * @param value The required value
@@ -202,6 +243,28 @@ public class QueryUtils {
             }
             return all.build();
         }
+        if (this.queryCache == null || value == null)
+            return this.buildQuery(field, style, normaliser, analysis, value);
+        QueryKey key = new QueryKey(field, style, normaliser, analysis, value);
+        Query query = this.queryCache.peek(key);
+        if (query == null) {
+            query = this.buildQuery(field, style, normaliser, analysis, value);
+            this.queryCache.put(key, query);
+        }
+        return query;
+    }
+
+    /**
+     * Build a query for a single field/value.
+     *
+     * @param field The field name
+     * @param value The required value
+     *
+     * @return A matching lucene clause
+     *
+     * @throws StoreException if unable to convert to a query
+     */
+    protected <C, S, Q, Ctx> Query buildQuery(String field, Observable.Style style, Normaliser normaliser, Analysis<C, S, Q, Ctx> analysis, Object value) throws StoreException {
         Class<C> type = analysis.getType();
         if (value != null && !type.isAssignableFrom(value.getClass()))
             throw new StoreException("Value " + value + " does not match " + type);
@@ -225,9 +288,70 @@ public class QueryUtils {
             case CANONICAL:
                 return new TermQuery(new Term(field, query.toString()));
             default:
-                QueryBuilder builder = new QueryBuilder(this.getAnalyzer());
-                return builder.createPhraseQuery(field, query.toString());
+                return this.textQuery(field, query.toString());
+        }
+    }
+
+    /**
+     * Build a query for analysed text.
+     * <p>
+     * If the analyzer is known to produce a single, lower-case token then
+     * a term query is built directly.
+     * Otherwise, the text is run through the analyzer.
+     * </p>
+     *
+     * @param field The field name
+     * @param text The text to search for
+     *
+     * @return The query
+     */
+    protected Query textQuery(String field, String text) {
+        if (this.keyword && !text.isEmpty())
+            return new TermQuery(new Term(field, lowerCase(text)));
+        return this.queryBuilder.createPhraseQuery(field, text);
+    }
+
+    /**
+     * Lower-case text in the same way as {@link org.apache.lucene.analysis.LowerCaseFilter}.
+     * <p>
+     * Lower-casing is by code point and is locale-independent.
+     * </p>
+     *
+     * @param text The text
+     *
+     * @return The lower-case text
+     */
+    protected static String lowerCase(String text) {
+        final int length = text.length();
+        int i = 0;
+        while (i < length) {
+            int cp = text.codePointAt(i);
+            if (Character.toLowerCase(cp) != cp)
+                break;
+            i += Character.charCount(cp);
         }
+        if (i == length)
+            return text;
+        StringBuilder builder = new StringBuilder(length);
+        builder.append(text, 0, i);
+        while (i < length) {
+            int cp = text.codePointAt(i);
+            builder.appendCodePoint(Character.toLowerCase(cp));
+            i += Character.charCount(cp);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Does the analyzer built by {@link #createAnalyzer()} treat text as a single, lower-case token?
+     * <p>
+     * Subclasses that override {@link #createAnalyzer()} should also override this method.
+     * </p>
+     *
+     * @return True if the analyzer is a lower-case keyword analyzer
+     */
+    protected boolean isKeywordAnalyzer() {
+        return true;
     }
 
     /**
@@ -277,4 +401,61 @@ public class QueryUtils {
             throw new StoreException("Unable to construct an analyzer", ex);
         }
     }
+
+    /**
+     * Create an analyzer for prefix suggesters.
+     * <p>
+     * Names are treated as a single, case and accent folded token.
+     * Unlike {@link #createSuggesterAnalyzer()}, no ngrams are generated, since
+     * the suggester matches on prefixes.
+     * </p>
+     *
+     * @return The prefix suggester analyzer
+     *
+     * @throws StoreException if unable to build the analyzer
+     */
+    public static Analyzer createPrefixSuggesterAnalyzer() throws StoreException {
+        try {
+            return CustomAnalyzer.builder()
+                    .withTokenizer(KeywordTokenizerFactory.NAME)
+                    .addTokenFilter(ASCIIFoldingFilterFactory.NAME)
+                    .addTokenFilter(LowerCaseFilterFactory.NAME)
+                    .build();
+        } catch (IOException ex) {
+            throw new StoreException("Unable to construct an analyzer", ex);
+        }
+    }
+
+    /**
+     * Close the query utilities, releasing the query cache and analyzer.
+     */
+    @Override
+    public void close() {
+        if (this.queryCache != null)
+            this.queryCache.close();
+        this.analyzer.close();
+    }
+
+    /**
+     * A key for the query cache.
+     * <p>
+     * Normalisers and analyses are compared using their own notions of equality.
+     * </p>
+     */
+    @EqualsAndHashCode
+    private static class QueryKey {
+        private final String field;
+        private final Observable.Style style;
+        private final Normaliser normaliser;
+        private final Analysis analysis;
+        private final Object value;
+
+        public QueryKey(String field, Observable.Style style, Normaliser normaliser, Analysis analysis, Object value) {
+            this.field = field;
+            this.style = style;
+            this.normaliser = normaliser;
+            this.analysis = analysis;
+            this.value = value;
+        }
+    }
 }
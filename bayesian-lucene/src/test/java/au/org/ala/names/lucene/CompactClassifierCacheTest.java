@@ -0,0 +1,129 @@
+package au.org.ala.names.lucene;
+
+import au.org.ala.bayesian.ExternalContext;
+import au.org.ala.bayesian.StoreException;
+import au.org.ala.bayesian.TestFactory;
+import org.apache.lucene.document.Document;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class CompactClassifierCacheTest {
+    private LuceneClassifier load(int doc) throws IOException {
+        try {
+            LuceneClassifier classifier = new LuceneClassifier();
+            classifier.add(TestFactory.SCIENTIFIC_NAME, "Name " + doc, false, false);
+            classifier.add(TestFactory.RANK_ID, doc, false, false);
+            classifier.setNames(Arrays.asList("Name " + doc, "Synonym " + doc));
+            return new LuceneClassifier(classifier.makeDocumentCopy());
+        } catch (StoreException ex) {
+            throw new IOException(ex);
+        }
+    }
+
+    @Test
+    public void testCapacity1() {
+        assertEquals(16, new CompactClassifierCache(1, this::load).getCapacity());
+        assertEquals(1000, new CompactClassifierCache(1000, this::load).getCapacity());
+        assertEquals(1024, new CompactClassifierCache(1024, this::load).getCapacity());
+    }
+
+    @Test
+    public void testGet1() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CompactClassifierCache cache = new CompactClassifierCache(100, doc -> { loads.incrementAndGet(); return this.load(doc); });
+        LuceneClassifier c1 = cache.get(5);
+        assertTrue(c1 instanceof LuceneCompactClassifier);
+        assertEquals("Name 5", c1.get(TestFactory.SCIENTIFIC_NAME));
+        assertEquals(Integer.valueOf(5), c1.get(TestFactory.RANK_ID));
+        LuceneClassifier c2 = cache.get(5);
+        assertNotSame(c1, c2);
+        assertEquals("Name 5", c2.get(TestFactory.SCIENTIFIC_NAME));
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void testGet2() throws Exception {
+        CompactClassifierCache cache = new CompactClassifierCache(16, this::load);
+        for (int i = 0; i < 100; i++)
+            assertEquals("Name " + i, cache.get(i).get(TestFactory.SCIENTIFIC_NAME));
+        for (int i = 0; i < 100; i++)
+            assertEquals(Integer.valueOf(i), cache.get(i).get(TestFactory.RANK_ID));
+        assertEquals(200, cache.getHits() + cache.getMisses());
+        assertTrue(cache.getMisses() >= 100);
+    }
+
+    @Test
+    public void testGet3() throws Exception {
+        CompactClassifierCache cache = new CompactClassifierCache(16, this::load);
+        LuceneCompactClassifier c1 = (LuceneCompactClassifier) cache.get(5);
+        LuceneCompactClassifier c2 = (LuceneCompactClassifier) cache.get(5);
+        assertSame(c1.getEntry(), c2.getEntry());
+        assertTrue(c1.getEntry().isComplete());
+        assertEquals("Name 5", c2.getEntry().getFields(TestFactory.SCIENTIFIC_NAME.getExternal(ExternalContext.LUCENE))[0].stringValue());
+        cache.close();
+    }
+
+    @Test
+    public void testFields1() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        Set<String> fields = CompactClassifierCache.fieldsFor(Collections.singletonList(TestFactory.SCIENTIFIC_NAME));
+        CompactClassifierCache cache = new CompactClassifierCache(16, doc -> { loads.incrementAndGet(); return this.load(doc); }, fields);
+        LuceneCompactClassifier c1 = (LuceneCompactClassifier) cache.get(5);
+        assertFalse(c1.getEntry().isComplete());
+        assertFalse(c1.getEntry().contains(TestFactory.RANK_ID.getExternal(ExternalContext.LUCENE)));
+        assertEquals("Name 5", c1.get(TestFactory.SCIENTIFIC_NAME));
+        assertEquals(Arrays.asList("Name 5", "Synonym 5"), c1.getNames());
+        assertEquals(1, loads.get());
+        assertEquals(Integer.valueOf(5), c1.get(TestFactory.RANK_ID));
+        assertEquals(2, loads.get());
+        assertEquals(Integer.valueOf(5), cache.get(5).get(TestFactory.RANK_ID));
+        assertEquals(3, loads.get());
+        cache.close();
+    }
+
+    @Test
+    public void testGet4() throws Exception {
+        CompactClassifierCache cache = new CompactClassifierCache(16, this::load);
+        for (int i = 0; i < 100; i++)
+            cache.get(i);
+        assertTrue(cache.size() <= 16);
+        long hits = cache.getHits();
+        cache.get(200);
+        cache.get(200);
+        assertEquals(hits + 1, cache.getHits());
+        assertTrue(cache.size() <= 16);
+        cache.close();
+    }
+
+    @Test
+    public void testMaterialise1() throws Exception {
+        CompactClassifierCache cache = new CompactClassifierCache(16, this::load);
+        LuceneClassifier classifier = cache.get(7);
+        assertEquals(Arrays.asList("Name 7", "Synonym 7"), classifier.getNames());
+        Document document = classifier.getDocument();
+        assertEquals(2, document.getValues(LuceneClassifier.NAMES_FIELD).length);
+        classifier.add(TestFactory.CLASS_, "Insecta", false, false);
+        assertEquals("Insecta", classifier.get(TestFactory.CLASS_));
+        assertEquals("Name 7", classifier.get(TestFactory.SCIENTIFIC_NAME));
+        assertNull(cache.get(7).get(TestFactory.CLASS_));
+    }
+
+    @Test
+    public void testClear1() throws Exception {
+        CompactClassifierCache cache = new CompactClassifierCache(16, this::load);
+        cache.get(3);
+        cache.clear();
+        cache.get(3);
+        assertEquals(0, cache.getHits());
+        assertEquals(2, cache.getMisses());
+    }
+}
@@ -1,14 +1,22 @@
 package au.org.ala.names.lucene;
 
+import au.org.ala.bayesian.ExternalContext;
 import au.org.ala.bayesian.TestClassification;
 import au.org.ala.bayesian.TestFactory;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.FloatPoint;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.StoredField;
+import org.gbif.dwc.terms.DwcTerm;
 import org.junit.After;
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
-import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.*;
 
 public class LuceneClassifierSearcherTest {
     private LuceneUtils lucene;
@@ -43,6 +51,213 @@ public class LuceneClassifierSearcherTest {
         assertEquals(Integer.valueOf(7000), c1.get(TestFactory.RANK_ID));
     }
 
+    @Test
+    public void testSearchQueryCache1() throws Exception {
+        this.lucene = new LuceneUtils(LuceneClassifierSearcherTest.class, "lucene-searcher-1.csv", TestFactory.OBSERVABLES, TestFactory.SCIENTIFIC_NAME);
+        LuceneClassifierSearcherConfiguration config = LuceneClassifierSearcherConfiguration.builder().scoreCutoff(0.1f).queryCacheSize(100).build();
+        this.searcher = new LuceneClassifierSearcher(this.lucene.getIndexDir(), config, TestFactory.TAXON_ID);
+        TestClassification classification = new TestClassification();
+        classification.scientificName = "Lates calcarifer";
+        List<LuceneClassifier> classifiers1 = this.searcher.search(classification);
+        assertEquals(1, classifiers1.size());
+        assertEquals(0, this.searcher.getQueryCacheHits());
+        assertEquals(1, this.searcher.getQueryCacheMisses());
+        List<LuceneClassifier> classifiers2 = this.searcher.search(classification);
+        assertEquals(1, classifiers2.size());
+        assertEquals(classifiers1.get(0).getIdentifier(), classifiers2.get(0).getIdentifier());
+        assertEquals(1, this.searcher.getQueryCacheHits());
+        assertEquals(1, this.searcher.getQueryCacheMisses());
+        assertEquals(0.5, this.searcher.getQueryCacheHitRate(), 0.0001);
+    }
+
+    /**
+     * Cached query hits hold document numbers, which are only safe if the searcher never re-opens its reader.
+     */
+    @Test
+    public void testSearchQueryCache2() throws Exception {
+        this.lucene = new LuceneUtils(LuceneClassifierSearcherTest.class, "lucene-searcher-1.csv", TestFactory.OBSERVABLES, TestFactory.SCIENTIFIC_NAME);
+        LuceneClassifierSearcherConfiguration config = LuceneClassifierSearcherConfiguration.builder().scoreCutoff(0.1f).queryCacheSize(100).build();
+        this.searcher = new LuceneClassifierSearcher(this.lucene.getIndexDir(), config, TestFactory.TAXON_ID);
+        long version = this.searcher.getIndexVersion();
+        TestClassification classification = new TestClassification();
+        classification.scientificName = "Lates calcarifer";
+        List<LuceneClassifier> classifiers1 = this.searcher.search(classification);
+        assertEquals(1, classifiers1.size());
+        this.lucene.add(classifiers1.get(0).makeDocumentCopy());
+        assertEquals(version, this.searcher.getIndexVersion());
+        List<LuceneClassifier> classifiers2 = this.searcher.search(classification);
+        assertEquals(1, classifiers2.size());
+        assertEquals(classifiers1.get(0).getIdentifier(), classifiers2.get(0).getIdentifier());
+        assertEquals(1, this.searcher.getQueryCacheHits());
+    }
+
+    @Test
+    public void testSearchCompactCache1() throws Exception {
+        this.lucene = new LuceneUtils(LuceneClassifierSearcherTest.class, "lucene-searcher-1.csv", TestFactory.OBSERVABLES, TestFactory.SCIENTIFIC_NAME);
+        LuceneClassifierSearcherConfiguration config = LuceneClassifierSearcherConfiguration.builder().scoreCutoff(0.1f).compactCache(true).build();
+        this.searcher = new LuceneClassifierSearcher(this.lucene.getIndexDir(), config, TestFactory.TAXON_ID);
+        TestClassification classification = new TestClassification();
+        classification.scientificName = "Lates calcarifer";
+        List<LuceneClassifier> classifiers = this.searcher.search(classification);
+        assertEquals(1, classifiers.size());
+        assertEquals(0, this.searcher.getCompactCacheHits());
+        assertEquals(1, this.searcher.getCompactCacheMisses());
+        classifiers = this.searcher.search(classification);
+        assertEquals(1, classifiers.size());
+        assertEquals(1, this.searcher.getCompactCacheHits());
+        assertEquals(1, this.searcher.getCompactCacheMisses());
+        LuceneClassifier c1 = classifiers.get(0);
+        assertTrue(c1 instanceof LuceneCompactClassifier);
+        assertEquals("Lates calcarifer", c1.get(TestFactory.SCIENTIFIC_NAME));
+        assertEquals("ACTINOPTERYGII", c1.get(TestFactory.CLASS_));
+        assertEquals("Barramundi", c1.get(TestFactory.VERNACULAR_NAME));
+        assertEquals(Integer.valueOf(7000), c1.get(TestFactory.RANK_ID));
+        assertEquals(DwcTerm.Taxon, c1.getType());
+        assertEquals(Collections.singletonList("Lates calcarifer"), c1.getNames());
+        assertNotNull(c1.getDocument().get(LuceneClassifier.ID_FIELD));
+        assertEquals("Lates calcarifer", c1.get(TestFactory.SCIENTIFIC_NAME));
+    }
+
+    @Test
+    public void testWarmup1() throws Exception {
+        this.lucene = new LuceneUtils(LuceneClassifierSearcherTest.class, "lucene-searcher-1.csv", TestFactory.OBSERVABLES, TestFactory.SCIENTIFIC_NAME);
+        LuceneClassifierSearcherConfiguration config = LuceneClassifierSearcherConfiguration.builder().scoreCutoff(0.1f).warmupSize(2).build();
+        this.searcher = new LuceneClassifierSearcher(this.lucene.getIndexDir(), config, TestFactory.TAXON_ID);
+        assertEquals(2, this.searcher.getWarmupClassifiers());
+        assertEquals(2, this.searcher.getCachedClassifiers());
+        assertTrue(this.searcher.getCacheFill() > 0.0);
+    }
+
+    @Test
+    public void testWarmup2() throws Exception {
+        this.lucene = new LuceneUtils(LuceneClassifierSearcherTest.class, "lucene-searcher-1.csv", TestFactory.OBSERVABLES, TestFactory.SCIENTIFIC_NAME);
+        LuceneClassifierSearcherConfiguration config = LuceneClassifierSearcherConfiguration.builder().scoreCutoff(0.1f).compactCache(true).warmupSize(3).warmupField(TestFactory.RANK_RANGE.getExternal(ExternalContext.LUCENE)).build();
+        this.searcher = new LuceneClassifierSearcher(this.lucene.getIndexDir(), config, TestFactory.TAXON_ID);
+        assertEquals(3, this.searcher.getWarmupClassifiers());
+        assertEquals(3, this.searcher.getCachedClassifiers());
+        assertEquals(3, this.searcher.getCompactCacheMisses());
+    }
+
+    // Long and float points are decoded as longs and floats, rather than by width
+    @Test
+    public void testWarmup3() throws Exception {
+        this.lucene = new LuceneUtils(TestFactory.OBSERVABLES);
+        long[] longs = { -5L, 1L << 40, 3L };
+        float[] floats = { 0.5f, 1.5f, 2.5f };
+        for (int i = 0; i < longs.length; i++) {
+            LuceneClassifier classifier = new LuceneClassifier();
+            classifier.setType(DwcTerm.Taxon);
+            classifier.add(TestFactory.TAXON_ID, "id" + i, false, false);
+            Document document = classifier.makeDocumentCopy();
+            document.add(new StoredField("testLong", longs[i]));
+            document.add(new LongPoint("testLong", longs[i]));
+            document.add(new StoredField("testFloat", floats[i]));
+            document.add(new FloatPoint("testFloat", floats[i]));
+            this.lucene.add(document);
+        }
+        LuceneClassifierSearcherConfiguration config = LuceneClassifierSearcherConfiguration.builder().compactCache(true).warmupSize(1).warmupField("testLong").build();
+        this.searcher = new LuceneClassifierSearcher(this.lucene.getIndexDir(), config, TestFactory.TAXON_ID);
+        assertEquals(1, this.searcher.getWarmupClassifiers());
+        assertNotNull(this.searcher.get(DwcTerm.Taxon, TestFactory.TAXON_ID, "id1"));
+        assertEquals(1, this.searcher.getCompactCacheHits());
+        this.searcher.close();
+        config = LuceneClassifierSearcherConfiguration.builder().compactCache(true).warmupSize(1).warmupField("testFloat").build();
+        this.searcher = new LuceneClassifierSearcher(this.lucene.getIndexDir(), config, TestFactory.TAXON_ID);
+        assertEquals(1, this.searcher.getWarmupClassifiers());
+        assertNotNull(this.searcher.get(DwcTerm.Taxon, TestFactory.TAXON_ID, "id2"));
+        assertEquals(1, this.searcher.getCompactCacheHits());
+    }
+
+    @Test
+    public void testGet1() throws Exception {
+        this.lucene = new LuceneUtils(LuceneClassifierSearcherTest.class, "lucene-searcher-1.csv", TestFactory.OBSERVABLES, TestFactory.SCIENTIFIC_NAME);
+        LuceneClassifierSearcherConfiguration config = LuceneClassifierSearcherConfiguration.builder().build();
+        this.searcher = new LuceneClassifierSearcher(this.lucene.getIndexDir(), config, TestFactory.TAXON_ID);
+        LuceneClassifier c1 = this.searcher.get(DwcTerm.Taxon, TestFactory.TAXON_ID, "id2");
+        assertNotNull(c1);
+        assertEquals("Crocodylus porosus", c1.get(TestFactory.SCIENTIFIC_NAME));
+        assertNull(this.searcher.get(DwcTerm.Taxon, TestFactory.TAXON_ID, "id99"));
+        assertNull(this.searcher.get(DwcTerm.Occurrence, TestFactory.TAXON_ID, "id2"));
+    }
+
+    @Test
+    public void testGetAll1() throws Exception {
+        this.lucene = new LuceneUtils(LuceneClassifierSearcherTest.class, "lucene-searcher-1.csv", TestFactory.OBSERVABLES, TestFactory.SCIENTIFIC_NAME);
+        LuceneClassifierSearcherConfiguration config = LuceneClassifierSearcherConfiguration.builder().build();
+        this.searcher = new LuceneClassifierSearcher(this.lucene.getIndexDir(), config, TestFactory.TAXON_ID);
+        Map<String, LuceneClassifier> classifiers = this.searcher.getAll(DwcTerm.Taxon, TestFactory.TAXON_ID, Arrays.asList("id3", "id99", "id1"));
+        assertEquals(2, classifiers.size());
+        assertEquals("Denisonia devisi", classifiers.get("id3").get(TestFactory.SCIENTIFIC_NAME));
+        assertEquals("Lates calcarifer", classifiers.get("id1").get(TestFactory.SCIENTIFIC_NAME));
+        assertFalse(classifiers.containsKey("id99"));
+    }
+
+    @Test
+    public void testGetAllGrouped1() throws Exception {
+        this.lucene = new LuceneUtils(LuceneClassifierSearcherTest.class, "lucene-searcher-1.csv", TestFactory.OBSERVABLES, TestFactory.SCIENTIFIC_NAME);
+        LuceneClassifierSearcherConfiguration config = LuceneClassifierSearcherConfiguration.builder().build();
+        this.searcher = new LuceneClassifierSearcher(this.lucene.getIndexDir(), config, TestFactory.TAXON_ID);
+        Map<String, List<LuceneClassifier>> classifiers = this.searcher.getAllGrouped(DwcTerm.Taxon, TestFactory.TAXON_ID, Arrays.asList("id3", "id99", "id1"));
+        assertEquals(2, classifiers.size());
+        assertEquals(1, classifiers.get("id3").size());
+        assertEquals("Denisonia devisi", classifiers.get("id3").get(0).get(TestFactory.SCIENTIFIC_NAME));
+        assertEquals(1, classifiers.get("id1").size());
+        assertEquals("Lates calcarifer", classifiers.get("id1").get(0).get(TestFactory.SCIENTIFIC_NAME));
+        assertFalse(classifiers.containsKey("id99"));
+        assertTrue(this.searcher.getAllGrouped(DwcTerm.Occurrence, TestFactory.TAXON_ID, Arrays.asList("id1")).isEmpty());
+    }
+
+    @Test
+    public void testGetAllGrouped2() throws Exception {
+        this.lucene = new LuceneUtils(LuceneClassifierSearcherTest.class, "lucene-searcher-1.csv", TestFactory.OBSERVABLES, TestFactory.SCIENTIFIC_NAME);
+        LuceneClassifierSearcherConfiguration config = LuceneClassifierSearcherConfiguration.builder().build();
+        this.searcher = new LuceneClassifierSearcher(this.lucene.getIndexDir(), config, TestFactory.TAXON_ID);
+        Map<String, List<LuceneClassifier>> classifiers = this.searcher.getAllGrouped(DwcTerm.Taxon, TestFactory.CLASS_, Arrays.asList("reptilia", "ACTINOPTERYGII"));
+        assertEquals(2, classifiers.size());
+        assertEquals(2, classifiers.get("reptilia").size());
+        assertEquals("Crocodylus porosus", classifiers.get("reptilia").get(0).get(TestFactory.SCIENTIFIC_NAME));
+        assertEquals("Denisonia devisi", classifiers.get("reptilia").get(1).get(TestFactory.SCIENTIFIC_NAME));
+        assertEquals(1, classifiers.get("ACTINOPTERYGII").size());
+        assertFalse(classifiers.containsKey("Reptilia"));
+        assertFalse(classifiers.containsKey("REPTILIA"));
+    }
+
+    @Test
+    public void testSearchDocValues1() throws Exception {
+        this.lucene = new LuceneUtils(LuceneClassifierSearcherTest.class, "lucene-searcher-1.csv", TestFactory.OBSERVABLES, TestFactory.SCIENTIFIC_NAME, false, true);
+        LuceneClassifierSearcherConfiguration config = LuceneClassifierSearcherConfiguration.builder().scoreCutoff(0.1f).docValues(true).build();
+        this.searcher = new LuceneClassifierSearcher(this.lucene.getIndexDir(), config, TestFactory.TAXON_ID);
+        TestClassification classification = new TestClassification();
+        classification.scientificName = "Lates calcarifer";
+        List<LuceneClassifier> classifiers = this.searcher.search(classification);
+        assertNotNull(classifiers);
+        assertEquals(1, classifiers.size());
+        LuceneClassifier c1 = classifiers.get(0);
+        assertTrue(c1 instanceof LuceneDocValuesClassifier);
+        assertEquals("Lates calcarifer", c1.get(TestFactory.SCIENTIFIC_NAME));
+        assertEquals("ACTINOPTERYGII", c1.get(TestFactory.CLASS_));
+        assertEquals("Barramundi", c1.get(TestFactory.VERNACULAR_NAME));
+        assertEquals(Integer.valueOf(7000), c1.get(TestFactory.RANK_ID));
+        assertEquals(DwcTerm.Taxon, c1.getType());
+        assertEquals(Collections.singletonList("Lates calcarifer"), c1.getNames());
+        assertNotNull(c1.getDocument().get(LuceneClassifier.ID_FIELD));
+    }
+
+    @Test
+    public void testSearchDocValues2() throws Exception {
+        this.lucene = new LuceneUtils(LuceneClassifierSearcherTest.class, "lucene-searcher-1.csv", TestFactory.OBSERVABLES, TestFactory.SCIENTIFIC_NAME);
+        LuceneClassifierSearcherConfiguration config = LuceneClassifierSearcherConfiguration.builder().scoreCutoff(0.1f).docValues(true).build();
+        this.searcher = new LuceneClassifierSearcher(this.lucene.getIndexDir(), config, TestFactory.TAXON_ID);
+        TestClassification classification = new TestClassification();
+        classification.scientificName = "Lates calcarifer";
+        List<LuceneClassifier> classifiers = this.searcher.search(classification);
+        assertNotNull(classifiers);
+        assertEquals(1, classifiers.size());
+        LuceneClassifier c1 = classifiers.get(0);
+        assertFalse(c1 instanceof LuceneDocValuesClassifier);
+        assertEquals("Lates calcarifer", c1.get(TestFactory.SCIENTIFIC_NAME));
+    }
+
     @Test
     public void testSearch2() throws Exception {
         this.lucene = new LuceneUtils(LuceneClassifierSearcherTest.class, "lucene-searcher-1.csv", TestFactory.OBSERVABLES, TestFactory.SCIENTIFIC_NAME);
@@ -4,6 +4,8 @@ import au.org.ala.bayesian.ClassifierSuggester;
 import au.org.ala.bayesian.TestClassification;
 import au.org.ala.bayesian.TestFactory;
 import au.org.ala.util.FileUtils;
+import au.org.ala.util.JsonUtils;
+import au.org.ala.util.Metadata;
 import org.apache.lucene.store.FSDirectory;
 import org.gbif.dwc.terms.DwcTerm;
 import org.junit.After;
@@ -11,7 +13,11 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.io.File;
+import java.util.Collections;
+import java.util.Date;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 
 import static org.junit.Assert.*;
 
@@ -134,4 +140,85 @@ public class LuceneClassifierSuggesterTest {
         assertEquals(2, suggestions.size());
     }
 
+    @Test
+    public void testLoad3() throws Exception {
+        this.suggester = new LuceneClassifierSuggester(FSDirectory.open(this.dir.toPath()), null, this.searcher, new TestFactory());
+        assertFalse(this.suggester.load());
+        this.suggester.close();
+        File store = new File(this.dir, LuceneClassifierSuggester.SUGGESTER_METADATA);
+        Metadata metadata = Metadata.read(store);
+        String generation = metadata.getProperties().get(LuceneClassifierSuggester.GENERATION_PROPERTY);
+        assertNotNull(generation);
+        metadata = metadata.withSources(metadata.getSources().stream().map(m -> m.withCreated(new Date(0))).collect(Collectors.toList()));
+        JsonUtils.createMapper().writeValue(store, metadata);
+        this.suggester = new LuceneClassifierSuggester(FSDirectory.open(this.dir.toPath()), null, this.searcher, new TestFactory());
+        assertFalse(this.suggester.load());
+        assertEquals(4, this.suggester.suggest("sphe", 10, true).size());
+        this.suggester.getRebuild().get();
+        assertEquals(4, this.suggester.suggest("sphe", 10, true).size());
+        String rebuilt = Metadata.read(store).getProperties().get(LuceneClassifierSuggester.GENERATION_PROPERTY);
+        assertNotEquals(generation, rebuilt);
+        assertFalse(new File(this.dir, generation).exists());
+        assertTrue(new File(this.dir, rebuilt).exists());
+    }
+
+    @Test
+    public void testRebuild1() throws Exception {
+        LuceneUtils vernacular = new LuceneUtils(LuceneClassifierSuggesterTest.class, "/sample-1/vernacularname.txt", TestFactory.OBSERVABLES, TestFactory.VERNACULAR_NAME, true);
+        LuceneClassifierSearcherConfiguration config = LuceneClassifierSearcherConfiguration.builder().scoreCutoff(0.1f).build();
+        LuceneClassifierSearcher vernacularSearcher = new LuceneClassifierSearcher(vernacular.getIndexDir(), config, TestFactory.TAXON_ID);
+        try {
+            this.suggester = new LuceneClassifierSuggester(FSDirectory.open(this.dir.toPath()), null, this.searcher, new TestFactory(), vernacularSearcher);
+            assertFalse(this.suggester.load());
+            this.suggester.rebuildAsync(Collections.singletonList(vernacularSearcher)).get();
+            List<ClassifierSuggester.Suggestion<LuceneClassifier>> suggestions = this.suggester.suggest("Mallow", 10, true);
+            assertEquals(5, suggestions.size());
+            suggestions = this.suggester.suggest("Oxym", 10, true);
+            assertEquals(2, suggestions.size());
+            this.suggester.close();
+            this.suggester = null;
+        } finally {
+            vernacularSearcher.close();
+            vernacular.close();
+        }
+    }
+
+    // Two suggesters sharing a directory rebuild one after the other and neither removes the generation the other is using
+    @Test
+    public void testRebuild2() throws Exception {
+        try (FSDirectory directory = FSDirectory.open(this.dir.toPath())) {
+            this.suggester = new LuceneClassifierSuggester(directory, null, this.searcher, new TestFactory());
+            assertFalse(this.suggester.load());
+            try (LuceneClassifierSuggester other = new LuceneClassifierSuggester(directory, null, this.searcher, new TestFactory())) {
+                assertTrue(other.load());
+                CompletableFuture<Void> r1 = this.suggester.rebuildAsync(Collections.singletonList(this.searcher));
+                CompletableFuture<Void> r2 = other.rebuildAsync(Collections.singletonList(this.searcher));
+                r1.get();
+                r2.get();
+                assertEquals(4, this.suggester.suggest("sphe", 10, true).size());
+                assertEquals(4, other.suggest("sphe", 10, true).size());
+            }
+            assertEquals(4, this.suggester.suggest("sphe", 10, true).size());
+        }
+    }
+
+    // Closing abandons a background rebuild without leaving a partial generation or closing the directory
+    @Test
+    public void testClose1() throws Exception {
+        try (FSDirectory directory = FSDirectory.open(this.dir.toPath())) {
+            this.suggester = new LuceneClassifierSuggester(directory, null, this.searcher, new TestFactory());
+            assertFalse(this.suggester.load());
+            CompletableFuture<Void> rebuild = this.suggester.rebuildAsync(Collections.singletonList(this.searcher));
+            this.suggester.close();
+            this.suggester = null;
+            assertTrue(rebuild.isDone());
+            File[] generations = this.dir.listFiles((d, n) -> n.startsWith(LuceneClassifierSuggester.GENERATION_PREFIX));
+            assertNotNull(generations);
+            String current = Metadata.read(new File(this.dir, LuceneClassifierSuggester.SUGGESTER_METADATA)).getProperties().get(LuceneClassifierSuggester.GENERATION_PROPERTY);
+            assertEquals(1, generations.length);
+            assertEquals(current, generations[0].getName());
+            assertTrue(directory.listAll().length > 0); // Still open
+        }
+    }
+
 }
@@ -11,9 +11,14 @@ import org.gbif.dwc.terms.DwcTerm;
 import org.junit.After;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.*;
 
@@ -279,6 +284,47 @@ public class LuceneClassifierTest {
         assertEquals(0.01, parameters2.inf_t_ff$wet, 0.001);
     }
 
+    @Test
+    public void testParametersLegacy1() throws Exception {
+        ParametersTest.GrassParameters parameters1 = new ParametersTest.GrassParameters();
+        double[] values = new double[] { 0.2, 0.01, 0.4, 0.99, 0.8, 0.9, 0.01 };
+        parameters1.load(values);
+        Document document = new Document();
+        document.add(new StoredField(LuceneClassifier.PARAMETERS_FIELD, parameters1.storeAsBytes()));
+        LuceneClassifier classifier = new LuceneClassifier(document);
+        ParametersTest.GrassParameters parameters2 = new ParametersTest.GrassParameters();
+        classifier.loadParameters(parameters2);
+        assertArrayEquals(values, parameters2.store(), 0.0);
+        assertSame(parameters2, classifier.getCachedParameters());
+    }
+
+    @Test
+    public void testGetParameters1() throws Exception {
+        ParametersTest.GrassParameters parameters1 = new ParametersTest.GrassParameters();
+        double[] values = new double[] { 0.2, 0.01, 0.4, 0.99, 0.8, 0.9, 0.01 };
+        parameters1.load(values);
+        Document document = new Document();
+        document.add(new StoredField(LuceneClassifier.PARAMETERS_FIELD, parameters1.storeAsCompactBytes()));
+        LuceneClassifier classifier = new LuceneClassifier(document);
+        AtomicInteger created = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<ParametersTest.GrassParameters>> futures = new ArrayList<>();
+            for (int i = 0; i < 32; i++)
+                futures.add(executor.submit(() -> classifier.getParameters(() -> {
+                    created.incrementAndGet();
+                    return new ParametersTest.GrassParameters();
+                })));
+            ParametersTest.GrassParameters parameters2 = futures.get(0).get();
+            assertArrayEquals(values, parameters2.store(), 0.0);
+            for (Future<ParametersTest.GrassParameters> future : futures)
+                assertSame(parameters2, future.get());
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(1, created.get());
+    }
+
     @Test
     public void testIndex1() throws Exception {
         LuceneClassifier classifier = new LuceneClassifier();
@@ -22,6 +22,7 @@ import org.apache.lucene.store.FSDirectory;
 import org.gbif.dwc.terms.DwcTerm;
 import org.gbif.dwc.terms.TermFactory;
 
+import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
 import java.io.Reader;
@@ -33,7 +34,7 @@ import java.util.stream.Collectors;
 /**
  * Wrap a collection of useful lucene bits and pieces
  */
-public class LuceneUtils {
+public class LuceneUtils implements Closeable {
     @Getter
     private Path indexDir;
     @Getter
@@ -44,6 +45,8 @@ public class LuceneUtils {
     private IndexSearcher searcher;
     @Getter
     private Map<String, Observable> observables;
+    /** Write doc value columns */
+    private boolean docValues;
 
     /**
      * Create a lucene utility connection for a resourced CSV file containing index terms
@@ -69,6 +72,22 @@ public class LuceneUtils {
      * @throws Exception if unable to load the resource
      */
     public LuceneUtils(Class clazz, String resource, Collection<Observable<?>> observables, Observable<String> namer, boolean ignoreDuplicates) throws Exception {
+        this(clazz, resource, observables, namer, ignoreDuplicates, false);
+    }
+
+    /**
+     * Create a lucene utility connection for a resourced CSV file containing index terms
+     *
+     * @param clazz The class to load from
+     * @param resource The resource to load (CSV file)
+     * @param observables The list of observables to convert from/to
+     * @param ignoreDuplicates Ignore duplicate identifiers
+     * @param docValues Write doc value columns as well as stored fields
+     *
+     * @throws Exception if unable to load the resource
+     */
+    public LuceneUtils(Class clazz, String resource, Collection<Observable<?>> observables, Observable<String> namer, boolean ignoreDuplicates, boolean docValues) throws Exception {
+        this.docValues = docValues;
         this.buildObservables(observables);
         this.buildIndexDir();
         this.openWriter();
@@ -176,7 +195,7 @@ public class LuceneUtils {
      * @throws Exception if unable to open the writer
      */
     private void openWriter() throws Exception {
-        QueryUtils queryUtils = new QueryUtils();
+        QueryUtils queryUtils = new QueryUtils(0);
         Directory directory = FSDirectory.open(this.indexDir);
         IndexWriterConfig config = new IndexWriterConfig(queryUtils.getAnalyzer());
         this.indexWriter = new IndexWriter(directory, config);
@@ -232,7 +251,7 @@ public class LuceneUtils {
                   }
             }
             classifier.setType(DwcTerm.Taxon);
-            this.indexWriter.addDocument(classifier.getDocument());
+            this.indexWriter.addDocument(this.docValues ? LuceneDocValuesClassifier.withDocValues(classifier.getDocument()) : classifier.getDocument());
         }
         this.indexWriter.commit();
     }
@@ -0,0 +1,73 @@
+package au.org.ala.names.lucene;
+
+import au.org.ala.bayesian.Observable;
+import au.org.ala.bayesian.analysis.StringAnalysis;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.util.QueryBuilder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class QueryUtilsTest {
+    private QueryUtils queryUtils;
+
+    @Before
+    public void setUp() throws Exception {
+        this.queryUtils = new QueryUtils();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        this.queryUtils.close();
+    }
+
+    @Test
+    public void testLowerCase1() {
+        String text = "acacia dealbata";
+        assertSame(text, QueryUtils.lowerCase(text));
+        assertEquals("acacia dealbata", QueryUtils.lowerCase("Acacia Dealbata"));
+        assertEquals("\u00e6r\u00f8e", QueryUtils.lowerCase("\u00c6R\u00d8E"));
+    }
+
+    @Test
+    public void testTextQuery1() {
+        QueryBuilder builder = new QueryBuilder(this.queryUtils.getAnalyzer());
+        for (String text: new String[] { "Acacia dealbata", "acacia", "\u00c6R\u00d8E", "Acacia  dealbata subsp. subalpina", " " }) {
+            Query expected = builder.createPhraseQuery("field", text);
+            Query actual = this.queryUtils.textQuery("field", text);
+            assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    public void testTextQuery2() {
+        Query query = this.queryUtils.textQuery("field", "Acacia Dealbata");
+        assertEquals(new TermQuery(new Term("field", "acacia dealbata")), query);
+    }
+
+    @Test
+    public void testAsQuery1() throws Exception {
+        StringAnalysis analysis = new StringAnalysis();
+        Query query1 = this.queryUtils.asQuery("field", Observable.Style.PHRASE, null, analysis, "Acacia dealbata");
+        Query query2 = this.queryUtils.asQuery("field", Observable.Style.PHRASE, null, analysis, "Acacia dealbata");
+        assertEquals(new TermQuery(new Term("field", "acacia dealbata")), query1);
+        assertSame(query1, query2);
+        Query query3 = this.queryUtils.asQuery("field", Observable.Style.CANONICAL, null, analysis, "Acacia dealbata");
+        assertEquals(new TermQuery(new Term("field", "Acacia dealbata")), query3);
+    }
+
+    @Test
+    public void testAsQuery2() throws Exception {
+        try (QueryUtils uncached = new QueryUtils(0)) {
+            StringAnalysis analysis = new StringAnalysis();
+            Query query1 = uncached.asQuery("field", Observable.Style.PHRASE, null, analysis, "Acacia dealbata");
+            Query query2 = uncached.asQuery("field", Observable.Style.PHRASE, null, analysis, "Acacia dealbata");
+            assertEquals(query1, query2);
+            assertNotSame(query1, query2);
+        }
+    }
+}